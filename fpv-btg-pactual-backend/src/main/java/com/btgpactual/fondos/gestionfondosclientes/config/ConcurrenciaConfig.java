@@ -0,0 +1,49 @@
+package com.btgpactual.fondos.gestionfondosclientes.config;
+
+import com.btgpactual.fondos.gestionfondosclientes.service.LimiteConcurrencia;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Límite adaptativo de concurrencia para la API del perfil servlet
+ * En el perfil reactive las solicitudes no ocupan un hilo mientras esperan a MongoDB
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "fondos.concurrencia.habilitado", havingValue = "true", matchIfMissing = true)
+public class ConcurrenciaConfig {
+
+    @Bean
+    public LimiteConcurrencia limiteConcurrencia(@Value("${fondos.concurrencia.inicial:20}") int inicial,
+                                                 @Value("${fondos.concurrencia.minimo:5}") int minimo,
+                                                 @Value("${fondos.concurrencia.maximo:200}") int maximo,
+                                                 @Value("${fondos.concurrencia.tolerancia:1.5}") double tolerancia,
+                                                 @Value("${fondos.concurrencia.suavizado:0.2}") double suavizado,
+                                                 @Value("${fondos.concurrencia.fraccion-lecturas:0.8}") double fraccionLecturas,
+                                                 @Value("${fondos.concurrencia.ventana-ms:1000}") long ventanaMs,
+                                                 MetricasFondos metricasFondos) {
+        LimiteConcurrencia limite = new LimiteConcurrencia(
+                inicial, minimo, maximo, tolerancia, suavizado, fraccionLecturas, ventanaMs);
+        metricasFondos.registrarConcurrencia(limite);
+        return limite;
+    }
+
+    @Bean
+    public FilterRegistrationBean<LimiteConcurrenciaFilter> limiteConcurrenciaFilter(LimiteConcurrencia limiteConcurrencia,
+                                                                                    MetricasFondos metricasFondos,
+                                                                                    ObjectMapper objectMapper) {
+        FilterRegistrationBean<LimiteConcurrenciaFilter> registro = new FilterRegistrationBean<>(
+                new LimiteConcurrenciaFilter(limiteConcurrencia, metricasFondos, objectMapper));
+        registro.addUrlPatterns("/api/*");
+        // Después del filtro de métricas de Spring Boot, así los descartes aparecen en http.server.requests
+        registro.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+        return registro;
+    }
+}
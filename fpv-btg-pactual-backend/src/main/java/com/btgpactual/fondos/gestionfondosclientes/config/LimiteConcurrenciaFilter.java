@@ -0,0 +1,113 @@
+package com.btgpactual.fondos.gestionfondosclientes.config;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.service.LimiteConcurrencia;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica el límite adaptativo de concurrencia a la API antes de ocupar un hilo en el controlador
+ * Las solicitudes GET son lecturas (historial, resumen, fondos, estadísticas) y se descartan primero;
+ * el resto son escrituras. Una solicitud descartada recibe 503 con Retry-After sin tocar MongoDB
+ */
+@RequiredArgsConstructor
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    static final String PRIORIDAD_LECTURA = "lectura";
+    static final String PRIORIDAD_ESCRITURA = "escritura";
+
+    private final LimiteConcurrencia limiteConcurrencia;
+    private final MetricasFondos metricasFondos;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean lectura = HttpMethod.GET.matches(request.getMethod());
+        if (!limiteConcurrencia.adquirir(lectura)) {
+            metricasFondos.registrarDescarte(lectura ? PRIORIDAD_LECTURA : PRIORIDAD_ESCRITURA);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(Constants.MSG_SOBRECARGA));
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean asincrona = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // La exportación sigue escribiendo después de volver: el cupo se libera cuando termina
+                request.getAsyncContext().addListener(new LiberacionAsincrona(inicio));
+                asincrona = true;
+            }
+        } finally {
+            if (!asincrona) {
+                limiteConcurrencia.liberar(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    /**
+     * Libera el cupo de una respuesta asíncrona una sola vez, aunque se notifiquen error y fin
+     * Solo las que terminan bien aportan su latencia al ajuste del límite
+     */
+    private final class LiberacionAsincrona implements AsyncListener {
+
+        private final long inicio;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private LiberacionAsincrona(long inicio) {
+            this.inicio = inicio;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar(System.nanoTime() - inicio);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar(-1L);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar(-1L);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // El despacho asíncrono no vuelve a pasar por el filtro; hay que seguir escuchando el nuevo ciclo
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void liberar(long latenciaNs) {
+            if (liberada.compareAndSet(false, true)) {
+                limiteConcurrencia.liberar(latenciaNs);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+}
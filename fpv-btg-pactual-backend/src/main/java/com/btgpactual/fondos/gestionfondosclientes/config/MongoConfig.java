@@ -0,0 +1,61 @@
+package com.btgpactual.fondos.gestionfondosclientes.config;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Conversiones de Mongo para los montos
+ * Monto se guarda como Decimal128, así las comparaciones y los $inc en el servidor son exactos
+ * Los montos numéricos guardados antes de este modelo (double) se leen redondeados a centavos
+ * hasta que MigracionMontosService los convierte
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(Arrays.asList(
+                MontoADecimal128.INSTANCIA,
+                Decimal128AMonto.INSTANCIA,
+                NumeroAMonto.INSTANCIA));
+    }
+
+    @WritingConverter
+    enum MontoADecimal128 implements Converter<Monto, Decimal128> {
+        INSTANCIA;
+
+        @Override
+        public Decimal128 convert(Monto monto) {
+            return new Decimal128(monto.toBigDecimal());
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128AMonto implements Converter<Decimal128, Monto> {
+        INSTANCIA;
+
+        @Override
+        public Monto convert(Decimal128 valor) {
+            return Monto.redondeado(valor.bigDecimalValue());
+        }
+    }
+
+    @ReadingConverter
+    enum NumeroAMonto implements Converter<Number, Monto> {
+        INSTANCIA;
+
+        @Override
+        public Monto convert(Number valor) {
+            return Monto.redondeado(new BigDecimal(valor.toString()));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.btgpactual.fondos.gestionfondosclientes.config;
+
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.mongodb.ReadPreference;
+import com.mongodb.TagSet;
+import com.mongodb.WriteConcern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plantillas de MongoDB por tipo de operación, sobre el mismo cliente y pool de conexiones
+ * - mongoTemplate (principal): lee del primario y resuelve el write concern por colección con PoliticaEscrituraMongo
+ * - mongoTemplateAgregados: igual, pero sus escrituras en lote (estadísticas y actividad) usan el write concern ligero
+ * - mongoTemplateLecturas: lee de secundarios con un retraso máximo, para consultas que toleran datos algo antiguos
+ *   (catálogo de fondos, historial y exportación)
+ * También fija el tamaño del pool y la espera máxima por una conexión
+ */
+@Configuration
+public class MongoRutasConfig {
+
+    public static final String PLANTILLA_LECTURAS = "mongoTemplateLecturas";
+    public static final String PLANTILLA_AGREGADOS = "mongoTemplateAgregados";
+
+    @Bean
+    public PoliticaEscrituraMongo politicaEscrituraMongo(
+            @Value("${fondos.mongo.escritura.critica:majority}") String critica,
+            @Value("${fondos.mongo.escritura.critica-timeout-ms:5000}") long criticaTimeoutMs,
+            @Value("${fondos.mongo.escritura.ligera:w1}") String ligera,
+            @Value("${fondos.mongo.escritura.colecciones-ligeras:transacciones,actividad_fondos,estadisticas_fondos}")
+            String[] coleccionesLigeras) {
+        return new PoliticaEscrituraMongo(
+                writeConcern(critica).withWTimeout(criticaTimeoutMs, TimeUnit.MILLISECONDS),
+                writeConcern(ligera),
+                new HashSet<>(Arrays.asList(coleccionesLigeras)));
+    }
+
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                       PoliticaEscrituraMongo politica) {
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        mongoTemplate.setWriteConcernResolver(politica);
+        // Las escrituras en lote no pasan por el resolver: toman el write concern de la plantilla
+        mongoTemplate.setWriteConcern(politica.getCritica());
+        return mongoTemplate;
+    }
+
+    @Bean(PLANTILLA_AGREGADOS)
+    public MongoTemplate mongoTemplateAgregados(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                                PoliticaEscrituraMongo politica) {
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        mongoTemplate.setWriteConcernResolver(politica);
+        mongoTemplate.setWriteConcern(politica.getLigera());
+        return mongoTemplate;
+    }
+
+    @Bean(PLANTILLA_LECTURAS)
+    public MongoTemplate mongoTemplateLecturas(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                               @Value("${fondos.mongo.lectura.preferencia:secondaryPreferred}") String preferencia,
+                                               @Value("${fondos.mongo.lectura.retraso-maximo-s:90}") long retrasoMaximoS) {
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        mongoTemplate.setReadPreference(readPreference(preferencia, retrasoMaximoS));
+        return mongoTemplate;
+    }
+
+    /**
+     * Tamaño del pool y espera por una conexión; una espera agotada falla en lugar de encolar sin límite
+     * La ocupación y la cola de espera se publican en mongodb.driver.pool.* (Spring Boot) y el tamaño
+     * configurado en fondos.mongo.pool.*, para calcular la saturación del pool
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer poolMongoCustomizer(
+            @Value("${fondos.mongo.pool.tamano-maximo:100}") int tamanoMaximo,
+            @Value("${fondos.mongo.pool.tamano-minimo:0}") int tamanoMinimo,
+            @Value("${fondos.mongo.pool.espera-maxima-ms:2000}") long esperaMaximaMs,
+            @Value("${fondos.mongo.pool.inactividad-maxima-ms:0}") long inactividadMaximaMs,
+            MetricasFondos metricasFondos) {
+        metricasFondos.registrarPoolMongo(tamanoMaximo, tamanoMinimo);
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(tamanoMaximo)
+                .minSize(tamanoMinimo)
+                .maxWaitTime(esperaMaximaMs, TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(inactividadMaximaMs, TimeUnit.MILLISECONDS));
+    }
+
+    static WriteConcern writeConcern(String nombre) {
+        WriteConcern writeConcern = WriteConcern.valueOf(nombre);
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Write concern no reconocido: " + nombre);
+        }
+        return writeConcern;
+    }
+
+    /**
+     * El retraso máximo solo aplica a preferencias distintas de primary; MongoDB exige al menos 90 segundos
+     */
+    static ReadPreference readPreference(String nombre, long retrasoMaximoS) {
+        if ("primary".equalsIgnoreCase(nombre) || retrasoMaximoS <= 0) {
+            return ReadPreference.valueOf(nombre);
+        }
+        return ReadPreference.valueOf(nombre, Collections.<TagSet>emptyList(), retrasoMaximoS, TimeUnit.SECONDS);
+    }
+}
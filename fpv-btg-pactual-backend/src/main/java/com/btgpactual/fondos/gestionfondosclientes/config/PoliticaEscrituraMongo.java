@@ -0,0 +1,38 @@
+package com.btgpactual.fondos.gestionfondosclientes.config;
+
+import com.mongodb.WriteConcern;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+
+import java.util.Set;
+
+/**
+ * Write concern de cada escritura según su colección
+ * Las que cambian saldos y suscripciones esperan a la mayoría del replica set; el registro de transacciones
+ * y los acumulados de estadísticas y actividad, que se pueden reconstruir, usan uno más ligero
+ */
+public class PoliticaEscrituraMongo implements WriteConcernResolver {
+
+    private final WriteConcern critica;
+    private final WriteConcern ligera;
+    private final Set<String> coleccionesLigeras;
+
+    public PoliticaEscrituraMongo(WriteConcern critica, WriteConcern ligera, Set<String> coleccionesLigeras) {
+        this.critica = critica;
+        this.ligera = ligera;
+        this.coleccionesLigeras = Set.copyOf(coleccionesLigeras);
+    }
+
+    @Override
+    public WriteConcern resolve(MongoAction action) {
+        return coleccionesLigeras.contains(action.getCollectionName()) ? ligera : critica;
+    }
+
+    public WriteConcern getCritica() {
+        return critica;
+    }
+
+    public WriteConcern getLigera() {
+        return ligera;
+    }
+}
@@ -0,0 +1,50 @@
+package com.btgpactual.fondos.gestionfondosclientes.controller;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.service.FondoEventosService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consultas de auditoría sobre el libro de eventos; solo existe con el perfil "eventos"
+ */
+@RestController
+@Profile("eventos")
+@RequestMapping("/api/btg/fondos")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200")
+@Tag(name = "Auditoría de Eventos", description = "API para reconstruir el estado de una cuenta a partir de sus eventos")
+public class EventosController {
+
+    private final FondoEventosService fondoEventosService;
+
+    /**
+     * Reconstruye el estado de la cuenta en un momento dado aplicando sus eventos desde la apertura
+     * @param idCliente ID del cliente
+     * @param momento Momento de la auditoría (yyyy-MM-ddTHH:mm:ss); por defecto, ahora
+     * @return Saldo y fondos activos del cliente en ese momento, o 404 si aún no tenía eventos
+     */
+    @GetMapping("/clientes/{idCliente}/estado")
+    @Operation(summary = "Estado en un momento", description = "Reconstruye el saldo y los fondos activos del cliente en un momento dado a partir de sus eventos")
+    public ResponseEntity<ApiResponse<Cliente>> obtenerEstado(
+            @PathVariable String idCliente,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime momento) {
+
+        LocalDateTime consultado = momento != null ? momento : LocalDateTime.now();
+        return fondoEventosService.reconstruirEstado(idCliente, consultado)
+            .map(estado -> ResponseEntity.ok(ApiResponse.success("Estado reconstruido exitosamente", estado)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error("El cliente " + idCliente + " no tenía eventos en " + consultado)));
+    }
+}
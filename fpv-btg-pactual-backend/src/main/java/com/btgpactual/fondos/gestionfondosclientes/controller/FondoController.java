@@ -2,23 +2,53 @@ package com.btgpactual.fondos.gestionfondosclientes.controller;
 
 import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
 import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.EstadisticasFondo;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteRequest;
 import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
 import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
-import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
 import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.service.CatalogoFondos;
+import com.btgpactual.fondos.gestionfondosclientes.service.EstadisticasFondosService;
+import com.btgpactual.fondos.gestionfondosclientes.service.ExportacionHistorialService;
 import com.btgpactual.fondos.gestionfondosclientes.service.FondoService;
+import com.btgpactual.fondos.gestionfondosclientes.service.FormatoExportacion;
+import com.btgpactual.fondos.gestionfondosclientes.service.IdempotenciaService;
+import com.btgpactual.fondos.gestionfondosclientes.service.LimitadorSolicitudes;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/btg/fondos")
 @RequiredArgsConstructor
 @Slf4j
@@ -27,55 +57,116 @@ import java.util.List;
 public class FondoController {
     
     private final FondoService fondoService;
+    private final ExportacionHistorialService exportacionHistorialService;
+    private final IdempotenciaService idempotenciaService;
+    private final EstadisticasFondosService estadisticasFondosService;
+    private final LimitadorSolicitudes limitadorSolicitudes;
     
     /**
      * Suscribe al cliente a un fondo de inversión
+     * Los rechazos de negocio responden 400 o 404; los conflictos de concurrencia y los fallos de MongoDB
+     * llegan a GlobalExceptionHandler (409 y 500), que el cliente puede reintentar
+     * @param idCliente ID del cliente
      * @param request Datos de la suscripción (fondo, monto, notificación)
-     * @return Cliente actualizado con la nueva suscripción
+     * @param claveIdempotencia Idempotency-Key opcional; los reintentos con la misma clave reciben la primera respuesta
+     * @return Cliente actualizado con la nueva suscripción, o 429 con Retry-After si el cliente supera su límite
      */
-    @PostMapping("/suscribirse")
+    @PostMapping("/clientes/{idCliente}/suscribirse")
     @Operation(summary = "Suscribirse a un fondo", description = "Permite al cliente suscribirse a un fondo ")
-    public ResponseEntity<ApiResponse<Cliente>> suscribirseAFondo(@Valid @RequestBody SuscripcionRequest request) {
+    public ResponseEntity<?> suscribirseAFondo(@PathVariable String idCliente,
+                                               @Valid @RequestBody SuscripcionRequest request,
+                                               @RequestHeader(value = Constants.HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
 
-        try {
-            Cliente cliente = fondoService.suscribirseAFondo(request);
-            return ResponseEntity.ok(ApiResponse.success("Suscripción exitosa", cliente));
-        } catch (Exception e) {
-            log.error("Error en suscripción: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                .body(ApiResponse.error(e.getMessage()));
-        }
+        return idempotenciaService.ejecutar(claveIdempotencia, "suscripcion:" + idCliente, request, () -> {
+            long espera = limitadorSolicitudes.reservar(MetricasFondos.OPERACION_SUSCRIPCION, idCliente);
+            if (espera > 0) {
+                return demasiadasSolicitudes(espera);
+            }
+            try {
+                Cliente cliente = fondoService.suscribirseAFondo(idCliente, request);
+                return ResponseEntity.ok(ApiResponse.success("Suscripción exitosa", cliente));
+            } catch (FondoNotFoundException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+            } catch (IllegalArgumentException | InsufficientFundsException e) {
+                log.error("Error en suscripción: {}", e.getMessage());
+                return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+            }
+        });
+    }
+    
+    /**
+     * Aplica un lote de suscripciones de uno o varios clientes
+     * El lote se procesa aunque algunas suscripciones fallen; cada una informa su resultado
+     * @param request Suscripciones del lote con el ID del cliente de cada una
+     * @param claveIdempotencia Idempotency-Key opcional; los reintentos con la misma clave reciben la primera respuesta
+     * @return Resultado de cada suscripción, en el mismo orden del lote, o 429 si algún cliente supera su límite
+     */
+    @PostMapping("/suscripciones/lote")
+    @Operation(summary = "Suscripciones en lote", description = "Aplica varias suscripciones, de uno o varios clientes, en una sola petición")
+    public ResponseEntity<?> suscribirEnLote(
+            @Valid @RequestBody SuscripcionLoteRequest request,
+            @RequestHeader(value = Constants.HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+
+        return idempotenciaService.ejecutar(claveIdempotencia, "lote", request, () -> {
+            long espera = limitadorSolicitudes.reservar(MetricasFondos.OPERACION_SUSCRIPCION, clientes(request));
+            if (espera > 0) {
+                return demasiadasSolicitudes(espera);
+            }
+            try {
+                List<ResultadoSuscripcionLote> resultados = fondoService.suscribirEnLote(request.getSuscripciones());
+                long exitosas = resultados.stream().filter(ResultadoSuscripcionLote::isExitosa).count();
+                return ResponseEntity.ok(ApiResponse.success(String.format(
+                    "Lote procesado: %d exitosas, %d fallidas", exitosas, resultados.size() - exitosas), resultados));
+            } catch (Exception e) {
+                log.error("Error en suscripción en lote: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al procesar el lote de suscripciones"));
+            }
+        });
     }
     
     /**
      * Cancela la suscripción del cliente a un fondo
+     * @param idCliente ID del cliente
      * @param request ID del fondo a cancelar
-     * @return Cliente actualizado sin la suscripción cancelada
+     * @param claveIdempotencia Idempotency-Key opcional; los reintentos con la misma clave reciben la primera respuesta
+     * @return Cliente actualizado sin la suscripción cancelada, o 429 con Retry-After si el cliente supera su límite
      */
-    @PostMapping("/cancelar")
+    @PostMapping("/clientes/{idCliente}/cancelar")
     @Operation(summary = "Cancelar suscripción", description = "Permite al cliente cancelar su suscripción a un fondo")
-    public ResponseEntity<ApiResponse<Cliente>> cancelarSuscripcion(@Valid @RequestBody CancelacionRequest request) {
+    public ResponseEntity<?> cancelarSuscripcion(@PathVariable String idCliente,
+                                                 @Valid @RequestBody CancelacionRequest request,
+                                                 @RequestHeader(value = Constants.HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
 
-        try {
-            Cliente cliente = fondoService.cancelarSuscripcion(request);
-            return ResponseEntity.ok(ApiResponse.success("Cancelación exitosa", cliente));
-        } catch (Exception e) {
-            log.error("Error en cancelación: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                .body(ApiResponse.error(e.getMessage()));
-        }
+        return idempotenciaService.ejecutar(claveIdempotencia, "cancelacion:" + idCliente, request, () -> {
+            long espera = limitadorSolicitudes.reservar(MetricasFondos.OPERACION_CANCELACION, idCliente);
+            if (espera > 0) {
+                return demasiadasSolicitudes(espera);
+            }
+            try {
+                Cliente cliente = fondoService.cancelarSuscripcion(idCliente, request);
+                return ResponseEntity.ok(ApiResponse.success("Cancelación exitosa", cliente));
+            } catch (FondoNotFoundException | SuscripcionNotFoundException | ClienteNotFoundException e) {
+                log.error("Error en cancelación: {}", e.getMessage());
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
     
     /**
      * Obtiene el historial de transacciones del cliente
+     * @param idCliente ID del cliente
      * @return Lista de todas las transacciones (suscripciones y cancelaciones)
      */
-    @GetMapping("/historial")
+    @GetMapping("/clientes/{idCliente}/historial")
     @Operation(summary = "Obtener historial", description = "Obtiene el historial de transacciones del cliente")
-    public ResponseEntity<ApiResponse<List<Transaccion>>> obtenerHistorial() {
+    public ResponseEntity<ApiResponse<List<Transaccion>>> obtenerHistorial(@PathVariable String idCliente) {
 
         try {
-            List<Transaccion> historial = fondoService.obtenerHistorialTransacciones();
+            List<Transaccion> historial = fondoService.obtenerHistorialTransacciones(idCliente);
             return ResponseEntity.ok(ApiResponse.success("Historial obtenido exitosamente", historial));
         } catch (Exception e) {
             log.error("Error al obtener historial: {}", e.getMessage());
@@ -84,21 +175,197 @@ public class FondoController {
         }
     }
     
+    /**
+     * Exporta el historial de transacciones del cliente para los extractos
+     * Las filas se escriben a medida que se leen del cursor de MongoDB, sin cargar el historial en memoria;
+     * si el cliente acepta gzip la respuesta se comprime al vuelo
+     * @param idCliente ID del cliente
+     * @param formato ndjson (por defecto) o csv
+     * @param desde Día inicial incluido (yyyy-MM-dd), opcional
+     * @param hasta Día final incluido (yyyy-MM-dd), opcional
+     * @param aceptaCodificacion Cabecera Accept-Encoding
+     * @return Historial en el formato pedido como archivo adjunto; un formato o rango inválido
+     *         llega a {@link com.btgpactual.fondos.gestionfondosclientes.exception.GlobalExceptionHandler} como 400
+     */
+    @GetMapping("/clientes/{idCliente}/historial/exportar")
+    @Operation(summary = "Exportar historial", description = "Exporta el historial de transacciones del cliente en NDJSON o CSV, opcionalmente por rango de fechas")
+    public ResponseEntity<StreamingResponseBody> exportarHistorial(
+            @PathVariable String idCliente,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+
+        // StreamingResponseBody solo se escribe en asíncrono si el tipo de retorno lo declara,
+        // por eso los errores de validación se lanzan en lugar de devolverse como cuerpo
+        FormatoExportacion formatoExportacion = FormatoExportacion.de(formato);
+        exportacionHistorialService.validarRango(desde, hasta);
+
+        boolean gzip = aceptaCodificacion != null && aceptaCodificacion.toLowerCase().contains("gzip");
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                GZIPOutputStream comprimida = new GZIPOutputStream(salida, 8192);
+                exportacionHistorialService.exportar(idCliente, formatoExportacion, desde, hasta, comprimida);
+                comprimida.finish();
+            } else {
+                exportacionHistorialService.exportar(idCliente, formatoExportacion, desde, hasta, salida);
+            }
+        };
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(formatoExportacion.getTipoContenido()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("historial-" + idCliente + "." + formatoExportacion.getExtension())
+                .build().toString())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+    
+    /**
+     * Obtiene el saldo, los fondos activos y las últimas transacciones del cliente
+     * Pensado para consultas frecuentes: no lee el historial completo
+     * @param idCliente ID del cliente
+     * @param ultimas Número de transacciones recientes (0 a 100, por defecto 10)
+     * @return Resumen del cliente
+     */
+    @GetMapping("/clientes/{idCliente}/resumen")
+    @Operation(summary = "Obtener resumen", description = "Obtiene el saldo, los fondos activos y las últimas transacciones del cliente")
+    public ResponseEntity<ApiResponse<ResumenCliente>> obtenerResumen(
+            @PathVariable String idCliente,
+            @RequestParam(defaultValue = "" + Constants.ULTIMAS_TRANSACCIONES_POR_DEFECTO) int ultimas) {
+
+        try {
+            ResumenCliente resumen = fondoService.obtenerResumen(idCliente, ultimas);
+            return ResponseEntity.ok(ApiResponse.success("Resumen obtenido exitosamente", resumen));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al obtener resumen: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Error al obtener el resumen"));
+        }
+    }
+    
+    /**
+     * Obtiene el monto administrado y los suscriptores activos de cada fondo
+     * Se leen de contadores mantenidos en cada suscripción y cancelación, sin recorrer los clientes
+     * @return Estadísticas de todos los fondos del catálogo
+     */
+    @GetMapping("/estadisticas")
+    @Operation(summary = "Estadísticas de los fondos", description = "Obtiene el monto administrado y el número de suscriptores de cada fondo")
+    public ResponseEntity<ApiResponse<List<EstadisticasFondo>>> obtenerEstadisticas() {
+        try {
+            List<EstadisticasFondo> estadisticas = estadisticasFondosService.obtenerEstadisticas();
+            return ResponseEntity.ok(ApiResponse.success("Estadísticas obtenidas exitosamente", estadisticas));
+        } catch (Exception e) {
+            log.error("Error al obtener estadísticas: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Error al obtener las estadísticas"));
+        }
+    }
+    
+    /**
+     * Obtiene el monto administrado y los suscriptores activos de un fondo
+     * @param idFondo ID del fondo
+     * @return Estadísticas del fondo
+     */
+    @GetMapping("/{idFondo}/estadisticas")
+    @Operation(summary = "Estadísticas de un fondo", description = "Obtiene el monto administrado y el número de suscriptores de un fondo")
+    public ResponseEntity<ApiResponse<EstadisticasFondo>> obtenerEstadisticas(@PathVariable String idFondo) {
+        try {
+            EstadisticasFondo estadisticas = estadisticasFondosService.obtenerEstadisticas(idFondo);
+            return ResponseEntity.ok(ApiResponse.success("Estadísticas obtenidas exitosamente", estadisticas));
+        } catch (FondoNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al obtener estadísticas: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Error al obtener las estadísticas"));
+        }
+    }
+    
+    /**
+     * Obtiene la actividad de un fondo por intervalos de minuto, hora o día
+     * @param idFondo ID del fondo
+     * @param granularidad minuto, hora o dia
+     * @param desde Inicio del rango
+     * @param hasta Fin del rango (exclusivo)
+     * @return Operaciones y monto por tipo de transacción en cada intervalo con actividad
+     */
+    @GetMapping("/{idFondo}/actividad")
+    @Operation(summary = "Actividad de un fondo", description = "Obtiene las suscripciones y cancelaciones de un fondo agrupadas por minuto, hora o día")
+    public ResponseEntity<ApiResponse<List<ActividadFondo>>> obtenerActividad(
+            @PathVariable String idFondo,
+            @RequestParam(defaultValue = "hora") String granularidad,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        try {
+            List<ActividadFondo> actividad = estadisticasFondosService.obtenerActividad(idFondo, granularidad, desde, hasta);
+            return ResponseEntity.ok(ApiResponse.success("Actividad obtenida exitosamente", actividad));
+        } catch (FondoNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al obtener actividad: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Error al obtener la actividad"));
+        }
+    }
+    
     /**
      * Obtiene todos los fondos disponibles
+     * Responde con la respuesta ya serializada del catálogo en memoria y su ETag;
+     * si el cliente envía If-None-Match con el mismo ETag se responde 304 sin cuerpo
+     * Si Accept prefiere CBOR o Smile se serializa en ese formato, con un ETag propio
+     * @param accept Cabecera Accept
      * @return Lista de todos los fondos de inversión
      */
     @GetMapping("")
     @Operation(summary = "Obtener fondos disponibles", description = "Obtiene la lista de todos los fondos de inversión disponibles")
-    public ResponseEntity<ApiResponse<List<Fondo>>> obtenerFondos() {
+    public ResponseEntity<?> obtenerFondos(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<Fondo> fondos = fondoService.obtenerFondos();
-            return ResponseEntity.ok(ApiResponse.success("Fondos obtenidos exitosamente", fondos));
+            CatalogoFondos catalogo = fondoService.obtenerCatalogo();
+            Optional<MediaType> binario = FormatosBinarios.preferido(accept);
+            if (binario.isPresent()) {
+                return ResponseEntity.ok()
+                    .eTag(FormatosBinarios.etag(catalogo.getEtag(), binario.get()))
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(binario.get())
+                    .body(catalogo.respuesta());
+            }
+            return ResponseEntity.ok()
+                .eTag(catalogo.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogo.getJson());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Error al obtener los fondos"));
         }
     }
-    
-    
+
+    /**
+     * Respuesta 429 con Retry-After en segundos enteros, redondeados hacia arriba
+     */
+    private static <T> ResponseEntity<ApiResponse<T>> demasiadasSolicitudes(long esperaMs) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((esperaMs + 999) / 1000))
+            .body(ApiResponse.error(Constants.MSG_LIMITE_SOLICITUDES));
+    }
+
+    private static List<String> clientes(SuscripcionLoteRequest request) {
+        return request.getSuscripciones().stream()
+            .map(SuscripcionLoteItem::getIdCliente)
+            .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,309 @@
+package com.btgpactual.fondos.gestionfondosclientes.controller;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.EstadisticasFondo;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.service.FondoReactivoService;
+import com.btgpactual.fondos.gestionfondosclientes.service.IdempotenciaService;
+import com.btgpactual.fondos.gestionfondosclientes.service.LimitadorSolicitudes;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Versión no bloqueante de {@link FondoController} para el perfil "reactive"
+ * Expone los mismos endpoints, validaciones y respuestas sobre WebFlux
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/btg/fondos")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200")
+@Tag(name = "Gestión de Fondos", description = "API para gestión de fondos de inversión")
+public class FondoReactivoController {
+
+    private final FondoReactivoService fondoService;
+    private final LimitadorSolicitudes limitadorSolicitudes;
+    private final IdempotenciaService idempotenciaService;
+
+    /**
+     * Suscribe al cliente a un fondo de inversión
+     * Como en {@link FondoController}, los conflictos de concurrencia y los fallos de MongoDB llegan a GlobalExceptionHandler
+     * @param idCliente ID del cliente
+     * @param request Datos de la suscripción (fondo, monto, notificación)
+     * @param claveIdempotencia Idempotency-Key opcional; los reintentos con la misma clave reciben la primera respuesta
+     * @return Cliente actualizado con la nueva suscripción, o 429 con Retry-After si el cliente supera su límite
+     */
+    @PostMapping("/clientes/{idCliente}/suscribirse")
+    @Operation(summary = "Suscribirse a un fondo", description = "Permite al cliente suscribirse a un fondo ")
+    public Mono<ResponseEntity<?>> suscribirseAFondo(@PathVariable String idCliente,
+                                                     @Valid @RequestBody SuscripcionRequest request,
+                                                     @RequestHeader(value = Constants.HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+        return idempotente(claveIdempotencia, "suscripcion:" + idCliente, request,
+            limitado(() -> limitadorSolicitudes.reservar(MetricasFondos.OPERACION_SUSCRIPCION, idCliente),
+            () -> fondoService.suscribirseAFondo(idCliente, request)
+            .map(cliente -> ResponseEntity.ok(ApiResponse.success("Suscripción exitosa", cliente)))
+            .onErrorResume(FondoNotFoundException.class,
+                e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()))))
+            .onErrorResume(e -> e instanceof IllegalArgumentException || e instanceof InsufficientFundsException, e -> {
+                log.error("Error en suscripción: {}", e.getMessage());
+                return Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage())));
+            })));
+    }
+
+    /**
+     * Aplica un lote de suscripciones de uno o varios clientes
+     * @param request Suscripciones del lote con el ID del cliente de cada una
+     * @param claveIdempotencia Idempotency-Key opcional; los reintentos con la misma clave reciben la primera respuesta
+     * @return Resultado de cada suscripción, en el mismo orden del lote, o 429 si algún cliente supera su límite
+     */
+    @PostMapping("/suscripciones/lote")
+    @Operation(summary = "Suscripciones en lote", description = "Aplica varias suscripciones, de uno o varios clientes, en una sola petición")
+    public Mono<ResponseEntity<?>> suscribirEnLote(
+            @Valid @RequestBody SuscripcionLoteRequest request,
+            @RequestHeader(value = Constants.HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+        return idempotente(claveIdempotencia, "lote", request,
+            limitado(() -> limitadorSolicitudes.reservar(MetricasFondos.OPERACION_SUSCRIPCION, clientes(request)),
+            () -> fondoService.suscribirEnLote(request.getSuscripciones())
+            .map(resultados -> {
+                long exitosas = resultados.stream().filter(ResultadoSuscripcionLote::isExitosa).count();
+                return ResponseEntity.ok(ApiResponse.success(String.format(
+                    "Lote procesado: %d exitosas, %d fallidas", exitosas, resultados.size() - exitosas), resultados));
+            })
+            .onErrorResume(e -> {
+                log.error("Error en suscripción en lote: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al procesar el lote de suscripciones")));
+            })));
+    }
+
+    /**
+     * Cancela la suscripción del cliente a un fondo
+     * @param idCliente ID del cliente
+     * @param request ID del fondo a cancelar
+     * @param claveIdempotencia Idempotency-Key opcional; los reintentos con la misma clave reciben la primera respuesta
+     * @return Cliente actualizado sin la suscripción cancelada, o 429 con Retry-After si el cliente supera su límite
+     */
+    @PostMapping("/clientes/{idCliente}/cancelar")
+    @Operation(summary = "Cancelar suscripción", description = "Permite al cliente cancelar su suscripción a un fondo")
+    public Mono<ResponseEntity<?>> cancelarSuscripcion(@PathVariable String idCliente,
+                                                       @Valid @RequestBody CancelacionRequest request,
+                                                       @RequestHeader(value = Constants.HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+        return idempotente(claveIdempotencia, "cancelacion:" + idCliente, request,
+            limitado(() -> limitadorSolicitudes.reservar(MetricasFondos.OPERACION_CANCELACION, idCliente),
+            () -> fondoService.cancelarSuscripcion(idCliente, request)
+            .map(cliente -> ResponseEntity.ok(ApiResponse.success("Cancelación exitosa", cliente)))
+            .onErrorResume(e -> e instanceof FondoNotFoundException || e instanceof SuscripcionNotFoundException
+                    || e instanceof ClienteNotFoundException, e -> {
+                log.error("Error en cancelación: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage())));
+            })));
+    }
+
+    /**
+     * Obtiene el historial de transacciones del cliente
+     * @param idCliente ID del cliente
+     * @return Lista de todas las transacciones (suscripciones y cancelaciones)
+     */
+    @GetMapping("/clientes/{idCliente}/historial")
+    @Operation(summary = "Obtener historial", description = "Obtiene el historial de transacciones del cliente")
+    public Mono<ResponseEntity<ApiResponse<List<Transaccion>>>> obtenerHistorial(@PathVariable String idCliente) {
+        return fondoService.obtenerHistorialTransacciones(idCliente)
+            .map(historial -> ResponseEntity.ok(ApiResponse.success("Historial obtenido exitosamente", historial)))
+            .onErrorResume(e -> {
+                log.error("Error al obtener historial: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener el historial")));
+            });
+    }
+
+    /**
+     * Obtiene el saldo, los fondos activos y las últimas transacciones del cliente
+     * @param idCliente ID del cliente
+     * @param ultimas Número de transacciones recientes (0 a 100, por defecto 10)
+     * @return Resumen del cliente
+     */
+    @GetMapping("/clientes/{idCliente}/resumen")
+    @Operation(summary = "Obtener resumen", description = "Obtiene el saldo, los fondos activos y las últimas transacciones del cliente")
+    public Mono<ResponseEntity<ApiResponse<ResumenCliente>>> obtenerResumen(
+            @PathVariable String idCliente,
+            @RequestParam(defaultValue = "" + Constants.ULTIMAS_TRANSACCIONES_POR_DEFECTO) int ultimas) {
+        return fondoService.obtenerResumen(idCliente, ultimas)
+            .map(resumen -> ResponseEntity.ok(ApiResponse.success("Resumen obtenido exitosamente", resumen)))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()))))
+            .onErrorResume(e -> {
+                log.error("Error al obtener resumen: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener el resumen")));
+            });
+    }
+
+    /**
+     * Obtiene el monto administrado y los suscriptores activos de cada fondo
+     * @return Estadísticas de todos los fondos del catálogo
+     */
+    @GetMapping("/estadisticas")
+    @Operation(summary = "Estadísticas de los fondos", description = "Obtiene el monto administrado y el número de suscriptores de cada fondo")
+    public Mono<ResponseEntity<ApiResponse<List<EstadisticasFondo>>>> obtenerEstadisticas() {
+        return fondoService.obtenerEstadisticas()
+            .map(estadisticas -> ResponseEntity.ok(ApiResponse.success("Estadísticas obtenidas exitosamente", estadisticas)))
+            .onErrorResume(e -> {
+                log.error("Error al obtener estadísticas: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener las estadísticas")));
+            });
+    }
+
+    /**
+     * Obtiene el monto administrado y los suscriptores activos de un fondo
+     * @param idFondo ID del fondo
+     * @return Estadísticas del fondo
+     */
+    @GetMapping("/{idFondo}/estadisticas")
+    @Operation(summary = "Estadísticas de un fondo", description = "Obtiene el monto administrado y el número de suscriptores de un fondo")
+    public Mono<ResponseEntity<ApiResponse<EstadisticasFondo>>> obtenerEstadisticas(@PathVariable String idFondo) {
+        return fondoService.obtenerEstadisticas(idFondo)
+            .map(estadisticas -> ResponseEntity.ok(ApiResponse.success("Estadísticas obtenidas exitosamente", estadisticas)))
+            .onErrorResume(FondoNotFoundException.class,
+                e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()))))
+            .onErrorResume(e -> {
+                log.error("Error al obtener estadísticas: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener las estadísticas")));
+            });
+    }
+
+    /**
+     * Obtiene la actividad de un fondo por intervalos de minuto, hora o día
+     * @param idFondo ID del fondo
+     * @param granularidad minuto, hora o dia
+     * @param desde Inicio del rango
+     * @param hasta Fin del rango (exclusivo)
+     * @return Operaciones y monto por tipo de transacción en cada intervalo con actividad
+     */
+    @GetMapping("/{idFondo}/actividad")
+    @Operation(summary = "Actividad de un fondo", description = "Obtiene las suscripciones y cancelaciones de un fondo agrupadas por minuto, hora o día")
+    public Mono<ResponseEntity<ApiResponse<List<ActividadFondo>>>> obtenerActividad(
+            @PathVariable String idFondo,
+            @RequestParam(defaultValue = "hora") String granularidad,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        return fondoService.obtenerActividad(idFondo, granularidad, desde, hasta)
+            .map(actividad -> ResponseEntity.ok(ApiResponse.success("Actividad obtenida exitosamente", actividad)))
+            .onErrorResume(FondoNotFoundException.class,
+                e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()))))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()))))
+            .onErrorResume(e -> {
+                log.error("Error al obtener actividad: {}", e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener la actividad")));
+            });
+    }
+
+    /**
+     * Obtiene todos los fondos disponibles con la respuesta ya serializada y su ETag
+     * Si Accept prefiere CBOR o Smile se serializa en ese formato, con un ETag propio
+     * @param accept Cabecera Accept
+     * @return Lista de todos los fondos de inversión
+     */
+    @GetMapping("")
+    @Operation(summary = "Obtener fondos disponibles", description = "Obtiene la lista de todos los fondos de inversión disponibles")
+    public Mono<ResponseEntity<?>> obtenerFondos(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Optional<MediaType> binario = FormatosBinarios.preferido(accept);
+        return fondoService.obtenerCatalogo()
+            .<ResponseEntity<?>>map(catalogo -> binario.isPresent()
+                ? ResponseEntity.ok()
+                    .eTag(FormatosBinarios.etag(catalogo.getEtag(), binario.get()))
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(binario.get())
+                    .body(catalogo.respuesta())
+                : ResponseEntity.ok()
+                    .eTag(catalogo.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalogo.getJson()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Error al obtener los fondos"))));
+    }
+
+    /**
+     * Aplica Idempotency-Key con {@link IdempotenciaService}, que es bloqueante: con clave, la operación se
+     * espera en boundedElastic para no ocupar los hilos de Netty; sin clave se devuelve tal cual
+     */
+    private Mono<ResponseEntity<?>> idempotente(String clave, String alcance, Object solicitud,
+                                                Mono<? extends ResponseEntity<?>> operacion) {
+        if (clave == null) {
+            return operacion.map(respuesta -> respuesta);
+        }
+        return Mono.<ResponseEntity<?>>fromCallable(() -> idempotenciaService.ejecutar(clave, alcance, solicitud, operacion::block))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Cobra la solicitud al límite del cliente al suscribirse a la operación, después de que
+     * {@link #idempotente} descarte las repeticiones con respuesta guardada
+     * La operación se crea solo si la solicitud cabe en el límite, así el servicio no se invoca en un 429
+     */
+    private Mono<ResponseEntity<?>> limitado(LongSupplier reserva, Supplier<Mono<? extends ResponseEntity<?>>> operacion) {
+        return Mono.<ResponseEntity<?>>defer(() -> {
+            long espera = reserva.getAsLong();
+            if (espera > 0) {
+                return Mono.just(demasiadasSolicitudes(espera));
+            }
+            return operacion.get();
+        });
+    }
+
+    /**
+     * Respuesta 429 con Retry-After en segundos enteros, redondeados hacia arriba
+     */
+    private static <T> ResponseEntity<ApiResponse<T>> demasiadasSolicitudes(long esperaMs) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf((esperaMs + 999) / 1000))
+            .body(ApiResponse.error(Constants.MSG_LIMITE_SOLICITUDES));
+    }
+
+    private static List<String> clientes(SuscripcionLoteRequest request) {
+        return request.getSuscripciones().stream()
+            .map(SuscripcionLoteItem::getIdCliente)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,60 @@
+package com.btgpactual.fondos.gestionfondosclientes.controller;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Elección del formato de las respuestas que no pasan por la negociación de Spring,
+ * como el catálogo de fondos ya serializado en JSON
+ */
+final class FormatosBinarios {
+
+    static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    private FormatosBinarios() {
+    }
+
+    /**
+     * Formato binario que la cabecera Accept prefiere sobre JSON
+     * @param accept Valor de la cabecera Accept
+     * @return CBOR o Smile, o vacío si el cliente acepta JSON, no envía Accept o la cabecera no es válida
+     */
+    static Optional<MediaType> preferido(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Optional.empty();
+        }
+        List<MediaType> tipos;
+        try {
+            tipos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+        MediaType.sortBySpecificityAndQuality(tipos);
+        for (MediaType tipo : tipos) {
+            if (tipo.getQualityValue() == 0) {
+                continue;
+            }
+            if (tipo.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return Optional.empty();
+            }
+            if (tipo.isCompatibleWith(CBOR)) {
+                return Optional.of(CBOR);
+            }
+            if (tipo.isCompatibleWith(SMILE)) {
+                return Optional.of(SMILE);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * ETag de la representación binaria, distinto del de JSON para que una caché no los confunda
+     */
+    static String etag(String etagJson, MediaType tipo) {
+        return etagJson.substring(0, etagJson.length() - 1) + "-" + tipo.getSubtype() + "\"";
+    }
+}
@@ -0,0 +1,19 @@
+package com.btgpactual.fondos.gestionfondosclientes.dto;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Monto administrado y número de suscriptores activos de un fondo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasFondo {
+    private String idFondo;
+    private String nombreFondo;
+    private Monto montoAdministrado;
+    private long suscriptores;
+}
@@ -0,0 +1,26 @@
+package com.btgpactual.fondos.gestionfondosclientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoSuscripcionLote {
+    private int indice;
+    private String idCliente;
+    private String idFondo;
+    private boolean exitosa;
+    private String mensaje;
+
+    public static ResultadoSuscripcionLote exitosa(int indice, SuscripcionLoteItem item) {
+        return new ResultadoSuscripcionLote(indice, item.getIdCliente(),
+                item.getSuscripcion().getIdFondo(), true, "Suscripción exitosa");
+    }
+
+    public static ResultadoSuscripcionLote fallida(int indice, SuscripcionLoteItem item, String mensaje) {
+        return new ResultadoSuscripcionLote(indice, item.getIdCliente(),
+                item.getSuscripcion().getIdFondo(), false, mensaje);
+    }
+}
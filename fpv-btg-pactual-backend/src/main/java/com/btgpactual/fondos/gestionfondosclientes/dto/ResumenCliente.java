@@ -0,0 +1,23 @@
+package com.btgpactual.fondos.gestionfondosclientes.dto;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Saldo, fondos activos y últimas transacciones del cliente
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCliente {
+    private String idCliente;
+    private Monto saldo;
+    private List<FondoActivo> fondosActivos;
+    private List<Transaccion> ultimasTransacciones; // Ordenadas por fecha, de la más antigua a la más reciente
+}
@@ -0,0 +1,21 @@
+package com.btgpactual.fondos.gestionfondosclientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuscripcionLoteItem {
+    @NotBlank(message = "El ID del cliente es obligatorio")
+    private String idCliente;
+
+    @NotNull(message = "La suscripción es obligatoria")
+    @Valid
+    private SuscripcionRequest suscripcion;
+}
@@ -0,0 +1,20 @@
+package com.btgpactual.fondos.gestionfondosclientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuscripcionLoteRequest {
+    @NotEmpty(message = "El lote debe tener al menos una suscripción")
+    @Size(max = 1000, message = "El lote admite máximo 1000 suscripciones")
+    @Valid
+    private List<SuscripcionLoteItem> suscripciones;
+}
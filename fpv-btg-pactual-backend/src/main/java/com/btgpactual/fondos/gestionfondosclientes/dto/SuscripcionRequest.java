@@ -1,12 +1,14 @@
 package com.btgpactual.fondos.gestionfondosclientes.dto;
 
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Positive;
 
 @Data
 @NoArgsConstructor
@@ -16,12 +18,17 @@ public class SuscripcionRequest {
     private String idFondo;
     
     @NotNull(message = "El monto es obligatorio")
-    @Positive(message = "El monto debe ser positivo")
-    private Double monto;
+    private Monto monto; // Pesos, máximo dos decimales
     
     @NotBlank(message = "La preferencia de notificación es obligatoria")
     private String preferenciaNotificacion; // "EMAIL" o "SMS"
     
     @NotBlank(message = "El contacto es obligatorio")
     private String contacto; // Email o número de teléfono
+
+    @JsonIgnore
+    @AssertTrue(message = "El monto debe ser positivo")
+    public boolean isMontoPositivo() {
+        return monto == null || monto.esPositivo();
+    }
 }
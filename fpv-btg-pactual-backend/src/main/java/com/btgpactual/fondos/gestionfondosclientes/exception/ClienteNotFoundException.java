@@ -0,0 +1,7 @@
+package com.btgpactual.fondos.gestionfondosclientes.exception;
+
+public class ClienteNotFoundException extends RuntimeException {
+    public ClienteNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.btgpactual.fondos.gestionfondosclientes.exception;
+
+public class ConflictoConcurrenciaException extends RuntimeException {
+    public ConflictoConcurrenciaException(String message) {
+        super(message);
+    }
+}
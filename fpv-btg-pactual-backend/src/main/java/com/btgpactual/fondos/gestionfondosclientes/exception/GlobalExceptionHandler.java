@@ -8,6 +8,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -37,6 +38,20 @@ public class GlobalExceptionHandler {
             .body(ApiResponse.error(e.getMessage()));
     }
     
+    @ExceptionHandler(ClienteNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleClienteNotFoundException(ClienteNotFoundException e) {
+        log.error("Cliente no encontrado: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(ApiResponse.error(e.getMessage()));
+    }
+    
+    @ExceptionHandler(ConflictoConcurrenciaException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConflictoConcurrenciaException(ConflictoConcurrenciaException e) {
+        log.warn("Conflicto de concurrencia: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(ApiResponse.error(e.getMessage()));
+    }
+    
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse<Void>> handleIllegalArgumentException(IllegalArgumentException e) {
         log.error("Argumento ilegal: {}", e.getMessage());
@@ -58,6 +73,16 @@ public class GlobalExceptionHandler {
             .body(ApiResponse.error("Errores de validación"));
     }
     
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleWebExchangeBindException(WebExchangeBindException e) {
+        Map<String, String> errors = new HashMap<>();
+        e.getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+        
+        log.error("Errores de validación: {}", errors);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(ApiResponse.error("Errores de validación"));
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleGenericException(Exception e) {
         log.error("Error interno del servidor: {}", e.getMessage(), e);
@@ -0,0 +1,10 @@
+package com.btgpactual.fondos.gestionfondosclientes.exception;
+
+/**
+ * Monto de suscripción menor al mínimo del fondo; se responde como cualquier otro argumento inválido
+ */
+public class MontoMinimoException extends IllegalArgumentException {
+    public MontoMinimoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.btgpactual.fondos.gestionfondosclientes.exception;
+
+/**
+ * El cliente ya tiene una suscripción activa al fondo; se responde como cualquier otro argumento inválido
+ */
+public class SuscripcionActivaException extends IllegalArgumentException {
+    public SuscripcionActivaException(String message) {
+        super(message);
+    }
+}
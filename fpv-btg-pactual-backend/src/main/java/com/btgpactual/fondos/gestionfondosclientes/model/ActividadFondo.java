@@ -0,0 +1,42 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Operaciones y monto de un tipo de transacción sobre un fondo durante un intervalo (minuto, hora o día)
+ * Se acumula con $inc en cada suscripción y cancelación, así un tablero consulta tantos documentos
+ * como intervalos pide y no tantos como transacciones hubo
+ * Los intervalos de minuto y de hora expiran por TTL; los de día se conservan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "actividad_fondos")
+@CompoundIndex(name = "fondo_granularidad_inicio_idx", def = "{'idFondo': 1, 'granularidad': 1, 'inicio': 1}")
+public class ActividadFondo {
+    @Id
+    @JsonIgnore
+    private String id; // idFondo:tipo:granularidad:inicio
+    private String idFondo;
+    private String tipo;
+    private String granularidad;
+    private LocalDateTime inicio;
+    private long operaciones;
+    private Monto monto;
+    @JsonIgnore
+    @Indexed(name = "expira_en_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expiraEn;
+
+    public static String id(String idFondo, String tipo, String granularidad, LocalDateTime inicio) {
+        return idFondo + ":" + tipo + ":" + granularidad + ":" + inicio;
+    }
+}
@@ -1,9 +1,12 @@
 package com.btgpactual.fondos.gestionfondosclientes.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -13,12 +16,38 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "clientes")
+@CompoundIndex(name = "notificaciones_pendientes_idx", def = "{'notificacionesPendientes.idNotificacion': 1}", sparse = true)
 public class Cliente {
     @Id
     private String id;
-    private Double saldo = 500000.0;
+    private Monto saldo = Monto.dePesos(500000);
     private List<FondoActivo> fondosActivos = new ArrayList<>();
     private String preferenciaNotificacion;
     private String contacto;
-    private List<Transaccion> historialTransacciones = new ArrayList<>();
+
+    /**
+     * Versión para concurrencia optimista; las actualizaciones atómicas también la incrementan
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Último evento del cliente incluido en este documento (perfil "eventos"); null si nunca se tomó una instantánea
+     */
+    @JsonIgnore
+    private Long secuenciaEventos;
+
+    /**
+     * Notificaciones escritas en la misma actualización que la operación, a la espera
+     * de que OutboxRelayService las traslade a la bandeja de salida
+     */
+    @JsonIgnore
+    private List<NotificacionPendiente> notificacionesPendientes = new ArrayList<>();
+
+    /**
+     * Historial embebido heredado. Ya no se escribe: las transacciones viven en la colección
+     * "transacciones" y MigracionHistorialService traslada y elimina este campo.
+     */
+    @JsonIgnore
+    private List<Transaccion> historialTransacciones;
 }
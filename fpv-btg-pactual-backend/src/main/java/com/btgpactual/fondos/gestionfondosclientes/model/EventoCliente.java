@@ -0,0 +1,49 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento inmutable del libro de un cliente (perfil "eventos")
+ * La secuencia es consecutiva por cliente y el índice único sobre (idCliente, secuencia) hace que
+ * dos escritores que parten del mismo estado no puedan agregar ambos el siguiente evento
+ * El primer evento (secuencia 0, APERTURA) fija el saldo y los fondos activos de partida
+ * Es la única escritura de la operación: la transacción, la notificación y las estadísticas
+ * se proyectan después desde el evento
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "eventos_cliente")
+@CompoundIndex(name = "cliente_secuencia_idx", def = "{'idCliente': 1, 'secuencia': 1}", unique = true)
+public class EventoCliente {
+    @Id
+    private String idEvento;
+    private String idCliente;
+    private long secuencia;
+    private String tipo;
+    private String idFondo;
+    private String nombreFondo;
+    private Monto monto;
+    /**
+     * Solo en la apertura: fondos activos con los que parte la cuenta
+     */
+    private List<FondoActivo> fondosActivos;
+    private String preferenciaNotificacion;
+    private String contacto;
+    private LocalDateTime fecha;
+    /**
+     * true hasta que el evento se proyecta; el campo se retira al proyectarlo, así el índice
+     * disperso solo contiene los eventos pendientes
+     */
+    @Indexed(name = "proyeccion_pendiente_idx", sparse = true)
+    private Boolean proyeccionPendiente;
+}
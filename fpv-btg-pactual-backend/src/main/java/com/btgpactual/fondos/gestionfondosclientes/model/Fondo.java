@@ -15,5 +15,5 @@ public class Fondo {
     private String id;
     private String categoria;
     private String nombre;
-    private Double montoMinimo;
+    private Monto montoMinimo;
 }
@@ -14,6 +14,6 @@ public class FondoActivo {
     @Id
     private String idFondo;
     private String nombre;
-    private Double monto;
+    private Monto monto;
     private LocalDateTime fechaSuscripcion;
 }
@@ -0,0 +1,39 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Fragmento de los contadores de un fondo: monto administrado y número de suscriptores
+ * Las suscripciones de un fondo se reparten entre varios fragmentos para que un fondo muy solicitado
+ * no concentre todas las escrituras en un solo documento; el total es la suma de sus fragmentos
+ * El fragmento 0 es además el consolidado en el que el compactador acumula los demás
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "estadisticas_fondos")
+public class FragmentoEstadisticaFondo {
+    @Id
+    private String id; // idFondo:fragmento
+    @Indexed(name = "id_fondo_idx")
+    private String idFondo;
+    private int fragmento;
+    private Monto montoAdministrado;
+    private long suscriptores;
+
+    public static String id(String idFondo, int fragmento) {
+        return idFondo + ":" + fragmento;
+    }
+
+    /**
+     * Incremento (o decremento, con valores negativos) a aplicar sobre un fragmento
+     */
+    public static FragmentoEstadisticaFondo incremento(String idFondo, int fragmento, Monto monto, long suscriptores) {
+        return new FragmentoEstadisticaFondo(id(idFondo, fragmento), idFondo, fragmento, monto, suscriptores);
+    }
+}
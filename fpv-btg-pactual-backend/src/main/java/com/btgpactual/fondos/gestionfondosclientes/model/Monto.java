@@ -0,0 +1,129 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monto en pesos colombianos guardado como un entero de centavos
+ * Las operaciones son exactas sobre un long; en Mongo se guarda como Decimal128 (ver MongoConfig)
+ * y en JSON se escribe como número con dos decimales, sin pasar por binario de punto flotante
+ */
+public final class Monto implements Comparable<Monto> {
+
+    public static final int DECIMALES = 2;
+    public static final Monto CERO = new Monto(0L);
+
+    private static final long CENTAVOS_POR_PESO = 100L;
+
+    private final long centavos;
+
+    private Monto(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * @param centavos Monto en centavos
+     */
+    public static Monto deCentavos(long centavos) {
+        return centavos == 0L ? CERO : new Monto(centavos);
+    }
+
+    /**
+     * @param pesos Monto en pesos enteros
+     */
+    public static Monto dePesos(long pesos) {
+        return deCentavos(Math.multiplyExact(pesos, CENTAVOS_POR_PESO));
+    }
+
+    /**
+     * Crea un monto exacto; no admite más de dos decimales
+     * @param valor Monto en pesos
+     * @throws IllegalArgumentException Si tiene más de dos decimales
+     */
+    @JsonCreator
+    public static Monto de(BigDecimal valor) {
+        try {
+            return deCentavos(valor.setScale(DECIMALES, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Monto inválido: " + valor.toPlainString(), e);
+        }
+    }
+
+    /**
+     * Crea un monto redondeando a centavos (half even); para datos guardados antes de este modelo
+     * @param valor Monto en pesos
+     */
+    public static Monto redondeado(BigDecimal valor) {
+        return deCentavos(valor.setScale(DECIMALES, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Monto sumar(Monto otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Monto restar(Monto otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    public Monto negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    /**
+     * Suma el monto a un acumulado en centavos sin crear montos intermedios; para ciclos y rutas por solicitud
+     * @param centavos Acumulado en centavos
+     * @return Acumulado más este monto, en centavos
+     */
+    public static long sumarCentavos(long centavos, Monto monto) {
+        return Math.addExact(centavos, monto.centavos);
+    }
+
+    /**
+     * Resta el monto de un acumulado en centavos sin crear montos intermedios
+     * @param centavos Acumulado en centavos
+     * @return Acumulado menos este monto, en centavos
+     */
+    public static long restarCentavos(long centavos, Monto monto) {
+        return Math.subtractExact(centavos, monto.centavos);
+    }
+
+    public boolean esMenorQue(Monto otro) {
+        return centavos < otro.centavos;
+    }
+
+    public boolean esPositivo() {
+        return centavos > 0L;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, DECIMALES);
+    }
+
+    @Override
+    public int compareTo(Monto otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Monto && ((Monto) o).centavos == centavos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación en la bandeja de salida, drenada por el pool de envío en segundo plano
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "outbox_notificaciones")
+@CompoundIndexes({
+    @CompoundIndex(name = "estado_proximo_intento_idx", def = "{'estado': 1, 'proximoIntento': 1}"),
+    @CompoundIndex(name = "estado_bloqueada_hasta_idx", def = "{'estado': 1, 'bloqueadaHasta': 1}")
+})
+public class NotificacionOutbox {
+    @Id
+    private String idNotificacion;
+    private String idCliente;
+    private String tipo;
+    private String nombreFondo;
+    private Monto monto;
+    private String canal;
+    private String contacto;
+    private LocalDateTime fechaCreacion;
+    private String estado;
+    private int intentos;
+    private LocalDateTime proximoIntento;
+    private LocalDateTime bloqueadaHasta;
+    private String propietario;
+    private String ultimoError;
+    private LocalDateTime fechaEnvio;
+
+    /**
+     * Crea la entrada de la bandeja de salida a partir de la intención guardada en el cliente
+     * @param idCliente ID del cliente
+     * @param pendiente Intención de notificación
+     * @return Notificación pendiente de envío
+     */
+    public static NotificacionOutbox desde(String idCliente, NotificacionPendiente pendiente) {
+        NotificacionOutbox notificacion = new NotificacionOutbox();
+        notificacion.setIdNotificacion(pendiente.getIdNotificacion());
+        notificacion.setIdCliente(idCliente);
+        notificacion.setTipo(pendiente.getTipo());
+        notificacion.setNombreFondo(pendiente.getNombreFondo());
+        notificacion.setMonto(pendiente.getMonto());
+        notificacion.setCanal(pendiente.getCanal());
+        notificacion.setContacto(pendiente.getContacto());
+        notificacion.setFechaCreacion(pendiente.getFecha());
+        notificacion.setEstado(Constants.ESTADO_NOTIFICACION_PENDIENTE);
+        notificacion.setProximoIntento(pendiente.getFecha());
+        return notificacion;
+    }
+}
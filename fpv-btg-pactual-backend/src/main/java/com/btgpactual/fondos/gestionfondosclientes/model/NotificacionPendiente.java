@@ -0,0 +1,24 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Intención de notificación guardada dentro del documento del cliente,
+ * en la misma actualización que la suscripción o cancelación que la origina
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificacionPendiente {
+    private String idNotificacion;
+    private String tipo;
+    private String nombreFondo;
+    private Monto monto;
+    private String canal;
+    private String contacto;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,32 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de una operación de escritura asociado a su clave de idempotencia
+ * Mientras la operación se ejecuta queda EN_PROCESO y reservada por quien la reclamó;
+ * al terminar guarda el estado HTTP y el cuerpo para responder igual a los reintentos
+ * MongoDB la elimina al llegar a expiraEn (índice TTL)
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "respuestas_idempotentes")
+public class RespuestaIdempotente {
+    @Id
+    private String clave;
+    private String huella;
+    private String estado;
+    private String propietario;
+    private LocalDateTime bloqueadaHasta;
+    private int estadoHttp;
+    private String cuerpo;
+    private LocalDateTime fechaCreacion;
+    @Indexed(name = "expira_en_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expiraEn;
+}
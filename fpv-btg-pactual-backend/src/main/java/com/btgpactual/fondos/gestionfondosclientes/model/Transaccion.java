@@ -4,17 +4,26 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+/**
+ * Transacción de un cliente. Se guarda en su propia colección (solo inserciones),
+ * indexada por cliente y fecha, para que el documento del cliente no crezca con el historial.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Document(collection = "transacciones")
+@CompoundIndex(name = "cliente_fecha_idx", def = "{'idCliente': 1, 'fecha': 1}")
 public class Transaccion {
     @Id
     private String idTransaccion;
+    private String idCliente;
     private String tipo;
     private String fondo;
-    private Double monto;
+    private Monto monto;
     private LocalDateTime fecha;
 }
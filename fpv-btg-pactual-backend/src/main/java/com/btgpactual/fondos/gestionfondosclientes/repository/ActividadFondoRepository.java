@@ -0,0 +1,15 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ActividadFondoRepository extends MongoRepository<ActividadFondo, String>, ActividadFondoRepositoryCustom {
+
+    List<ActividadFondo> findByIdFondoAndGranularidadAndInicioGreaterThanEqualAndInicioLessThanOrderByInicioAsc(
+            String idFondo, String granularidad, LocalDateTime desde, LocalDateTime hasta);
+}
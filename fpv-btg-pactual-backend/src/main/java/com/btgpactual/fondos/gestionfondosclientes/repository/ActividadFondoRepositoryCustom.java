@@ -0,0 +1,14 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+
+import java.util.Collection;
+
+public interface ActividadFondoRepositoryCustom {
+
+    /**
+     * Suma operaciones y monto a sus intervalos con $inc en una sola escritura por lotes, creando los que no existen
+     * @param incrementos Incrementos por intervalo
+     */
+    void acumular(Collection<ActividadFondo> incrementos);
+}
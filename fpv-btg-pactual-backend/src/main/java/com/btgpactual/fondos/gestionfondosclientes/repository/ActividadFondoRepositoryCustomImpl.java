@@ -0,0 +1,48 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.config.MongoRutasConfig;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+import static com.btgpactual.fondos.gestionfondosclientes.repository.ClienteActualizaciones.aDecimal;
+
+public class ActividadFondoRepositoryCustomImpl implements ActividadFondoRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Los acumulados se pueden reconstruir, así que se escriben con el write concern ligero
+     */
+    public ActividadFondoRepositoryCustomImpl(@Qualifier(MongoRutasConfig.PLANTILLA_AGREGADOS) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void acumular(Collection<ActividadFondo> incrementos) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActividadFondo.class);
+        for (ActividadFondo incremento : incrementos) {
+            Update update = new Update()
+                    .inc("operaciones", incremento.getOperaciones())
+                    .inc("monto", aDecimal(incremento.getMonto()))
+                    .setOnInsert("idFondo", incremento.getIdFondo())
+                    .setOnInsert("tipo", incremento.getTipo())
+                    .setOnInsert("granularidad", incremento.getGranularidad())
+                    .setOnInsert("inicio", incremento.getInicio());
+            if (incremento.getExpiraEn() != null) {
+                update.setOnInsert("expiraEn", incremento.getExpiraEn());
+            }
+            operaciones.upsert(new Query(Criteria.where("_id").is(incremento.getId())), update);
+        }
+        operaciones.execute();
+    }
+}
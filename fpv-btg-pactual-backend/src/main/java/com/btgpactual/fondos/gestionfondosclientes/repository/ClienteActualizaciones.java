@@ -0,0 +1,137 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Consultas y actualizaciones condicionadas sobre el documento del cliente
+ * Las comparten los repositorios bloqueante y reactivo para aplicar exactamente las mismas reglas
+ */
+final class ClienteActualizaciones {
+
+    private ClienteActualizaciones() {
+    }
+
+    static Query porId(String idCliente) {
+        return new Query(Criteria.where("_id").is(idCliente));
+    }
+
+    /**
+     * El estado de la cuenta (saldo, fondos activos, preferencia de notificación) y la secuencia de la instantánea;
+     * deja fuera las notificaciones pendientes y el historial heredado
+     */
+    static Query resumenQuery(String idCliente) {
+        Query query = porId(idCliente);
+        query.fields().include("saldo", "fondosActivos", "preferenciaNotificacion", "contacto", "version", "secuenciaEventos");
+        return query;
+    }
+
+    /**
+     * Cliente sin instantánea o con una anterior a la secuencia dada
+     */
+    static Query instantaneaQuery(String idCliente, long secuencia) {
+        return new Query(Criteria.where("_id").is(idCliente).orOperator(
+                Criteria.where("secuenciaEventos").exists(false),
+                Criteria.where("secuenciaEventos").lt(secuencia)));
+    }
+
+    /**
+     * Valores con los que se crea un cliente nuevo en un upsert
+     */
+    static Update creacion(Monto saldoInicial) {
+        return new Update()
+                .setOnInsert("saldo", saldoInicial)
+                .setOnInsert("fondosActivos", new ArrayList<>())
+                .setOnInsert("version", 0L);
+    }
+
+    /**
+     * Cliente con saldo suficiente y sin suscripción activa al fondo
+     */
+    static Query suscripcionQuery(String idCliente, FondoActivo fondoActivo) {
+        return new Query(Criteria.where("_id").is(idCliente)
+                .and("saldo").gte(aDecimal(fondoActivo.getMonto()))
+                .and("fondosActivos.idFondo").ne(fondoActivo.getIdFondo()));
+    }
+
+    static Update suscripcionUpdate(FondoActivo fondoActivo, String preferenciaNotificacion,
+                                    String contacto, NotificacionPendiente notificacion) {
+        return new Update()
+                .inc("saldo", aDecimal(fondoActivo.getMonto().negar()))
+                .push("fondosActivos", fondoActivo)
+                .set("preferenciaNotificacion", preferenciaNotificacion)
+                .set("contacto", contacto)
+                .push("notificacionesPendientes", notificacion)
+                .inc("version", 1);
+    }
+
+    /**
+     * Valor para un $inc sobre un monto; Decimal128 hace que el incremento en el servidor sea exacto
+     */
+    static Decimal128 aDecimal(Monto monto) {
+        return new Decimal128(monto.toBigDecimal());
+    }
+
+    /**
+     * Cliente suscrito al fondo
+     */
+    static Query cancelacionQuery(String idCliente, String idFondo) {
+        return new Query(Criteria.where("_id").is(idCliente)
+                .and("fondosActivos.idFondo").is(idFondo));
+    }
+
+    /**
+     * Pipeline de actualización que suma al saldo el monto del fondo activo y lo retira del arreglo
+     * Ambos campos se calculan sobre el documento original dentro de la misma etapa $set
+     * Los fondos activos se guardan con su ID en "_id" (campo @Id de FondoActivo)
+     * También incrementa la versión para que los flujos optimistas detecten el cambio
+     * y agrega la notificación pendiente con el monto devuelto y el contacto actual del cliente
+     */
+    static AggregationUpdate cancelacionPipeline(String idFondo, NotificacionPendiente notificacion) {
+        Document idLiteral = new Document("$literal", idFondo);
+
+        Document delFondo = new Document("$filter", new Document("input", "$fondosActivos")
+                .append("as", "fa")
+                .append("cond", new Document("$eq", Arrays.asList("$$fa._id", idLiteral))));
+        Document montoDevuelto = new Document("$sum", new Document("$map", new Document("input", delFondo)
+                .append("as", "fa")
+                .append("in", "$$fa.monto")));
+        Document restantes = new Document("$filter", new Document("input", "$fondosActivos")
+                .append("as", "fa")
+                .append("cond", new Document("$ne", Arrays.asList("$$fa._id", idLiteral))));
+
+        Document nuevaNotificacion = new Document()
+                .append("idNotificacion", new Document("$literal", notificacion.getIdNotificacion()))
+                .append("tipo", new Document("$literal", notificacion.getTipo()))
+                .append("nombreFondo", new Document("$literal", notificacion.getNombreFondo()))
+                .append("monto", montoDevuelto)
+                .append("canal", "$preferenciaNotificacion")
+                .append("contacto", "$contacto")
+                .append("fecha", "$$NOW");
+        Document notificaciones = new Document("$concatArrays", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$notificacionesPendientes", Collections.emptyList())),
+                Collections.singletonList(nuevaNotificacion)));
+
+        Document set = new Document("$set", new Document()
+                .append("saldo", new Document("$add", Arrays.asList("$saldo", montoDevuelto)))
+                .append("fondosActivos", restantes)
+                .append("notificacionesPendientes", notificaciones)
+                .append("version", new Document("$add", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$version", 0L)), 1L))));
+
+        AggregationOperation etapa = context -> set;
+        return AggregationUpdate.from(Collections.singletonList(etapa));
+    }
+}
@@ -0,0 +1,9 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClienteReactiveRepository extends ReactiveMongoRepository<Cliente, String>, ClienteReactiveRepositoryCustom {
+}
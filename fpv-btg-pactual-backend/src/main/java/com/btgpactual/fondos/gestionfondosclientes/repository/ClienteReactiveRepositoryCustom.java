@@ -0,0 +1,51 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión no bloqueante de las operaciones atómicas sobre el documento del cliente
+ * Aplica las mismas actualizaciones condicionadas que {@link ClienteRepositoryCustom}
+ */
+public interface ClienteReactiveRepositoryCustom {
+
+    /**
+     * Lee el saldo y los fondos activos del cliente sin traer el resto del documento
+     * @param idCliente ID del cliente
+     * @return Cliente con solo su ID, saldo y fondos activos, o vacío si no existe
+     */
+    Mono<Cliente> buscarResumen(String idCliente);
+
+    /**
+     * Crea el cliente con el saldo inicial si aún no existe
+     * @param idCliente ID del cliente
+     * @param saldoInicial Saldo con el que se crea el cliente
+     * @return Señal de finalización
+     */
+    Mono<Void> crearSiNoExiste(String idCliente, Monto saldoInicial);
+
+    /**
+     * Descuenta el monto y agrega el fondo activo solo si hay saldo suficiente
+     * y el cliente no está suscrito ya a ese fondo; en la misma actualización agrega la notificación pendiente
+     * @param idCliente ID del cliente
+     * @param fondoActivo Fondo activo a agregar, con el monto de la suscripción
+     * @param preferenciaNotificacion Preferencia de notificación del cliente
+     * @param contacto Contacto del cliente
+     * @param notificacion Notificación a enviar cuando la suscripción quede aplicada
+     * @return Cliente actualizado, o vacío si no se cumplió alguna condición
+     */
+    Mono<Cliente> suscribir(String idCliente, FondoActivo fondoActivo, String preferenciaNotificacion,
+                            String contacto, NotificacionPendiente notificacion);
+
+    /**
+     * Retira el fondo activo y devuelve su monto al saldo en una sola actualización
+     * @param idCliente ID del cliente
+     * @param idFondo ID del fondo a cancelar
+     * @param notificacion Notificación a enviar; el monto, canal y contacto los completa el servidor
+     * @return Cliente tal como estaba antes de la cancelación, o vacío si no estaba suscrito
+     */
+    Mono<Cliente> cancelar(String idCliente, String idFondo, NotificacionPendiente notificacion);
+}
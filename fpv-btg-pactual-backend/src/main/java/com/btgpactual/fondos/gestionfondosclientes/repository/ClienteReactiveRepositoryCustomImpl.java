@@ -0,0 +1,49 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import static com.btgpactual.fondos.gestionfondosclientes.repository.ClienteActualizaciones.*;
+
+@RequiredArgsConstructor
+public class ClienteReactiveRepositoryCustomImpl implements ClienteReactiveRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Cliente> buscarResumen(String idCliente) {
+        return reactiveMongoTemplate.findOne(resumenQuery(idCliente), Cliente.class);
+    }
+
+    @Override
+    public Mono<Void> crearSiNoExiste(String idCliente, Monto saldoInicial) {
+        return reactiveMongoTemplate.upsert(porId(idCliente), creacion(saldoInicial), Cliente.class)
+                .then()
+                // Otra petición creó el cliente al mismo tiempo
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Cliente> suscribir(String idCliente, FondoActivo fondoActivo,
+                                   String preferenciaNotificacion, String contacto,
+                                   NotificacionPendiente notificacion) {
+        return reactiveMongoTemplate.findAndModify(
+                suscripcionQuery(idCliente, fondoActivo),
+                suscripcionUpdate(fondoActivo, preferenciaNotificacion, contacto, notificacion),
+                FindAndModifyOptions.options().returnNew(true), Cliente.class);
+    }
+
+    @Override
+    public Mono<Cliente> cancelar(String idCliente, String idFondo, NotificacionPendiente notificacion) {
+        return reactiveMongoTemplate.findAndModify(
+                cancelacionQuery(idCliente, idFondo), cancelacionPipeline(idFondo, notificacion),
+                FindAndModifyOptions.options().returnNew(false), Cliente.class);
+    }
+}
@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ClienteRepository extends MongoRepository<Cliente, String> {
+public interface ClienteRepository extends MongoRepository<Cliente, String>, ClienteRepositoryCustom {
 }
@@ -0,0 +1,105 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Operaciones atómicas sobre el documento del cliente
+ * Cada operación es una única actualización condicionada en el servidor, sin leer-modificar-guardar
+ */
+public interface ClienteRepositoryCustom {
+
+    /**
+     * Lee el saldo y los fondos activos del cliente sin traer el resto del documento
+     * @param idCliente ID del cliente
+     * @return Cliente con solo su ID, saldo, fondos activos, contacto y versión, o vacío si no existe
+     */
+    Optional<Cliente> buscarResumen(String idCliente);
+
+    /**
+     * Lee solo la versión del cliente, para validar una copia en memoria
+     * @param idCliente ID del cliente
+     * @return Versión del documento, o vacío si no existe o no tiene versión
+     */
+    Optional<Long> buscarVersion(String idCliente);
+
+    /**
+     * Crea el cliente con el saldo inicial si aún no existe
+     * @param idCliente ID del cliente
+     * @param saldoInicial Saldo con el que se crea el cliente
+     */
+    void crearSiNoExiste(String idCliente, Monto saldoInicial);
+
+    /**
+     * Crea con el saldo inicial, en una sola escritura por lotes, los clientes que aún no existen
+     * @param idsCliente IDs de los clientes
+     * @param saldoInicial Saldo con el que se crean los clientes
+     */
+    void crearSiNoExisten(Collection<String> idsCliente, Monto saldoInicial);
+
+    /**
+     * Asigna versión 0 a los clientes creados antes del control de versiones
+     * @return Número de clientes actualizados
+     */
+    long inicializarVersiones();
+
+    /**
+     * Descuenta el monto y agrega el fondo activo solo si hay saldo suficiente
+     * y el cliente no está suscrito ya a ese fondo; en la misma actualización agrega la notificación pendiente
+     * @param idCliente ID del cliente
+     * @param fondoActivo Fondo activo a agregar, con el monto de la suscripción
+     * @param preferenciaNotificacion Preferencia de notificación del cliente
+     * @param contacto Contacto del cliente
+     * @param notificacion Notificación a enviar cuando la suscripción quede aplicada
+     * @return Cliente actualizado, o vacío si no se cumplió alguna condición
+     */
+    Optional<Cliente> suscribir(String idCliente, FondoActivo fondoActivo, String preferenciaNotificacion,
+                                String contacto, NotificacionPendiente notificacion);
+
+    /**
+     * Aplica las suscripciones de varios clientes en una sola escritura por lotes no ordenada
+     * Cada cliente se actualiza solo si conserva la versión con la que se validaron sus suscripciones
+     * @param suscripciones Suscripciones validadas, una entrada por cliente
+     * @return IDs de los clientes cuya versión cambió y no se actualizaron
+     */
+    Set<String> suscribirEnLote(List<SuscripcionesCliente> suscripciones);
+
+    /**
+     * Retira el fondo activo y devuelve su monto al saldo en una sola actualización,
+     * que también agrega la notificación pendiente con el monto devuelto y el contacto del cliente
+     * @param idCliente ID del cliente
+     * @param idFondo ID del fondo a cancelar
+     * @param notificacion Notificación a enviar; el monto, canal y contacto los completa el servidor
+     * @return Cliente tal como estaba antes de la cancelación, o vacío si no estaba suscrito
+     */
+    Optional<Cliente> cancelar(String idCliente, String idFondo, NotificacionPendiente notificacion);
+
+    /**
+     * Busca clientes con notificaciones pendientes de trasladar a la bandeja de salida
+     * @param limite Número máximo de clientes
+     * @return Clientes con solo su ID y sus notificaciones pendientes
+     */
+    List<Cliente> buscarConNotificacionesPendientes(int limite);
+
+    /**
+     * Retira del cliente las notificaciones ya trasladadas
+     * @param idCliente ID del cliente
+     * @param idsNotificacion IDs de las notificaciones trasladadas
+     */
+    void retirarNotificaciones(String idCliente, Collection<String> idsNotificacion);
+
+    /**
+     * Guarda en el documento la instantánea del perfil "eventos": el estado tras aplicar los eventos
+     * hasta estado.secuenciaEventos; crea el cliente si no existe
+     * Nunca retrocede: si el documento ya tiene una instantánea igual o más reciente no cambia
+     * @param estado Estado del cliente con su secuencia de eventos
+     */
+    void guardarInstantanea(Cliente estado);
+}
@@ -0,0 +1,168 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.btgpactual.fondos.gestionfondosclientes.repository.ClienteActualizaciones.*;
+
+@RequiredArgsConstructor
+public class ClienteRepositoryCustomImpl implements ClienteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Cliente> buscarResumen(String idCliente) {
+        return Optional.ofNullable(mongoTemplate.findOne(resumenQuery(idCliente), Cliente.class));
+    }
+
+    @Override
+    public Optional<Long> buscarVersion(String idCliente) {
+        Query query = porId(idCliente);
+        query.fields().include("version");
+        return Optional.ofNullable(mongoTemplate.findOne(query, Cliente.class)).map(Cliente::getVersion);
+    }
+
+    @Override
+    public void crearSiNoExiste(String idCliente, Monto saldoInicial) {
+        try {
+            mongoTemplate.upsert(porId(idCliente), creacion(saldoInicial), Cliente.class);
+        } catch (DuplicateKeyException e) {
+            // Otra petición creó el cliente al mismo tiempo
+        }
+    }
+
+    @Override
+    public void crearSiNoExisten(Collection<String> idsCliente, Monto saldoInicial) {
+        if (idsCliente.isEmpty()) {
+            return;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cliente.class);
+        for (String idCliente : idsCliente) {
+            operaciones.upsert(porId(idCliente), creacion(saldoInicial));
+        }
+        try {
+            operaciones.execute();
+        } catch (BulkOperationException e) {
+            if (!soloDuplicados(e)) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public long inicializarVersiones() {
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L),
+                Cliente.class).getModifiedCount();
+    }
+
+    @Override
+    public Optional<Cliente> suscribir(String idCliente, FondoActivo fondoActivo,
+                                       String preferenciaNotificacion, String contacto,
+                                       NotificacionPendiente notificacion) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                suscripcionQuery(idCliente, fondoActivo),
+                suscripcionUpdate(fondoActivo, preferenciaNotificacion, contacto, notificacion),
+                FindAndModifyOptions.options().returnNew(true), Cliente.class));
+    }
+
+    /**
+     * Cada cliente es un upsert condicionado por _id y versión: si la versión cambió, el upsert
+     * intenta insertar un _id existente y falla con clave duplicada, lo que identifica al cliente
+     * por el índice de la operación sin afectar al resto del lote
+     */
+    @Override
+    public Set<String> suscribirEnLote(List<SuscripcionesCliente> suscripciones) {
+        Set<String> rechazados = new HashSet<>();
+        if (suscripciones.isEmpty()) {
+            return rechazados;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cliente.class);
+        for (SuscripcionesCliente suscripcion : suscripciones) {
+            Query query = new Query(Criteria.where("_id").is(suscripcion.getIdCliente())
+                    .and("version").is(suscripcion.getVersionEsperada()));
+            Update update = new Update()
+                    .inc("saldo", aDecimal(suscripcion.getMontoTotal().negar()))
+                    .push("fondosActivos").each(suscripcion.getFondosActivos().toArray())
+                    .set("preferenciaNotificacion", suscripcion.getPreferenciaNotificacion())
+                    .set("contacto", suscripcion.getContacto())
+                    .inc("version", 1);
+            update.push("notificacionesPendientes").each(suscripcion.getNotificaciones().toArray());
+            operaciones.upsert(query, update);
+        }
+        try {
+            operaciones.execute();
+        } catch (BulkOperationException e) {
+            if (!soloDuplicados(e)) {
+                throw e;
+            }
+            for (BulkWriteError error : e.getErrors()) {
+                rechazados.add(suscripciones.get(error.getIndex()).getIdCliente());
+            }
+        }
+        return rechazados;
+    }
+
+    @Override
+    public Optional<Cliente> cancelar(String idCliente, String idFondo, NotificacionPendiente notificacion) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                cancelacionQuery(idCliente, idFondo), cancelacionPipeline(idFondo, notificacion),
+                FindAndModifyOptions.options().returnNew(false), Cliente.class));
+    }
+
+    @Override
+    public List<Cliente> buscarConNotificacionesPendientes(int limite) {
+        Query query = new Query(Criteria.where("notificacionesPendientes.idNotificacion").exists(true)).limit(limite);
+        query.fields().include("_id").include("notificacionesPendientes");
+        return mongoTemplate.find(query, Cliente.class);
+    }
+
+    @Override
+    public void retirarNotificaciones(String idCliente, Collection<String> idsNotificacion) {
+        Update update = new Update().pull("notificacionesPendientes",
+                new Document("idNotificacion", new Document("$in", idsNotificacion)));
+        mongoTemplate.updateFirst(porId(idCliente), update, Cliente.class);
+    }
+
+    @Override
+    public void guardarInstantanea(Cliente estado) {
+        Update update = new Update()
+                .set("saldo", aDecimal(estado.getSaldo()))
+                .set("fondosActivos", estado.getFondosActivos())
+                .set("preferenciaNotificacion", estado.getPreferenciaNotificacion())
+                .set("contacto", estado.getContacto())
+                .set("secuenciaEventos", estado.getSecuenciaEventos())
+                .setOnInsert("version", 0L);
+        try {
+            mongoTemplate.upsert(instantaneaQuery(estado.getId(), estado.getSecuenciaEventos()), update, Cliente.class);
+        } catch (DuplicateKeyException e) {
+            // El documento ya tiene una instantánea igual o más reciente
+        }
+    }
+
+    private static boolean soloDuplicados(BulkOperationException e) {
+        return e.getErrors().stream()
+                .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+}
@@ -0,0 +1,13 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EstadisticaFondoRepository extends MongoRepository<FragmentoEstadisticaFondo, String>, EstadisticaFondoRepositoryCustom {
+
+    List<FragmentoEstadisticaFondo> findByIdFondo(String idFondo);
+}
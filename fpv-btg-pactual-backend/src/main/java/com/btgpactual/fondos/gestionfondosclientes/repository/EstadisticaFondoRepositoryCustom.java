@@ -0,0 +1,39 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EstadisticaFondoRepositoryCustom {
+
+    /**
+     * Suma los incrementos a sus fragmentos con $inc en una sola escritura por lotes, creando los que no existen
+     * @param incrementos Incrementos por fragmento
+     */
+    void acumular(Collection<FragmentoEstadisticaFondo> incrementos);
+
+    /**
+     * Traslada los valores leídos de un fragmento al consolidado (fragmento 0)
+     * Los incrementos que lleguen al fragmento mientras tanto se conservan, porque se resta lo leído
+     * en lugar de ponerlo en cero; el fragmento se elimina si queda vacío
+     * @param fragmento Fragmento leído, distinto del 0
+     */
+    void compactar(FragmentoEstadisticaFondo fragmento);
+
+    /**
+     * Deja los contadores del fondo en los valores dados: el consolidado los recibe y los demás fragmentos se eliminan
+     * @param idFondo ID del fondo
+     * @param montoAdministrado Monto administrado recalculado
+     * @param suscriptores Suscriptores recalculados
+     */
+    void reemplazar(String idFondo, Monto montoAdministrado, long suscriptores);
+
+    /**
+     * Recalcula los contadores de todos los fondos recorriendo las suscripciones activas de los clientes
+     * La agregación se resuelve en el servidor
+     * @return Totales por fondo, como fragmentos 0
+     */
+    List<FragmentoEstadisticaFondo> calcularDesdeClientes();
+}
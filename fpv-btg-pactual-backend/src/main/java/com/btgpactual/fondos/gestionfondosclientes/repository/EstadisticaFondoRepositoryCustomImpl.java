@@ -0,0 +1,107 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.config.MongoRutasConfig;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.btgpactual.fondos.gestionfondosclientes.repository.ClienteActualizaciones.aDecimal;
+
+public class EstadisticaFondoRepositoryCustomImpl implements EstadisticaFondoRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Los contadores se reconstruyen desde los clientes, así que se escriben con el write concern ligero
+     */
+    public EstadisticaFondoRepositoryCustomImpl(@Qualifier(MongoRutasConfig.PLANTILLA_AGREGADOS) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void acumular(Collection<FragmentoEstadisticaFondo> incrementos) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FragmentoEstadisticaFondo.class);
+        for (FragmentoEstadisticaFondo incremento : incrementos) {
+            operaciones.upsert(porId(incremento.getId()), incremento(incremento, incremento.getMontoAdministrado(),
+                    incremento.getSuscriptores()));
+        }
+        operaciones.execute();
+    }
+
+    @Override
+    public void compactar(FragmentoEstadisticaFondo fragmento) {
+        FragmentoEstadisticaFondo consolidado = FragmentoEstadisticaFondo.incremento(
+                fragmento.getIdFondo(), 0, fragmento.getMontoAdministrado(), fragmento.getSuscriptores());
+        mongoTemplate.upsert(porId(consolidado.getId()), incremento(consolidado,
+                fragmento.getMontoAdministrado(), fragmento.getSuscriptores()), FragmentoEstadisticaFondo.class);
+        mongoTemplate.updateFirst(porId(fragmento.getId()), new Update()
+                .inc("montoAdministrado", aDecimal(fragmento.getMontoAdministrado().negar()))
+                .inc("suscriptores", -fragmento.getSuscriptores()), FragmentoEstadisticaFondo.class);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(fragmento.getId())
+                .and("montoAdministrado").is(aDecimal(Monto.CERO))
+                .and("suscriptores").is(0L)), FragmentoEstadisticaFondo.class);
+    }
+
+    @Override
+    public void reemplazar(String idFondo, Monto montoAdministrado, long suscriptores) {
+        String idConsolidado = FragmentoEstadisticaFondo.id(idFondo, 0);
+        mongoTemplate.upsert(porId(idConsolidado), new Update()
+                .set("idFondo", idFondo)
+                .set("fragmento", 0)
+                .set("montoAdministrado", aDecimal(montoAdministrado))
+                .set("suscriptores", suscriptores), FragmentoEstadisticaFondo.class);
+        mongoTemplate.remove(new Query(Criteria.where("idFondo").is(idFondo).and("_id").ne(idConsolidado)),
+                FragmentoEstadisticaFondo.class);
+    }
+
+    @Override
+    public List<FragmentoEstadisticaFondo> calcularDesdeClientes() {
+        // Agregación tipada: idFondo es el @Id de FondoActivo y se guarda como "fondosActivos._id"
+        TypedAggregation<Cliente> agregacion = Aggregation.newAggregation(Cliente.class,
+                Aggregation.unwind("fondosActivos"),
+                Aggregation.group("fondosActivos.idFondo")
+                        .sum("fondosActivos.monto").as("montoAdministrado")
+                        .count().as("suscriptores"));
+        // La suma es Decimal128, o double si quedan montos sin migrar
+        return mongoTemplate.aggregate(agregacion, Document.class)
+                .getMappedResults().stream()
+                .map(total -> FragmentoEstadisticaFondo.incremento(
+                        total.getString("_id"),
+                        0,
+                        Monto.redondeado(new BigDecimal(total.get("montoAdministrado").toString())),
+                        ((Number) total.get("suscriptores")).longValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * $inc sobre los contadores; idFondo y fragmento solo se escriben al crear el documento
+     */
+    private static Update incremento(FragmentoEstadisticaFondo fragmento, Monto monto, long suscriptores) {
+        return new Update()
+                .inc("montoAdministrado", aDecimal(monto))
+                .inc("suscriptores", suscriptores)
+                .setOnInsert("idFondo", fragmento.getIdFondo())
+                .setOnInsert("fragmento", fragmento.getFragmento());
+    }
+
+    private static Query porId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
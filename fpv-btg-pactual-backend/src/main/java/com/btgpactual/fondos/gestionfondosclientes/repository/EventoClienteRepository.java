@@ -0,0 +1,22 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoClienteRepository extends MongoRepository<EventoCliente, String>, EventoClienteRepositoryCustom {
+
+    /**
+     * Eventos posteriores a una instantánea, en orden; cliente_secuencia_idx resuelve el rango y el orden
+     */
+    List<EventoCliente> findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(String idCliente, long secuencia);
+
+    /**
+     * Eventos registrados hasta un momento, para reconstruir el estado de la cuenta en una auditoría
+     */
+    List<EventoCliente> findByIdClienteAndFechaLessThanEqualOrderBySecuenciaAsc(String idCliente, LocalDateTime momento);
+}
@@ -0,0 +1,25 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+
+import java.util.List;
+
+/**
+ * Operaciones de la proyección del libro de eventos
+ */
+public interface EventoClienteRepositoryCustom {
+
+    /**
+     * Busca eventos que aún no se han proyectado, en orden de ID
+     * @param limite Número máximo de eventos
+     * @return Eventos pendientes de proyectar
+     */
+    List<EventoCliente> buscarPendientesDeProyectar(int limite);
+
+    /**
+     * Marca el evento como proyectado, si seguía pendiente
+     * @param idEvento ID del evento
+     * @return false si otra instancia ya lo había marcado
+     */
+    boolean marcarProyectado(String idEvento);
+}
@@ -0,0 +1,32 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class EventoClienteRepositoryCustomImpl implements EventoClienteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<EventoCliente> buscarPendientesDeProyectar(int limite) {
+        Query query = new Query(Criteria.where("proyeccionPendiente").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limite);
+        return mongoTemplate.find(query, EventoCliente.class);
+    }
+
+    @Override
+    public boolean marcarProyectado(String idEvento) {
+        Query query = new Query(Criteria.where("_id").is(idEvento).and("proyeccionPendiente").is(true));
+        return mongoTemplate.updateFirst(query, new Update().unset("proyeccionPendiente"), EventoCliente.class)
+                .getModifiedCount() > 0;
+    }
+}
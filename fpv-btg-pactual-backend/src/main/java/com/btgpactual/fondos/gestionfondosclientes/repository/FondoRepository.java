@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface FondoRepository extends MongoRepository<Fondo, String> {
+public interface FondoRepository extends MongoRepository<Fondo, String>, FondoRepositoryCustom {
 }
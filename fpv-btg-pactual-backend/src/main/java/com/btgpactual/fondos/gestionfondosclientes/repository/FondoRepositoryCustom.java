@@ -0,0 +1,18 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+
+import java.util.List;
+
+/**
+ * Lectura del catálogo de fondos desde secundarios (mongoTemplateLecturas)
+ * findById sigue leyendo del primario: es la consulta que confirma un fondo que aún no está en el catálogo
+ */
+public interface FondoRepositoryCustom {
+
+    /**
+     * Todos los fondos; un fondo recién creado puede tardar hasta fondos.mongo.lectura.retraso-maximo-s en aparecer
+     * @return Fondos del catálogo
+     */
+    List<Fondo> findAll();
+}
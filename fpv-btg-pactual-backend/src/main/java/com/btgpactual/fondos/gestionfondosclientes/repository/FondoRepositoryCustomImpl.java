@@ -0,0 +1,22 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.config.MongoRutasConfig;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+public class FondoRepositoryCustomImpl implements FondoRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public FondoRepositoryCustomImpl(@Qualifier(MongoRutasConfig.PLANTILLA_LECTURAS) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Fondo> findAll() {
+        return mongoTemplate.findAll(Fondo.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificacionOutboxRepository extends MongoRepository<NotificacionOutbox, String>, NotificacionOutboxRepositoryCustom {
+
+    long countByEstado(String estado);
+}
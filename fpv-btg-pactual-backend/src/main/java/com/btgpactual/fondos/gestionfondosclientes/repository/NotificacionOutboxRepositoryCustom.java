@@ -0,0 +1,57 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operaciones de la bandeja de salida de notificaciones
+ */
+public interface NotificacionOutboxRepositoryCustom {
+
+    /**
+     * Inserta las notificaciones ignorando las que ya existen, para que trasladarlas sea idempotente
+     * @param notificaciones Notificaciones a insertar
+     */
+    void insertarIgnorandoDuplicados(List<NotificacionOutbox> notificaciones);
+
+    /**
+     * Reclama una notificación lista para enviarse: pendiente con su intento vencido,
+     * o en proceso con el bloqueo expirado (el trabajador anterior no terminó)
+     * @param ahora Momento actual
+     * @param bloqueadaHasta Hasta cuándo queda reservada para este trabajador
+     * @param propietario Identificador de este reclamo; solo con él se puede registrar el resultado
+     * @return Notificación reclamada, con el contador de intentos ya incrementado
+     */
+    Optional<NotificacionOutbox> reclamar(LocalDateTime ahora, LocalDateTime bloqueadaHasta, String propietario);
+
+    /**
+     * Marca la notificación como enviada, si sigue en proceso bajo el mismo reclamo
+     * @param idNotificacion ID de la notificación
+     * @param propietario Identificador del reclamo
+     * @return false si el bloqueo expiró y otro trabajador la reclamó
+     */
+    boolean marcarEnviada(String idNotificacion, String propietario);
+
+    /**
+     * Devuelve la notificación a pendiente para un nuevo intento, si sigue en proceso bajo el mismo reclamo
+     * @param idNotificacion ID de la notificación
+     * @param propietario Identificador del reclamo
+     * @param proximoIntento Momento del próximo intento
+     * @param error Error del intento fallido
+     * @return false si el bloqueo expiró y otro trabajador la reclamó
+     */
+    boolean reprogramar(String idNotificacion, String propietario, LocalDateTime proximoIntento, String error);
+
+    /**
+     * Marca la notificación como fallida definitivamente (cola de mensajes muertos),
+     * si sigue en proceso bajo el mismo reclamo
+     * @param idNotificacion ID de la notificación
+     * @param propietario Identificador del reclamo
+     * @param error Error del último intento
+     * @return false si el bloqueo expiró y otro trabajador la reclamó
+     */
+    boolean marcarFallida(String idNotificacion, String propietario, String error);
+}
@@ -0,0 +1,95 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import com.mongodb.ErrorCategory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class NotificacionOutboxRepositoryCustomImpl implements NotificacionOutboxRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void insertarIgnorandoDuplicados(List<NotificacionOutbox> notificaciones) {
+        if (notificaciones.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificacionOutbox.class)
+                    .insert(notificaciones)
+                    .execute();
+        } catch (BulkOperationException e) {
+            boolean soloDuplicados = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!soloDuplicados) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Optional<NotificacionOutbox> reclamar(LocalDateTime ahora, LocalDateTime bloqueadaHasta, String propietario) {
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("estado").is(Constants.ESTADO_NOTIFICACION_PENDIENTE).and("proximoIntento").lte(ahora),
+                Criteria.where("estado").is(Constants.ESTADO_NOTIFICACION_EN_PROCESO).and("bloqueadaHasta").lte(ahora)));
+
+        Update update = new Update()
+                .set("estado", Constants.ESTADO_NOTIFICACION_EN_PROCESO)
+                .set("bloqueadaHasta", bloqueadaHasta)
+                .set("propietario", propietario)
+                .inc("intentos", 1);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), NotificacionOutbox.class));
+    }
+
+    @Override
+    public boolean marcarEnviada(String idNotificacion, String propietario) {
+        return mongoTemplate.updateFirst(reclamadaPor(idNotificacion, propietario), new Update()
+                .set("estado", Constants.ESTADO_NOTIFICACION_ENVIADA)
+                .set("fechaEnvio", LocalDateTime.now())
+                .unset("bloqueadaHasta")
+                .unset("propietario"), NotificacionOutbox.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean reprogramar(String idNotificacion, String propietario, LocalDateTime proximoIntento, String error) {
+        return mongoTemplate.updateFirst(reclamadaPor(idNotificacion, propietario), new Update()
+                .set("estado", Constants.ESTADO_NOTIFICACION_PENDIENTE)
+                .set("proximoIntento", proximoIntento)
+                .set("ultimoError", error)
+                .unset("bloqueadaHasta")
+                .unset("propietario"), NotificacionOutbox.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean marcarFallida(String idNotificacion, String propietario, String error) {
+        return mongoTemplate.updateFirst(reclamadaPor(idNotificacion, propietario), new Update()
+                .set("estado", Constants.ESTADO_NOTIFICACION_FALLIDA)
+                .set("ultimoError", error)
+                .unset("bloqueadaHasta")
+                .unset("propietario"), NotificacionOutbox.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Solo el trabajador que tiene el reclamo vigente registra el resultado; si el bloqueo expiró y otro
+     * la reclamó, la actualización no aplica y no deshace el envío ni el estado del nuevo reclamo
+     */
+    private static Query reclamadaPor(String idNotificacion, String propietario) {
+        return new Query(Criteria.where("_id").is(idNotificacion)
+                .and("propietario").is(propietario)
+                .and("estado").is(Constants.ESTADO_NOTIFICACION_EN_PROCESO));
+    }
+}
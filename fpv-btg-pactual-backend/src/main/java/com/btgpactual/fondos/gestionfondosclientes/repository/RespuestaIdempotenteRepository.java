@@ -0,0 +1,9 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.RespuestaIdempotente;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RespuestaIdempotenteRepository extends MongoRepository<RespuestaIdempotente, String>, RespuestaIdempotenteRepositoryCustom {
+}
@@ -0,0 +1,37 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.RespuestaIdempotente;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reserva y resultado de las claves de idempotencia
+ */
+public interface RespuestaIdempotenteRepositoryCustom {
+
+    /**
+     * Reserva la clave para ejecutar la operación: la inserta EN_PROCESO, o la toma si quedó
+     * en proceso con la reserva vencida (quien la tenía no terminó)
+     * El _id único garantiza que entre solicitudes concurrentes con la misma clave solo una la obtiene
+     * @param reserva Clave con su huella, propietario, reserva y expiración
+     * @param ahora Momento actual
+     * @return true si la reserva quedó a nombre de este propietario
+     */
+    boolean reservar(RespuestaIdempotente reserva, LocalDateTime ahora);
+
+    /**
+     * Guarda el resultado de la operación, si la reserva sigue siendo de este propietario
+     * @param clave Clave de idempotencia
+     * @param propietario Propietario de la reserva
+     * @param estadoHttp Estado HTTP de la respuesta
+     * @param cuerpo Cuerpo de la respuesta serializado en JSON
+     */
+    void completar(String clave, String propietario, int estadoHttp, String cuerpo);
+
+    /**
+     * Elimina la reserva sin resultado para que un reintento vuelva a ejecutar la operación
+     * @param clave Clave de idempotencia
+     * @param propietario Propietario de la reserva
+     */
+    void liberar(String clave, String propietario);
+}
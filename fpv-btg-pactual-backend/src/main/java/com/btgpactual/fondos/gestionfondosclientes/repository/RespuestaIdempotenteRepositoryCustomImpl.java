@@ -0,0 +1,57 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.RespuestaIdempotente;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class RespuestaIdempotenteRepositoryCustomImpl implements RespuestaIdempotenteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean reservar(RespuestaIdempotente reserva, LocalDateTime ahora) {
+        try {
+            mongoTemplate.insert(reserva);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Solo se toma si sigue en proceso con la misma solicitud y su reserva venció
+            Query vencida = new Query(Criteria.where("_id").is(reserva.getClave())
+                    .and("huella").is(reserva.getHuella())
+                    .and("estado").is(Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO)
+                    .and("bloqueadaHasta").lte(ahora));
+            Update tomar = new Update()
+                    .set("propietario", reserva.getPropietario())
+                    .set("bloqueadaHasta", reserva.getBloqueadaHasta())
+                    .set("expiraEn", reserva.getExpiraEn());
+            return mongoTemplate.updateFirst(vencida, tomar, RespuestaIdempotente.class).getModifiedCount() > 0;
+        }
+    }
+
+    @Override
+    public void completar(String clave, String propietario, int estadoHttp, String cuerpo) {
+        mongoTemplate.updateFirst(reservadaPor(clave, propietario), new Update()
+                .set("estado", Constants.ESTADO_IDEMPOTENCIA_COMPLETADA)
+                .set("estadoHttp", estadoHttp)
+                .set("cuerpo", cuerpo)
+                .unset("bloqueadaHasta"), RespuestaIdempotente.class);
+    }
+
+    @Override
+    public void liberar(String clave, String propietario) {
+        mongoTemplate.remove(reservadaPor(clave, propietario), RespuestaIdempotente.class);
+    }
+
+    private static Query reservadaPor(String clave, String propietario) {
+        return new Query(Criteria.where("_id").is(clave)
+                .and("propietario").is(propietario)
+                .and("estado").is(Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO));
+    }
+}
@@ -0,0 +1,25 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Suscripciones de un lote ya validadas para un cliente, a aplicar en una sola actualización
+ * La actualización solo se aplica si el cliente sigue en la versión con la que se validaron
+ */
+@Getter
+@AllArgsConstructor
+public class SuscripcionesCliente {
+    private final String idCliente;
+    private final Long versionEsperada;
+    private final Monto montoTotal;
+    private final List<FondoActivo> fondosActivos;
+    private final List<NotificacionPendiente> notificaciones;
+    private final String preferenciaNotificacion;
+    private final String contacto;
+}
@@ -0,0 +1,18 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface TransaccionReactiveRepository extends ReactiveMongoRepository<Transaccion, String> {
+
+    Flux<Transaccion> findByIdClienteOrderByFechaAsc(String idCliente);
+
+    /**
+     * Transacciones más recientes del cliente; el índice cliente_fecha_idx resuelve el orden y el límite
+     */
+    Flux<Transaccion> findByIdClienteOrderByFechaDesc(String idCliente, Pageable pageable);
+}
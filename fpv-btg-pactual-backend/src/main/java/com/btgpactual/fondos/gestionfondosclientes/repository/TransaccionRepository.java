@@ -0,0 +1,17 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TransaccionRepository extends MongoRepository<Transaccion, String>, TransaccionRepositoryCustom {
+
+    /**
+     * Transacciones más recientes del cliente; el índice cliente_fecha_idx resuelve el orden y el límite
+     */
+    List<Transaccion> findByIdClienteOrderByFechaDesc(String idCliente, Pageable pageable);
+}
@@ -0,0 +1,32 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lecturas del historial de transacciones desde secundarios (mongoTemplateLecturas)
+ */
+public interface TransaccionRepositoryCustom {
+
+    /**
+     * Historial completo del cliente en orden de fecha
+     * Puede no incluir las transacciones de los últimos segundos (fondos.mongo.lectura.retraso-maximo-s)
+     * @param idCliente ID del cliente
+     * @return Transacciones del cliente
+     */
+    List<Transaccion> findByIdClienteOrderByFechaAsc(String idCliente);
+
+    /**
+     * Recorre el historial del cliente en orden de fecha sobre un cursor de MongoDB,
+     * trayendo los documentos por lotes a medida que se consumen
+     * El llamador debe cerrar el Stream para liberar el cursor
+     * @param idCliente ID del cliente
+     * @param desde Fecha inicial incluida, o null para no acotar
+     * @param hasta Fecha final excluida, o null para no acotar
+     * @return Transacciones del cliente en el rango
+     */
+    Stream<Transaccion> recorrerHistorial(String idCliente, LocalDateTime desde, LocalDateTime hasta);
+}
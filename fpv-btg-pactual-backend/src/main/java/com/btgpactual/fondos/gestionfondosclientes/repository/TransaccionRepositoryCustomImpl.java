@@ -0,0 +1,57 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.config.MongoRutasConfig;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TransaccionRepositoryCustomImpl implements TransaccionRepositoryCustom {
+
+    /**
+     * Documentos por cada getMore del cursor; acota la memoria de la exportación
+     */
+    static final int LOTE_CURSOR = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * El historial y la exportación leen de secundarios; las transacciones se insertan por el repositorio
+     */
+    public TransaccionRepositoryCustomImpl(@Qualifier(MongoRutasConfig.PLANTILLA_LECTURAS) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Transaccion> findByIdClienteOrderByFechaAsc(String idCliente) {
+        Query query = new Query(Criteria.where("idCliente").is(idCliente))
+                .with(Sort.by(Sort.Direction.ASC, "fecha"));
+        return mongoTemplate.find(query, Transaccion.class);
+    }
+
+    @Override
+    public Stream<Transaccion> recorrerHistorial(String idCliente, LocalDateTime desde, LocalDateTime hasta) {
+        Criteria criteria = Criteria.where("idCliente").is(idCliente);
+        if (desde != null || hasta != null) {
+            Criteria fecha = criteria.and("fecha");
+            if (desde != null) {
+                fecha.gte(desde);
+            }
+            if (hasta != null) {
+                fecha.lt(hasta);
+            }
+        }
+        // cliente_fecha_idx resuelve el filtro y el orden sin ordenar en memoria
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "fecha"))
+                .cursorBatchSize(LOTE_CURSOR);
+        // Cerrar el Stream cierra el cursor; la exportación lo hace aunque el cliente se desconecte
+        return mongoTemplate.stream(query, Transaccion.class).stream();
+    }
+}
@@ -0,0 +1,63 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa en el proceso las operaciones sobre un mismo cliente con un conjunto fijo de candados
+ * Cada cliente se asigna a una franja por su hash, así clientes distintos avanzan en paralelo
+ * y la memoria no crece con el número de clientes
+ */
+@Component
+public class BloqueoClientes {
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+    private final long esperaMaximaMs;
+
+    public BloqueoClientes(@Value("${fondos.bloqueo.franjas:256}") int franjas,
+                           @Value("${fondos.bloqueo.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        int tamano = Integer.highestOneBit(Math.max(1, franjas - 1)) << 1;
+        this.franjas = new ReentrantLock[tamano];
+        for (int i = 0; i < tamano; i++) {
+            this.franjas[i] = new ReentrantLock();
+        }
+        this.mascara = tamano - 1;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Ejecuta la acción con el candado del cliente
+     * @param idCliente ID del cliente
+     * @param accion Acción a ejecutar
+     * @return Resultado de la acción
+     * @throws ConflictoConcurrenciaException Si no se obtiene el candado a tiempo
+     */
+    public <T> T ejecutar(String idCliente, Supplier<T> accion) {
+        ReentrantLock candado = franja(idCliente);
+        try {
+            if (!candado.tryLock(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new ConflictoConcurrenciaException(
+                        "El cliente tiene otra operación en curso, intente nuevamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictoConcurrenciaException("Operación interrumpida");
+        }
+        try {
+            return accion.get();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private ReentrantLock franja(String idCliente) {
+        int h = idCliente.hashCode();
+        return franjas[(h ^ (h >>> 16)) & mascara];
+    }
+}
@@ -0,0 +1,205 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Saldo, fondos activos y versión de los clientes en memoria
+ * Las suscripciones y cancelaciones de esta instancia escriben aquí el estado que devuelve MongoDB, así la siguiente
+ * lectura del cliente no carga el documento: cada lectura valida la entrada leyendo solo la versión
+ * y la recarga si otra instancia la cambió
+ * frescura-ms (0 por defecto) es una ventana opcional en la que la entrada se sirve sin validar; dentro de ella
+ * una lectura puede devolver un estado que otra instancia ya cambió, hasta frescura-ms de antigüedad
+ * Las lecturas simultáneas de un cliente ausente comparten una sola consulta
+ * El tamaño se mide en peso (un documento más uno por fondo activo) y se expulsan primero los menos usados
+ */
+@Component
+public class CacheClientes {
+
+    private final ClienteRepository clienteRepository;
+    private final MetricasFondos metricasFondos;
+    private final boolean habilitada;
+    private final long pesoMaximo;
+    private final long frescuraNs;
+    private final LongSupplier reloj;
+
+    /**
+     * Entradas en orden de acceso; protegidas por el monitor de la instancia
+     */
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long pesoTotal;
+    private final Map<String, CompletableFuture<Optional<Cliente>>> cargas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CacheClientes(ClienteRepository clienteRepository, MetricasFondos metricasFondos,
+                         @Value("${fondos.cache-clientes.habilitada:true}") boolean habilitada,
+                         @Value("${fondos.cache-clientes.peso-maximo:200000}") long pesoMaximo,
+                         @Value("${fondos.cache-clientes.frescura-ms:0}") long frescuraMs) {
+        this(clienteRepository, metricasFondos, habilitada, pesoMaximo, frescuraMs, System::nanoTime);
+    }
+
+    CacheClientes(ClienteRepository clienteRepository, MetricasFondos metricasFondos, boolean habilitada,
+                  long pesoMaximo, long frescuraMs, LongSupplier reloj) {
+        this.clienteRepository = clienteRepository;
+        this.metricasFondos = metricasFondos;
+        this.habilitada = habilitada;
+        this.pesoMaximo = pesoMaximo;
+        this.frescuraNs = TimeUnit.MILLISECONDS.toNanos(frescuraMs);
+        this.reloj = reloj;
+        metricasFondos.registrarCacheClientes(this);
+    }
+
+    /**
+     * Saldo, fondos activos y versión del cliente, desde memoria si la versión sigue vigente
+     * @param idCliente ID del cliente
+     * @return Copia del estado del cliente, o vacío si no existe
+     */
+    public Optional<Cliente> obtener(String idCliente) {
+        if (!habilitada) {
+            return clienteRepository.buscarResumen(idCliente);
+        }
+        Entrada entrada = buscar(idCliente);
+        if (entrada == null) {
+            metricasFondos.registrarCacheClientes(MetricasFondos.CACHE_FALLO);
+            return cargar(idCliente);
+        }
+        long ahora = reloj.getAsLong();
+        if (ahora - entrada.verificadaEn < frescuraNs) {
+            metricasFondos.registrarCacheClientes(MetricasFondos.CACHE_ACIERTO);
+            return Optional.of(copiar(entrada.cliente));
+        }
+        Optional<Long> version = clienteRepository.buscarVersion(idCliente);
+        if (version.isPresent() && version.get().equals(entrada.cliente.getVersion())) {
+            entrada.verificadaEn = ahora;
+            metricasFondos.registrarCacheClientes(MetricasFondos.CACHE_VERIFICADO);
+            return Optional.of(copiar(entrada.cliente));
+        }
+        metricasFondos.registrarCacheClientes(MetricasFondos.CACHE_OBSOLETO);
+        invalidar(idCliente);
+        return cargar(idCliente);
+    }
+
+    /**
+     * Escribe el estado que devolvió una actualización; no reemplaza una entrada con versión más reciente
+     * @param cliente Cliente con su versión
+     */
+    public void guardar(Cliente cliente) {
+        if (!habilitada || cliente == null || cliente.getId() == null) {
+            return;
+        }
+        Entrada nueva = new Entrada(copiar(cliente), reloj.getAsLong());
+        synchronized (this) {
+            Entrada actual = entradas.get(cliente.getId());
+            if (actual != null) {
+                if (version(actual.cliente) > version(cliente)) {
+                    return;
+                }
+                pesoTotal -= actual.peso;
+            }
+            entradas.put(cliente.getId(), nueva);
+            pesoTotal += nueva.peso;
+            expulsar();
+        }
+    }
+
+    /**
+     * Descarta el estado del cliente, para actualizaciones cuyo resultado no se conoce
+     */
+    public synchronized void invalidar(String idCliente) {
+        Entrada actual = entradas.remove(idCliente);
+        if (actual != null) {
+            pesoTotal -= actual.peso;
+        }
+    }
+
+    public synchronized int getEntradas() {
+        return entradas.size();
+    }
+
+    public synchronized long getPeso() {
+        return pesoTotal;
+    }
+
+    private synchronized Entrada buscar(String idCliente) {
+        return entradas.get(idCliente);
+    }
+
+    private Optional<Cliente> cargar(String idCliente) {
+        CompletableFuture<Optional<Cliente>> propia = new CompletableFuture<>();
+        CompletableFuture<Optional<Cliente>> enCurso = cargas.putIfAbsent(idCliente, propia);
+        if (enCurso != null) {
+            metricasFondos.registrarCacheClientes(MetricasFondos.CACHE_COMPARTIDO);
+            try {
+                return enCurso.join().map(CacheClientes::copiar);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            Optional<Cliente> cliente = clienteRepository.buscarResumen(idCliente);
+            cliente.ifPresent(this::guardar);
+            propia.complete(cliente);
+            return cliente.map(CacheClientes::copiar);
+        } catch (RuntimeException e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            cargas.remove(idCliente, propia);
+        }
+    }
+
+    private void expulsar() {
+        Iterator<Entrada> menosUsadas = entradas.values().iterator();
+        while (pesoTotal > pesoMaximo && menosUsadas.hasNext()) {
+            pesoTotal -= menosUsadas.next().peso;
+            menosUsadas.remove();
+            metricasFondos.registrarCacheClientes(MetricasFondos.CACHE_EXPULSION);
+        }
+    }
+
+    private static long version(Cliente cliente) {
+        return cliente.getVersion() != null ? cliente.getVersion() : -1L;
+    }
+
+    /**
+     * Copia de los campos del resumen; la caché nunca comparte sus instancias con quien la llama
+     */
+    private static Cliente copiar(Cliente cliente) {
+        Cliente copia = new Cliente();
+        copia.setId(cliente.getId());
+        copia.setSaldo(cliente.getSaldo());
+        copia.setFondosActivos(new ArrayList<>(cliente.getFondosActivos()));
+        copia.setPreferenciaNotificacion(cliente.getPreferenciaNotificacion());
+        copia.setContacto(cliente.getContacto());
+        copia.setVersion(cliente.getVersion());
+        copia.setSecuenciaEventos(cliente.getSecuenciaEventos());
+        return copia;
+    }
+
+    private static final class Entrada {
+
+        private final Cliente cliente;
+        private final long peso;
+        private volatile long verificadaEn;
+
+        private Entrada(Cliente cliente, long verificadaEn) {
+            this.cliente = cliente;
+            this.peso = 1L + cliente.getFondosActivos().size();
+            this.verificadaEn = verificadaEn;
+        }
+    }
+}
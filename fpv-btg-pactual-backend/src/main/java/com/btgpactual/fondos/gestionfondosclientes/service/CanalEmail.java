@@ -0,0 +1,263 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal de email con conexiones SMTP persistentes y envío por lotes
+ * Los mensajes se encolan y un grupo fijo de despachadores los envía en lotes;
+ * cada despachador mantiene abierta su propia conexión SMTP (con STARTTLS ya negociado)
+ * y la reutiliza entre lotes, reconectando solo si se cerró o estuvo inactiva demasiado tiempo
+ */
+@Component
+@Slf4j
+public class CanalEmail {
+
+    private static final long ESPERA_COLA_MS = 200;
+
+    private final JavaMailSender mailSender;
+    private final String remitente;
+    private final int tamanoLote;
+    private final long esperaLoteNanos;
+    private final int conexiones;
+    private final long inactividadMaximaNanos;
+    private final LinkedBlockingQueue<Envio> cola;
+    private final List<Thread> despachadores = new ArrayList<>();
+    private volatile boolean activo = true;
+
+    public CanalEmail(JavaMailSender mailSender,
+                      @Value("${fondos.email.remitente:noreply@btgpactual.com}") String remitente,
+                      @Value("${fondos.email.lote.tamano:50}") int tamanoLote,
+                      @Value("${fondos.email.lote.espera-ms:100}") long esperaLoteMs,
+                      @Value("${fondos.email.conexiones:2}") int conexiones,
+                      @Value("${fondos.email.inactividad-maxima-ms:60000}") long inactividadMaximaMs,
+                      @Value("${fondos.email.capacidad-cola:10000}") int capacidadCola) {
+        this.mailSender = mailSender;
+        this.remitente = remitente;
+        this.tamanoLote = tamanoLote;
+        this.esperaLoteNanos = TimeUnit.MILLISECONDS.toNanos(esperaLoteMs);
+        this.conexiones = conexiones;
+        this.inactividadMaximaNanos = TimeUnit.MILLISECONDS.toNanos(inactividadMaximaMs);
+        this.cola = new LinkedBlockingQueue<>(capacidadCola);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        for (int i = 1; i <= conexiones; i++) {
+            Thread hilo = new Thread(this::despachar, "canal-email-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            despachadores.add(hilo);
+        }
+    }
+
+    /**
+     * Encola un email para su envío en el próximo lote
+     * @param para Dirección del destinatario
+     * @param asunto Asunto del email
+     * @param texto Contenido del mensaje
+     * @return Futuro que se completa cuando el servidor SMTP acepta el mensaje
+     */
+    public CompletableFuture<Void> enviar(String para, String asunto, String texto) {
+        Envio envio = new Envio(para, asunto, texto);
+        if (!activo || !cola.offer(envio)) {
+            envio.futuro.completeExceptionally(new MailSendException("La cola de email no acepta más mensajes"));
+        }
+        return envio.futuro;
+    }
+
+    /**
+     * Ciclo de cada despachador: arma un lote (hasta el tamaño máximo o hasta que vence la espera)
+     * y lo envía por su conexión
+     */
+    private void despachar() {
+        Conexion conexion = new Conexion();
+        List<Envio> lote = new ArrayList<>(tamanoLote);
+        try {
+            while (activo || !cola.isEmpty()) {
+                Envio primero = cola.poll(ESPERA_COLA_MS, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                completarLote(lote);
+                enviarLote(conexion, lote);
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lote.forEach(envio -> envio.futuro.completeExceptionally(new MailSendException("Canal de email detenido")));
+            conexion.cerrar();
+        }
+    }
+
+    /**
+     * Agrega al lote los mensajes en cola y espera a que lleguen más mientras no se llene ni venza la espera
+     */
+    private void completarLote(List<Envio> lote) throws InterruptedException {
+        cola.drainTo(lote, tamanoLote - lote.size());
+        long limite = System.nanoTime() + esperaLoteNanos;
+        while (lote.size() < tamanoLote) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            Envio siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                return;
+            }
+            lote.add(siguiente);
+            cola.drainTo(lote, tamanoLote - lote.size());
+        }
+    }
+
+    /**
+     * Envía el lote por una sola conexión; si la conexión se cae a mitad de lote
+     * se reconecta una vez y se reintenta el mensaje en curso
+     */
+    private void enviarLote(Conexion conexion, List<Envio> lote) {
+        if (!(mailSender instanceof JavaMailSenderImpl)) {
+            enviarSinConexionPropia(lote);
+            return;
+        }
+        for (Envio envio : lote) {
+            try {
+                MimeMessage mensaje = crearMensaje(envio);
+                try {
+                    conexion.enviar(mensaje);
+                } catch (MessagingException e) {
+                    if (conexion.abierta()) {
+                        throw e;
+                    }
+                    conexion.cerrar();
+                    conexion.enviar(mensaje);
+                }
+                envio.futuro.complete(null);
+            } catch (Exception e) {
+                log.warn("Error al enviar email a {}: {}", envio.para, e.getMessage());
+                envio.futuro.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Envío por lotes con un JavaMailSender genérico (una conexión por lote)
+     */
+    private void enviarSinConexionPropia(List<Envio> lote) {
+        try {
+            MimeMessage[] mensajes = new MimeMessage[lote.size()];
+            for (int i = 0; i < mensajes.length; i++) {
+                mensajes[i] = crearMensaje(lote.get(i));
+            }
+            mailSender.send(mensajes);
+            lote.forEach(envio -> envio.futuro.complete(null));
+        } catch (Exception e) {
+            lote.forEach(envio -> envio.futuro.completeExceptionally(e));
+        }
+    }
+
+    private MimeMessage crearMensaje(Envio envio) throws MessagingException {
+        MimeMessage mensaje = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mensaje, StandardCharsets.UTF_8.name());
+        helper.setFrom(remitente);
+        helper.setTo(envio.para);
+        helper.setSubject(envio.asunto);
+        helper.setText(envio.texto);
+        mensaje.saveChanges();
+        return mensaje;
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        for (Thread hilo : despachadores) {
+            hilo.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Mensaje en cola con el futuro que se completa al enviarlo
+     */
+    private static final class Envio {
+        private final String para;
+        private final String asunto;
+        private final String texto;
+        private final CompletableFuture<Void> futuro = new CompletableFuture<>();
+
+        private Envio(String para, String asunto, String texto) {
+            this.para = para;
+            this.asunto = asunto;
+            this.texto = texto;
+        }
+    }
+
+    /**
+     * Conexión SMTP de un despachador; solo la usa su propio hilo
+     */
+    private final class Conexion {
+        private Transport transport;
+        private long ultimoUso;
+
+        void enviar(MimeMessage mensaje) throws MessagingException {
+            Transport abierto = obtener();
+            abierto.sendMessage(mensaje, mensaje.getAllRecipients());
+            ultimoUso = System.nanoTime();
+        }
+
+        boolean abierta() {
+            return transport != null && transport.isConnected();
+        }
+
+        private Transport obtener() throws MessagingException {
+            boolean inactiva = transport != null && System.nanoTime() - ultimoUso > inactividadMaximaNanos;
+            if (inactiva || !abierta()) {
+                cerrar();
+                JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+                transport = sender.getSession().getTransport(protocolo(sender));
+                transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+                ultimoUso = System.nanoTime();
+            }
+            return transport;
+        }
+
+        /**
+         * Protocolo configurado en el sender o en la sesión; smtp si ninguno lo define, como hace JavaMailSenderImpl
+         */
+        private String protocolo(JavaMailSenderImpl sender) {
+            if (sender.getProtocol() != null) {
+                return sender.getProtocol();
+            }
+            String deSesion = sender.getSession().getProperty("mail.transport.protocol");
+            return deSesion != null ? deSesion : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        }
+
+        void cerrar() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    log.debug("Error al cerrar la conexión SMTP: {}", e.getMessage());
+                }
+                transport = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Foto inmutable del catálogo de fondos con su respuesta ya serializada en JSON y su ETag
+ * Los fondos se comparten entre peticiones y no deben modificarse
+ */
+@Getter
+public class CatalogoFondos {
+
+    private final List<Fondo> fondos;
+    private final Map<String, Fondo> porId;
+    private final byte[] json;
+    private final String etag;
+
+    public CatalogoFondos(List<Fondo> fondos, byte[] json) {
+        Map<String, Fondo> indice = new LinkedHashMap<>();
+        fondos.forEach(fondo -> indice.put(fondo.getId(), fondo));
+        this.fondos = Collections.unmodifiableList(fondos);
+        this.porId = Collections.unmodifiableMap(indice);
+        this.json = json;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    /**
+     * Respuesta del catálogo sin serializar, para los formatos distintos de JSON
+     * @return Misma respuesta que la serializada en json
+     */
+    public ApiResponse<List<Fondo>> respuesta() {
+        return ApiResponse.success(CatalogoFondosCache.MENSAJE_FONDOS, fondos);
+    }
+
+    /**
+     * Busca un fondo del catálogo por su ID
+     * @param idFondo ID del fondo
+     * @return Fondo encontrado o vacío
+     */
+    public Optional<Fondo> buscar(String idFondo) {
+        return Optional.ofNullable(porId.get(idFondo));
+    }
+}
@@ -0,0 +1,103 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de lectura del catálogo de fondos
+ * Se carga en la primera lectura, se invalida cuando se escriben fondos
+ * y se refresca en segundo plano cada cierto intervalo (cambios hechos por otras instancias)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogoFondosCache {
+
+    static final String MENSAJE_FONDOS = "Fondos obtenidos exitosamente";
+
+    private final FondoRepository fondoRepository;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong generacion = new AtomicLong();
+    private volatile CatalogoFondos actual;
+
+    /**
+     * Obtiene el catálogo vigente, cargándolo si no está en memoria
+     * @return Catálogo de fondos
+     */
+    public CatalogoFondos obtener() {
+        CatalogoFondos catalogo = actual;
+        if (catalogo != null) {
+            return catalogo;
+        }
+        synchronized (this) {
+            catalogo = actual;
+            return catalogo != null ? catalogo : cargar();
+        }
+    }
+
+    /**
+     * Obtiene el catálogo solo si ya está en memoria, sin acceder a la base de datos
+     * @return Catálogo vigente o vacío si hay que cargarlo
+     */
+    public Optional<CatalogoFondos> enMemoria() {
+        return Optional.ofNullable(actual);
+    }
+
+    /**
+     * Descarta el catálogo en memoria; la próxima lectura lo vuelve a cargar
+     */
+    public void invalidar() {
+        generacion.incrementAndGet();
+        actual = null;
+    }
+
+    /**
+     * Recarga el catálogo periódicamente sin bloquear a los lectores
+     */
+    @Scheduled(fixedDelayString = "${fondos.catalogo.refresco-ms:60000}",
+               initialDelayString = "${fondos.catalogo.refresco-ms:60000}")
+    public void refrescar() {
+        try {
+            synchronized (this) {
+                cargar();
+            }
+        } catch (Exception e) {
+            log.error("Error al refrescar el catálogo de fondos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lee los fondos y serializa la respuesta una sola vez
+     * Solo publica el resultado si no hubo una invalidación mientras se leía
+     */
+    private CatalogoFondos cargar() {
+        long generacionInicial = generacion.get();
+        List<Fondo> fondos = new ArrayList<>(fondoRepository.findAll());
+
+        CatalogoFondos catalogo;
+        try {
+            catalogo = new CatalogoFondos(fondos,
+                    objectMapper.writeValueAsBytes(ApiResponse.success(MENSAJE_FONDOS, fondos)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No fue posible serializar el catálogo de fondos", e);
+        }
+
+        if (generacion.get() == generacionInicial) {
+            actual = catalogo;
+        }
+        return catalogo;
+    }
+}
@@ -0,0 +1,28 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida el catálogo en memoria cuando se guardan o eliminan fondos
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogoFondosListener extends AbstractMongoEventListener<Fondo> {
+
+    private final CatalogoFondosCache catalogoFondosCache;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Fondo> event) {
+        catalogoFondosCache.invalidar();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Fondo> event) {
+        catalogoFondosCache.invalidar();
+    }
+}
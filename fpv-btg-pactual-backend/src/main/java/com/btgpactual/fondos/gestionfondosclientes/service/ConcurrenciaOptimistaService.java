@@ -0,0 +1,86 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reintenta las escrituras condicionadas al estado leído de un cliente (actualización con filtro
+ * o evento con secuencia esperada) cuando otro escritor se adelantó
+ * Entre intentos espera de forma exponencial hasta agotar el presupuesto
+ * Publica contadores de conflictos, reintentos y abandonos por operación
+ */
+@Service
+@Slf4j
+public class ConcurrenciaOptimistaService {
+
+    static final String METRICA_CONFLICTOS = "fondos.concurrencia.optimista.conflictos";
+    static final String METRICA_REINTENTOS = "fondos.concurrencia.optimista.reintentos";
+    static final String METRICA_ABANDONOS = "fondos.concurrencia.optimista.abandonos";
+    private static final String TAG_OPERACION = "operacion";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxIntentos;
+    private final long esperaInicialMs;
+    private final long esperaMaximaMs;
+
+    public ConcurrenciaOptimistaService(MeterRegistry meterRegistry,
+                                        @Value("${fondos.concurrencia-optimista.max-intentos:3}") int maxIntentos,
+                                        @Value("${fondos.concurrencia-optimista.espera-inicial-ms:10}") long esperaInicialMs,
+                                        @Value("${fondos.concurrencia-optimista.espera-maxima-ms:200}") long esperaMaximaMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxIntentos = maxIntentos;
+        this.esperaInicialMs = esperaInicialMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Ejecuta el intento hasta que su escritura aplique
+     * @param operacion Nombre de la operación, usado como etiqueta de las métricas
+     * @param idCliente ID del cliente, para el registro
+     * @param intento Lee el estado, valida y escribe condicionado a lo leído; vacío si otro escritor
+     *                cambió el cliente entre medias. Se ejecuta de nuevo en cada reintento
+     * @return Resultado del intento que aplicó
+     * @throws ConflictoConcurrenciaException Si se agotan los reintentos
+     */
+    public <T> T ejecutar(String operacion, String idCliente, Supplier<Optional<T>> intento) {
+        for (int numero = 1; ; numero++) {
+            Optional<T> resultado = intento.get();
+            if (resultado.isPresent()) {
+                return resultado.get();
+            }
+            meterRegistry.counter(METRICA_CONFLICTOS, TAG_OPERACION, operacion).increment();
+            if (numero >= maxIntentos) {
+                meterRegistry.counter(METRICA_ABANDONOS, TAG_OPERACION, operacion).increment();
+                log.warn("Se agotaron los reintentos de {} para el cliente {}", operacion, idCliente);
+                throw new ConflictoConcurrenciaException(
+                        "El cliente fue modificado concurrentemente, intente nuevamente");
+            }
+            meterRegistry.counter(METRICA_REINTENTOS, TAG_OPERACION, operacion).increment();
+            esperar(numero);
+        }
+    }
+
+    /**
+     * Espera exponencial con variación aleatoria para no reintentar todos al mismo tiempo
+     * @param intento Número del intento fallido
+     */
+    private void esperar(int intento) {
+        long tope = Math.min(esperaMaximaMs, esperaInicialMs << Math.min(intento - 1, 20));
+        if (tope <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(tope / 2, tope + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictoConcurrenciaException("Reintento interrumpido");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.btgpactual.fondos.gestionfondosclientes.service;
 
 import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
 import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,10 +22,12 @@ import java.util.List;
 public class DataInitializationService implements CommandLineRunner {
     
     private final FondoRepository fondoRepository;
+    private final ClienteRepository clienteRepository;
     
     /**
      * Se ejecuta al iniciar la aplicación
      * Inicializa los fondos si la base de datos está vacía
+     * y asigna versión a los clientes que aún no la tienen
      * @param args Argumentos de la aplicación
      */
     @Override
@@ -32,6 +36,11 @@ public class DataInitializationService implements CommandLineRunner {
             inicializarFondos();
             log.info("Datos inicializados correctamente");
         }
+
+        long versionados = clienteRepository.inicializarVersiones();
+        if (versionados > 0) {
+            log.info("Versión inicial asignada a {} clientes", versionados);
+        }
     }
     
     /**
@@ -40,11 +49,11 @@ public class DataInitializationService implements CommandLineRunner {
      */
     private void inicializarFondos() {
         List<Fondo> fondos = Arrays.asList(
-            new Fondo("1","FPV","FPV_BTG_PACTUAL_RECAUDADORA", 75000.0),
-            new Fondo("2","FPV", "FPV_BTG_PACTUAL_ECOPETROL", 125000.0),
-            new Fondo("3","FIC", "DEUDAPRIVADA", 50000.0),
-            new Fondo("4","FIC", "FDO-ACCIONES", 250000.0),
-            new Fondo("5","FPV", "FPV_BTG_PACTUAL_DINAMICA", 100000.0)
+            new Fondo("1","FPV","FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000)),
+            new Fondo("2","FPV", "FPV_BTG_PACTUAL_ECOPETROL", Monto.dePesos(125000)),
+            new Fondo("3","FIC", "DEUDAPRIVADA", Monto.dePesos(50000)),
+            new Fondo("4","FIC", "FDO-ACCIONES", Monto.dePesos(250000)),
+            new Fondo("5","FPV", "FPV_BTG_PACTUAL_DINAMICA", Monto.dePesos(100000))
         );
         
         fondoRepository.saveAll(fondos);
@@ -0,0 +1,262 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.EstadisticasFondo;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ActividadFondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EstadisticaFondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Monto administrado y suscriptores por fondo, mantenidos de forma incremental
+ * Cada suscripción o cancelación suma su monto y un suscriptor a uno de los fragmentos del fondo,
+ * elegido por el ID del cliente, y la lectura suma los fragmentos
+ * El compactador traslada periódicamente los fragmentos al consolidado para que la lectura toque pocos documentos;
+ * la reconstrucción recalcula los totales desde los clientes para corregir la deriva
+ * (los contadores se actualizan después del cliente, no en la misma escritura)
+ * En la misma pasada se acumula la actividad por fondo y tipo de transacción en intervalos de minuto, hora y día
+ */
+@Service
+@Slf4j
+public class EstadisticasFondosService {
+
+    private final EstadisticaFondoRepository estadisticaFondoRepository;
+    private final ActividadFondoRepository actividadFondoRepository;
+    private final CatalogoFondosCache catalogoFondosCache;
+    private final int fragmentos;
+    private final int retencionMinutosDias;
+    private final int retencionHorasDias;
+
+    public EstadisticasFondosService(EstadisticaFondoRepository estadisticaFondoRepository,
+                                     ActividadFondoRepository actividadFondoRepository,
+                                     CatalogoFondosCache catalogoFondosCache,
+                                     @Value("${fondos.estadisticas.fragmentos:16}") int fragmentos,
+                                     @Value("${fondos.actividad.retencion-minutos-dias:7}") int retencionMinutosDias,
+                                     @Value("${fondos.actividad.retencion-horas-dias:90}") int retencionHorasDias) {
+        this.estadisticaFondoRepository = estadisticaFondoRepository;
+        this.actividadFondoRepository = actividadFondoRepository;
+        this.catalogoFondosCache = catalogoFondosCache;
+        this.fragmentos = fragmentos;
+        this.retencionMinutosDias = retencionMinutosDias;
+        this.retencionHorasDias = retencionHorasDias;
+    }
+
+    /**
+     * Incremento de una suscripción
+     * @param idCliente ID del cliente, elige el fragmento
+     * @param idFondo ID del fondo
+     * @param monto Monto suscrito
+     */
+    public FragmentoEstadisticaFondo suscripcion(String idCliente, String idFondo, Monto monto) {
+        return FragmentoEstadisticaFondo.incremento(idFondo, fragmento(idCliente), monto, 1);
+    }
+
+    /**
+     * Decremento de una cancelación
+     * @param idCliente ID del cliente, elige el fragmento
+     * @param idFondo ID del fondo
+     * @param monto Monto que se devuelve al cliente
+     */
+    public FragmentoEstadisticaFondo cancelacion(String idCliente, String idFondo, Monto monto) {
+        return FragmentoEstadisticaFondo.incremento(idFondo, fragmento(idCliente), monto.negar(), -1);
+    }
+
+    /**
+     * Aplica los incrementos, agrupando los del mismo fragmento en una sola operación, y acumula la actividad
+     * Un error no hace fallar la operación del cliente, que ya quedó aplicada: los contadores
+     * quedan desviados hasta la próxima reconstrucción y la actividad de esas operaciones no se cuenta
+     * @param incrementos Incrementos de suscripciones y cancelaciones
+     */
+    public void registrar(Collection<FragmentoEstadisticaFondo> incrementos) {
+        registrar(incrementos, LocalDateTime.now());
+    }
+
+    /**
+     * Igual que {@link #registrar(Collection)}, con la actividad en el intervalo de un momento dado
+     * @param incrementos Incrementos de suscripciones y cancelaciones
+     * @param momento Momento de las operaciones, para las que se registran después de aplicarse
+     */
+    public void registrar(Collection<FragmentoEstadisticaFondo> incrementos, LocalDateTime momento) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        try {
+            actividadFondoRepository.acumular(actividad(incrementos, momento));
+        } catch (Exception e) {
+            log.warn("No se actualizó la actividad de los fondos: {}", e.getMessage());
+        }
+        Map<String, FragmentoEstadisticaFondo> porFragmento = new LinkedHashMap<>();
+        for (FragmentoEstadisticaFondo incremento : incrementos) {
+            porFragmento.merge(incremento.getId(), incremento, (a, b) -> FragmentoEstadisticaFondo.incremento(
+                    a.getIdFondo(), a.getFragmento(),
+                    a.getMontoAdministrado().sumar(b.getMontoAdministrado()),
+                    a.getSuscriptores() + b.getSuscriptores()));
+        }
+        try {
+            estadisticaFondoRepository.acumular(porFragmento.values());
+        } catch (Exception e) {
+            log.warn("No se actualizaron las estadísticas de los fondos, se corregirán en la reconstrucción: {}",
+                    e.getMessage());
+        }
+    }
+
+    public void registrar(FragmentoEstadisticaFondo incremento) {
+        registrar(Collections.singletonList(incremento));
+    }
+
+    /**
+     * Estadísticas de todos los fondos del catálogo, incluidos los que no tienen suscriptores
+     * @return Estadísticas en el orden del catálogo
+     */
+    public List<EstadisticasFondo> obtenerEstadisticas() {
+        Map<String, List<FragmentoEstadisticaFondo>> porFondo = estadisticaFondoRepository.findAll().stream()
+                .collect(Collectors.groupingBy(FragmentoEstadisticaFondo::getIdFondo));
+        return catalogoFondosCache.obtener().getFondos().stream()
+                .map(fondo -> sumar(fondo, porFondo.getOrDefault(fondo.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Estadísticas de un fondo
+     * @param idFondo ID del fondo
+     * @return Suma de los fragmentos del fondo
+     * @throws FondoNotFoundException Si el fondo no existe
+     */
+    public EstadisticasFondo obtenerEstadisticas(String idFondo) {
+        Fondo fondo = catalogoFondosCache.obtener().buscar(idFondo)
+                .orElseThrow(() -> new FondoNotFoundException("El fondo " + idFondo + " no existe"));
+        return sumar(fondo, estadisticaFondoRepository.findByIdFondo(idFondo));
+    }
+
+    /**
+     * Actividad de un fondo por intervalos; el costo depende del número de intervalos y no del de transacciones
+     * @param idFondo ID del fondo
+     * @param granularidad minuto, hora o dia
+     * @param desde Inicio del rango, se amplía al inicio de su intervalo
+     * @param hasta Fin del rango (exclusivo)
+     * @return Intervalos con actividad, de ambos tipos, en orden cronológico; los intervalos sin operaciones no aparecen
+     * @throws FondoNotFoundException Si el fondo no existe
+     * @throws IllegalArgumentException Si la granularidad no está soportada o el rango es vacío o demasiado amplio
+     */
+    public List<ActividadFondo> obtenerActividad(String idFondo, String granularidad,
+                                                 LocalDateTime desde, LocalDateTime hasta) {
+        catalogoFondosCache.obtener().buscar(idFondo)
+                .orElseThrow(() -> new FondoNotFoundException("El fondo " + idFondo + " no existe"));
+        GranularidadActividad tamano = GranularidadActividad.de(granularidad);
+        if (!desde.isBefore(hasta) || tamano.intervalos(desde, hasta) > Constants.MAX_INTERVALOS_ACTIVIDAD) {
+            throw new IllegalArgumentException(
+                    String.format(Constants.MSG_RANGO_ACTIVIDAD, Constants.MAX_INTERVALOS_ACTIVIDAD));
+        }
+        return actividadFondoRepository.findByIdFondoAndGranularidadAndInicioGreaterThanEqualAndInicioLessThanOrderByInicioAsc(
+                idFondo, tamano.getNombre(), tamano.truncar(desde), hasta);
+    }
+
+    /**
+     * Traslada al consolidado los fragmentos con valores
+     * @return Número de fragmentos compactados
+     */
+    @Scheduled(fixedDelayString = "${fondos.estadisticas.compactacion.intervalo-ms:60000}")
+    public int compactar() {
+        int compactados = 0;
+        try {
+            for (FragmentoEstadisticaFondo fragmento : estadisticaFondoRepository.findAll()) {
+                if (fragmento.getFragmento() != 0) {
+                    estadisticaFondoRepository.compactar(fragmento);
+                    compactados++;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error al compactar las estadísticas de los fondos: {}", e.getMessage());
+        }
+        return compactados;
+    }
+
+    /**
+     * Recalcula los totales de cada fondo desde las suscripciones activas de los clientes
+     * Los incrementos que lleguen mientras se recalcula pueden perderse; por eso se programa en horas de poco tráfico
+     */
+    @Scheduled(cron = "${fondos.estadisticas.reconstruccion.cron:0 0 3 * * *}")
+    public void reconstruir() {
+        try {
+            Map<String, FragmentoEstadisticaFondo> totales = estadisticaFondoRepository.calcularDesdeClientes().stream()
+                    .collect(Collectors.toMap(FragmentoEstadisticaFondo::getIdFondo, Function.identity()));
+            for (Fondo fondo : catalogoFondosCache.obtener().getFondos()) {
+                FragmentoEstadisticaFondo total = totales.get(fondo.getId());
+                estadisticaFondoRepository.reemplazar(fondo.getId(),
+                        total != null ? total.getMontoAdministrado() : Monto.CERO,
+                        total != null ? total.getSuscriptores() : 0L);
+            }
+            log.info("Estadísticas de {} fondos reconstruidas desde los clientes", totales.size());
+        } catch (Exception e) {
+            log.error("Error al reconstruir las estadísticas de los fondos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Incrementos de actividad de cada intervalo que contiene el momento de las operaciones
+     * El tipo sale del signo de suscriptores: las suscripciones suman uno y las cancelaciones restan uno
+     */
+    List<ActividadFondo> actividad(Collection<FragmentoEstadisticaFondo> incrementos, LocalDateTime momento) {
+        Map<String, ActividadFondo> porIntervalo = new LinkedHashMap<>();
+        for (FragmentoEstadisticaFondo incremento : incrementos) {
+            boolean suscripcion = incremento.getSuscriptores() >= 0;
+            String tipo = suscripcion ? Constants.TIPO_TRANSACCION_SUSCRIPCION : Constants.TIPO_TRANSACCION_CANCELACION;
+            Monto monto = suscripcion ? incremento.getMontoAdministrado() : incremento.getMontoAdministrado().negar();
+            for (GranularidadActividad granularidad : GranularidadActividad.values()) {
+                LocalDateTime inicio = granularidad.truncar(momento);
+                String id = ActividadFondo.id(incremento.getIdFondo(), tipo, granularidad.getNombre(), inicio);
+                ActividadFondo actual = porIntervalo.get(id);
+                if (actual == null) {
+                    porIntervalo.put(id, new ActividadFondo(id, incremento.getIdFondo(), tipo, granularidad.getNombre(),
+                            inicio, 1L, monto, expiracion(granularidad, inicio)));
+                } else {
+                    actual.setOperaciones(actual.getOperaciones() + 1);
+                    actual.setMonto(actual.getMonto().sumar(monto));
+                }
+            }
+        }
+        return new ArrayList<>(porIntervalo.values());
+    }
+
+    private LocalDateTime expiracion(GranularidadActividad granularidad, LocalDateTime inicio) {
+        switch (granularidad) {
+            case MINUTO:
+                return inicio.plusDays(retencionMinutosDias);
+            case HORA:
+                return inicio.plusDays(retencionHorasDias);
+            default:
+                return null;
+        }
+    }
+
+    private int fragmento(String idCliente) {
+        return Math.floorMod(idCliente.hashCode(), fragmentos);
+    }
+
+    private static EstadisticasFondo sumar(Fondo fondo, List<FragmentoEstadisticaFondo> fragmentos) {
+        long centavos = 0L;
+        long suscriptores = 0L;
+        for (FragmentoEstadisticaFondo fragmento : fragmentos) {
+            centavos = Monto.sumarCentavos(centavos, fragmento.getMontoAdministrado());
+            suscriptores += fragmento.getSuscriptores();
+        }
+        return new EstadisticasFondo(fondo.getId(), fondo.getNombre(), Monto.deCentavos(centavos), suscriptores);
+    }
+}
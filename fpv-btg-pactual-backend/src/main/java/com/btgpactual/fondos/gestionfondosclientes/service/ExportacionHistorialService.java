@@ -0,0 +1,137 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación del historial de transacciones para los extractos
+ * Escribe cada transacción en la salida a medida que llega del cursor de MongoDB,
+ * así la memoria usada no depende del tamaño del historial
+ */
+@Service
+@Slf4j
+public class ExportacionHistorialService {
+
+    static final String ENCABEZADO_CSV = "idTransaccion,idCliente,tipo,fondo,monto,fecha";
+
+    private final TransaccionRepository transaccionRepository;
+    private final ObjectMapper objectMapper;
+    /**
+     * Sin vaciar la salida tras cada transacción: el búfer del generador agrupa las filas
+     */
+    private final ObjectWriter escritorJson;
+
+    public ExportacionHistorialService(TransaccionRepository transaccionRepository, ObjectMapper objectMapper) {
+        this.transaccionRepository = transaccionRepository;
+        this.objectMapper = objectMapper;
+        this.escritorJson = objectMapper.writerFor(Transaccion.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Valida el rango de fechas antes de empezar a escribir la respuesta
+     * @param desde Día inicial o null
+     * @param hasta Día final o null
+     * @throws IllegalArgumentException Si el día inicial es posterior al final
+     */
+    public void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException(Constants.MSG_RANGO_FECHAS);
+        }
+    }
+
+    /**
+     * Escribe el historial del cliente en el formato pedido; no cierra la salida
+     * @param idCliente ID del cliente
+     * @param formato Formato de exportación
+     * @param desde Día inicial incluido, o null para no acotar
+     * @param hasta Día final incluido, o null para no acotar
+     * @param salida Salida de la respuesta
+     * @return Número de transacciones exportadas
+     */
+    public long exportar(String idCliente, FormatoExportacion formato, LocalDate desde, LocalDate hasta,
+                         OutputStream salida) throws IOException {
+        validarRango(desde, hasta);
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : null;
+        LocalDateTime fin = hasta != null ? hasta.plusDays(1).atStartOfDay() : null;
+
+        long exportadas;
+        try (Stream<Transaccion> historial = transaccionRepository.recorrerHistorial(idCliente, inicio, fin)) {
+            exportadas = formato == FormatoExportacion.CSV
+                    ? escribirCsv(historial.iterator(), salida)
+                    : escribirNdjson(historial.iterator(), salida);
+        }
+        log.debug("Historial de {} exportado en {}: {} transacciones", idCliente, formato, exportadas);
+        return exportadas;
+    }
+
+    private long escribirNdjson(Iterator<Transaccion> historial, OutputStream salida) throws IOException {
+        long exportadas = 0;
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (historial.hasNext()) {
+                escritorJson.writeValue(generador, historial.next());
+                generador.writeRaw('\n');
+                exportadas++;
+            }
+        }
+        return exportadas;
+    }
+
+    private long escribirCsv(Iterator<Transaccion> historial, OutputStream salida) throws IOException {
+        long exportadas = 0;
+        // Sin cerrar: cerrar el escritor cerraría la salida de la respuesta
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        escritor.write(ENCABEZADO_CSV);
+        escritor.write("\r\n");
+        while (historial.hasNext()) {
+            Transaccion transaccion = historial.next();
+            escritor.write(campoCsv(transaccion.getIdTransaccion()));
+            escritor.write(',');
+            escritor.write(campoCsv(transaccion.getIdCliente()));
+            escritor.write(',');
+            escritor.write(campoCsv(transaccion.getTipo()));
+            escritor.write(',');
+            escritor.write(campoCsv(transaccion.getFondo()));
+            escritor.write(',');
+            escritor.write(transaccion.getMonto() != null ? transaccion.getMonto().toBigDecimal().toPlainString() : "");
+            escritor.write(',');
+            escritor.write(transaccion.getFecha() != null ? transaccion.getFecha().toString() : "");
+            escritor.write("\r\n");
+            exportadas++;
+        }
+        escritor.flush();
+        return exportadas;
+    }
+
+    /**
+     * Entrecomilla el campo si contiene separadores, comillas o saltos de línea
+     */
+    static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,342 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EventoClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_CARGA_CLIENTE;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_CARGA_FONDO;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_GUARDADO;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_VALIDACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_CANCELACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_LOTE;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_SUSCRIPCION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.ValidacionesSuscripcion.validarMontoMinimo;
+import static com.btgpactual.fondos.gestionfondosclientes.service.ValidacionesSuscripcion.validarSuscripcion;
+
+/**
+ * Versión de {@link FondoService} con libro de eventos para el perfil "eventos"
+ * Suscripciones y cancelaciones se agregan como eventos inmutables en eventos_cliente, una inserción secuencial
+ * por operación, en lugar de modificar el documento del cliente
+ * El estado se obtiene de la última instantánea guardada en el documento del cliente más los eventos posteriores;
+ * cada intervalo-instantaneas eventos se guarda una nueva instantánea
+ * El evento es la única escritura de la operación: la transacción, la notificación y las estadísticas
+ * las proyecta {@link ProyeccionEventosService} desde eventos_cliente
+ */
+@Service
+@Primary
+@Profile("eventos")
+@Slf4j
+public class FondoEventosService extends FondoService {
+
+    private final EventoClienteRepository eventoRepository;
+    private final int intervaloInstantaneas;
+
+    public FondoEventosService(ClienteRepository clienteRepository,
+                               FondoRepository fondoRepository,
+                               TransaccionRepository transaccionRepository,
+                               BloqueoClientes bloqueoClientes,
+                               CatalogoFondosCache catalogoFondosCache,
+                               MetricasFondos metricasFondos,
+                               GeneradorId generadorId,
+                               EstadisticasFondosService estadisticasFondos,
+                               CacheClientes cacheClientes,
+                               ConcurrenciaOptimistaService concurrenciaOptimista,
+                               EventoClienteRepository eventoRepository,
+                               @Value("${fondos.eventos.intervalo-instantaneas:100}") int intervaloInstantaneas) {
+        super(clienteRepository, fondoRepository, transaccionRepository, bloqueoClientes,
+                catalogoFondosCache, metricasFondos, generadorId, estadisticasFondos, cacheClientes,
+                concurrenciaOptimista);
+        this.eventoRepository = eventoRepository;
+        this.intervaloInstantaneas = intervaloInstantaneas;
+    }
+
+    /**
+     * Suscribe al cliente agregando un evento de suscripción validado contra su estado actual
+     * Si otro escritor agregó un evento entre la lectura y la inserción, se vuelve a leer y validar
+     * @param idCliente ID del cliente que se suscribe
+     * @param request Datos de la suscripción
+     * @return Estado del cliente con la nueva suscripción
+     */
+    @Override
+    public Cliente suscribirseAFondo(String idCliente, SuscripcionRequest request) {
+        return metricasFondos.medir(OPERACION_SUSCRIPCION,
+                () -> bloqueoClientes.ejecutar(idCliente, () -> suscribir(idCliente, request)));
+    }
+
+    private Cliente suscribir(String idCliente, SuscripcionRequest request) {
+        Fondo fondo = metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_CARGA_FONDO,
+                () -> obtenerFondo(request.getIdFondo()));
+        metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_VALIDACION, () -> validarMontoMinimo(fondo, request));
+
+        return concurrenciaOptimista.ejecutar(OPERACION_SUSCRIPCION, idCliente, () -> {
+            Cliente estado = metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_CARGA_CLIENTE,
+                    () -> estadoActual(idCliente).orElseGet(() -> clienteNuevo(idCliente)));
+            metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_VALIDACION,
+                    () -> validarSuscripcion(estado, fondo, request));
+
+            EventoCliente evento = evento(idCliente, siguiente(estado), Constants.TIPO_TRANSACCION_SUSCRIPCION,
+                    fondo, request.getMonto(), request.getPreferenciaNotificacion(), request.getContacto());
+            Optional<Cliente> nuevo = metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_GUARDADO,
+                    () -> agregar(estado, evento));
+            nuevo.ifPresent(cliente -> {
+                guardarInstantanea(OPERACION_SUSCRIPCION, cliente, evento);
+                log.info("Suscripción exitosa al fondo: {} por monto: {}", fondo.getNombre(), request.getMonto());
+            });
+            return nuevo;
+        });
+    }
+
+    /**
+     * Cancela la suscripción agregando un evento de cancelación con el monto suscrito
+     * @param idCliente ID del cliente que cancela
+     * @param request ID del fondo a cancelar
+     * @return Estado del cliente sin la suscripción
+     */
+    @Override
+    public Cliente cancelarSuscripcion(String idCliente, CancelacionRequest request) {
+        return metricasFondos.medir(OPERACION_CANCELACION,
+                () -> bloqueoClientes.ejecutar(idCliente, () -> cancelar(idCliente, request)));
+    }
+
+    private Cliente cancelar(String idCliente, CancelacionRequest request) {
+        Fondo fondo = metricasFondos.fase(OPERACION_CANCELACION, FASE_CARGA_FONDO,
+                () -> obtenerFondo(request.getIdFondo()));
+
+        return concurrenciaOptimista.ejecutar(OPERACION_CANCELACION, idCliente, () -> {
+            Cliente estado = metricasFondos.fase(OPERACION_CANCELACION, FASE_CARGA_CLIENTE,
+                    () -> estadoActual(idCliente))
+                    .orElseThrow(() -> new ClienteNotFoundException("Cliente no encontrado"));
+            FondoActivo fondoActivo = estado.getFondosActivos().stream()
+                    .filter(fa -> fa.getIdFondo().equals(request.getIdFondo()))
+                    .findFirst()
+                    .orElseThrow(() -> new SuscripcionNotFoundException("No está suscrito a este fondo"));
+
+            EventoCliente evento = evento(idCliente, siguiente(estado), Constants.TIPO_TRANSACCION_CANCELACION,
+                    fondo, fondoActivo.getMonto(), estado.getPreferenciaNotificacion(), estado.getContacto());
+            Optional<Cliente> nuevo = metricasFondos.fase(OPERACION_CANCELACION, FASE_GUARDADO,
+                    () -> agregar(estado, evento));
+            nuevo.ifPresent(cliente -> {
+                guardarInstantanea(OPERACION_CANCELACION, cliente, evento);
+                log.info("Cancelación exitosa del fondo: {} por monto: {}", fondo.getNombre(), fondoActivo.getMonto());
+            });
+            return nuevo;
+        });
+    }
+
+    /**
+     * Aplica las suscripciones del lote una a una sobre el libro de eventos
+     * La escritura por lotes del documento del cliente no aplica en este modo
+     * @param items Suscripciones del lote
+     * @return Resultado de cada suscripción, en el mismo orden del lote
+     */
+    @Override
+    public List<ResultadoSuscripcionLote> suscribirEnLote(List<SuscripcionLoteItem> items) {
+        return metricasFondos.medir(OPERACION_LOTE, () -> {
+            List<ResultadoSuscripcionLote> resultados = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                SuscripcionLoteItem item = items.get(i);
+                try {
+                    suscribirseAFondo(item.getIdCliente(), item.getSuscripcion());
+                    resultados.add(ResultadoSuscripcionLote.exitosa(i, item));
+                } catch (Exception e) {
+                    resultados.add(ResultadoSuscripcionLote.fallida(i, item, e.getMessage()));
+                }
+            }
+            return resultados;
+        });
+    }
+
+    /**
+     * Reconstruye el estado de la cuenta en un momento dado aplicando sus eventos desde la apertura
+     * @param idCliente ID del cliente
+     * @param momento Momento de la auditoría
+     * @return Estado del cliente en ese momento, o vacío si aún no tenía eventos
+     */
+    public Optional<Cliente> reconstruirEstado(String idCliente, LocalDateTime momento) {
+        List<EventoCliente> eventos = eventoRepository.findByIdClienteAndFechaLessThanEqualOrderBySecuenciaAsc(
+                idCliente, momento);
+        if (eventos.isEmpty()) {
+            return Optional.empty();
+        }
+        Cliente estado = new Cliente();
+        estado.setId(idCliente);
+        aplicar(estado, eventos);
+        return Optional.of(estado);
+    }
+
+    @Override
+    protected Optional<Cliente> buscarEstado(String idCliente) {
+        return estadoActual(idCliente);
+    }
+
+    /**
+     * Última instantánea más los eventos posteriores
+     * Un cliente sin instantánea parte de su documento (cuentas anteriores al modo de eventos) o de su apertura
+     * @param idCliente ID del cliente
+     * @return Estado actual, o vacío si el cliente no existe
+     */
+    Optional<Cliente> estadoActual(String idCliente) {
+        Optional<Cliente> documento = clienteRepository.buscarResumen(idCliente);
+        Long secuenciaInstantanea = documento.map(Cliente::getSecuenciaEventos).orElse(null);
+
+        List<EventoCliente> eventos = eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(
+                idCliente, secuenciaInstantanea != null ? secuenciaInstantanea : -1L);
+        if (eventos.isEmpty()) {
+            return documento;
+        }
+
+        Cliente estado = secuenciaInstantanea != null ? documento.get() : new Cliente();
+        estado.setId(idCliente);
+        aplicar(estado, eventos);
+        return Optional.of(estado);
+    }
+
+    /**
+     * Agrega el evento; si el cliente aún no tiene eventos agrega antes su apertura con el estado de partida
+     * @return Estado tras el evento, o vacío si otro escritor ocupó la secuencia
+     */
+    private Optional<Cliente> agregar(Cliente estado, EventoCliente evento) {
+        try {
+            if (estado.getSecuenciaEventos() == null) {
+                eventoRepository.insert(apertura(estado, evento.getFecha()));
+            }
+            eventoRepository.insert(evento);
+        } catch (DuplicateKeyException e) {
+            log.debug("Secuencia {} del cliente {} ocupada, se vuelve a leer su estado",
+                    evento.getSecuencia(), evento.getIdCliente());
+            return Optional.empty();
+        }
+        Cliente nuevo = copiar(estado);
+        aplicar(nuevo, Collections.singletonList(evento));
+        return Optional.of(nuevo);
+    }
+
+    /**
+     * Guarda la instantánea cada intervalo-instantaneas eventos
+     * Es estado derivado de los eventos: si no llega a guardarse, la siguiente lectura aplica un evento más
+     */
+    private void guardarInstantanea(String operacion, Cliente estado, EventoCliente evento) {
+        if (evento.getSecuencia() % intervaloInstantaneas == 0) {
+            metricasFondos.fase(operacion, FASE_GUARDADO, () -> clienteRepository.guardarInstantanea(estado));
+        }
+    }
+
+    /**
+     * Aplica los eventos en orden sobre el estado del cliente
+     * El saldo se acumula en centavos y se asigna una sola vez al final
+     */
+    static void aplicar(Cliente estado, List<EventoCliente> eventos) {
+        long saldo = estado.getSaldo().getCentavos();
+        for (EventoCliente evento : eventos) {
+            saldo = aplicar(estado, evento, saldo);
+        }
+        estado.setSaldo(Monto.deCentavos(saldo));
+    }
+
+    /**
+     * Aplica un evento sobre el estado del cliente
+     * @param saldo Saldo antes del evento, en centavos
+     * @return Saldo después del evento, en centavos
+     */
+    private static long aplicar(Cliente estado, EventoCliente evento, long saldo) {
+        if (Constants.TIPO_EVENTO_APERTURA.equals(evento.getTipo())) {
+            saldo = evento.getMonto().getCentavos();
+            estado.setFondosActivos(new ArrayList<>(evento.getFondosActivos()));
+        } else if (Constants.TIPO_TRANSACCION_SUSCRIPCION.equals(evento.getTipo())) {
+            saldo = Monto.restarCentavos(saldo, evento.getMonto());
+            estado.getFondosActivos().add(new FondoActivo(
+                    evento.getIdFondo(), evento.getNombreFondo(), evento.getMonto(), evento.getFecha()));
+        } else if (Constants.TIPO_TRANSACCION_CANCELACION.equals(evento.getTipo())) {
+            saldo = Monto.sumarCentavos(saldo, evento.getMonto());
+            estado.getFondosActivos().removeIf(fa -> fa.getIdFondo().equals(evento.getIdFondo()));
+        }
+        if (evento.getPreferenciaNotificacion() != null) {
+            estado.setPreferenciaNotificacion(evento.getPreferenciaNotificacion());
+            estado.setContacto(evento.getContacto());
+        }
+        estado.setSecuenciaEventos(evento.getSecuencia());
+        return saldo;
+    }
+
+    private EventoCliente evento(String idCliente, long secuencia, String tipo, Fondo fondo,
+                                 Monto monto,
+                                 String preferenciaNotificacion, String contacto) {
+        return new EventoCliente(
+                generadorId.nuevoId(),
+                idCliente,
+                secuencia,
+                tipo,
+                fondo.getId(),
+                fondo.getNombre(),
+                monto,
+                null,
+                preferenciaNotificacion,
+                contacto,
+                LocalDateTime.now(),
+                Boolean.TRUE);
+    }
+
+    private EventoCliente apertura(Cliente estado, LocalDateTime fecha) {
+        return new EventoCliente(
+                generadorId.nuevoId(),
+                estado.getId(),
+                0L,
+                Constants.TIPO_EVENTO_APERTURA,
+                null,
+                null,
+                estado.getSaldo(),
+                new ArrayList<>(estado.getFondosActivos()),
+                estado.getPreferenciaNotificacion(),
+                estado.getContacto(),
+                fecha,
+                null);
+    }
+
+    private static long siguiente(Cliente estado) {
+        return estado.getSecuenciaEventos() == null ? 1L : estado.getSecuenciaEventos() + 1;
+    }
+
+    private static Cliente clienteNuevo(String idCliente) {
+        Cliente cliente = new Cliente();
+        cliente.setId(idCliente);
+        cliente.setSaldo(SALDO_INICIAL);
+        return cliente;
+    }
+
+    private static Cliente copiar(Cliente estado) {
+        Cliente copia = new Cliente();
+        copia.setId(estado.getId());
+        copia.setSaldo(estado.getSaldo());
+        copia.setFondosActivos(new ArrayList<>(estado.getFondosActivos()));
+        copia.setPreferenciaNotificacion(estado.getPreferenciaNotificacion());
+        copia.setContacto(estado.getContacto());
+        copia.setSecuenciaEventos(estado.getSecuenciaEventos());
+        return copia;
+    }
+}
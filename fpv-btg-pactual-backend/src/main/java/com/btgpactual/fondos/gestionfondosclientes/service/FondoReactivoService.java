@@ -0,0 +1,304 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.EstadisticasFondo;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteReactiveRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoReactiveRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionReactiveRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_CANCELACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_HISTORIAL;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_RESUMEN;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_SUSCRIPCION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.ValidacionesSuscripcion.validarMontoMinimo;
+import static com.btgpactual.fondos.gestionfondosclientes.service.ValidacionesSuscripcion.validarSuscripcion;
+
+/**
+ * Versión no bloqueante de {@link FondoService} para el perfil "reactive"
+ * Aplica las mismas actualizaciones condicionadas y reglas de validación sobre los repositorios reactivos
+ * No usa los candados por cliente: cada operación es una única actualización atómica en el servidor
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class FondoReactivoService {
+
+    private static final Monto SALDO_INICIAL = Monto.dePesos(500000);
+    private static final int MAX_INTENTOS_SUSCRIPCION = 3;
+
+    private final ClienteReactiveRepository clienteRepository;
+    private final FondoReactiveRepository fondoRepository;
+    private final TransaccionReactiveRepository transaccionRepository;
+    private final CatalogoFondosCache catalogoFondosCache;
+    private final FondoService fondoService;
+    private final MetricasFondos metricasFondos;
+    private final GeneradorId generadorId;
+    private final EstadisticasFondosService estadisticasFondos;
+
+    /**
+     * Suscribe al cliente a un fondo de inversión
+     * @param idCliente ID del cliente que se suscribe
+     * @param request Datos de la suscripción
+     * @return Cliente actualizado con la nueva suscripción
+     */
+    public Mono<Cliente> suscribirseAFondo(String idCliente, SuscripcionRequest request) {
+        return metricasFondos.medir(OPERACION_SUSCRIPCION, suscribir(idCliente, request));
+    }
+
+    private Mono<Cliente> suscribir(String idCliente, SuscripcionRequest request) {
+        return obtenerFondo(request.getIdFondo())
+                .flatMap(fondo -> {
+                    validarMontoMinimo(fondo, request);
+                    FondoActivo fondoActivo = new FondoActivo(
+                            fondo.getId(), fondo.getNombre(), request.getMonto(), LocalDateTime.now());
+                    NotificacionPendiente notificacion = new NotificacionPendiente(
+                            generadorId.nuevoId(),
+                            Constants.TIPO_TRANSACCION_SUSCRIPCION,
+                            fondo.getNombre(),
+                            request.getMonto(),
+                            request.getPreferenciaNotificacion(),
+                            request.getContacto(),
+                            fondoActivo.getFechaSuscripcion());
+                    return aplicarSuscripcion(idCliente, fondo, request, fondoActivo, notificacion, 1)
+                            .flatMap(cliente -> registrarTransaccion(cliente.getId(),
+                                    Constants.TIPO_TRANSACCION_SUSCRIPCION, fondo, request.getMonto())
+                                    .then(registrarEstadistica(
+                                            estadisticasFondos.suscripcion(idCliente, fondo.getId(), request.getMonto())))
+                                    .thenReturn(cliente))
+                            .doOnNext(cliente -> log.info("Suscripción exitosa al fondo: {} por monto: {}",
+                                    fondo.getNombre(), request.getMonto()));
+                });
+    }
+
+    /**
+     * Aplica varias suscripciones reutilizando el flujo por lotes del servicio bloqueante
+     * en el planificador elástico, ya que la escritura por lotes no tiene equivalente reactivo aquí
+     * @param items Suscripciones del lote
+     * @return Resultado de cada suscripción, en el mismo orden del lote
+     */
+    public Mono<List<ResultadoSuscripcionLote>> suscribirEnLote(List<SuscripcionLoteItem> items) {
+        return Mono.fromCallable(() -> fondoService.suscribirEnLote(items))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Cancela la suscripción del cliente a un fondo
+     * @param idCliente ID del cliente que cancela
+     * @param request ID del fondo a cancelar
+     * @return Cliente actualizado sin la suscripción
+     */
+    public Mono<Cliente> cancelarSuscripcion(String idCliente, CancelacionRequest request) {
+        return metricasFondos.medir(OPERACION_CANCELACION, cancelar(idCliente, request));
+    }
+
+    private Mono<Cliente> cancelar(String idCliente, CancelacionRequest request) {
+        return obtenerFondo(request.getIdFondo())
+                .flatMap(fondo -> {
+                    NotificacionPendiente notificacion = new NotificacionPendiente(
+                            generadorId.nuevoId(),
+                            Constants.TIPO_TRANSACCION_CANCELACION,
+                            fondo.getNombre(),
+                            null, null, null, null);
+                    return clienteRepository.cancelar(idCliente, request.getIdFondo(), notificacion)
+                            .switchIfEmpty(Mono.defer(() -> errorCancelacion(idCliente)))
+                            .flatMap(anterior -> {
+                                // La cancelación devuelve el estado previo; el nuevo se deriva sin otra lectura
+                                FondoActivo fondoActivo = anterior.getFondosActivos().stream()
+                                        .filter(fa -> fa.getIdFondo().equals(request.getIdFondo()))
+                                        .findFirst()
+                                        .orElseThrow(() -> new SuscripcionNotFoundException("No está suscrito a este fondo"));
+                                anterior.setSaldo(anterior.getSaldo().sumar(fondoActivo.getMonto()));
+                                anterior.getFondosActivos().remove(fondoActivo);
+                                return registrarTransaccion(anterior.getId(),
+                                        Constants.TIPO_TRANSACCION_CANCELACION, fondo, fondoActivo.getMonto())
+                                        .then(registrarEstadistica(estadisticasFondos.cancelacion(
+                                                idCliente, fondo.getId(), fondoActivo.getMonto())))
+                                        .thenReturn(anterior);
+                            });
+                });
+    }
+
+    /**
+     * Obtiene el historial completo de transacciones del cliente, ordenado por fecha
+     * @param idCliente ID del cliente
+     * @return Lista de todas las transacciones realizadas
+     */
+    public Mono<List<Transaccion>> obtenerHistorialTransacciones(String idCliente) {
+        return metricasFondos.medir(OPERACION_HISTORIAL,
+                transaccionRepository.findByIdClienteOrderByFechaAsc(idCliente).collectList());
+    }
+
+    /**
+     * Obtiene el saldo, los fondos activos y las últimas transacciones del cliente
+     * Las dos lecturas (proyección del cliente y transacciones recientes) se hacen en paralelo
+     * @param idCliente ID del cliente
+     * @param ultimas Número de transacciones recientes a incluir
+     * @return Resumen del cliente, o error IllegalArgumentException si ultimas está fuera de rango
+     */
+    public Mono<ResumenCliente> obtenerResumen(String idCliente, int ultimas) {
+        if (ultimas < 0 || ultimas > Constants.MAX_ULTIMAS_TRANSACCIONES) {
+            return Mono.error(new IllegalArgumentException(String.format(
+                    Constants.MSG_ULTIMAS_TRANSACCIONES, Constants.MAX_ULTIMAS_TRANSACCIONES)));
+        }
+        Mono<Optional<Cliente>> cliente = clienteRepository.buscarResumen(idCliente)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+        Mono<List<Transaccion>> recientes = ultimas == 0 ? Mono.just(new ArrayList<>())
+                : transaccionRepository.findByIdClienteOrderByFechaDesc(idCliente, PageRequest.of(0, ultimas))
+                        .collectList();
+        return metricasFondos.medir(OPERACION_RESUMEN, Mono.zip(cliente, recientes, (actual, transacciones) -> {
+            Collections.reverse(transacciones);
+            return new ResumenCliente(
+                    idCliente,
+                    actual.map(Cliente::getSaldo).orElse(SALDO_INICIAL),
+                    actual.map(Cliente::getFondosActivos).orElseGet(ArrayList::new),
+                    transacciones);
+        }));
+    }
+
+    /**
+     * Obtiene el monto administrado y los suscriptores de todos los fondos
+     * Las lecturas de los contadores son bloqueantes y se hacen en el planificador elástico
+     * @return Estadísticas en el orden del catálogo
+     */
+    public Mono<List<EstadisticasFondo>> obtenerEstadisticas() {
+        return Mono.fromCallable(() -> estadisticasFondos.obtenerEstadisticas())
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Obtiene el monto administrado y los suscriptores de un fondo
+     * @param idFondo ID del fondo
+     * @return Estadísticas del fondo o error FondoNotFoundException
+     */
+    public Mono<EstadisticasFondo> obtenerEstadisticas(String idFondo) {
+        return Mono.fromCallable(() -> estadisticasFondos.obtenerEstadisticas(idFondo))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Obtiene la actividad de un fondo por intervalos
+     * @return Intervalos con actividad o error FondoNotFoundException / IllegalArgumentException
+     */
+    public Mono<List<ActividadFondo>> obtenerActividad(String idFondo, String granularidad,
+                                                       LocalDateTime desde, LocalDateTime hasta) {
+        return Mono.fromCallable(() -> estadisticasFondos.obtenerActividad(idFondo, granularidad, desde, hasta))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Obtiene el catálogo de fondos; solo sale del hilo de eventos si hay que cargarlo
+     * @return Catálogo de fondos
+     */
+    public Mono<CatalogoFondos> obtenerCatalogo() {
+        Optional<CatalogoFondos> enMemoria = catalogoFondosCache.enMemoria();
+        if (enMemoria.isPresent()) {
+            return Mono.just(enMemoria.get());
+        }
+        return Mono.fromCallable(catalogoFondosCache::obtener)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Busca un fondo en el catálogo y, si no está, en la base de datos
+     * @param idFondo ID del fondo a buscar
+     * @return Fondo encontrado o error FondoNotFoundException
+     */
+    private Mono<Fondo> obtenerFondo(String idFondo) {
+        return obtenerCatalogo()
+                .flatMap(catalogo -> Mono.justOrEmpty(catalogo.buscar(idFondo)))
+                .switchIfEmpty(Mono.defer(() -> fondoRepository.findById(idFondo)
+                        .doOnNext(fondo -> catalogoFondosCache.invalidar())
+                        .switchIfEmpty(Mono.error(new FondoNotFoundException("El fondo " + idFondo + " no existe")))));
+    }
+
+    /**
+     * Aplica la suscripción con una actualización condicionada
+     * Si no se aplica, explica el motivo o crea el cliente y reintenta
+     * @throws InsufficientFundsException Si no hay saldo suficiente
+     */
+    private Mono<Cliente> aplicarSuscripcion(String idCliente, Fondo fondo, SuscripcionRequest request,
+                                             FondoActivo fondoActivo, NotificacionPendiente notificacion,
+                                             int intento) {
+        if (intento > MAX_INTENTOS_SUSCRIPCION) {
+            return Mono.error(new ConflictoConcurrenciaException(
+                    "No fue posible aplicar la suscripción al fondo " + fondo.getNombre()));
+        }
+        return clienteRepository.suscribir(idCliente, fondoActivo,
+                        request.getPreferenciaNotificacion(), request.getContacto(), notificacion)
+                .switchIfEmpty(Mono.defer(() -> explicarRechazo(idCliente, fondo, request)
+                        .then(Mono.defer(() -> aplicarSuscripcion(idCliente, fondo, request,
+                                fondoActivo, notificacion, intento + 1)))));
+    }
+
+    /**
+     * Lee el cliente para informar por qué no se aplicó la suscripción, o lo crea si no existe
+     */
+    private Mono<Void> explicarRechazo(String idCliente, Fondo fondo, SuscripcionRequest request) {
+        return clienteRepository.findById(idCliente)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(actual -> {
+                    if (!actual.isPresent()) {
+                        return clienteRepository.crearSiNoExiste(idCliente, SALDO_INICIAL);
+                    }
+                    validarSuscripcion(actual.get(), fondo, request);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Cliente> errorCancelacion(String idCliente) {
+        return clienteRepository.existsById(idCliente)
+                .flatMap(existe -> Mono.error(existe
+                        ? new SuscripcionNotFoundException("No está suscrito a este fondo")
+                        : new ClienteNotFoundException("Cliente no encontrado")));
+    }
+
+    private Mono<Void> registrarEstadistica(FragmentoEstadisticaFondo incremento) {
+        return Mono.fromRunnable(() -> estadisticasFondos.registrar(incremento))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private Mono<Transaccion> registrarTransaccion(String idCliente, String tipo, Fondo fondo, Monto monto) {
+        return transaccionRepository.insert(new Transaccion(
+                generadorId.nuevoId(),
+                idCliente,
+                tipo,
+                fondo.getNombre(),
+                monto,
+                LocalDateTime.now()));
+    }
+}
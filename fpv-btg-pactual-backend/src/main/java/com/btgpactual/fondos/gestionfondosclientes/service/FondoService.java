@@ -1,227 +1,523 @@
 package com.btgpactual.fondos.gestionfondosclientes.service;
 
 import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
 import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
 import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
 import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
 import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
 import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
 import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
 import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
 import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
 import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
 import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.SuscripcionesCliente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
 import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_CARGA_CLIENTE;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_CARGA_FONDO;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_GUARDADO;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.FASE_VALIDACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_CANCELACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_HISTORIAL;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_LOTE;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_RESUMEN;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_SUSCRIPCION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.ValidacionesSuscripcion.validarMontoMinimo;
+import static com.btgpactual.fondos.gestionfondosclientes.service.ValidacionesSuscripcion.validarSuscripcion;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FondoService {
-    
-    private final ClienteRepository clienteRepository;
+
+    static final Monto SALDO_INICIAL = Monto.dePesos(500000);
+
+    protected final ClienteRepository clienteRepository;
     private final FondoRepository fondoRepository;
-    private final NotificationService notificationService;
+    private final TransaccionRepository transaccionRepository;
+    protected final BloqueoClientes bloqueoClientes;
+    private final CatalogoFondosCache catalogoFondosCache;
+    protected final MetricasFondos metricasFondos;
+    protected final GeneradorId generadorId;
+    private final EstadisticasFondosService estadisticasFondos;
+    private final CacheClientes cacheClientes;
+    protected final ConcurrenciaOptimistaService concurrenciaOptimista;
+
 
-    
     /**
      * Suscribe al cliente a un fondo de inversión
-     * Valida monto mínimo, saldo suficiente y envía notificación
+     * Valida el monto mínimo y aplica la suscripción con una única actualización condicionada
+     * (saldo suficiente y sin suscripción activa al fondo) que también deja la notificación pendiente
+     * Las operaciones de un mismo cliente se serializan; las de clientes distintos van en paralelo
+     * @param idCliente ID del cliente que se suscribe
      * @param request Datos de la suscripción
      * @return Cliente actualizado con la nueva suscripción
      * @throws FondoNotFoundException Si el fondo no existe
      * @throws InsufficientFundsException Si no hay saldo suficiente
      */
-    @Transactional
-    public Cliente suscribirseAFondo(SuscripcionRequest request) {
-        Cliente cliente = obtenerCliente();
-        Fondo fondo = obtenerFondo(request.getIdFondo());
+    public Cliente suscribirseAFondo(String idCliente, SuscripcionRequest request) {
+        return metricasFondos.medir(OPERACION_SUSCRIPCION,
+                () -> bloqueoClientes.ejecutar(idCliente, () -> suscribir(idCliente, request)));
+    }
 
-        validarSuscripcion(cliente, fondo, request);
+    private Cliente suscribir(String idCliente, SuscripcionRequest request) {
+        Fondo fondo = metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_CARGA_FONDO,
+                () -> obtenerFondo(request.getIdFondo()));
+        metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_VALIDACION, () -> validarMontoMinimo(fondo, request));
 
-        aplicarSuscripcion(cliente, fondo, request);
-        registrarTransaccion(cliente, fondo, request);
+        Cliente clienteGuardado = aplicarSuscripcion(idCliente, fondo, request);
 
-        Cliente clienteGuardado = clienteRepository.save(cliente);
-        notificarSuscripcion(clienteGuardado, fondo, request);
+        metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_GUARDADO,
+                () -> registrarTransaccion(clienteGuardado, fondo, request));
+        estadisticasFondos.registrar(estadisticasFondos.suscripcion(idCliente, fondo.getId(), request.getMonto()));
 
         log.info("Suscripción exitosa al fondo: {} por monto: {}", fondo.getNombre(), request.getMonto());
         return clienteGuardado;
     }
-    
+
+    /**
+     * Aplica un lote de suscripciones, posiblemente de varios clientes
+     * Valida todo contra una sola foto del catálogo y una sola lectura de los clientes, aplica
+     * las suscripciones de cada cliente en una actualización dentro de una escritura por lotes
+     * no ordenada y registra las transacciones en una sola inserción
+     * Si un cliente cambió mientras tanto, sus suscripciones se aplican una a una por el flujo normal
+     * @param items Suscripciones del lote
+     * @return Resultado de cada suscripción, en el mismo orden del lote
+     */
+    public List<ResultadoSuscripcionLote> suscribirEnLote(List<SuscripcionLoteItem> items) {
+        return metricasFondos.medir(OPERACION_LOTE, () -> aplicarLote(items));
+    }
+
+    private List<ResultadoSuscripcionLote> aplicarLote(List<SuscripcionLoteItem> items) {
+        CatalogoFondos catalogo = catalogoFondosCache.obtener();
+        ResultadoSuscripcionLote[] resultados = new ResultadoSuscripcionLote[items.size()];
+
+        Map<String, List<Integer>> indicesPorCliente = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            SuscripcionLoteItem item = items.get(i);
+            SuscripcionRequest request = item.getSuscripcion();
+            Optional<Fondo> fondo = catalogo.buscar(request.getIdFondo());
+            if (!fondo.isPresent()) {
+                resultados[i] = ResultadoSuscripcionLote.fallida(i, item,
+                        "El fondo " + request.getIdFondo() + " no existe");
+                metricasFondos.registrarRechazo(OPERACION_LOTE, MetricasFondos.MOTIVO_FONDO_INEXISTENTE);
+            } else if (request.getMonto().esMenorQue(fondo.get().getMontoMinimo())) {
+                resultados[i] = ResultadoSuscripcionLote.fallida(i, item, String.format(
+                        Constants.MSG_MONTO_MINIMO, fondo.get().getNombre(),
+                        fondo.get().getMontoMinimo().toBigDecimal()));
+                metricasFondos.registrarRechazo(OPERACION_LOTE, MetricasFondos.MOTIVO_MONTO_MINIMO);
+            } else {
+                indicesPorCliente.computeIfAbsent(item.getIdCliente(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, Cliente> clientes = metricasFondos.fase(OPERACION_LOTE, FASE_CARGA_CLIENTE,
+                () -> cargarClientes(indicesPorCliente.keySet()));
+
+        List<SuscripcionesCliente> suscripciones = new ArrayList<>();
+        Map<String, List<Integer>> aceptadasPorCliente = new HashMap<>();
+        List<Transaccion> transacciones = new ArrayList<>();
+        List<FragmentoEstadisticaFondo> incrementos = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entrada : indicesPorCliente.entrySet()) {
+            List<Integer> aceptadas = planificar(clientes.get(entrada.getKey()), entrada.getValue(),
+                    items, catalogo, resultados, suscripciones);
+            aceptadasPorCliente.put(entrada.getKey(), aceptadas);
+        }
+
+        Set<String> rechazados = metricasFondos.fase(OPERACION_LOTE, FASE_GUARDADO,
+                () -> clienteRepository.suscribirEnLote(suscripciones));
+        // La escritura en lote no devuelve los documentos; se vuelven a leer cuando se necesiten
+        indicesPorCliente.keySet().forEach(cacheClientes::invalidar);
+
+        for (Map.Entry<String, List<Integer>> entrada : aceptadasPorCliente.entrySet()) {
+            if (rechazados.contains(entrada.getKey())) {
+                continue;
+            }
+            for (int i : entrada.getValue()) {
+                SuscripcionLoteItem item = items.get(i);
+                Fondo fondo = catalogo.buscar(item.getSuscripcion().getIdFondo()).get();
+                transacciones.add(new Transaccion(
+                        generadorId.nuevoId(),
+                        item.getIdCliente(),
+                        Constants.TIPO_TRANSACCION_SUSCRIPCION,
+                        fondo.getNombre(),
+                        item.getSuscripcion().getMonto(),
+                        LocalDateTime.now()));
+                incrementos.add(estadisticasFondos.suscripcion(
+                        item.getIdCliente(), fondo.getId(), item.getSuscripcion().getMonto()));
+                resultados[i] = ResultadoSuscripcionLote.exitosa(i, item);
+            }
+        }
+        if (!transacciones.isEmpty()) {
+            metricasFondos.fase(OPERACION_LOTE, FASE_GUARDADO, () -> transaccionRepository.insert(transacciones));
+        }
+        estadisticasFondos.registrar(incrementos);
+        // Las que pasan al flujo individual se cuentan allí como suscripciones
+        metricasFondos.registrarExito(OPERACION_SUSCRIPCION, transacciones.size());
+
+        for (String idCliente : rechazados) {
+            log.info("El cliente {} cambió durante el lote, se aplican sus suscripciones una a una", idCliente);
+            for (int i : indicesPorCliente.get(idCliente)) {
+                resultados[i] = suscribirIndividualmente(i, items.get(i));
+            }
+        }
+
+        log.info("Lote de {} suscripciones procesado: {} exitosas", items.size(),
+                Arrays.stream(resultados).filter(ResultadoSuscripcionLote::isExitosa).count());
+        return Arrays.asList(resultados);
+    }
+
     /**
      * Cancela la suscripción del cliente a un fondo
-     * Devuelve el monto al cliente y envía notificación
+     * Devuelve el monto al cliente y deja la notificación pendiente con una única actualización en el servidor
+     * @param idCliente ID del cliente que cancela
      * @param request ID del fondo a cancelar
      * @return Cliente actualizado sin la suscripción
      * @throws SuscripcionNotFoundException Si no está suscrito al fondo
      */
-    @Transactional
-    public Cliente cancelarSuscripcion(CancelacionRequest request) {
-        log.info("Iniciando cancelación del fondo: {}", request.getIdFondo());
-        
-        Cliente cliente = clienteRepository.findById(Constants.CLIENTE_ID)
-            .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
+    public Cliente cancelarSuscripcion(String idCliente, CancelacionRequest request) {
+        return metricasFondos.medir(OPERACION_CANCELACION,
+                () -> bloqueoClientes.ejecutar(idCliente, () -> cancelar(idCliente, request)));
+    }
+
+    private Cliente cancelar(String idCliente, CancelacionRequest request) {
+        log.info("Iniciando cancelación del fondo: {} para el cliente: {}", request.getIdFondo(), idCliente);
+
+        Fondo fondo = metricasFondos.fase(OPERACION_CANCELACION, FASE_CARGA_FONDO,
+                () -> obtenerFondo(request.getIdFondo()));
+
+        // La cancelación devuelve el estado previo; el nuevo se deriva sin otra lectura
+        NotificacionPendiente notificacion = new NotificacionPendiente(
+            generadorId.nuevoId(),
+            Constants.TIPO_TRANSACCION_CANCELACION,
+            fondo.getNombre(),
+            null, null, null, null
+        );
+        Cliente clienteGuardado = metricasFondos.fase(OPERACION_CANCELACION, FASE_GUARDADO,
+                () -> clienteRepository.cancelar(idCliente, request.getIdFondo(), notificacion))
+            .orElseThrow(() -> errorCancelacion(idCliente));
 
-        FondoActivo fondoActivo = cliente.getFondosActivos().stream()
+        FondoActivo fondoActivo = clienteGuardado.getFondosActivos().stream()
             .filter(fa -> fa.getIdFondo().equals(request.getIdFondo()))
             .findFirst()
             .orElseThrow(() -> new SuscripcionNotFoundException("No está suscrito a este fondo"));
 
-        Fondo fondo = fondoRepository.findById(request.getIdFondo())
-            .orElseThrow(() -> new FondoNotFoundException("Fondo no encontrado"));
-
-        cliente.setSaldo(cliente.getSaldo() + fondoActivo.getMonto());
-        cliente.getFondosActivos().remove(fondoActivo);
+        clienteGuardado.setSaldo(clienteGuardado.getSaldo().sumar(fondoActivo.getMonto()));
+        clienteGuardado.getFondosActivos().remove(fondoActivo);
+        if (clienteGuardado.getVersion() != null) {
+            clienteGuardado.setVersion(clienteGuardado.getVersion() + 1);
+            cacheClientes.guardar(clienteGuardado);
+        } else {
+            cacheClientes.invalidar(idCliente);
+        }
 
         Transaccion transaccion = new Transaccion(
-            UUID.randomUUID().toString(),
-                Constants.TIPO_TRANSACCION_CANCELACION,
+            generadorId.nuevoId(),
+            clienteGuardado.getId(),
+            Constants.TIPO_TRANSACCION_CANCELACION,
             fondo.getNombre(),
             fondoActivo.getMonto(),
             LocalDateTime.now()
         );
-        cliente.getHistorialTransacciones().add(transaccion);
-
-        Cliente clienteGuardado = clienteRepository.save(cliente);
+        metricasFondos.fase(OPERACION_CANCELACION, FASE_GUARDADO, () -> transaccionRepository.insert(transaccion));
+        estadisticasFondos.registrar(estadisticasFondos.cancelacion(idCliente, fondo.getId(), fondoActivo.getMonto()));
 
-        notificationService.enviarNotificacionCancelacion(clienteGuardado, fondo, fondoActivo.getMonto());
-        
         log.info("Cancelación exitosa del fondo: {} por monto: {}", fondo.getNombre(), fondoActivo.getMonto());
         return clienteGuardado;
     }
-    
+
     /**
      * Obtiene el historial completo de transacciones del cliente
+     * Se lee de la colección de transacciones, ordenado por fecha
+     * @param idCliente ID del cliente
      * @return Lista de todas las transacciones realizadas
      */
-    public List<Transaccion> obtenerHistorialTransacciones() {
-        Cliente cliente = clienteRepository.findById(Constants.CLIENTE_ID)
-            .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
-        
-        return cliente.getHistorialTransacciones();
+    public List<Transaccion> obtenerHistorialTransacciones(String idCliente) {
+        return metricasFondos.medir(OPERACION_HISTORIAL,
+                () -> transaccionRepository.findByIdClienteOrderByFechaAsc(idCliente));
     }
-    
+
     /**
-     * Obtiene todos los fondos disponibles
-     * @return Lista de todos los fondos de inversión
+     * Obtiene el saldo, los fondos activos y las últimas transacciones del cliente
+     * Del cliente solo se leen esos campos y de las transacciones solo las más recientes,
+     * así la respuesta no crece con la antigüedad de la cuenta
+     * Si el cliente aún no existe se responde con el saldo inicial con el que se creará
+     * @param idCliente ID del cliente
+     * @param ultimas Número de transacciones recientes a incluir
+     * @return Resumen del cliente
+     * @throws IllegalArgumentException Si ultimas está fuera de rango
      */
-    public List<Fondo> obtenerFondos() {
-        List<Fondo> fondos = fondoRepository.findAll();
-        return fondos;
+    public ResumenCliente obtenerResumen(String idCliente, int ultimas) {
+        if (ultimas < 0 || ultimas > Constants.MAX_ULTIMAS_TRANSACCIONES) {
+            throw new IllegalArgumentException(String.format(
+                    Constants.MSG_ULTIMAS_TRANSACCIONES, Constants.MAX_ULTIMAS_TRANSACCIONES));
+        }
+        return metricasFondos.medir(OPERACION_RESUMEN, () -> {
+            Optional<Cliente> cliente = buscarEstado(idCliente);
+            List<Transaccion> recientes = new ArrayList<>(ultimas == 0 ? Collections.<Transaccion>emptyList()
+                    : transaccionRepository.findByIdClienteOrderByFechaDesc(idCliente, PageRequest.of(0, ultimas)));
+            Collections.reverse(recientes);
+            return new ResumenCliente(
+                    idCliente,
+                    cliente.map(Cliente::getSaldo).orElse(SALDO_INICIAL),
+                    cliente.map(Cliente::getFondosActivos).orElseGet(ArrayList::new),
+                    recientes);
+        });
+    }
+
+    /**
+     * Saldo y fondos activos actuales del cliente, desde la caché de clientes si su versión sigue vigente
+     * @param idCliente ID del cliente
+     * @return Estado del cliente, o vacío si no existe
+     */
+    protected Optional<Cliente> buscarEstado(String idCliente) {
+        return cacheClientes.obtener(idCliente);
     }
-    
-    
-    
+
     /**
-     * Crea un cliente inicial con saldo de $500,000 COP
-     * @return Cliente nuevo con saldo inicial
+     * Obtiene todos los fondos disponibles
+     * @return Lista de todos los fondos de inversión
      */
-    private Cliente crearClienteInicial() {
-        Cliente cliente = new Cliente();
-        cliente.setId(Constants.CLIENTE_ID);
-        cliente.setSaldo(500000.0);
-        return cliente;
+    public List<Fondo> obtenerFondos() {
+        return catalogoFondosCache.obtener().getFondos();
     }
 
     /**
-     * Obtiene el cliente o lo crea si no existe
-     * @return Cliente existente o nuevo
+     * Obtiene el catálogo de fondos en memoria, con su respuesta serializada y su ETag
+     * @return Catálogo de fondos
      */
-    private Cliente obtenerCliente() {
-        return clienteRepository.findById(Constants.CLIENTE_ID)
-                .orElse(crearClienteInicial());
+    public CatalogoFondos obtenerCatalogo() {
+        return catalogoFondosCache.obtener();
     }
-    
+
+
+
     /**
-     * Busca un fondo por su ID
+     * Busca un fondo por su ID en el catálogo en memoria
+     * Si no está, consulta la base de datos por si fue creado en otra instancia
      * @param idFondo ID del fondo a buscar
      * @return Fondo encontrado
      * @throws FondoNotFoundException Si el fondo no existe
      */
-    private Fondo obtenerFondo(String idFondo) {
-        return fondoRepository.findById(idFondo)
+    protected Fondo obtenerFondo(String idFondo) {
+        Optional<Fondo> enCatalogo = catalogoFondosCache.obtener().buscar(idFondo);
+        if (enCatalogo.isPresent()) {
+            return enCatalogo.get();
+        }
+
+        Fondo fondo = fondoRepository.findById(idFondo)
                 .orElseThrow(() -> new FondoNotFoundException("El fondo " + idFondo + " no existe"));
+        catalogoFondosCache.invalidar();
+        return fondo;
     }
 
     /**
-     * Valida que la suscripción sea válida
-     * @param cliente Cliente que quiere suscribirse
-     * @param fondo Fondo al que se quiere suscribir
+     * Aplica la suscripción con una actualización condicionada
+     * Si no se aplica, lee el cliente para informar el motivo; si el cliente no existe
+     * lo crea con el saldo inicial, y si el estado cambió entre medias reintenta con espera
+     * a través de {@link ConcurrenciaOptimistaService}
+     * @param idCliente ID del cliente que se suscribe
+     * @param fondo Fondo al que se suscribe
      * @param request Datos de la suscripción
-     * @throws IllegalArgumentException Si no cumple validaciones
+     * @return Cliente actualizado
+     * @throws IllegalArgumentException Si ya está suscrito al fondo
      * @throws InsufficientFundsException Si no hay saldo suficiente
+     * @throws ConflictoConcurrenciaException Si se agotan los reintentos
      */
-    private void validarSuscripcion(Cliente cliente, Fondo fondo, SuscripcionRequest request) {
-        if (request.getMonto() < fondo.getMontoMinimo()) {
-            throw new IllegalArgumentException(String.format(
-                    Constants.MSG_MONTO_MINIMO,
-                    fondo.getNombre(), fondo.getMontoMinimo()));
+    private Cliente aplicarSuscripcion(String idCliente, Fondo fondo, SuscripcionRequest request) {
+        FondoActivo fondoActivo = new FondoActivo(
+                fondo.getId(),
+                fondo.getNombre(),
+                request.getMonto(),
+                LocalDateTime.now()
+        );
+        NotificacionPendiente notificacion = new NotificacionPendiente(
+                generadorId.nuevoId(),
+                Constants.TIPO_TRANSACCION_SUSCRIPCION,
+                fondo.getNombre(),
+                request.getMonto(),
+                request.getPreferenciaNotificacion(),
+                request.getContacto(),
+                fondoActivo.getFechaSuscripcion()
+        );
+
+        return concurrenciaOptimista.ejecutar(OPERACION_SUSCRIPCION, idCliente, () -> {
+            Optional<Cliente> actualizado = suscribir(idCliente, fondoActivo, request, notificacion);
+            if (actualizado.isEmpty()) {
+                // Lectura directa: la actualización acaba de fallar, así que la copia en memoria puede no estar vigente
+                Optional<Cliente> actual = metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_CARGA_CLIENTE,
+                        () -> clienteRepository.findById(idCliente));
+                if (actual.isPresent()) {
+                    cacheClientes.guardar(actual.get());
+                    validarSuscripcion(actual.get(), fondo, request);
+                    return Optional.empty();
+                }
+                clienteRepository.crearSiNoExiste(idCliente, SALDO_INICIAL);
+                actualizado = suscribir(idCliente, fondoActivo, request, notificacion);
+            }
+            actualizado.ifPresent(cacheClientes::guardar);
+            return actualizado;
+        });
+    }
+
+    /**
+     * Actualización condicionada que agrega el fondo activo si el cliente no lo tiene y le alcanza el saldo
+     * @return Cliente actualizado, o vacío si la condición no se cumplió
+     */
+    private Optional<Cliente> suscribir(String idCliente, FondoActivo fondoActivo, SuscripcionRequest request,
+                                        NotificacionPendiente notificacion) {
+        return metricasFondos.fase(OPERACION_SUSCRIPCION, FASE_GUARDADO,
+                () -> clienteRepository.suscribir(idCliente, fondoActivo,
+                        request.getPreferenciaNotificacion(), request.getContacto(), notificacion));
+    }
+
+    /**
+     * Lee en una sola consulta los clientes del lote y crea en una sola escritura los que no existen
+     * @param idsCliente IDs de los clientes del lote
+     * @return Clientes por ID
+     */
+    private Map<String, Cliente> cargarClientes(Set<String> idsCliente) {
+        Map<String, Cliente> clientes = new HashMap<>();
+        clienteRepository.findAllById(idsCliente).forEach(cliente -> clientes.put(cliente.getId(), cliente));
+
+        List<String> nuevos = idsCliente.stream()
+                .filter(id -> !clientes.containsKey(id))
+                .collect(Collectors.toList());
+        clienteRepository.crearSiNoExisten(nuevos, SALDO_INICIAL);
+        for (String idCliente : nuevos) {
+            Cliente cliente = new Cliente();
+            cliente.setId(idCliente);
+            cliente.setSaldo(SALDO_INICIAL);
+            cliente.setVersion(0L);
+            clientes.put(idCliente, cliente);
         }
+        return clientes;
+    }
+
+    /**
+     * Valida en memoria, en orden, las suscripciones de un cliente del lote
+     * Las rechazadas quedan en los resultados; las aceptadas se agrupan en una sola actualización
+     * @return Índices de las suscripciones aceptadas
+     */
+    private List<Integer> planificar(Cliente cliente, List<Integer> indices, List<SuscripcionLoteItem> items,
+                                     CatalogoFondos catalogo, ResultadoSuscripcionLote[] resultados,
+                                     List<SuscripcionesCliente> suscripciones) {
+        // Aritmética en centavos sobre long: exacta y sin crear objetos por cada suscripción
+        long saldo = cliente.getSaldo().getCentavos();
+        long montoTotal = 0L;
+        Set<String> suscritos = cliente.getFondosActivos().stream()
+                .map(FondoActivo::getIdFondo)
+                .collect(Collectors.toCollection(HashSet::new));
+        List<Integer> aceptadas = new ArrayList<>();
+        List<FondoActivo> fondosActivos = new ArrayList<>();
+        List<NotificacionPendiente> notificaciones = new ArrayList<>();
+        SuscripcionRequest ultima = null;
 
-        if (cliente.getSaldo() < request.getMonto()) {
-            throw new InsufficientFundsException(String.format(
-                    Constants.MSG_SALDO_INSUFICIENTE, fondo.getNombre()));
+        for (int i : indices) {
+            SuscripcionLoteItem item = items.get(i);
+            SuscripcionRequest request = item.getSuscripcion();
+            Fondo fondo = catalogo.buscar(request.getIdFondo()).get();
+            long monto = request.getMonto().getCentavos();
+            if (saldo < monto) {
+                resultados[i] = ResultadoSuscripcionLote.fallida(i, item,
+                        String.format(Constants.MSG_SALDO_INSUFICIENTE, fondo.getNombre()));
+                metricasFondos.registrarRechazo(OPERACION_LOTE, MetricasFondos.MOTIVO_SALDO_INSUFICIENTE);
+            } else if (!suscritos.add(fondo.getId())) {
+                resultados[i] = ResultadoSuscripcionLote.fallida(i, item, Constants.MSG_SUSCRIPCION_ACTIVA);
+                metricasFondos.registrarRechazo(OPERACION_LOTE, MetricasFondos.MOTIVO_SUSCRIPCION_ACTIVA);
+            } else {
+                saldo -= monto;
+                montoTotal += monto;
+                FondoActivo fondoActivo = new FondoActivo(
+                        fondo.getId(), fondo.getNombre(), request.getMonto(), LocalDateTime.now());
+                fondosActivos.add(fondoActivo);
+                notificaciones.add(new NotificacionPendiente(
+                        generadorId.nuevoId(),
+                        Constants.TIPO_TRANSACCION_SUSCRIPCION,
+                        fondo.getNombre(),
+                        request.getMonto(),
+                        request.getPreferenciaNotificacion(),
+                        request.getContacto(),
+                        fondoActivo.getFechaSuscripcion()));
+                aceptadas.add(i);
+                ultima = request;
+            }
         }
 
-        boolean yaSuscrito = cliente.getFondosActivos().stream()
-                .anyMatch(fa -> fa.getIdFondo().equals(fondo.getId()));
-        if (yaSuscrito) {
-            throw new IllegalArgumentException(Constants.MSG_SUSCRIPCION_ACTIVA);
+        if (ultima != null) {
+            suscripciones.add(new SuscripcionesCliente(cliente.getId(), cliente.getVersion(),
+                    Monto.deCentavos(montoTotal), fondosActivos, notificaciones,
+                    ultima.getPreferenciaNotificacion(), ultima.getContacto()));
         }
+        return aceptadas;
     }
 
     /**
-     * Aplica la suscripción al cliente
-     * @param cliente Cliente que se suscribe
-     * @param fondo Fondo al que se suscribe
-     * @param request Datos de la suscripción
+     * Aplica una suscripción del lote por el flujo individual, capturando su error como resultado
      */
-    private void aplicarSuscripcion(Cliente cliente, Fondo fondo, SuscripcionRequest request) {
-        cliente.setSaldo(cliente.getSaldo() - request.getMonto());
-        cliente.setPreferenciaNotificacion(request.getPreferenciaNotificacion());
-        cliente.setContacto(request.getContacto());
+    private ResultadoSuscripcionLote suscribirIndividualmente(int indice, SuscripcionLoteItem item) {
+        try {
+            suscribirseAFondo(item.getIdCliente(), item.getSuscripcion());
+            return ResultadoSuscripcionLote.exitosa(indice, item);
+        } catch (Exception e) {
+            return ResultadoSuscripcionLote.fallida(indice, item, e.getMessage());
+        }
+    }
 
-        FondoActivo fondoActivo = new FondoActivo(
-                fondo.getId(),
-                fondo.getNombre(),
-                request.getMonto(),
-                LocalDateTime.now()
-        );
-        cliente.getFondosActivos().add(fondoActivo);
+    /**
+     * Explica por qué no se aplicó una cancelación
+     * @param idCliente ID del cliente
+     * @return Excepción a lanzar
+     */
+    private RuntimeException errorCancelacion(String idCliente) {
+        if (!clienteRepository.existsById(idCliente)) {
+            return new ClienteNotFoundException("Cliente no encontrado");
+        }
+        return new SuscripcionNotFoundException("No está suscrito a este fondo");
     }
 
     /**
-     * Registra la transacción en el historial del cliente
+     * Registra la transacción con una única inserción en la colección de transacciones
      * @param cliente Cliente que realiza la transacción
      * @param fondo Fondo involucrado en la transacción
      * @param request Datos de la suscripción
      */
     private void registrarTransaccion(Cliente cliente, Fondo fondo, SuscripcionRequest request) {
         Transaccion transaccion = new Transaccion(
-                UUID.randomUUID().toString(),
+                generadorId.nuevoId(),
+                cliente.getId(),
                 Constants.TIPO_TRANSACCION_SUSCRIPCION,
                 fondo.getNombre(),
                 request.getMonto(),
                 LocalDateTime.now()
         );
-        cliente.getHistorialTransacciones().add(transaccion);
-    }
-    
-    /**
-     * Envía notificación de suscripción al cliente
-     * @param cliente Cliente que se suscribió
-     * @param fondo Fondo al que se suscribió
-     * @param request Datos de la suscripción
-     */
-    private void notificarSuscripcion(Cliente cliente, Fondo fondo, SuscripcionRequest request) {
-        notificationService.enviarNotificacionSuscripcion(cliente, fondo, request.getMonto());
+        transaccionRepository.insert(transaccion);
     }
 
 
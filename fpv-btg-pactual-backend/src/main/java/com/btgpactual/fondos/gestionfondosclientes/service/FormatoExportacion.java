@@ -0,0 +1,51 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+
+import java.util.Locale;
+
+/**
+ * Formatos de exportación del historial de transacciones
+ */
+public enum FormatoExportacion {
+
+    /**
+     * Un objeto JSON por línea
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Valores separados por comas con fila de encabezado (RFC 4180)
+     */
+    CSV("text/csv", "csv");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param nombre Nombre del formato sin distinguir mayúsculas (ndjson, csv)
+     * @return Formato correspondiente
+     * @throws IllegalArgumentException Si el formato no está soportado
+     */
+    public static FormatoExportacion de(String nombre) {
+        for (FormatoExportacion formato : values()) {
+            if (formato.extension.equals(nombre.toLowerCase(Locale.ROOT))) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException(String.format(Constants.MSG_FORMATO_EXPORTACION, nombre));
+    }
+}
@@ -0,0 +1,12 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+/**
+ * Genera los identificadores de transacciones y notificaciones
+ */
+public interface GeneradorId {
+
+    /**
+     * @return Identificador nuevo, único entre todos los nodos
+     */
+    String nuevoId();
+}
@@ -0,0 +1,144 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Identificadores de 64 bits ordenados por tiempo: 41 bits de milisegundos desde 2024-01-01,
+ * 10 bits de nodo y 12 bits de secuencia dentro del milisegundo
+ * Se escriben en 13 caracteres de base 32 (alfabeto de Crockford), así el orden del texto es el orden numérico
+ * y los índices sobre el ID reciben las inserciones al final en lugar de dispersas
+ * No usa SecureRandom: el estado es un único AtomicLong que avanza con compareAndSet
+ * El nodo (fondos.id.nodo) debe ser distinto en cada instancia para que los IDs no se repitan entre ellas
+ */
+@Component
+@Slf4j
+public class GeneradorIdOrdenado implements GeneradorId {
+
+    static final long EPOCA = 1704067200000L;
+    static final int BITS_NODO = 10;
+    static final int BITS_SECUENCIA = 12;
+    static final int MAX_NODO = (1 << BITS_NODO) - 1;
+    static final int LONGITUD = 13;
+    static final String[] PERFILES_NODO_DERIVADO = {"test", "local"};
+
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final ThreadLocal<char[]> BUFER = ThreadLocal.withInitial(() -> new char[LONGITUD]);
+
+    private final long nodo;
+    private final LongSupplier reloj;
+    /**
+     * Milisegundo y secuencia del último ID (milisegundo << BITS_SECUENCIA | secuencia)
+     */
+    private final AtomicLong ultimo = new AtomicLong();
+
+    /**
+     * @param nodo fondos.id.nodo; obligatorio salvo en los perfiles test y local, donde sin él
+     *             se deriva del host y el proceso
+     * @throws IllegalStateException Si falta el nodo fuera de esos perfiles, para que la instancia no arranque
+     */
+    @Autowired
+    public GeneradorIdOrdenado(@Value("${fondos.id.nodo:-1}") int nodo, Environment environment) {
+        this(nodoConfigurado(nodo, environment), System::currentTimeMillis);
+    }
+
+    public GeneradorIdOrdenado(int nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    GeneradorIdOrdenado(int nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+    }
+
+    @Override
+    public String nuevoId() {
+        long anterior;
+        long siguiente;
+        do {
+            anterior = ultimo.get();
+            long ahora = reloj.getAsLong() - EPOCA;
+            // Si el reloj no avanzó o retrocedió se sigue desde el último valor; al agotar la secuencia
+            // el acarreo pasa al milisegundo siguiente, así los IDs nunca se repiten ni decrecen
+            siguiente = ahora > (anterior >>> BITS_SECUENCIA) ? ahora << BITS_SECUENCIA : anterior + 1;
+        } while (!ultimo.compareAndSet(anterior, siguiente));
+
+        long milisegundo = siguiente >>> BITS_SECUENCIA;
+        long secuencia = siguiente & ((1L << BITS_SECUENCIA) - 1);
+        return codificar((milisegundo << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuencia);
+    }
+
+    /**
+     * @param id ID generado por esta clase
+     * @return Momento de creación en milisegundos desde 1970
+     */
+    public static long momento(String id) {
+        return (decodificar(id) >>> (BITS_NODO + BITS_SECUENCIA)) + EPOCA;
+    }
+
+    static String codificar(long valor) {
+        char[] bufer = BUFER.get();
+        for (int i = LONGITUD - 1; i >= 0; i--) {
+            bufer[i] = ALFABETO[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+        return new String(bufer);
+    }
+
+    static long decodificar(String id) {
+        if (id.length() != LONGITUD) {
+            throw new IllegalArgumentException("ID no válido: " + id);
+        }
+        long valor = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            int digito = c <= '9' ? c - '0' : Arrays.binarySearch(ALFABETO, 10, ALFABETO.length, c);
+            if (digito < 0) {
+                throw new IllegalArgumentException("ID no válido: " + id);
+            }
+            valor = (valor << 5) | digito;
+        }
+        return valor;
+    }
+
+    /**
+     * Dos instancias con el mismo nodo pueden generar el mismo ID en el mismo milisegundo, así que fuera de
+     * pruebas y desarrollo local el nodo se configura en lugar de adivinarse
+     */
+    static int nodoConfigurado(int nodo, Environment environment) {
+        if (nodo >= 0) {
+            return nodo;
+        }
+        if (!environment.acceptsProfiles(Profiles.of(PERFILES_NODO_DERIVADO))) {
+            throw new IllegalStateException("Configure fondos.id.nodo (0 a " + MAX_NODO
+                    + ", distinto en cada instancia); solo se deriva del host en los perfiles "
+                    + String.join(" y ", PERFILES_NODO_DERIVADO));
+        }
+        int derivado = nodoDelProceso();
+        log.info("Nodo del generador de IDs derivado del host y el proceso: {}", derivado);
+        return derivado;
+    }
+
+    private static int nodoDelProceso() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "";
+        }
+        int h = (host + ":" + ProcessHandle.current().pid()).hashCode();
+        return (h ^ (h >>> 16)) & MAX_NODO;
+    }
+}
@@ -0,0 +1,58 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Tamaños de intervalo en los que se acumula la actividad de los fondos
+ */
+public enum GranularidadActividad {
+
+    MINUTO(ChronoUnit.MINUTES, "minuto"),
+    HORA(ChronoUnit.HOURS, "hora"),
+    DIA(ChronoUnit.DAYS, "dia");
+
+    private final ChronoUnit unidad;
+    private final String nombre;
+
+    GranularidadActividad(ChronoUnit unidad, String nombre) {
+        this.unidad = unidad;
+        this.nombre = nombre;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @param momento Momento de la operación
+     * @return Inicio del intervalo que lo contiene
+     */
+    public LocalDateTime truncar(LocalDateTime momento) {
+        return momento.truncatedTo(unidad);
+    }
+
+    /**
+     * @return Número de intervalos que tocan el rango [desde, hasta)
+     */
+    public long intervalos(LocalDateTime desde, LocalDateTime hasta) {
+        return unidad.between(truncar(desde), hasta.minusNanos(1)) + 1;
+    }
+
+    /**
+     * @param nombre Nombre de la granularidad sin distinguir mayúsculas (minuto, hora, dia)
+     * @return Granularidad correspondiente
+     * @throws IllegalArgumentException Si la granularidad no está soportada
+     */
+    public static GranularidadActividad de(String nombre) {
+        for (GranularidadActividad granularidad : values()) {
+            if (granularidad.nombre.equals(nombre.toLowerCase(Locale.ROOT))) {
+                return granularidad;
+            }
+        }
+        throw new IllegalArgumentException(String.format(Constants.MSG_GRANULARIDAD_ACTIVIDAD, nombre));
+    }
+}
@@ -0,0 +1,196 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.model.RespuestaIdempotente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.RespuestaIdempotenteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Operaciones de escritura idempotentes a partir de la cabecera Idempotency-Key
+ * La primera solicitud con una clave ejecuta la operación y guarda su respuesta;
+ * los reintentos reciben esa misma respuesta sin volver a ejecutar la lógica de negocio
+ * Si un duplicado llega mientras la primera sigue en curso, espera su resultado un tiempo acotado
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    private final RespuestaIdempotenteRepository respuestaRepository;
+    private final ObjectMapper objectMapper;
+    private final MetricasFondos metricas;
+    private final long vigenciaHoras;
+    private final long bloqueoMs;
+    private final long esperaMaximaMs;
+    private final long intervaloEsperaMs;
+
+    public IdempotenciaService(RespuestaIdempotenteRepository respuestaRepository,
+                               ObjectMapper objectMapper,
+                               MetricasFondos metricas,
+                               @Value("${fondos.idempotencia.vigencia-horas:24}") long vigenciaHoras,
+                               @Value("${fondos.idempotencia.bloqueo-ms:30000}") long bloqueoMs,
+                               @Value("${fondos.idempotencia.espera-maxima-ms:5000}") long esperaMaximaMs,
+                               @Value("${fondos.idempotencia.intervalo-espera-ms:50}") long intervaloEsperaMs) {
+        this.respuestaRepository = respuestaRepository;
+        this.objectMapper = objectMapper;
+        this.metricas = metricas;
+        this.vigenciaHoras = vigenciaHoras;
+        this.bloqueoMs = bloqueoMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.intervaloEsperaMs = intervaloEsperaMs;
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave
+     * Solo se guardan las respuestas 2xx y los rechazos 4xx que no cambian al reintentar; con 409, 429, 5xx
+     * o una excepción la reserva se libera para que el reintento vuelva a ejecutar la operación
+     * @param clave Valor de Idempotency-Key, o null para ejecutar sin idempotencia
+     * @param alcance Operación y cliente a los que pertenece la clave
+     * @param solicitud Cuerpo de la solicitud; un reintento con la misma clave debe enviar el mismo
+     * @param operacion Operación a ejecutar
+     * @return Respuesta de la operación, o la guardada si la clave ya se había usado
+     */
+    public ResponseEntity<?> ejecutar(String clave, String alcance, Object solicitud,
+                                      Supplier<? extends ResponseEntity<?>> operacion) {
+        if (clave == null) {
+            return operacion.get();
+        }
+        if (clave.isEmpty() || clave.length() > Constants.MAX_LONGITUD_CLAVE_IDEMPOTENCIA) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(
+                    String.format(Constants.MSG_CLAVE_IDEMPOTENCIA_INVALIDA, Constants.MAX_LONGITUD_CLAVE_IDEMPOTENCIA)));
+        }
+
+        String id = alcance + ":" + clave;
+        String huella = huella(solicitud);
+        String propietario = UUID.randomUUID().toString();
+        long limite = System.currentTimeMillis() + esperaMaximaMs;
+
+        while (true) {
+            LocalDateTime ahora = LocalDateTime.now();
+            if (respuestaRepository.reservar(reserva(id, huella, propietario, ahora), ahora)) {
+                metricas.registrarIdempotencia(MetricasFondos.IDEMPOTENCIA_EJECUTADA);
+                return ejecutarReservada(id, propietario, operacion);
+            }
+
+            Optional<RespuestaIdempotente> existente = respuestaRepository.findById(id);
+            if (existente.isEmpty()) {
+                // Se liberó o expiró entre la reserva y la lectura
+                continue;
+            }
+            RespuestaIdempotente respuesta = existente.get();
+            if (!huella.equals(respuesta.getHuella())) {
+                metricas.registrarIdempotencia(MetricasFondos.IDEMPOTENCIA_REUTILIZADA);
+                return ResponseEntity.unprocessableEntity()
+                        .body(ApiResponse.error(Constants.MSG_CLAVE_IDEMPOTENCIA_REUTILIZADA));
+            }
+            if (Constants.ESTADO_IDEMPOTENCIA_COMPLETADA.equals(respuesta.getEstado())) {
+                metricas.registrarIdempotencia(MetricasFondos.IDEMPOTENCIA_REPETIDA);
+                return repetir(respuesta);
+            }
+            if (System.currentTimeMillis() >= limite) {
+                metricas.registrarIdempotencia(MetricasFondos.IDEMPOTENCIA_EN_PROCESO);
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error(Constants.MSG_CLAVE_IDEMPOTENCIA_EN_PROCESO));
+            }
+            esperar();
+        }
+    }
+
+    private ResponseEntity<?> ejecutarReservada(String id, String propietario,
+                                                Supplier<? extends ResponseEntity<?>> operacion) {
+        ResponseEntity<?> respuesta;
+        try {
+            respuesta = operacion.get();
+        } catch (RuntimeException e) {
+            respuestaRepository.liberar(id, propietario);
+            throw e;
+        }
+
+        if (!esDefinitiva(respuesta.getStatusCode())) {
+            respuestaRepository.liberar(id, propietario);
+            return respuesta;
+        }
+        try {
+            respuestaRepository.completar(id, propietario, respuesta.getStatusCodeValue(),
+                    objectMapper.writeValueAsString(respuesta.getBody()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // La operación ya se aplicó; si no se puede guardar su respuesta, el reintento la ejecuta de nuevo
+            log.error("No se pudo guardar la respuesta de la clave de idempotencia {}: {}", id, e.getMessage());
+            respuestaRepository.liberar(id, propietario);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Un conflicto de concurrencia o un límite superado son transitorios: el mismo reintento puede tener éxito
+     */
+    static boolean esDefinitiva(HttpStatus estado) {
+        if (estado == HttpStatus.CONFLICT || estado == HttpStatus.TOO_MANY_REQUESTS) {
+            return false;
+        }
+        return estado.is2xxSuccessful() || estado.is4xxClientError();
+    }
+
+    private RespuestaIdempotente reserva(String id, String huella, String propietario, LocalDateTime ahora) {
+        RespuestaIdempotente reserva = new RespuestaIdempotente();
+        reserva.setClave(id);
+        reserva.setHuella(huella);
+        reserva.setEstado(Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO);
+        reserva.setPropietario(propietario);
+        reserva.setBloqueadaHasta(ahora.plusNanos(bloqueoMs * 1_000_000));
+        reserva.setFechaCreacion(ahora);
+        reserva.setExpiraEn(ahora.plusHours(vigenciaHoras));
+        return reserva;
+    }
+
+    /**
+     * La respuesta guardada se devuelve como árbol JSON, así se serializa en el formato que pida Accept
+     */
+    private ResponseEntity<?> repetir(RespuestaIdempotente respuesta) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(respuesta.getEstadoHttp())
+                .header(Constants.HEADER_IDEMPOTENCIA_REPETIDA, "true");
+        if (respuesta.getCuerpo() == null) {
+            return builder.build();
+        }
+        try {
+            return builder.body(objectMapper.readTree(respuesta.getCuerpo()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada de la clave de idempotencia", e);
+        }
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(intervaloEsperaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera de la clave de idempotencia interrumpida", e);
+        }
+    }
+
+    /**
+     * SHA-256 del cuerpo serializado, para detectar una clave reutilizada con otra solicitud
+     */
+    String huella(Object solicitud) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(solicitud));
+            return Base64.getEncoder().withoutPadding().encodeToString(resumen);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+}
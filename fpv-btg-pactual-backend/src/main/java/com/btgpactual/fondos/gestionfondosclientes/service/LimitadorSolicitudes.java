@@ -0,0 +1,188 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_CANCELACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_SUSCRIPCION;
+
+/**
+ * Límite de solicitudes por cliente y operación con un balde de fichas en memoria (algoritmo GCRA)
+ * Cada cliente guarda solo el momento teórico de su próxima llegada en un AtomicLong que avanza con compareAndSet,
+ * así la admisión no toma candados ni compite con otros clientes
+ * Un balde inactivo queda lleno cuando ese momento pasa y la limpieza periódica lo elimina; si se alcanza el máximo
+ * de clientes los nuevos se admiten sin balde hasta la siguiente limpieza en lugar de rechazarlos
+ */
+@Component
+@Slf4j
+public class LimitadorSolicitudes {
+
+    private final boolean habilitado;
+    private final Map<String, Limite> limites = new HashMap<>();
+    private final int maxClientes;
+    private final MetricasFondos metricasFondos;
+    private final LongSupplier reloj;
+    /**
+     * Momento teórico de llegada (nanosegundos) por operación y cliente
+     */
+    private final Map<String, AtomicLong> llegadas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LimitadorSolicitudes(@Value("${fondos.limite.habilitado:true}") boolean habilitado,
+                                @Value("${fondos.limite.suscripcion.por-minuto:30}") int suscripcionesPorMinuto,
+                                @Value("${fondos.limite.suscripcion.rafaga:5}") int rafagaSuscripciones,
+                                @Value("${fondos.limite.cancelacion.por-minuto:30}") int cancelacionesPorMinuto,
+                                @Value("${fondos.limite.cancelacion.rafaga:5}") int rafagaCancelaciones,
+                                @Value("${fondos.limite.max-clientes:100000}") int maxClientes,
+                                MetricasFondos metricasFondos) {
+        this(habilitado, suscripcionesPorMinuto, rafagaSuscripciones, cancelacionesPorMinuto, rafagaCancelaciones,
+                maxClientes, metricasFondos, System::nanoTime);
+    }
+
+    LimitadorSolicitudes(boolean habilitado, int suscripcionesPorMinuto, int rafagaSuscripciones,
+                         int cancelacionesPorMinuto, int rafagaCancelaciones, int maxClientes,
+                         MetricasFondos metricasFondos, LongSupplier reloj) {
+        this.habilitado = habilitado;
+        this.limites.put(OPERACION_SUSCRIPCION, new Limite(suscripcionesPorMinuto, rafagaSuscripciones));
+        this.limites.put(OPERACION_CANCELACION, new Limite(cancelacionesPorMinuto, rafagaCancelaciones));
+        this.maxClientes = maxClientes;
+        this.metricasFondos = metricasFondos;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Toma una ficha del balde del cliente para la operación
+     * @param operacion Operación limitada (suscripcion, cancelacion)
+     * @param idCliente ID del cliente
+     * @return 0 si se admite; si no, milisegundos hasta que haya una ficha
+     */
+    public long reservar(String operacion, String idCliente) {
+        return reservar(operacion, idCliente, 1);
+    }
+
+    /**
+     * Toma una ficha por cada elemento del lote del balde de su cliente; un cliente que aparece varias veces
+     * paga todas sus suscripciones
+     * Si algún cliente supera su límite se devuelven las fichas ya tomadas a los anteriores y se rechaza el lote
+     * @param operacion Operación limitada
+     * @param idsClientes ID del cliente de cada elemento del lote, con repeticiones
+     * @return 0 si se admiten todos; si no, milisegundos de espera del cliente rechazado
+     */
+    public long reservar(String operacion, Collection<String> idsClientes) {
+        Map<String, Integer> fichasPorCliente = new LinkedHashMap<>();
+        for (String idCliente : idsClientes) {
+            fichasPorCliente.merge(idCliente, 1, Integer::sum);
+        }
+        List<Map.Entry<String, Integer>> tomadas = new ArrayList<>(fichasPorCliente.size());
+        for (Map.Entry<String, Integer> fichas : fichasPorCliente.entrySet()) {
+            long espera = reservar(operacion, fichas.getKey(), fichas.getValue());
+            if (espera > 0) {
+                tomadas.forEach(tomada -> devolver(operacion, tomada.getKey(), tomada.getValue()));
+                return espera;
+            }
+            tomadas.add(fichas);
+        }
+        return 0L;
+    }
+
+    /**
+     * Toma varias fichas de una vez; si son más que la ráfaga se admiten solo con el balde lleno
+     * y el cliente queda en deuda hasta reponerlas
+     */
+    private long reservar(String operacion, String idCliente, int fichas) {
+        Limite limite = limites.get(operacion);
+        if (!habilitado || limite == null) {
+            return 0L;
+        }
+        AtomicLong llegada = llegada(operacion + ":" + idCliente);
+        if (llegada == null) {
+            return 0L;
+        }
+        long exigidas = Math.min(fichas, limite.rafaga) - 1L;
+        while (true) {
+            long ahora = reloj.getAsLong();
+            long actual = llegada.get();
+            long base = Math.max(actual, ahora);
+            long admitidoDesde = base + exigidas * limite.intervaloNs - limite.toleranciaNs;
+            if (ahora < admitidoDesde) {
+                metricasFondos.registrarRechazo(operacion, MetricasFondos.MOTIVO_LIMITE_SOLICITUDES);
+                return TimeUnit.NANOSECONDS.toMillis(admitidoDesde - ahora) + 1;
+            }
+            if (llegada.compareAndSet(actual, base + fichas * limite.intervaloNs)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Devuelve fichas tomadas por una reserva que al final se rechazó
+     * Si el balde ya se eliminó no hay nada que devolver: recrearlo lo deja lleno
+     */
+    private void devolver(String operacion, String idCliente, int fichas) {
+        Limite limite = limites.get(operacion);
+        AtomicLong llegada = llegadas.get(operacion + ":" + idCliente);
+        if (!habilitado || limite == null || llegada == null) {
+            return;
+        }
+        llegada.addAndGet(-fichas * limite.intervaloNs);
+    }
+
+    /**
+     * Elimina los baldes que volvieron a estar llenos; recrearlos equivale a conservarlos
+     * Una admisión concurrente con la eliminación puede perder su ficha, lo que a lo sumo concede una ráfaga extra
+     * @return Número de baldes eliminados
+     */
+    @Scheduled(fixedDelayString = "${fondos.limite.limpieza.intervalo-ms:60000}")
+    public int limpiar() {
+        long ahora = reloj.getAsLong();
+        int antes = llegadas.size();
+        llegadas.values().removeIf(llegada -> llegada.get() - ahora <= 0);
+        return antes - llegadas.size();
+    }
+
+    int clientes() {
+        return llegadas.size();
+    }
+
+    private AtomicLong llegada(String clave) {
+        AtomicLong llegada = llegadas.get(clave);
+        if (llegada != null) {
+            return llegada;
+        }
+        if (llegadas.size() >= maxClientes && limpiar() == 0 && llegadas.size() >= maxClientes) {
+            log.debug("Límite de solicitudes sin capacidad para nuevos clientes ({}), se admite sin límite", maxClientes);
+            return null;
+        }
+        return llegadas.computeIfAbsent(clave, c -> new AtomicLong(reloj.getAsLong()));
+    }
+
+    /**
+     * Intervalo de emisión y tolerancia de ráfaga de una operación
+     */
+    private static final class Limite {
+
+        private final long intervaloNs;
+        private final int rafaga;
+        private final long toleranciaNs;
+
+        private Limite(int porMinuto, int rafaga) {
+            this.intervaloNs = TimeUnit.MINUTES.toNanos(1) / Math.max(1, porMinuto);
+            this.rafaga = Math.max(1, rafaga);
+            this.toleranciaNs = intervaloNs * (this.rafaga - 1);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite adaptativo de solicitudes en curso (variante del algoritmo Gradient2)
+ * Al cerrar cada ventana compara su latencia media con la habitual (media móvil de unas 600 ventanas):
+ * si la reciente sube, el límite baja en proporción; si se mantiene, crece con un margen de raíz cuadrada
+ * Así, cuando MongoDB se pone lento, el límite cae y las solicitudes de más se rechazan de inmediato
+ * en lugar de hacer cola en los hilos del servidor
+ * Las lecturas se rechazan antes que las escrituras: solo pueden ocupar una fracción del límite
+ * La admisión es un compareAndSet sobre el contador de solicitudes en curso; solo el registro de la latencia
+ * al terminar toma el monitor, por un instante
+ */
+public class LimiteConcurrencia {
+
+    private static final double ALFA_LARGO = 2.0 / (600 + 1);
+    private static final int MIN_MUESTRAS_VENTANA = 10;
+
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final double suavizado;
+    private final double fraccionLecturas;
+    private final long ventanaNs;
+    private final LongSupplier reloj;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private volatile int limite;
+
+    // Protegidos por el monitor de la instancia
+    private double limiteEstimado;
+    private double latenciaLarga;
+    private long inicioVentana;
+    private long sumaVentana;
+    private int muestrasVentana;
+    private int maxEnCursoVentana;
+
+    /**
+     * @param inicial Límite inicial
+     * @param minimo Límite mínimo, aunque la latencia siga subiendo
+     * @param maximo Límite máximo
+     * @param tolerancia Cuánto puede superar la latencia reciente a la habitual sin que baje el límite (1.5 = 50%)
+     * @param suavizado Peso de cada ajuste sobre el límite anterior, entre 0 y 1
+     * @param fraccionLecturas Fracción del límite que pueden ocupar las lecturas
+     * @param ventanaMs Duración mínima de la ventana de muestras entre ajustes
+     */
+    public LimiteConcurrencia(int inicial, int minimo, int maximo, double tolerancia, double suavizado,
+                              double fraccionLecturas, long ventanaMs) {
+        this(inicial, minimo, maximo, tolerancia, suavizado, fraccionLecturas, ventanaMs, System::nanoTime);
+    }
+
+    LimiteConcurrencia(int inicial, int minimo, int maximo, double tolerancia, double suavizado,
+                       double fraccionLecturas, long ventanaMs, LongSupplier reloj) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.suavizado = suavizado;
+        this.fraccionLecturas = fraccionLecturas;
+        this.ventanaNs = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+        this.reloj = reloj;
+        this.limiteEstimado = Math.max(minimo, Math.min(maximo, inicial));
+        this.limite = (int) limiteEstimado;
+    }
+
+    /**
+     * Admite la solicitud si hay cupo para su prioridad
+     * @param lectura Si la solicitud es una lectura (prioridad baja)
+     * @return Si se admitió; en ese caso debe llamarse a {@link #liberar(long)} al terminar
+     */
+    public boolean adquirir(boolean lectura) {
+        int tope = lectura ? Math.max(1, (int) (limite * fraccionLecturas)) : limite;
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= tope) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el cupo de una solicitud admitida y suma su latencia a la ventana actual
+     * @param latenciaNs Latencia de la solicitud en nanosegundos; negativa si no debe usarse para el ajuste
+     */
+    public void liberar(long latenciaNs) {
+        int enCursoAlTerminar = enCurso.getAndDecrement();
+        if (latenciaNs > 0) {
+            registrar(latenciaNs, enCursoAlTerminar);
+        }
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    private synchronized void registrar(long latenciaNs, int enCursoAlTerminar) {
+        long ahora = reloj.getAsLong();
+        if (muestrasVentana >= MIN_MUESTRAS_VENTANA && ahora - inicioVentana >= ventanaNs) {
+            ajustar((double) sumaVentana / muestrasVentana, maxEnCursoVentana);
+            sumaVentana = 0;
+            muestrasVentana = 0;
+            maxEnCursoVentana = 0;
+        }
+        if (muestrasVentana == 0) {
+            inicioVentana = ahora;
+        }
+        sumaVentana += latenciaNs;
+        muestrasVentana++;
+        maxEnCursoVentana = Math.max(maxEnCursoVentana, enCursoAlTerminar);
+    }
+
+    private void ajustar(double latenciaCorta, int maxEnCurso) {
+        if (latenciaLarga == 0) {
+            latenciaLarga = latenciaCorta;
+            return;
+        }
+        latenciaLarga += ALFA_LARGO * (latenciaCorta - latenciaLarga);
+        // Tras un periodo lento la media larga queda alta; se acerca más rápido para no sobreestimar el límite
+        if (latenciaLarga / latenciaCorta > 2) {
+            latenciaLarga *= 0.95;
+        }
+        // Con poca carga la latencia no dice nada sobre el límite: no se sube sin haberlo usado
+        if (maxEnCurso < limiteEstimado / 2) {
+            return;
+        }
+        double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * latenciaLarga / latenciaCorta));
+        double nuevo = limiteEstimado * gradiente + Math.sqrt(limiteEstimado);
+        nuevo = limiteEstimado * (1 - suavizado) + nuevo * suavizado;
+        limiteEstimado = Math.max(minimo, Math.min(maximo, nuevo));
+        limite = (int) limiteEstimado;
+    }
+}
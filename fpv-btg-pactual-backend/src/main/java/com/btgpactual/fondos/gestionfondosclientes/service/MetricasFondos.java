@@ -0,0 +1,288 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.MontoMinimoException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionActivaException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Métricas de negocio y de latencia de las operaciones sobre fondos
+ * Los histogramas de percentiles de los timers se activan por nombre en application.properties
+ * Las métricas de comandos y del pool de conexiones de Mongo las publica Spring Boot (mongodb.driver.*)
+ */
+@Component
+public class MetricasFondos {
+
+    static final String METRICA_OPERACION = "fondos.operacion";
+    static final String METRICA_FASE = "fondos.operacion.fase";
+    static final String METRICA_SUSCRIPCIONES = "fondos.suscripciones";
+    static final String METRICA_CANCELACIONES = "fondos.cancelaciones";
+    static final String METRICA_RECHAZOS = "fondos.rechazos";
+    static final String METRICA_NOTIFICACIONES = "fondos.notificaciones.envio";
+    static final String METRICA_IDEMPOTENCIA = "fondos.idempotencia";
+    static final String METRICA_CONCURRENCIA_LIMITE = "fondos.concurrencia.limite";
+    static final String METRICA_CONCURRENCIA_EN_CURSO = "fondos.concurrencia.en_curso";
+    static final String METRICA_CONCURRENCIA_DESCARTES = "fondos.concurrencia.descartes";
+    static final String METRICA_CACHE_CLIENTES = "fondos.cache.clientes";
+    static final String METRICA_CACHE_CLIENTES_ENTRADAS = "fondos.cache.clientes.entradas";
+    static final String METRICA_CACHE_CLIENTES_PESO = "fondos.cache.clientes.peso";
+    static final String METRICA_POOL_MONGO_MAXIMO = "fondos.mongo.pool.maximo";
+    static final String METRICA_POOL_MONGO_MINIMO = "fondos.mongo.pool.minimo";
+
+    public static final String OPERACION_SUSCRIPCION = "suscripcion";
+    public static final String OPERACION_CANCELACION = "cancelacion";
+    public static final String OPERACION_HISTORIAL = "historial";
+    public static final String OPERACION_RESUMEN = "resumen";
+    public static final String OPERACION_LOTE = "lote";
+
+    public static final String FASE_CARGA_CLIENTE = "carga_cliente";
+    public static final String FASE_CARGA_FONDO = "carga_fondo";
+    public static final String FASE_VALIDACION = "validacion";
+    public static final String FASE_GUARDADO = "guardado";
+    public static final String FASE_NOTIFICACION = "notificacion";
+
+    public static final String MOTIVO_SALDO_INSUFICIENTE = "saldo_insuficiente";
+    public static final String MOTIVO_FONDO_INEXISTENTE = "fondo_inexistente";
+    public static final String MOTIVO_MONTO_MINIMO = "monto_minimo";
+    public static final String MOTIVO_SUSCRIPCION_ACTIVA = "suscripcion_activa";
+    public static final String MOTIVO_LIMITE_SOLICITUDES = "limite_solicitudes";
+    public static final String MOTIVO_NO_SUSCRITO = "no_suscrito";
+    public static final String MOTIVO_CLIENTE_INEXISTENTE = "cliente_inexistente";
+    public static final String MOTIVO_CONFLICTO_CONCURRENCIA = "conflicto_concurrencia";
+    public static final String MOTIVO_SOLICITUD_INVALIDA = "solicitud_invalida";
+    public static final String MOTIVO_ERROR_INTERNO = "error_interno";
+
+    public static final String CACHE_ACIERTO = "acierto";
+    public static final String CACHE_VERIFICADO = "verificado";
+    public static final String CACHE_FALLO = "fallo";
+    public static final String CACHE_OBSOLETO = "obsoleto";
+    public static final String CACHE_COMPARTIDO = "compartido";
+    public static final String CACHE_EXPULSION = "expulsion";
+
+    public static final String IDEMPOTENCIA_EJECUTADA = "ejecutada";
+    public static final String IDEMPOTENCIA_REPETIDA = "repetida";
+    public static final String IDEMPOTENCIA_REUTILIZADA = "reutilizada";
+    public static final String IDEMPOTENCIA_EN_PROCESO = "en_proceso";
+
+    private static final String TAG_OPERACION = "operacion";
+    private static final String TAG_FASE = "fase";
+    private static final String TAG_RESULTADO = "resultado";
+    private static final String TAG_MOTIVO = "motivo";
+    private static final String TAG_CANAL = "canal";
+    private static final String TAG_PRIORIDAD = "prioridad";
+    private static final String EXITO = "exito";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricasFondos(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Mide una operación completa; si falla registra el rechazo con su motivo
+     * @param operacion Nombre de la operación
+     * @param accion Operación a ejecutar
+     * @return Resultado de la operación
+     */
+    public <T> T medir(String operacion, Supplier<T> accion) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = ERROR;
+        try {
+            T valor = accion.get();
+            resultado = EXITO;
+            registrarExito(operacion, 1);
+            return valor;
+        } catch (RuntimeException e) {
+            registrarRechazo(operacion, e);
+            throw e;
+        } finally {
+            muestra.stop(meterRegistry.timer(METRICA_OPERACION, TAG_OPERACION, operacion, TAG_RESULTADO, resultado));
+        }
+    }
+
+    /**
+     * Versión no bloqueante de {@link #medir(String, Supplier)}; mide desde la suscripción hasta la señal final
+     */
+    public <T> Mono<T> medir(String operacion, Mono<T> accion) {
+        return Mono.defer(() -> {
+            Timer.Sample muestra = Timer.start(meterRegistry);
+            return accion
+                    .doOnSuccess(valor -> {
+                        registrarExito(operacion, 1);
+                        muestra.stop(meterRegistry.timer(METRICA_OPERACION, TAG_OPERACION, operacion, TAG_RESULTADO, EXITO));
+                    })
+                    .doOnError(e -> {
+                        registrarRechazo(operacion, e);
+                        muestra.stop(meterRegistry.timer(METRICA_OPERACION, TAG_OPERACION, operacion, TAG_RESULTADO, ERROR));
+                    });
+        });
+    }
+
+    /**
+     * Mide una fase dentro de una operación
+     * @param operacion Nombre de la operación
+     * @param fase Nombre de la fase
+     * @param accion Fase a ejecutar
+     * @return Resultado de la fase
+     */
+    public <T> T fase(String operacion, String fase, Supplier<T> accion) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        try {
+            return accion.get();
+        } finally {
+            muestra.stop(meterRegistry.timer(METRICA_FASE, TAG_OPERACION, operacion, TAG_FASE, fase));
+        }
+    }
+
+    /**
+     * Mide una fase sin resultado
+     */
+    public void fase(String operacion, String fase, Runnable accion) {
+        fase(operacion, fase, () -> {
+            accion.run();
+            return null;
+        });
+    }
+
+    /**
+     * Cuenta operaciones exitosas de negocio; las del lote se cuentan como suscripciones
+     * @param operacion Nombre de la operación
+     * @param cantidad Número de operaciones
+     */
+    public void registrarExito(String operacion, long cantidad) {
+        if (cantidad <= 0) {
+            return;
+        }
+        if (OPERACION_SUSCRIPCION.equals(operacion)) {
+            meterRegistry.counter(METRICA_SUSCRIPCIONES).increment(cantidad);
+        } else if (OPERACION_CANCELACION.equals(operacion)) {
+            meterRegistry.counter(METRICA_CANCELACIONES).increment(cantidad);
+        }
+    }
+
+    /**
+     * Cuenta una operación rechazada según el motivo que indica su error
+     * @param operacion Nombre de la operación
+     * @param error Error con el que terminó
+     */
+    public void registrarRechazo(String operacion, Throwable error) {
+        registrarRechazo(operacion, motivo(error));
+    }
+
+    /**
+     * Cuenta una operación rechazada con un motivo ya conocido
+     */
+    public void registrarRechazo(String operacion, String motivo) {
+        meterRegistry.counter(METRICA_RECHAZOS, TAG_OPERACION, operacion, TAG_MOTIVO, motivo).increment();
+    }
+
+    /**
+     * Inicia la medición del envío de una notificación
+     */
+    public Timer.Sample iniciarEnvio() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Registra el resultado del envío de una notificación
+     * @param muestra Medición iniciada con {@link #iniciarEnvio()}
+     * @param canal Canal de la notificación (EMAIL, SMS)
+     * @param exitoso Si el canal confirmó el envío
+     */
+    public void registrarEnvio(Timer.Sample muestra, String canal, boolean exitoso) {
+        muestra.stop(meterRegistry.timer(METRICA_NOTIFICACIONES,
+                TAG_CANAL, canal == null ? "ninguno" : canal, TAG_RESULTADO, exitoso ? EXITO : ERROR));
+    }
+
+    /**
+     * Cuenta las solicitudes con clave de idempotencia según cómo se resolvieron
+     * @param resultado Ejecutada, repetida (respuesta guardada), reutilizada (otra solicitud) o en proceso
+     */
+    public void registrarIdempotencia(String resultado) {
+        meterRegistry.counter(METRICA_IDEMPOTENCIA, TAG_RESULTADO, resultado).increment();
+    }
+
+    /**
+     * Publica el límite adaptativo de concurrencia y las solicitudes en curso
+     */
+    public void registrarConcurrencia(LimiteConcurrencia limite) {
+        meterRegistry.gauge(METRICA_CONCURRENCIA_LIMITE, limite, LimiteConcurrencia::getLimite);
+        meterRegistry.gauge(METRICA_CONCURRENCIA_EN_CURSO, limite, LimiteConcurrencia::getEnCurso);
+    }
+
+    /**
+     * Cuenta una solicitud descartada por el límite de concurrencia
+     * @param prioridad lectura o escritura
+     */
+    public void registrarDescarte(String prioridad) {
+        meterRegistry.counter(METRICA_CONCURRENCIA_DESCARTES, TAG_PRIORIDAD, prioridad).increment();
+    }
+
+    /**
+     * Publica el número de entradas y el peso de la caché de clientes
+     */
+    public void registrarCacheClientes(CacheClientes cache) {
+        meterRegistry.gauge(METRICA_CACHE_CLIENTES_ENTRADAS, cache, CacheClientes::getEntradas);
+        meterRegistry.gauge(METRICA_CACHE_CLIENTES_PESO, cache, CacheClientes::getPeso);
+    }
+
+    /**
+     * Cuenta una lectura o expulsión de la caché de clientes
+     * @param resultado acierto y verificado se sirven de memoria; fallo y obsoleto van a MongoDB;
+     *                  compartido espera la consulta de otra lectura; expulsion libera una entrada
+     */
+    public void registrarCacheClientes(String resultado) {
+        meterRegistry.counter(METRICA_CACHE_CLIENTES, TAG_RESULTADO, resultado).increment();
+    }
+
+    /**
+     * Publica el tamaño configurado del pool de conexiones de MongoDB, junto a mongodb.driver.pool.checkedout
+     * y mongodb.driver.pool.waitqueuesize permite ver cuándo el pool se satura
+     */
+    public void registrarPoolMongo(int maximo, int minimo) {
+        Gauge.builder(METRICA_POOL_MONGO_MAXIMO, () -> maximo).strongReference(true).register(meterRegistry);
+        Gauge.builder(METRICA_POOL_MONGO_MINIMO, () -> minimo).strongReference(true).register(meterRegistry);
+    }
+
+    /**
+     * Motivo de rechazo a partir del tipo de error
+     */
+    public static String motivo(Throwable error) {
+        if (error instanceof InsufficientFundsException) {
+            return MOTIVO_SALDO_INSUFICIENTE;
+        }
+        if (error instanceof FondoNotFoundException) {
+            return MOTIVO_FONDO_INEXISTENTE;
+        }
+        if (error instanceof SuscripcionNotFoundException) {
+            return MOTIVO_NO_SUSCRITO;
+        }
+        if (error instanceof ClienteNotFoundException) {
+            return MOTIVO_CLIENTE_INEXISTENTE;
+        }
+        if (error instanceof ConflictoConcurrenciaException) {
+            return MOTIVO_CONFLICTO_CONCURRENCIA;
+        }
+        if (error instanceof MontoMinimoException) {
+            return MOTIVO_MONTO_MINIMO;
+        }
+        if (error instanceof SuscripcionActivaException) {
+            return MOTIVO_SUSCRIPCION_ACTIVA;
+        }
+        if (error instanceof IllegalArgumentException) {
+            return MOTIVO_SOLICITUD_INVALIDA;
+        }
+        return MOTIVO_ERROR_INTERNO;
+    }
+}
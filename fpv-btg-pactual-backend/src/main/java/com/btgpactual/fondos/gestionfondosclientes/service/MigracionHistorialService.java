@@ -0,0 +1,141 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.mongodb.ErrorCategory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Migra en línea el historial embebido de los clientes a la colección "transacciones"
+ * Se ejecuta en segundo plano cuando la aplicación está lista, sin bloquear las peticiones
+ * Es idempotente: las transacciones ya migradas se ignoran y el campo embebido se elimina al final
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MigracionHistorialService {
+
+    private static final String COLECCION_CLIENTES = "clientes";
+    private static final String COLECCION_TRANSACCIONES = "transacciones";
+    private static final String CAMPO_HISTORIAL = "historialTransacciones";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${fondos.migracion.historial.habilitada:true}")
+    private boolean habilitada;
+
+    /**
+     * Lanza la migración en un hilo propio al terminar el arranque
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!habilitada) {
+            return;
+        }
+        Thread hilo = new Thread(this::migrar, "migracion-historial");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Recorre los clientes que aún tienen historial embebido y lo traslada
+     * @return Número de clientes migrados
+     */
+    public int migrar() {
+        Query query = new Query(Criteria.where(CAMPO_HISTORIAL).exists(true));
+        query.fields().include("_id").include(CAMPO_HISTORIAL);
+
+        int migrados = 0;
+        try (CloseableIterator<Document> cursor = mongoTemplate.stream(query, Document.class, COLECCION_CLIENTES)) {
+            while (cursor.hasNext()) {
+                migrarCliente(cursor.next());
+                migrados++;
+            }
+        } catch (Exception e) {
+            log.error("Error en la migración del historial: {}", e.getMessage(), e);
+        }
+
+        if (migrados > 0) {
+            log.info("Historial migrado para {} clientes", migrados);
+        }
+        return migrados;
+    }
+
+    /**
+     * Inserta las transacciones embebidas de un cliente y elimina el campo heredado
+     * @param cliente Documento del cliente con su historial embebido
+     */
+    private void migrarCliente(Document cliente) {
+        Object idCliente = cliente.get("_id");
+        List<Document> historial = cliente.getList(CAMPO_HISTORIAL, Document.class, Collections.emptyList());
+
+        if (!historial.isEmpty()) {
+            List<Document> transacciones = new ArrayList<>(historial.size());
+            for (Document embebida : historial) {
+                Object idTransaccion = embebida.get("_id");
+                transacciones.add(new Document("_id", idTransaccion != null ? idTransaccion : UUID.randomUUID().toString())
+                        .append("idCliente", idCliente)
+                        .append("tipo", embebida.get("tipo"))
+                        .append("fondo", embebida.get("fondo"))
+                        .append("monto", aDecimal(embebida.get("monto")))
+                        .append("fecha", embebida.get("fecha")));
+            }
+            insertarIgnorandoDuplicados(transacciones);
+        }
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(idCliente)),
+                new Update().unset(CAMPO_HISTORIAL),
+                COLECCION_CLIENTES);
+    }
+
+    /**
+     * Convierte al copiar los montos heredados (double, int, long) a Decimal128 redondeado a centavos, igual que
+     * {@link MigracionMontosService}; esa migración corre en otro hilo y podría pasar antes por "transacciones"
+     * @param monto Monto embebido
+     * @return Monto como Decimal128, o el valor original si no es numérico o ya es decimal
+     */
+    private static Object aDecimal(Object monto) {
+        if (monto instanceof Decimal128 || !(monto instanceof Number)) {
+            return monto;
+        }
+        return new Decimal128(Monto.redondeado(new BigDecimal(monto.toString())).toBigDecimal());
+    }
+
+    /**
+     * Inserta en lote sin orden; las claves duplicadas indican transacciones ya migradas
+     * @param transacciones Documentos a insertar
+     */
+    private void insertarIgnorandoDuplicados(List<Document> transacciones) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLECCION_TRANSACCIONES)
+                    .insert(transacciones)
+                    .execute();
+        } catch (BulkOperationException e) {
+            boolean soloDuplicados = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!soloDuplicados) {
+                throw e;
+            }
+        }
+    }
+}
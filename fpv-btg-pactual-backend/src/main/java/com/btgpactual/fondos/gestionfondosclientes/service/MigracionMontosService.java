@@ -0,0 +1,124 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Convierte en el servidor los montos guardados como double a Decimal128 redondeado a centavos
+ * Cada documento se reescribe con un pipeline de actualización atómico, sin leerlo en la aplicación,
+ * así no compite con las actualizaciones concurrentes de saldo
+ * Es idempotente: solo toca documentos que aún tienen montos numéricos no decimales
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MigracionMontosService {
+
+    private static final List<String> TIPOS_NO_DECIMALES = Arrays.asList("double", "int", "long");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${fondos.migracion.montos.habilitada:true}")
+    private boolean habilitada;
+
+    /**
+     * Lanza la migración en un hilo propio al terminar el arranque
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!habilitada) {
+            return;
+        }
+        Thread hilo = new Thread(this::migrar, "migracion-montos");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Migra los montos de todas las colecciones
+     * @return Número de documentos modificados
+     */
+    public long migrar() {
+        long modificados = 0;
+        try {
+            modificados += migrar("clientes", Collections.singletonList("saldo"),
+                    Arrays.asList("fondosActivos", "notificacionesPendientes", "historialTransacciones"));
+            modificados += migrar("fondos", Collections.singletonList("montoMinimo"), Collections.emptyList());
+            modificados += migrar("transacciones", Collections.singletonList("monto"), Collections.emptyList());
+            modificados += migrar("outbox_notificaciones", Collections.singletonList("monto"), Collections.emptyList());
+        } catch (Exception e) {
+            log.error("Error en la migración de montos: {}", e.getMessage(), e);
+        }
+
+        if (modificados > 0) {
+            log.info("Montos migrados a Decimal128 en {} documentos", modificados);
+        }
+        return modificados;
+    }
+
+    /**
+     * @param coleccion Colección a migrar
+     * @param campos Campos de monto en la raíz del documento
+     * @param arreglos Arreglos de subdocumentos con un campo "monto"
+     */
+    private long migrar(String coleccion, List<String> campos, List<String> arreglos) {
+        List<Document> condiciones = new ArrayList<>();
+        Document set = new Document();
+        for (String campo : campos) {
+            condiciones.add(new Document(campo, new Document("$type", TIPOS_NO_DECIMALES)));
+            set.append(campo, aDecimal("$" + campo));
+        }
+        for (String arreglo : arreglos) {
+            condiciones.add(new Document(arreglo + ".monto", new Document("$type", TIPOS_NO_DECIMALES)));
+            set.append(arreglo, arregloADecimal(arreglo));
+        }
+
+        Query query = new BasicQuery(new Document("$or", condiciones));
+        AggregationOperation etapa = context -> new Document("$set", set);
+        return mongoTemplate.updateMulti(query, AggregationUpdate.from(Collections.singletonList(etapa)), coleccion)
+                .getModifiedCount();
+    }
+
+    /**
+     * Expresión que convierte un valor numérico no decimal a Decimal128 con dos decimales
+     * y deja igual cualquier otro valor (ya decimal, nulo o ausente)
+     */
+    private static Document aDecimal(String expresion) {
+        Document redondeado = new Document("$round", Arrays.asList(
+                new Document("$toDecimal", expresion), Monto.DECIMALES));
+        return new Document("$cond", Arrays.asList(
+                new Document("$in", Arrays.asList(new Document("$type", expresion), TIPOS_NO_DECIMALES)),
+                redondeado,
+                expresion));
+    }
+
+    /**
+     * Expresión que convierte el campo "monto" de cada elemento del arreglo, si el campo es un arreglo
+     */
+    private static Document arregloADecimal(String arreglo) {
+        Document convertido = new Document("$map", new Document("input", "$" + arreglo)
+                .append("as", "e")
+                .append("in", new Document("$mergeObjects", Arrays.asList(
+                        "$$e", new Document("monto", aDecimal("$$e.monto"))))));
+        return new Document("$cond", Arrays.asList(
+                new Document("$isArray", "$" + arreglo),
+                convertido,
+                "$" + arreglo));
+    }
+}
@@ -1,86 +1,89 @@
 package com.btgpactual.fondos.gestionfondosclientes.service;
 
-import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
-import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
     
-    private final JavaMailSender mailSender;
+    private final CanalEmail canalEmail;
     
     /**
-     * Envía notificación de suscripción exitosa
-     * @param cliente Cliente que se suscribió
-     * @param fondo Fondo al que se suscribió
+     * Envía una notificación de la bandeja de salida por el canal preferido del cliente
+     * Los errores se entregan en el futuro para que el trabajador de la bandeja reintente el envío
+     * @param notificacion Notificación a enviar
+     * @return Futuro que se completa cuando el canal confirma el envío
+     */
+    public CompletableFuture<Void> enviar(NotificacionOutbox notificacion) {
+        boolean esSuscripcion = Constants.TIPO_TRANSACCION_SUSCRIPCION.equals(notificacion.getTipo());
+        String mensaje = esSuscripcion
+            ? mensajeSuscripcion(notificacion.getNombreFondo(), notificacion.getMonto())
+            : mensajeCancelacion(notificacion.getNombreFondo(), notificacion.getMonto());
+        String asunto = esSuscripcion
+            ? "Confirmación de Suscripción - BTG Pactual"
+            : "Confirmación de Cancelación - BTG Pactual";
+
+        if ("EMAIL".equals(notificacion.getCanal())) {
+            return enviarEmail(notificacion.getContacto(), asunto, mensaje);
+        }
+        if ("SMS".equals(notificacion.getCanal())) {
+            enviarSMS(notificacion.getContacto(), mensaje);
+        } else {
+            log.info("Notificación {} sin canal configurado, no se envía", notificacion.getIdNotificacion());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    /**
+     * Mensaje de suscripción exitosa
+     * @param nombreFondo Fondo al que se suscribió
      * @param monto Monto de la suscripción
      */
-    public void enviarNotificacionSuscripcion(Cliente cliente, Fondo fondo, Double monto) {
-        String mensaje = String.format(
+    private String mensajeSuscripcion(String nombreFondo, Monto monto) {
+        return String.format(
             "Estimado cliente,\n\n" +
             "Se ha realizado exitosamente su suscripción al fondo %s por un monto de $%,.2f COP.\n\n" +
             "Gracias por confiar en BTG Pactual.\n\n" +
             "Saludos cordiales,\n" +
             "Equipo BTG Pactual",
-            fondo.getNombre(), monto
+            nombreFondo, monto.toBigDecimal()
         );
-        
-        if ("EMAIL".equals(cliente.getPreferenciaNotificacion())) {
-            enviarEmail(cliente.getContacto(), "Confirmación de Suscripción - BTG Pactual", mensaje);
-        } else if ("SMS".equals(cliente.getPreferenciaNotificacion())) {
-            enviarSMS(cliente.getContacto(), mensaje);
-        }
     }
     
     /**
-     * Envía notificación de cancelación exitosa
-     * @param cliente Cliente que canceló
-     * @param fondo Fondo que canceló
+     * Mensaje de cancelación exitosa
+     * @param nombreFondo Fondo que canceló
      * @param monto Monto devuelto
      */
-    public void enviarNotificacionCancelacion(Cliente cliente, Fondo fondo, Double monto) {
-        String mensaje = String.format(
+    private String mensajeCancelacion(String nombreFondo, Monto monto) {
+        return String.format(
             "Estimado cliente,\n\n" +
             "Se ha realizado exitosamente la cancelación de su suscripción al fondo %s. " +
             "El monto de $%,.2f COP ha sido devuelto a su cuenta.\n\n" +
             "Gracias por confiar en BTG Pactual.\n\n" +
             "Saludos cordiales,\n" +
             "Equipo BTG Pactual",
-            fondo.getNombre(), monto
+            nombreFondo, monto.toBigDecimal()
         );
-        
-        if ("EMAIL".equals(cliente.getPreferenciaNotificacion())) {
-            enviarEmail(cliente.getContacto(), "Confirmación de Cancelación - BTG Pactual", mensaje);
-        } else if ("SMS".equals(cliente.getPreferenciaNotificacion())) {
-            enviarSMS(cliente.getContacto(), mensaje);
-        }
     }
     
     /**
-     * Envía un email al cliente
+     * Encola un email al cliente en el canal de envío por lotes
      * @param email Dirección de email del cliente
      * @param asunto Asunto del email
      * @param mensaje Contenido del mensaje
      */
-    private void enviarEmail(String email, String asunto, String mensaje) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(email);
-            message.setSubject(asunto);
-            message.setText(mensaje);
-            message.setFrom("noreply@btgpactual.com");
-            
-            mailSender.send(message);
-            log.info("Email enviado exitosamente a: {}", email);
-        } catch (Exception e) {
-            log.error("Error al enviar email a {}: {}", email, e.getMessage());
-        }
+    private CompletableFuture<Void> enviarEmail(String email, String asunto, String mensaje) {
+        return canalEmail.enviar(email, asunto, mensaje)
+            .thenRun(() -> log.info("Email enviado exitosamente a: {}", email));
     }
     
     /**
@@ -0,0 +1,66 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.NotificacionOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Traslada las notificaciones escritas en el documento del cliente a la bandeja de salida
+ * Primero inserta (ignorando duplicados) y luego las retira del cliente, así un fallo
+ * entre ambos pasos solo provoca un traslado repetido, nunca una notificación perdida
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelayService {
+
+    private final ClienteRepository clienteRepository;
+    private final NotificacionOutboxRepository notificacionOutboxRepository;
+
+    @Value("${fondos.outbox.relay.lote:100}")
+    private int lote;
+
+    /**
+     * Revisa periódicamente los clientes con notificaciones pendientes
+     */
+    @Scheduled(fixedDelayString = "${fondos.outbox.relay.intervalo-ms:500}")
+    public void trasladar() {
+        try {
+            List<Cliente> clientes;
+            do {
+                clientes = clienteRepository.buscarConNotificacionesPendientes(lote);
+                clientes.forEach(this::trasladarCliente);
+            } while (clientes.size() == lote);
+        } catch (Exception e) {
+            log.error("Error al trasladar notificaciones a la bandeja de salida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Traslada las notificaciones pendientes de un cliente
+     * @param cliente Cliente con sus notificaciones pendientes
+     */
+    private void trasladarCliente(Cliente cliente) {
+        List<NotificacionPendiente> pendientes = cliente.getNotificacionesPendientes();
+        if (pendientes == null || pendientes.isEmpty()) {
+            return;
+        }
+
+        notificacionOutboxRepository.insertarIgnorandoDuplicados(pendientes.stream()
+                .map(pendiente -> NotificacionOutbox.desde(cliente.getId(), pendiente))
+                .collect(Collectors.toList()));
+        clienteRepository.retirarNotificaciones(cliente.getId(), pendientes.stream()
+                .map(NotificacionPendiente::getIdNotificacion)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,156 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.repository.NotificacionOutboxRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drena la bandeja de salida con un pool acotado de hilos
+ * Los envíos son asíncronos: el número de notificaciones en vuelo se limita con un semáforo,
+ * así el canal de email puede agrupar muchas en un mismo lote sin bloquear los hilos del pool
+ * Cada notificación se reclama con un bloqueo temporal; si el envío falla se reprograma
+ * con espera exponencial y, al agotar los intentos, queda como FALLIDA (mensaje muerto)
+ * La entrega es al menos una vez: si una instancia cae, el bloqueo expira y otra la reintenta
+ * El resultado solo se registra con el reclamo vigente, así un trabajador lento no pisa el de otro
+ */
+@Service
+@Slf4j
+public class OutboxWorkerService {
+
+    private final NotificacionOutboxRepository notificacionOutboxRepository;
+    private final NotificationService notificationService;
+    private final MetricasFondos metricasFondos;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore enVuelo;
+    private final int maxIntentos;
+    private final long esperaInicialMs;
+    private final long esperaMaximaMs;
+    private final long bloqueoMs;
+
+    public OutboxWorkerService(NotificacionOutboxRepository notificacionOutboxRepository,
+                               NotificationService notificationService,
+                               MetricasFondos metricasFondos,
+                               @Value("${fondos.outbox.worker.hilos:4}") int hilos,
+                               @Value("${fondos.outbox.worker.max-en-vuelo:1000}") int maxEnVuelo,
+                               @Value("${fondos.outbox.worker.max-intentos:6}") int maxIntentos,
+                               @Value("${fondos.outbox.worker.espera-inicial-ms:1000}") long esperaInicialMs,
+                               @Value("${fondos.outbox.worker.espera-maxima-ms:300000}") long esperaMaximaMs,
+                               @Value("${fondos.outbox.worker.bloqueo-ms:60000}") long bloqueoMs) {
+        this.notificacionOutboxRepository = notificacionOutboxRepository;
+        this.notificationService = notificationService;
+        this.metricasFondos = metricasFondos;
+        this.maxIntentos = maxIntentos;
+        this.esperaInicialMs = esperaInicialMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.bloqueoMs = bloqueoMs;
+        this.enVuelo = new Semaphore(maxEnVuelo);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "outbox-notificaciones-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Reclama notificaciones listas mientras haya cupo de envíos en vuelo
+     */
+    @Scheduled(fixedDelayString = "${fondos.outbox.worker.intervalo-ms:500}")
+    public void drenar() {
+        while (enVuelo.tryAcquire()) {
+            try {
+                LocalDateTime ahora = LocalDateTime.now();
+                Optional<NotificacionOutbox> reclamada = notificacionOutboxRepository.reclamar(
+                        ahora, ahora.plus(bloqueoMs, ChronoUnit.MILLIS), UUID.randomUUID().toString());
+                if (!reclamada.isPresent()) {
+                    enVuelo.release();
+                    return;
+                }
+                NotificacionOutbox notificacion = reclamada.get();
+                pool.execute(() -> procesar(notificacion).whenComplete((r, e) -> enVuelo.release()));
+            } catch (Exception e) {
+                enVuelo.release();
+                log.error("Error al drenar la bandeja de salida: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Envía una notificación y registra el resultado en el pool cuando el canal responde
+     * @param notificacion Notificación reclamada
+     * @return Futuro que se completa cuando el resultado quedó registrado
+     */
+    CompletableFuture<Void> procesar(NotificacionOutbox notificacion) {
+        Timer.Sample muestra = metricasFondos.iniciarEnvio();
+        CompletableFuture<Void> envio;
+        try {
+            envio = notificationService.enviar(notificacion);
+        } catch (Exception e) {
+            envio = new CompletableFuture<>();
+            envio.completeExceptionally(e);
+        }
+        return envio.handleAsync((r, error) -> {
+            metricasFondos.registrarEnvio(muestra, notificacion.getCanal(), error == null);
+            registrarResultado(notificacion, error);
+            return null;
+        }, pool);
+    }
+
+    private void registrarResultado(NotificacionOutbox notificacion, Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String id = notificacion.getIdNotificacion();
+        String propietario = notificacion.getPropietario();
+        try {
+            boolean registrado;
+            if (e == null) {
+                registrado = notificacionOutboxRepository.marcarEnviada(id, propietario);
+            } else if (notificacion.getIntentos() >= maxIntentos) {
+                log.error("Notificación {} descartada tras {} intentos: {}", id, notificacion.getIntentos(), e.getMessage());
+                registrado = notificacionOutboxRepository.marcarFallida(id, propietario, e.getMessage());
+            } else {
+                long espera = Math.min(esperaMaximaMs,
+                        esperaInicialMs << Math.min(notificacion.getIntentos() - 1, 20));
+                log.warn("Error al enviar la notificación {} (intento {}), se reintenta en {} ms: {}",
+                        id, notificacion.getIntentos(), espera, e.getMessage());
+                registrado = notificacionOutboxRepository.reprogramar(id, propietario,
+                        LocalDateTime.now().plus(espera, ChronoUnit.MILLIS), e.getMessage());
+            }
+            if (!registrado) {
+                // El bloqueo expiró durante el envío y otro trabajador la reclamó; su resultado es el que vale
+                log.warn("El bloqueo de la notificación {} expiró antes de registrar el resultado", id);
+            }
+        } catch (Exception errorRegistro) {
+            log.error("Error al registrar el resultado de la notificación {}: {}",
+                    notificacion.getIdNotificacion(), errorRegistro.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+}
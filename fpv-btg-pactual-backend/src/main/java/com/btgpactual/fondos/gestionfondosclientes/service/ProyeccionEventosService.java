@@ -0,0 +1,94 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EventoClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.NotificacionOutboxRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Proyecta los eventos del perfil "eventos" en la transacción, la bandeja de salida y las estadísticas
+ * El evento es la única escritura de la operación; cada efecto se deriva de él usando su ID:
+ * - la transacción y la notificación se guardan con el ID del evento, así repetirlas no duplica nada
+ * - las estadísticas las aplica solo quien marca el evento como proyectado, una vez por evento
+ * Un fallo antes de marcarlo solo provoca una proyección repetida; un fallo entre la marca y las estadísticas
+ * deja los contadores sin ese evento, como cuando falla su actualización en el modo sin eventos
+ */
+@Service
+@Profile("eventos")
+@RequiredArgsConstructor
+@Slf4j
+public class ProyeccionEventosService {
+
+    private final EventoClienteRepository eventoRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final NotificacionOutboxRepository outboxRepository;
+    private final EstadisticasFondosService estadisticasFondos;
+
+    @Value("${fondos.eventos.proyeccion.lote:100}")
+    private int lote;
+
+    /**
+     * Revisa periódicamente los eventos pendientes de proyectar
+     */
+    @Scheduled(fixedDelayString = "${fondos.eventos.proyeccion.intervalo-ms:500}")
+    public void proyectar() {
+        try {
+            List<EventoCliente> eventos;
+            do {
+                eventos = eventoRepository.buscarPendientesDeProyectar(lote);
+                eventos.forEach(this::proyectar);
+            } while (eventos.size() == lote);
+        } catch (Exception e) {
+            log.error("Error al proyectar los eventos de los clientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Proyecta un evento de suscripción o cancelación
+     * @param evento Evento pendiente de proyectar
+     */
+    void proyectar(EventoCliente evento) {
+        transaccionRepository.save(new Transaccion(
+                evento.getIdEvento(),
+                evento.getIdCliente(),
+                evento.getTipo(),
+                evento.getNombreFondo(),
+                evento.getMonto(),
+                evento.getFecha()));
+
+        NotificacionPendiente notificacion = new NotificacionPendiente(
+                evento.getIdEvento(),
+                evento.getTipo(),
+                evento.getNombreFondo(),
+                evento.getMonto(),
+                evento.getPreferenciaNotificacion(),
+                evento.getContacto(),
+                evento.getFecha());
+        outboxRepository.insertarIgnorandoDuplicados(
+                Collections.singletonList(NotificacionOutbox.desde(evento.getIdCliente(), notificacion)));
+
+        if (eventoRepository.marcarProyectado(evento.getIdEvento())) {
+            estadisticasFondos.registrar(Collections.singletonList(incremento(evento)), evento.getFecha());
+        }
+    }
+
+    private FragmentoEstadisticaFondo incremento(EventoCliente evento) {
+        return Constants.TIPO_TRANSACCION_SUSCRIPCION.equals(evento.getTipo())
+                ? estadisticasFondos.suscripcion(evento.getIdCliente(), evento.getIdFondo(), evento.getMonto())
+                : estadisticasFondos.cancelacion(evento.getIdCliente(), evento.getIdFondo(), evento.getMonto());
+    }
+}
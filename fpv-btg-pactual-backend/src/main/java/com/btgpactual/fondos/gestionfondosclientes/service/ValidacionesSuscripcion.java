@@ -0,0 +1,54 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.MontoMinimoException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionActivaException;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+
+/**
+ * Reglas de negocio de la suscripción, compartidas por los servicios bloqueante y reactivo
+ */
+final class ValidacionesSuscripcion {
+
+    private ValidacionesSuscripcion() {
+    }
+
+    /**
+     * Valida que el monto cumpla el mínimo del fondo
+     * El saldo y la suscripción duplicada se validan en la actualización condicionada
+     * @param fondo Fondo al que se quiere suscribir
+     * @param request Datos de la suscripción
+     * @throws MontoMinimoException Si el monto es menor al mínimo
+     */
+    static void validarMontoMinimo(Fondo fondo, SuscripcionRequest request) {
+        if (request.getMonto().esMenorQue(fondo.getMontoMinimo())) {
+            throw new MontoMinimoException(String.format(
+                    Constants.MSG_MONTO_MINIMO,
+                    fondo.getNombre(), fondo.getMontoMinimo().toBigDecimal()));
+        }
+    }
+
+    /**
+     * Explica por qué no se aplicó una suscripción
+     * @param cliente Estado actual del cliente
+     * @param fondo Fondo al que se quiere suscribir
+     * @param request Datos de la suscripción
+     * @throws InsufficientFundsException Si no hay saldo suficiente
+     * @throws IllegalArgumentException Si ya está suscrito al fondo
+     */
+    static void validarSuscripcion(Cliente cliente, Fondo fondo, SuscripcionRequest request) {
+        if (cliente.getSaldo().esMenorQue(request.getMonto())) {
+            throw new InsufficientFundsException(String.format(
+                    Constants.MSG_SALDO_INSUFICIENTE, fondo.getNombre()));
+        }
+
+        boolean yaSuscrito = cliente.getFondosActivos().stream()
+                .anyMatch(fa -> fa.getIdFondo().equals(fondo.getId()));
+        if (yaSuscrito) {
+            throw new SuscripcionActivaException(Constants.MSG_SUSCRIPCION_ACTIVA);
+        }
+    }
+}
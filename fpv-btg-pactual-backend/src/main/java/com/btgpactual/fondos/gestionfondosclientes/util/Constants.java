@@ -1,13 +1,39 @@
 package com.btgpactual.fondos.gestionfondosclientes.util;
 
 public class Constants {
-    public static final String CLIENTE_ID = "CAROLINA-PASUY";
     public static final String TIPO_TRANSACCION_SUSCRIPCION = "SUSCRIPCION";
     public static final String TIPO_TRANSACCION_CANCELACION = "CANCELACION";
+    public static final String TIPO_EVENTO_APERTURA = "APERTURA";
+
+    public static final String ESTADO_NOTIFICACION_PENDIENTE = "PENDIENTE";
+    public static final String ESTADO_NOTIFICACION_EN_PROCESO = "EN_PROCESO";
+    public static final String ESTADO_NOTIFICACION_ENVIADA = "ENVIADA";
+    public static final String ESTADO_NOTIFICACION_FALLIDA = "FALLIDA";
+
+    public static final String ESTADO_IDEMPOTENCIA_EN_PROCESO = "EN_PROCESO";
+    public static final String ESTADO_IDEMPOTENCIA_COMPLETADA = "COMPLETADA";
+
+    public static final String HEADER_IDEMPOTENCIA = "Idempotency-Key";
+    public static final String HEADER_IDEMPOTENCIA_REPETIDA = "Idempotent-Replayed";
+    public static final int MAX_LONGITUD_CLAVE_IDEMPOTENCIA = 255;
 
     public static final String MSG_SALDO_INSUFICIENTE = "No tiene saldo disponible para vincularse al fondo %s";
     public static final String MSG_MONTO_MINIMO = "Para suscribirse al fondo %s, se requiere un monto mínimo de $%,.2f";
     public static final String MSG_SUSCRIPCION_ACTIVA = "Ya está suscrito a este fondo";
+    public static final String MSG_ULTIMAS_TRANSACCIONES = "El número de transacciones debe estar entre 0 y %d";
+    public static final String MSG_RANGO_FECHAS = "La fecha inicial no puede ser posterior a la fecha final";
+    public static final String MSG_FORMATO_EXPORTACION = "Formato de exportación no soportado: %s";
+    public static final String MSG_LIMITE_SOLICITUDES = "Demasiadas solicitudes para el cliente, intente nuevamente más tarde";
+    public static final String MSG_SOBRECARGA = "El servicio está sobrecargado, intente nuevamente en unos segundos";
+    public static final String MSG_GRANULARIDAD_ACTIVIDAD = "Granularidad no soportada: %s";
+    public static final String MSG_RANGO_ACTIVIDAD = "El rango debe ser positivo y cubrir como máximo %d intervalos de la granularidad pedida";
+    public static final String MSG_CLAVE_IDEMPOTENCIA_INVALIDA = "La clave de idempotencia debe tener entre 1 y %d caracteres";
+    public static final String MSG_CLAVE_IDEMPOTENCIA_REUTILIZADA = "La clave de idempotencia ya se usó con una solicitud diferente";
+    public static final String MSG_CLAVE_IDEMPOTENCIA_EN_PROCESO = "Hay una solicitud con la misma clave de idempotencia en proceso, intente nuevamente";
+
+    public static final int ULTIMAS_TRANSACCIONES_POR_DEFECTO = 10;
+    public static final int MAX_ULTIMAS_TRANSACCIONES = 100;
+    public static final int MAX_INTERVALOS_ACTIVIDAD = 1440;
 
     private Constants() {}
 }
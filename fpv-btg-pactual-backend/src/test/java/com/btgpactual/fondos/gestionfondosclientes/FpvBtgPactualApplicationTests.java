@@ -1,11 +1,21 @@
 package com.btgpactual.fondos.gestionfondosclientes;
 
+import com.btgpactual.fondos.gestionfondosclientes.support.MongoEnMemoria;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class FpvBtgPactualApplicationTests {
 
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registro) {
+        MongoEnMemoria.registrar(registro);
+    }
+
     @Test
     void contextLoads() {
     }
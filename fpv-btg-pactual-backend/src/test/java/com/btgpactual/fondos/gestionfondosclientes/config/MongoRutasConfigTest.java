@@ -0,0 +1,48 @@
+package com.btgpactual.fondos.gestionfondosclientes.config;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import com.mongodb.WriteConcern;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoRutasConfigTest {
+
+    private final PoliticaEscrituraMongo politica = new MongoRutasConfig().politicaEscrituraMongo(
+            "majority", 5000, "w1", new String[]{"transacciones", "actividad_fondos"});
+
+    @Test
+    void saldosUsanMayoriaYAuditoriaElWriteConcernLigero() {
+        WriteConcern clientes = politica.resolve(accion("clientes", Cliente.class));
+        WriteConcern transacciones = politica.resolve(accion("transacciones", Transaccion.class));
+
+        assertEquals(WriteConcern.MAJORITY.withWTimeout(5000, TimeUnit.MILLISECONDS), clientes);
+        assertEquals(WriteConcern.W1, transacciones);
+    }
+
+    @Test
+    void lecturasDeSecundariosConRetrasoMaximo() {
+        ReadPreference secundarios = MongoRutasConfig.readPreference("secondaryPreferred", 90);
+
+        assertEquals("secondaryPreferred", secundarios.getName());
+        assertEquals(90L, ((TaggableReadPreference) secundarios).getMaxStaleness(TimeUnit.SECONDS));
+        assertEquals(ReadPreference.primary(), MongoRutasConfig.readPreference("primary", 90));
+    }
+
+    @Test
+    void writeConcernDesconocidoSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> MongoRutasConfig.writeConcern("todos"));
+    }
+
+    private static MongoAction accion(String coleccion, Class<?> tipo) {
+        return new MongoAction(null, MongoActionOperation.INSERT, coleccion, tipo, new Document(), null);
+    }
+}
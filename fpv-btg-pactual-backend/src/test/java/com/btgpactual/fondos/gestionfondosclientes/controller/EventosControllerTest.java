@@ -0,0 +1,58 @@
+package com.btgpactual.fondos.gestionfondosclientes.controller;
+
+import com.btgpactual.fondos.gestionfondosclientes.config.FormatosBinariosConfig;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.service.FondoEventosService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EventosController.class)
+@Import(FormatosBinariosConfig.class)
+@ActiveProfiles("eventos")
+class EventosControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FondoEventosService fondoEventosService;
+
+    @Test
+    void obtenerEstadoEnUnMomento() throws Exception {
+        Cliente estado = new Cliente();
+        estado.setId("CAROLINA-PASUY");
+        estado.setSaldo(Monto.dePesos(425000));
+        when(fondoEventosService.reconstruirEstado("CAROLINA-PASUY", LocalDateTime.of(2024, 3, 1, 12, 0)))
+                .thenReturn(Optional.of(estado));
+
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/estado").param("momento", "2024-03-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.saldo").value(425000.00));
+    }
+
+    @Test
+    void obtenerEstadoSinEventos() throws Exception {
+        when(fondoEventosService.reconstruirEstado(eq("CAROLINA-PASUY"), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/estado"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
@@ -1,32 +1,76 @@
 package com.btgpactual.fondos.gestionfondosclientes.controller;
 
+import com.btgpactual.fondos.gestionfondosclientes.config.FormatosBinariosConfig;
 import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
 import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.EstadisticasFondo;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteRequest;
 import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
 import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
 import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
 import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.service.CatalogoFondos;
+import com.btgpactual.fondos.gestionfondosclientes.service.EstadisticasFondosService;
+import com.btgpactual.fondos.gestionfondosclientes.service.ExportacionHistorialService;
 import com.btgpactual.fondos.gestionfondosclientes.service.FondoService;
+import com.btgpactual.fondos.gestionfondosclientes.service.FormatoExportacion;
+import com.btgpactual.fondos.gestionfondosclientes.service.IdempotenciaService;
+import com.btgpactual.fondos.gestionfondosclientes.service.LimitadorSolicitudes;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FondoController.class)
+@Import(FormatosBinariosConfig.class)
 class FondoControllerTest {
 
     @Autowired
@@ -35,6 +79,18 @@ class FondoControllerTest {
     @MockBean
     private FondoService fondoService;
 
+    @MockBean
+    private ExportacionHistorialService exportacionHistorialService;
+
+    @MockBean
+    private IdempotenciaService idempotenciaService;
+
+    @MockBean
+    private EstadisticasFondosService estadisticasFondosService;
+
+    @MockBean
+    private LimitadorSolicitudes limitadorSolicitudes;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -46,9 +102,12 @@ class FondoControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(idempotenciaService.ejecutar(any(), any(), any(), any()))
+                .thenAnswer(invocacion -> invocacion.getArgument(3, Supplier.class).get());
+
         suscripcionRequest = new SuscripcionRequest();
         suscripcionRequest.setIdFondo("1");
-        suscripcionRequest.setMonto(100000.0);
+        suscripcionRequest.setMonto(Monto.dePesos(100000));
         suscripcionRequest.setPreferenciaNotificacion("EMAIL");
         suscripcionRequest.setContacto("test@example.com");
 
@@ -57,18 +116,18 @@ class FondoControllerTest {
 
         cliente = new Cliente();
         cliente.setId("CAROLINA-PASUY");
-        cliente.setSaldo(500000.0);
+        cliente.setSaldo(Monto.dePesos(500000));
 
-        fondo = new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", 75000.0);
+        fondo = new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000));
 
-        transaccion = new Transaccion("1", "SUSCRIPCION", "FPV_BTG_PACTUAL_RECAUDADORA", 100000.0, LocalDateTime.now());
+        transaccion = new Transaccion("1", "CAROLINA-PASUY", "SUSCRIPCION", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), LocalDateTime.now());
     }
 
     @Test
     void suscribirseAFondoSuccess() throws Exception {
-        when(fondoService.suscribirseAFondo(any(SuscripcionRequest.class))).thenReturn(cliente);
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class))).thenReturn(cliente);
 
-        mockMvc.perform(post("/api/btg/fondos/suscribirse")
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(suscripcionRequest)))
                 .andExpect(status().isOk())
@@ -79,10 +138,10 @@ class FondoControllerTest {
 
     @Test
     void suscribirseAFondoError() throws Exception {
-        when(fondoService.suscribirseAFondo(any(SuscripcionRequest.class)))
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class)))
                 .thenThrow(new IllegalArgumentException("Monto insuficiente"));
 
-        mockMvc.perform(post("/api/btg/fondos/suscribirse")
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(suscripcionRequest)))
                 .andExpect(status().isBadRequest())
@@ -90,11 +149,29 @@ class FondoControllerTest {
                 .andExpect(jsonPath("$.message").value("Monto insuficiente"));
     }
 
+    @Test
+    void suscribirEnLoteResultadosParciales() throws Exception {
+        SuscripcionLoteRequest lote = new SuscripcionLoteRequest(Arrays.asList(
+                new SuscripcionLoteItem("CAROLINA-PASUY", suscripcionRequest),
+                new SuscripcionLoteItem("OTRO-CLIENTE", suscripcionRequest)));
+        when(fondoService.suscribirEnLote(anyList())).thenReturn(Arrays.asList(
+                new ResultadoSuscripcionLote(0, "CAROLINA-PASUY", "1", true, "Suscripción exitosa"),
+                new ResultadoSuscripcionLote(1, "OTRO-CLIENTE", "1", false, "Saldo insuficiente")));
+
+        mockMvc.perform(post("/api/btg/fondos/suscripciones/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Lote procesado: 1 exitosas, 1 fallidas"))
+                .andExpect(jsonPath("$.data[1].exitosa").value(false));
+    }
+
     @Test
     void cancelarSuscripcionSuccess() throws Exception {
-        when(fondoService.cancelarSuscripcion(any(CancelacionRequest.class))).thenReturn(cliente);
+        when(fondoService.cancelarSuscripcion(eq("CAROLINA-PASUY"), any(CancelacionRequest.class))).thenReturn(cliente);
 
-        mockMvc.perform(post("/api/btg/fondos/cancelar")
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/cancelar")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(cancelacionRequest)))
                 .andExpect(status().isOk())
@@ -105,23 +182,64 @@ class FondoControllerTest {
 
     @Test
     void cancelarSuscripcionError() throws Exception {
-        when(fondoService.cancelarSuscripcion(any(CancelacionRequest.class)))
-                .thenThrow(new RuntimeException("No está suscrito a este fondo"));
+        when(fondoService.cancelarSuscripcion(eq("CAROLINA-PASUY"), any(CancelacionRequest.class)))
+                .thenThrow(new SuscripcionNotFoundException("No está suscrito a este fondo"));
 
-        mockMvc.perform(post("/api/btg/fondos/cancelar")
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/cancelar")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(cancelacionRequest)))
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("No está suscrito a este fondo"));
     }
 
+    @Test
+    void suscribirseAFondoConflictoDeConcurrencia() throws Exception {
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class)))
+                .thenThrow(new ConflictoConcurrenciaException("El cliente tiene otra operación en curso, intente nuevamente"));
+
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(suscripcionRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void suscribirseAFondoConClaveDeIdempotencia() throws Exception {
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class))).thenReturn(cliente);
+
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .header("Idempotency-Key", "reintento-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(suscripcionRequest)))
+                .andExpect(status().isOk());
+
+        verify(idempotenciaService).ejecutar(eq("reintento-1"), eq("suscripcion:CAROLINA-PASUY"),
+                any(SuscripcionRequest.class), any());
+    }
+
+    @Test
+    void repeticionConRespuestaGuardadaNoConsumeElLimite() throws Exception {
+        doAnswer(invocacion -> ResponseEntity.ok(ApiResponse.success("Suscripción exitosa", cliente)))
+                .when(idempotenciaService).ejecutar(eq("reintento-1"), any(), any(), any());
+
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .header("Idempotency-Key", "reintento-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(suscripcionRequest)))
+                .andExpect(status().isOk());
+
+        verifyNoInteractions(limitadorSolicitudes);
+        verifyNoInteractions(fondoService);
+    }
+
     @Test
     void obtenerHistorialSuccess() throws Exception {
         List<Transaccion> transacciones = Arrays.asList(transaccion);
-        when(fondoService.obtenerHistorialTransacciones()).thenReturn(transacciones);
+        when(fondoService.obtenerHistorialTransacciones("CAROLINA-PASUY")).thenReturn(transacciones);
 
-        mockMvc.perform(get("/api/btg/fondos/historial"))
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Historial obtenido exitosamente"))
@@ -129,11 +247,31 @@ class FondoControllerTest {
                 .andExpect(jsonPath("$.data[0].tipo").value("SUSCRIPCION"));
     }
 
+    @Test
+    void obtenerHistorialEnCborConservaLaFormaDelJson() throws Exception {
+        when(fondoService.obtenerHistorialTransacciones("CAROLINA-PASUY")).thenReturn(Arrays.asList(transaccion));
+
+        MvcResult resultado = mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        JsonNode cbor = new ObjectMapper(new CBORFactory()).readTree(resultado.getResponse().getContentAsByteArray());
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(
+                ApiResponse.success("Historial obtenido exitosamente", Arrays.asList(transaccion))));
+        JsonNode fila = cbor.path("data").get(0);
+        assertTrue(cbor.path("success").asBoolean());
+        assertEquals("SUSCRIPCION", fila.path("tipo").asText());
+        assertEquals(json.path("data").get(0).path("fecha").asText(), fila.path("fecha").asText());
+        assertEquals(0, new BigDecimal("100000.00").compareTo(fila.path("monto").decimalValue()));
+    }
+
     @Test
     void obtenerHistorialEmpty() throws Exception {
-        when(fondoService.obtenerHistorialTransacciones()).thenReturn(Collections.emptyList());
+        when(fondoService.obtenerHistorialTransacciones("CAROLINA-PASUY")).thenReturn(Collections.emptyList());
 
-        mockMvc.perform(get("/api/btg/fondos/historial"))
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data").isArray())
@@ -142,31 +280,224 @@ class FondoControllerTest {
 
     @Test
     void obtenerHistorialError() throws Exception {
-        when(fondoService.obtenerHistorialTransacciones())
+        when(fondoService.obtenerHistorialTransacciones("CAROLINA-PASUY"))
                 .thenThrow(new RuntimeException("Error interno"));
 
-        mockMvc.perform(get("/api/btg/fondos/historial"))
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial"))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Error al obtener el historial"));
     }
 
+    @Test
+    void exportarHistorialCsvComoAdjunto() throws Exception {
+        doAnswer(invocacion -> {
+            invocacion.getArgument(4, OutputStream.class).write("idTransaccion\r\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        }).when(exportacionHistorialService).exportar(eq("CAROLINA-PASUY"), eq(FormatoExportacion.CSV),
+                eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)), any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial/exportar")
+                        .param("formato", "csv").param("desde", "2024-01-01").param("hasta", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"historial-CAROLINA-PASUY.csv\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("idTransaccion\r\n"));
+    }
+
+    @Test
+    void exportarHistorialComprimeSiElClienteAceptaGzip() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial/exportar")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+
+        verify(exportacionHistorialService).exportar(eq("CAROLINA-PASUY"), eq(FormatoExportacion.NDJSON),
+                isNull(), isNull(), any(OutputStream.class));
+    }
+
+    @Test
+    void exportarHistorialFormatoNoSoportado() throws Exception {
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial/exportar").param("formato", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Formato de exportación no soportado: xml"));
+    }
+
+    @Test
+    void exportarHistorialRangoInvalido() throws Exception {
+        doThrow(new IllegalArgumentException("La fecha inicial no puede ser posterior a la fecha final"))
+                .when(exportacionHistorialService).validarRango(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1));
+
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/historial/exportar")
+                        .param("desde", "2024-02-01").param("hasta", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        verify(exportacionHistorialService).validarRango(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1));
+        verifyNoMoreInteractions(exportacionHistorialService);
+    }
+
+    @Test
+    void obtenerResumenSuccess() throws Exception {
+        ResumenCliente resumen = new ResumenCliente("CAROLINA-PASUY", Monto.dePesos(400000),
+                Collections.emptyList(), Arrays.asList(transaccion));
+        when(fondoService.obtenerResumen("CAROLINA-PASUY", 5)).thenReturn(resumen);
+
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/resumen").param("ultimas", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.saldo").value(400000.00))
+                .andExpect(jsonPath("$.data.ultimasTransacciones[0].tipo").value("SUSCRIPCION"));
+    }
+
+    @Test
+    void obtenerResumenUsaDiezTransaccionesPorDefecto() throws Exception {
+        when(fondoService.obtenerResumen("CAROLINA-PASUY", 10)).thenReturn(new ResumenCliente(
+                "CAROLINA-PASUY", Monto.dePesos(500000), Collections.emptyList(), Collections.emptyList()));
+
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/resumen"))
+                .andExpect(status().isOk());
+
+        verify(fondoService).obtenerResumen("CAROLINA-PASUY", 10);
+    }
+
+    @Test
+    void obtenerResumenFueraDeRango() throws Exception {
+        when(fondoService.obtenerResumen("CAROLINA-PASUY", 500))
+                .thenThrow(new IllegalArgumentException("El número de transacciones debe estar entre 0 y 100"));
+
+        mockMvc.perform(get("/api/btg/fondos/clientes/CAROLINA-PASUY/resumen").param("ultimas", "500"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void suscribirseAFondoLimiteSuperado() throws Exception {
+        when(limitadorSolicitudes.reservar(MetricasFondos.OPERACION_SUSCRIPCION, "CAROLINA-PASUY")).thenReturn(1500L);
+
+        mockMvc.perform(post("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(suscripcionRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false));
+
+        verifyNoMoreInteractions(fondoService);
+    }
+
+    @Test
+    void obtenerEstadisticasSuccess() throws Exception {
+        when(estadisticasFondosService.obtenerEstadisticas()).thenReturn(Arrays.asList(
+                new EstadisticasFondo("1", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(300000), 3L)));
+
+        mockMvc.perform(get("/api/btg/fondos/estadisticas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[0].idFondo").value("1"))
+                .andExpect(jsonPath("$.data[0].montoAdministrado").value(300000.00))
+                .andExpect(jsonPath("$.data[0].suscriptores").value(3));
+    }
+
+    @Test
+    void obtenerEstadisticasFondoInexistente() throws Exception {
+        when(estadisticasFondosService.obtenerEstadisticas("99"))
+                .thenThrow(new FondoNotFoundException("El fondo 99 no existe"));
+
+        mockMvc.perform(get("/api/btg/fondos/99/estadisticas"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("El fondo 99 no existe"));
+    }
+
+    @Test
+    void obtenerActividadSuccess() throws Exception {
+        LocalDateTime inicio = LocalDateTime.of(2024, 3, 1, 10, 0);
+        when(estadisticasFondosService.obtenerActividad("1", "hora", inicio, inicio.plusHours(2)))
+                .thenReturn(Collections.singletonList(new ActividadFondo("1:SUSCRIPCION:hora:" + inicio, "1",
+                        Constants.TIPO_TRANSACCION_SUSCRIPCION, "hora", inicio, 4L, Monto.dePesos(400000), null)));
+
+        mockMvc.perform(get("/api/btg/fondos/1/actividad")
+                        .param("granularidad", "hora")
+                        .param("desde", "2024-03-01T10:00:00")
+                        .param("hasta", "2024-03-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].tipo").value(Constants.TIPO_TRANSACCION_SUSCRIPCION))
+                .andExpect(jsonPath("$.data[0].operaciones").value(4))
+                .andExpect(jsonPath("$.data[0].monto").value(400000.00))
+                .andExpect(jsonPath("$.data[0].id").doesNotExist());
+    }
+
+    @Test
+    void obtenerActividadGranularidadInvalida() throws Exception {
+        when(estadisticasFondosService.obtenerActividad(eq("1"), eq("semana"), any(), any()))
+                .thenThrow(new IllegalArgumentException("Granularidad no soportada: semana"));
+
+        mockMvc.perform(get("/api/btg/fondos/1/actividad")
+                        .param("granularidad", "semana")
+                        .param("desde", "2024-03-01T00:00:00")
+                        .param("hasta", "2024-03-08T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void obtenerFondosSuccess() throws Exception {
-        List<Fondo> fondos = Arrays.asList(fondo);
-        when(fondoService.obtenerFondos()).thenReturn(fondos);
+        CatalogoFondos catalogo = catalogo(Arrays.asList(fondo));
+        when(fondoService.obtenerCatalogo()).thenReturn(catalogo);
 
         mockMvc.perform(get("/api/btg/fondos"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogo.getEtag()))
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Fondos obtenidos exitosamente"))
                 .andExpect(jsonPath("$.data").isArray())
                 .andExpect(jsonPath("$.data[0].id").value("1"))
                 .andExpect(jsonPath("$.data[0].nombre").value("FPV_BTG_PACTUAL_RECAUDADORA"));
     }
+    @Test
+    void obtenerFondosNoModificado() throws Exception {
+        CatalogoFondos catalogo = catalogo(Arrays.asList(fondo));
+        when(fondoService.obtenerCatalogo()).thenReturn(catalogo);
+
+        mockMvc.perform(get("/api/btg/fondos").header("If-None-Match", catalogo.getEtag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void obtenerFondosEnSmileTieneSuPropioEtag() throws Exception {
+        CatalogoFondos catalogo = catalogo(Arrays.asList(fondo));
+        when(fondoService.obtenerCatalogo()).thenReturn(catalogo);
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+        MvcResult resultado = mockMvc.perform(get("/api/btg/fondos").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn();
+
+        String etag = resultado.getResponse().getHeader("ETag");
+        assertNotEquals(catalogo.getEtag(), etag);
+        JsonNode respuesta = new ObjectMapper(new SmileFactory()).readTree(resultado.getResponse().getContentAsByteArray());
+        assertEquals("FPV_BTG_PACTUAL_RECAUDADORA", respuesta.path("data").get(0).path("nombre").asText());
+        mockMvc.perform(get("/api/btg/fondos").accept(smile).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void obtenerFondosError() throws Exception {
-        when(fondoService.obtenerFondos())
+        when(fondoService.obtenerCatalogo())
                 .thenThrow(new RuntimeException("Error de base de datos"));
 
         mockMvc.perform(get("/api/btg/fondos"))
@@ -177,7 +508,7 @@ class FondoControllerTest {
 
     @Test
     void obtenerFondosEmpty() throws Exception {
-        when(fondoService.obtenerFondos()).thenReturn(Collections.emptyList());
+        when(fondoService.obtenerCatalogo()).thenReturn(catalogo(Collections.emptyList()));
 
         mockMvc.perform(get("/api/btg/fondos"))
                 .andExpect(status().isOk())
@@ -186,5 +517,9 @@ class FondoControllerTest {
                 .andExpect(jsonPath("$.data").isEmpty());
     }
 
+    private CatalogoFondos catalogo(List<Fondo> fondos) throws Exception {
+        return new CatalogoFondos(new ArrayList<>(fondos),
+                objectMapper.writeValueAsBytes(ApiResponse.success("Fondos obtenidos exitosamente", fondos)));
+    }
 
 }
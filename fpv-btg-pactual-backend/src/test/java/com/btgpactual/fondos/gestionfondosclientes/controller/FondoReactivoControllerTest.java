@@ -0,0 +1,190 @@
+package com.btgpactual.fondos.gestionfondosclientes.controller;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.service.CatalogoFondos;
+import com.btgpactual.fondos.gestionfondosclientes.service.FondoReactivoService;
+import com.btgpactual.fondos.gestionfondosclientes.service.IdempotenciaService;
+import com.btgpactual.fondos.gestionfondosclientes.service.LimitadorSolicitudes;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(FondoReactivoController.class)
+@ActiveProfiles("reactive")
+class FondoReactivoControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private FondoReactivoService fondoService;
+
+    @MockBean
+    private LimitadorSolicitudes limitadorSolicitudes;
+
+    @MockBean
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SuscripcionRequest suscripcionRequest;
+    private Cliente cliente;
+
+    @BeforeEach
+    void setUp() {
+        suscripcionRequest = new SuscripcionRequest("1", Monto.dePesos(100000), "EMAIL", "test@example.com");
+        cliente = new Cliente();
+        cliente.setId("CAROLINA-PASUY");
+        cliente.setSaldo(Monto.dePesos(400000));
+    }
+
+    @Test
+    void suscribirseAFondoSuccess() {
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class)))
+                .thenReturn(Mono.just(cliente));
+
+        webTestClient.post().uri("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suscripcionRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.data.saldo").isEqualTo(400000.0);
+    }
+
+    @Test
+    void cancelarSuscripcionLimiteSuperado() {
+        when(limitadorSolicitudes.reservar(MetricasFondos.OPERACION_CANCELACION, "CAROLINA-PASUY")).thenReturn(250L);
+
+        webTestClient.post().uri("/api/btg/fondos/clientes/CAROLINA-PASUY/cancelar")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CancelacionRequest("1"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(false);
+    }
+
+    @Test
+    void obtenerEstadisticasFondoInexistente() {
+        when(fondoService.obtenerEstadisticas("99"))
+                .thenReturn(Mono.error(new FondoNotFoundException("El fondo 99 no existe")));
+
+        webTestClient.get().uri("/api/btg/fondos/99/estadisticas")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("El fondo 99 no existe");
+    }
+
+    @Test
+    void suscribirseAFondoError() {
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Monto insuficiente")));
+
+        webTestClient.post().uri("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suscripcionRequest)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Monto insuficiente");
+    }
+
+    @Test
+    void suscribirseAFondoConClaveDeIdempotencia() {
+        when(fondoService.suscribirseAFondo(eq("CAROLINA-PASUY"), any(SuscripcionRequest.class)))
+                .thenReturn(Mono.just(cliente));
+        when(idempotenciaService.ejecutar(eq("reintento-1"), eq("suscripcion:CAROLINA-PASUY"), any(), any()))
+                .thenAnswer(invocacion -> invocacion.getArgument(3, Supplier.class).get());
+
+        webTestClient.post().uri("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .header("Idempotency-Key", "reintento-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suscripcionRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.id").isEqualTo("CAROLINA-PASUY");
+
+        verify(idempotenciaService).ejecutar(eq("reintento-1"), eq("suscripcion:CAROLINA-PASUY"), any(), any());
+    }
+
+    @Test
+    void repeticionConClaveDeIdempotenciaDevuelveLaRespuestaGuardada() {
+        when(idempotenciaService.ejecutar(eq("reintento-1"), eq("suscripcion:CAROLINA-PASUY"), any(), any()))
+                .thenAnswer(invocacion -> ResponseEntity.ok(ApiResponse.success("Suscripción exitosa", cliente)));
+
+        webTestClient.post().uri("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .header("Idempotency-Key", "reintento-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suscripcionRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Suscripción exitosa")
+                .jsonPath("$.data.id").isEqualTo("CAROLINA-PASUY");
+
+        verifyNoInteractions(fondoService, limitadorSolicitudes);
+    }
+
+    @Test
+    void suscribirseAFondoValidacion() {
+        suscripcionRequest.setMonto(Monto.dePesos(-1));
+
+        webTestClient.post().uri("/api/btg/fondos/clientes/CAROLINA-PASUY/suscribirse")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suscripcionRequest)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Errores de validación");
+    }
+
+    @Test
+    void obtenerFondosNoModificado() throws Exception {
+        CatalogoFondos catalogo = catalogo(Collections.singletonList(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000))));
+        when(fondoService.obtenerCatalogo()).thenReturn(Mono.just(catalogo));
+
+        webTestClient.get().uri("/api/btg/fondos")
+                .header("If-None-Match", catalogo.getEtag())
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    private CatalogoFondos catalogo(List<Fondo> fondos) throws Exception {
+        return new CatalogoFondos(new ArrayList<>(fondos),
+                objectMapper.writeValueAsBytes(ApiResponse.success("Fondos obtenidos exitosamente", fondos)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.btgpactual.fondos.gestionfondosclientes.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MontoTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void sumarEsExacto() {
+        Monto monto = Monto.CERO;
+        for (int i = 0; i < 10; i++) {
+            monto = monto.sumar(Monto.de(new BigDecimal("0.10")));
+        }
+
+        assertEquals(Monto.dePesos(1), monto);
+        assertEquals(100L, monto.getCentavos());
+    }
+
+    @Test
+    void acumuladoEnCentavosEsExactoYDetectaDesbordes() {
+        long centavos = 0L;
+        for (int i = 0; i < 10; i++) {
+            centavos = Monto.sumarCentavos(centavos, Monto.de(new BigDecimal("0.10")));
+        }
+
+        assertEquals(100L, centavos);
+        assertEquals(-25L, Monto.restarCentavos(centavos, Monto.deCentavos(125L)));
+        assertThrows(ArithmeticException.class, () -> Monto.sumarCentavos(Long.MAX_VALUE, Monto.deCentavos(1L)));
+    }
+
+    @Test
+    void deRechazaMasDeDosDecimales() {
+        assertThrows(IllegalArgumentException.class, () -> Monto.de(new BigDecimal("10.005")));
+    }
+
+    @Test
+    void redondeadoConvierteDoublesHeredados() {
+        assertEquals(Monto.deCentavos(30L), Monto.redondeado(new BigDecimal(Double.toString(0.1 + 0.2))));
+    }
+
+    @Test
+    void jsonEsExacto() throws Exception {
+        Monto monto = objectMapper.readValue("125000.35", Monto.class);
+
+        assertEquals(12500035L, monto.getCentavos());
+        assertEquals("125000.35", objectMapper.writeValueAsString(monto));
+        assertEquals("75000.00", objectMapper.writeValueAsString(Monto.dePesos(75000)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.btgpactual.fondos.gestionfondosclientes.repository;
+
+import com.btgpactual.fondos.gestionfondosclientes.config.MongoConfig;
+import com.btgpactual.fondos.gestionfondosclientes.config.MongoRutasConfig;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.btgpactual.fondos.gestionfondosclientes.support.MongoEnMemoria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@Import({MongoConfig.class, MongoRutasConfig.class})
+class EstadisticaFondoRepositoryTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registro) {
+        MongoEnMemoria.registrar(registro);
+    }
+
+    @MockBean
+    private MetricasFondos metricasFondos;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EstadisticaFondoRepository estadisticaFondoRepository;
+
+    @BeforeEach
+    void setUp() {
+        clienteRepository.deleteAll();
+        estadisticaFondoRepository.deleteAll();
+    }
+
+    @Test
+    void calcularDesdeClientesAgrupaLosFondosActivosPorFondo() {
+        clienteRepository.saveAll(Arrays.asList(
+                cliente("CAROLINA-PASUY", fondoActivo("1", 100000), fondoActivo("3", 250000)),
+                cliente("ANDRES-GOMEZ", fondoActivo("1", 75000))));
+
+        Map<String, FragmentoEstadisticaFondo> totales = estadisticaFondoRepository.calcularDesdeClientes().stream()
+                .collect(Collectors.toMap(FragmentoEstadisticaFondo::getIdFondo, Function.identity()));
+
+        assertEquals(2, totales.size());
+        assertEquals(Monto.dePesos(175000), totales.get("1").getMontoAdministrado());
+        assertEquals(2, totales.get("1").getSuscriptores());
+        assertEquals(Monto.dePesos(250000), totales.get("3").getMontoAdministrado());
+        assertEquals(1, totales.get("3").getSuscriptores());
+    }
+
+    @Test
+    void reemplazarConLosTotalesReconstruidosDejaUnSoloFragmento() {
+        clienteRepository.save(cliente("CAROLINA-PASUY", fondoActivo("1", 100000)));
+        estadisticaFondoRepository.acumular(Arrays.asList(
+                FragmentoEstadisticaFondo.incremento("1", 0, Monto.dePesos(40000), 1),
+                FragmentoEstadisticaFondo.incremento("1", 5, Monto.dePesos(90000), 3)));
+
+        FragmentoEstadisticaFondo total = estadisticaFondoRepository.calcularDesdeClientes().get(0);
+        estadisticaFondoRepository.reemplazar(total.getIdFondo(), total.getMontoAdministrado(), total.getSuscriptores());
+
+        List<FragmentoEstadisticaFondo> fragmentos = estadisticaFondoRepository.findByIdFondo("1");
+        assertEquals(1, fragmentos.size());
+        assertEquals(Monto.dePesos(100000), fragmentos.get(0).getMontoAdministrado());
+        assertEquals(1, fragmentos.get(0).getSuscriptores());
+    }
+
+    private static Cliente cliente(String id, FondoActivo... fondosActivos) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setSaldo(Monto.dePesos(500000));
+        cliente.setFondosActivos(Arrays.asList(fondosActivos));
+        return cliente;
+    }
+
+    private static FondoActivo fondoActivo(String idFondo, long pesos) {
+        return new FondoActivo(idFondo, "Fondo " + idFondo, Monto.dePesos(pesos), LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+}
@@ -0,0 +1,172 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheClientesTest {
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+    private SimpleMeterRegistry meterRegistry;
+    private CacheClientes cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CacheClientes(clienteRepository, new MetricasFondos(meterRegistry), true, 5, 1000, reloj::get);
+    }
+
+    @Test
+    void dentroDeLaFrescuraSeSirveDeMemoriaUnaCopia() {
+        when(clienteRepository.buscarResumen("CAROLINA-PASUY")).thenReturn(Optional.of(cliente("CAROLINA-PASUY", 1L, 0)));
+
+        Cliente primero = cache.obtener("CAROLINA-PASUY").get();
+        primero.getFondosActivos().add(fondo("1"));
+        Cliente segundo = cache.obtener("CAROLINA-PASUY").get();
+
+        assertNotSame(primero, segundo);
+        assertTrue(segundo.getFondosActivos().isEmpty());
+        verify(clienteRepository, times(1)).buscarResumen("CAROLINA-PASUY");
+        verify(clienteRepository, never()).buscarVersion(anyString());
+        assertEquals(1.0, contador(MetricasFondos.CACHE_FALLO));
+        assertEquals(1.0, contador(MetricasFondos.CACHE_ACIERTO));
+    }
+
+    @Test
+    void entradaVencidaConLaMismaVersionNoSeRecarga() {
+        when(clienteRepository.buscarResumen("CAROLINA-PASUY")).thenReturn(Optional.of(cliente("CAROLINA-PASUY", 1L, 0)));
+        when(clienteRepository.buscarVersion("CAROLINA-PASUY")).thenReturn(Optional.of(1L));
+        cache.obtener("CAROLINA-PASUY");
+
+        avanzar(1500);
+        cache.obtener("CAROLINA-PASUY");
+        cache.obtener("CAROLINA-PASUY");
+
+        verify(clienteRepository, times(1)).buscarResumen("CAROLINA-PASUY");
+        verify(clienteRepository, times(1)).buscarVersion("CAROLINA-PASUY");
+        assertEquals(1.0, contador(MetricasFondos.CACHE_VERIFICADO));
+    }
+
+    @Test
+    void entradaVencidaConOtraVersionSeRecarga() {
+        when(clienteRepository.buscarResumen("CAROLINA-PASUY"))
+                .thenReturn(Optional.of(cliente("CAROLINA-PASUY", 1L, 0)))
+                .thenReturn(Optional.of(cliente("CAROLINA-PASUY", 2L, 1)));
+        when(clienteRepository.buscarVersion("CAROLINA-PASUY")).thenReturn(Optional.of(2L));
+        cache.obtener("CAROLINA-PASUY");
+
+        avanzar(1500);
+        Cliente actual = cache.obtener("CAROLINA-PASUY").get();
+
+        assertEquals(2L, actual.getVersion());
+        assertEquals(1, actual.getFondosActivos().size());
+        assertEquals(1.0, contador(MetricasFondos.CACHE_OBSOLETO));
+    }
+
+    @Test
+    void sinFrescuraCadaLecturaValidaLaVersion() {
+        cache = new CacheClientes(clienteRepository, new MetricasFondos(meterRegistry), true, 5, 0, reloj::get);
+        when(clienteRepository.buscarVersion("CAROLINA-PASUY")).thenReturn(Optional.of(1L));
+        cache.guardar(cliente("CAROLINA-PASUY", 1L, 0));
+
+        cache.obtener("CAROLINA-PASUY");
+        cache.obtener("CAROLINA-PASUY");
+
+        verify(clienteRepository, times(2)).buscarVersion("CAROLINA-PASUY");
+        verify(clienteRepository, never()).buscarResumen(anyString());
+        assertEquals(2.0, contador(MetricasFondos.CACHE_VERIFICADO));
+    }
+
+    @Test
+    void guardarNoReemplazaUnaVersionMasReciente() {
+        cache.guardar(cliente("CAROLINA-PASUY", 5L, 1));
+        cache.guardar(cliente("CAROLINA-PASUY", 4L, 0));
+
+        Cliente actual = cache.obtener("CAROLINA-PASUY").get();
+
+        assertEquals(5L, actual.getVersion());
+        verifyNoInteractions(clienteRepository);
+    }
+
+    @Test
+    void expulsaLosMenosUsadosAlSuperarElPeso() {
+        cache.guardar(cliente("A", 1L, 1));
+        cache.guardar(cliente("B", 1L, 1));
+        cache.obtener("A");
+        cache.guardar(cliente("C", 1L, 1));
+
+        assertEquals(2, cache.getEntradas());
+        assertEquals(4L, cache.getPeso());
+        when(clienteRepository.buscarResumen("B")).thenReturn(Optional.empty());
+        assertFalse(cache.obtener("B").isPresent());
+        assertEquals(1.0, contador(MetricasFondos.CACHE_EXPULSION));
+    }
+
+    @Test
+    void lecturasSimultaneasCompartenUnaConsulta() throws Exception {
+        CountDownLatch enCarga = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(clienteRepository.buscarResumen("CAROLINA-PASUY")).thenAnswer(invocacion -> {
+            enCarga.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return Optional.of(cliente("CAROLINA-PASUY", 1L, 0));
+        });
+
+        CompletableFuture<Optional<Cliente>> primera = CompletableFuture.supplyAsync(() -> cache.obtener("CAROLINA-PASUY"));
+        assertTrue(enCarga.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<Cliente>> segunda = CompletableFuture.supplyAsync(() -> cache.obtener("CAROLINA-PASUY"));
+        while (contador(MetricasFondos.CACHE_COMPARTIDO) < 1.0 && !segunda.isDone()) {
+            Thread.sleep(1);
+        }
+        liberar.countDown();
+
+        assertTrue(primera.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(segunda.get(5, TimeUnit.SECONDS).isPresent());
+        verify(clienteRepository, times(1)).buscarResumen("CAROLINA-PASUY");
+        assertEquals(1.0, contador(MetricasFondos.CACHE_COMPARTIDO));
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.counter(MetricasFondos.METRICA_CACHE_CLIENTES, "resultado", resultado).count();
+    }
+
+    private void avanzar(long ms) {
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    private static Cliente cliente(String idCliente, long version, int fondosActivos) {
+        Cliente cliente = new Cliente();
+        cliente.setId(idCliente);
+        cliente.setSaldo(Monto.dePesos(500000));
+        cliente.setVersion(version);
+        for (int i = 0; i < fondosActivos; i++) {
+            cliente.getFondosActivos().add(fondo(String.valueOf(i + 1)));
+        }
+        return cliente;
+    }
+
+    private static FondoActivo fondo(String idFondo) {
+        return new FondoActivo(idFondo, "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,73 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanalEmailTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private CanalEmail canalEmail;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        canalEmail = new CanalEmail(mailSender, "noreply@btgpactual.com", 10, 50, 2, 60000, 1000);
+        canalEmail.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        canalEmail.detener();
+    }
+
+    @Test
+    void enviarEntregaTodosLosMensajesEnLotes() throws Exception {
+        List<CompletableFuture<Void>> envios = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            envios.add(canalEmail.enviar("cliente" + i + "@example.com", "Asunto " + i, "Mensaje " + i));
+        }
+
+        CompletableFuture.allOf(envios.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        MimeMessage[] recibidos = greenMail.getReceivedMessages();
+        assertEquals(25, recibidos.length);
+        assertEquals("noreply@btgpactual.com", recibidos[0].getFrom()[0].toString());
+    }
+
+    @Test
+    void enviarReconectaTrasCerrarseLaConexion() throws Exception {
+        canalEmail.enviar("cliente@example.com", "Primero", "Mensaje").get(10, TimeUnit.SECONDS);
+
+        greenMail.reset();
+        canalEmail.enviar("cliente@example.com", "Segundo", "Mensaje").get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals("Segundo", greenMail.getReceivedMessages()[0].getSubject());
+    }
+
+    @Test
+    void enviarFallaSiElCanalEstaDetenido() throws InterruptedException {
+        canalEmail.detener();
+
+        CompletableFuture<Void> envio = canalEmail.enviar("cliente@example.com", "Asunto", "Mensaje");
+
+        assertTrue(envio.isCompletedExceptionally());
+    }
+}
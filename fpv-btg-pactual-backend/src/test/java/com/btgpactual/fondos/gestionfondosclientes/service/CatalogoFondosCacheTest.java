@@ -0,0 +1,59 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoFondosCacheTest {
+
+    @Mock
+    private FondoRepository fondoRepository;
+
+    private CatalogoFondosCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogoFondosCache(fondoRepository, new ObjectMapper());
+    }
+
+    @Test
+    void obtenerCargaUnaSolaVez() {
+        when(fondoRepository.findAll()).thenReturn(Arrays.asList(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000))));
+
+        CatalogoFondos primero = cache.obtener();
+        CatalogoFondos segundo = cache.obtener();
+
+        assertSame(primero, segundo);
+        assertTrue(primero.buscar("1").isPresent());
+        assertTrue(new String(primero.getJson()).contains("FPV_BTG_PACTUAL_RECAUDADORA"));
+        verify(fondoRepository, times(1)).findAll();
+    }
+
+    @Test
+    void invalidarRecargaYCambiaElEtag() {
+        when(fondoRepository.findAll())
+                .thenReturn(Collections.singletonList(new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000))))
+                .thenReturn(Collections.singletonList(new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(80000))));
+
+        String etagInicial = cache.obtener().getEtag();
+        cache.invalidar();
+        String etagNuevo = cache.obtener().getEtag();
+
+        assertNotEquals(etagInicial, etagNuevo);
+        verify(fondoRepository, times(2)).findAll();
+    }
+}
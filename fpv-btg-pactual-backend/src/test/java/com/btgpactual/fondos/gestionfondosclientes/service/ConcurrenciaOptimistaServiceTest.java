@@ -0,0 +1,69 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrenciaOptimistaServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrenciaOptimistaService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ConcurrenciaOptimistaService(meterRegistry, 3, 0, 0);
+    }
+
+    @Test
+    void ejecutarReintentaTrasConflicto() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        String result = service.ejecutar("prueba", "CAROLINA-PASUY",
+                () -> intentos.incrementAndGet() == 1 ? Optional.empty() : Optional.of("aplicado"));
+
+        assertEquals("aplicado", result);
+        assertEquals(2, intentos.get());
+        assertEquals(1.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_CONFLICTOS, "operacion", "prueba").count());
+        assertEquals(1.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_REINTENTOS, "operacion", "prueba").count());
+        assertEquals(0.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_ABANDONOS, "operacion", "prueba").count());
+    }
+
+    @Test
+    void ejecutarAbandonaAlAgotarReintentos() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(ConflictoConcurrenciaException.class, () -> {
+            service.ejecutar("prueba", "CAROLINA-PASUY", () -> {
+                intentos.incrementAndGet();
+                return Optional.empty();
+            });
+        });
+
+        assertEquals(3, intentos.get());
+        assertEquals(3.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_CONFLICTOS, "operacion", "prueba").count());
+        assertEquals(2.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_REINTENTOS, "operacion", "prueba").count());
+        assertEquals(1.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_ABANDONOS, "operacion", "prueba").count());
+    }
+
+    @Test
+    void ejecutarPropagaErroresDeNegocioSinReintentar() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            service.ejecutar("prueba", "CAROLINA-PASUY", () -> {
+                intentos.incrementAndGet();
+                throw new IllegalArgumentException("monto");
+            });
+        });
+
+        assertEquals(1, intentos.get());
+        assertEquals(0.0, meterRegistry.counter(ConcurrenciaOptimistaService.METRICA_CONFLICTOS, "operacion", "prueba").count());
+    }
+}
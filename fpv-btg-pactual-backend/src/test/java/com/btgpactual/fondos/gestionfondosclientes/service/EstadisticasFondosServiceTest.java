@@ -0,0 +1,209 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.EstadisticasFondo;
+import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ActividadFondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EstadisticaFondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EstadisticasFondosServiceTest {
+
+    @Mock
+    private EstadisticaFondoRepository estadisticaFondoRepository;
+
+    @Mock
+    private ActividadFondoRepository actividadFondoRepository;
+
+    @Mock
+    private CatalogoFondosCache catalogoFondosCache;
+
+    private EstadisticasFondosService estadisticasFondos;
+
+    @BeforeEach
+    void setUp() {
+        estadisticasFondos = new EstadisticasFondosService(
+                estadisticaFondoRepository, actividadFondoRepository, catalogoFondosCache, 4, 7, 90);
+    }
+
+    @Test
+    void mismoClienteUsaSiempreElMismoFragmento() {
+        FragmentoEstadisticaFondo suscripcion = estadisticasFondos.suscripcion("CAROLINA-PASUY", "1", Monto.dePesos(100000));
+        FragmentoEstadisticaFondo cancelacion = estadisticasFondos.cancelacion("CAROLINA-PASUY", "1", Monto.dePesos(100000));
+
+        assertEquals(suscripcion.getId(), cancelacion.getId());
+        assertTrue(suscripcion.getFragmento() >= 0 && suscripcion.getFragmento() < 4);
+        assertEquals(1L, suscripcion.getSuscriptores());
+        assertEquals(-1L, cancelacion.getSuscriptores());
+        assertEquals(Monto.dePesos(-100000), cancelacion.getMontoAdministrado());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registrarAgrupaLosIncrementosDelMismoFragmento() {
+        estadisticasFondos.registrar(Arrays.asList(
+                FragmentoEstadisticaFondo.incremento("1", 2, Monto.dePesos(100000), 1),
+                FragmentoEstadisticaFondo.incremento("1", 2, Monto.dePesos(50000), 1),
+                FragmentoEstadisticaFondo.incremento("2", 0, Monto.dePesos(75000), 1)));
+
+        ArgumentCaptor<Collection<FragmentoEstadisticaFondo>> incrementos = ArgumentCaptor.forClass(Collection.class);
+        verify(estadisticaFondoRepository).acumular(incrementos.capture());
+        List<FragmentoEstadisticaFondo> aplicados = new ArrayList<>(incrementos.getValue());
+        assertEquals(2, aplicados.size());
+        assertEquals("1:2", aplicados.get(0).getId());
+        assertEquals(Monto.dePesos(150000), aplicados.get(0).getMontoAdministrado());
+        assertEquals(2L, aplicados.get(0).getSuscriptores());
+    }
+
+    @Test
+    void errorAlRegistrarNoSePropaga() {
+        doThrow(new DataAccessResourceFailureException("sin conexión")).when(estadisticaFondoRepository).acumular(any());
+
+        assertDoesNotThrow(() -> estadisticasFondos.registrar(
+                FragmentoEstadisticaFondo.incremento("1", 0, Monto.dePesos(100000), 1)));
+    }
+
+    @Test
+    void actividadAcumulaCadaTipoEnLosIntervalosDeMinutoHoraYDia() {
+        LocalDateTime momento = LocalDateTime.of(2024, 3, 1, 10, 15, 42);
+
+        List<ActividadFondo> actividad = estadisticasFondos.actividad(Arrays.asList(
+                estadisticasFondos.suscripcion("CAROLINA-PASUY", "1", Monto.dePesos(100000)),
+                estadisticasFondos.suscripcion("OTRO-CLIENTE", "1", Monto.dePesos(50000)),
+                estadisticasFondos.cancelacion("TERCERO", "1", Monto.dePesos(75000))), momento);
+
+        assertEquals(6, actividad.size());
+        ActividadFondo minuto = actividad.get(0);
+        assertEquals(Constants.TIPO_TRANSACCION_SUSCRIPCION, minuto.getTipo());
+        assertEquals("minuto", minuto.getGranularidad());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15), minuto.getInicio());
+        assertEquals(2L, minuto.getOperaciones());
+        assertEquals(Monto.dePesos(150000), minuto.getMonto());
+        assertEquals(LocalDateTime.of(2024, 3, 8, 10, 15), minuto.getExpiraEn());
+
+        ActividadFondo dia = actividad.get(2);
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), dia.getInicio());
+        assertNull(dia.getExpiraEn());
+
+        ActividadFondo cancelacion = actividad.get(3);
+        assertEquals(Constants.TIPO_TRANSACCION_CANCELACION, cancelacion.getTipo());
+        assertEquals(1L, cancelacion.getOperaciones());
+        assertEquals(Monto.dePesos(75000), cancelacion.getMonto());
+    }
+
+    @Test
+    void errorAlRegistrarActividadNoImpideLasEstadisticas() {
+        doThrow(new DataAccessResourceFailureException("sin conexión")).when(actividadFondoRepository).acumular(any());
+
+        estadisticasFondos.registrar(FragmentoEstadisticaFondo.incremento("1", 0, Monto.dePesos(100000), 1));
+
+        verify(estadisticaFondoRepository).acumular(any());
+    }
+
+    @Test
+    void obtenerActividadAmpliaElInicioAlIntervalo() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000))));
+        LocalDateTime desde = LocalDateTime.of(2024, 3, 1, 10, 30);
+        LocalDateTime hasta = LocalDateTime.of(2024, 3, 1, 18, 0);
+
+        estadisticasFondos.obtenerActividad("1", "HORA", desde, hasta);
+
+        verify(actividadFondoRepository).findByIdFondoAndGranularidadAndInicioGreaterThanEqualAndInicioLessThanOrderByInicioAsc(
+                "1", "hora", LocalDateTime.of(2024, 3, 1, 10, 0), hasta);
+    }
+
+    @Test
+    void obtenerActividadRechazaRangosDemasiadoAmplios() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000))));
+        LocalDateTime desde = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> estadisticasFondos.obtenerActividad("1", "minuto", desde, desde.plusDays(2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> estadisticasFondos.obtenerActividad("1", "dia", desde, desde));
+        assertThrows(IllegalArgumentException.class,
+                () -> estadisticasFondos.obtenerActividad("1", "semana", desde, desde.plusDays(7)));
+        verifyNoInteractions(actividadFondoRepository);
+    }
+
+    @Test
+    void obtenerEstadisticasSumaLosFragmentosEnElOrdenDelCatalogo() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000)),
+                new Fondo("2", "FPV", "FPV_BTG_PACTUAL_ECOPETROL", Monto.dePesos(125000))));
+        when(estadisticaFondoRepository.findAll()).thenReturn(Arrays.asList(
+                FragmentoEstadisticaFondo.incremento("1", 0, Monto.dePesos(300000), 3),
+                FragmentoEstadisticaFondo.incremento("1", 3, Monto.dePesos(100000), 1),
+                FragmentoEstadisticaFondo.incremento("1", 1, Monto.dePesos(-75000), -1)));
+
+        List<EstadisticasFondo> estadisticas = estadisticasFondos.obtenerEstadisticas();
+
+        assertEquals(2, estadisticas.size());
+        assertEquals("FPV_BTG_PACTUAL_RECAUDADORA", estadisticas.get(0).getNombreFondo());
+        assertEquals(Monto.dePesos(325000), estadisticas.get(0).getMontoAdministrado());
+        assertEquals(3L, estadisticas.get(0).getSuscriptores());
+        assertEquals(Monto.CERO, estadisticas.get(1).getMontoAdministrado());
+        assertEquals(0L, estadisticas.get(1).getSuscriptores());
+    }
+
+    @Test
+    void obtenerEstadisticasFondoInexistente() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo());
+
+        assertThrows(FondoNotFoundException.class, () -> estadisticasFondos.obtenerEstadisticas("99"));
+        verifyNoInteractions(estadisticaFondoRepository);
+    }
+
+    @Test
+    void compactarSoloTrasladaLosFragmentosDistintosDelConsolidado() {
+        FragmentoEstadisticaFondo fragmento = FragmentoEstadisticaFondo.incremento("1", 3, Monto.dePesos(100000), 1);
+        when(estadisticaFondoRepository.findAll()).thenReturn(Arrays.asList(
+                FragmentoEstadisticaFondo.incremento("1", 0, Monto.dePesos(300000), 3), fragmento));
+
+        assertEquals(1, estadisticasFondos.compactar());
+        verify(estadisticaFondoRepository).compactar(fragmento);
+        verify(estadisticaFondoRepository, times(1)).compactar(any());
+    }
+
+    @Test
+    void reconstruirReemplazaLosContadoresDeCadaFondo() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000)),
+                new Fondo("2", "FPV", "FPV_BTG_PACTUAL_ECOPETROL", Monto.dePesos(125000))));
+        when(estadisticaFondoRepository.calcularDesdeClientes()).thenReturn(Collections.singletonList(
+                FragmentoEstadisticaFondo.incremento("1", 0, Monto.dePesos(200000), 2)));
+
+        estadisticasFondos.reconstruir();
+
+        verify(estadisticaFondoRepository).reemplazar("1", Monto.dePesos(200000), 2L);
+        verify(estadisticaFondoRepository).reemplazar("2", Monto.CERO, 0L);
+    }
+
+    private static CatalogoFondos catalogo(Fondo... fondos) {
+        return new CatalogoFondos(new ArrayList<>(Arrays.asList(fondos)), new byte[0]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportacionHistorialServiceTest {
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    private ExportacionHistorialService exportacionService;
+    private Transaccion suscripcion;
+    private Transaccion cancelacion;
+
+    @BeforeEach
+    void setUp() {
+        exportacionService = new ExportacionHistorialService(transaccionRepository, Jackson2ObjectMapperBuilder.json().build());
+        suscripcion = new Transaccion("T1", "CAROLINA-PASUY", "SUSCRIPCION", "FPV_BTG_PACTUAL_RECAUDADORA",
+                Monto.dePesos(100000), LocalDateTime.of(2024, 1, 15, 10, 30));
+        cancelacion = new Transaccion("T2", "CAROLINA-PASUY", "CANCELACION", "DEUDAPRIVADA, \"PLUS\"",
+                Monto.dePesos(50000), LocalDateTime.of(2024, 1, 20, 9, 0));
+    }
+
+    @Test
+    void exportarNdjsonEscribeUnaLineaPorTransaccionYCierraElCursor() throws Exception {
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(transaccionRepository.recorrerHistorial(eq("CAROLINA-PASUY"), isNull(), isNull()))
+                .thenReturn(Stream.of(suscripcion, cancelacion).onClose(() -> cerrado.set(true)));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long exportadas = exportacionService.exportar("CAROLINA-PASUY", FormatoExportacion.NDJSON, null, null, salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exportadas);
+        assertEquals(2, lineas.length);
+        assertTrue(lineas[0].startsWith("{\"idTransaccion\":\"T1\""));
+        assertTrue(lineas[0].contains("\"monto\":100000.00"));
+        assertTrue(lineas[1].contains("\"tipo\":\"CANCELACION\""));
+        assertTrue(cerrado.get());
+    }
+
+    @Test
+    void exportarCsvEscapaLosCamposConSeparadores() throws Exception {
+        when(transaccionRepository.recorrerHistorial(eq("CAROLINA-PASUY"), isNull(), isNull()))
+                .thenReturn(Stream.of(suscripcion, cancelacion));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        exportacionService.exportar("CAROLINA-PASUY", FormatoExportacion.CSV, null, null, salida);
+
+        String[] filas = salida.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(ExportacionHistorialService.ENCABEZADO_CSV, filas[0]);
+        assertEquals("T1,CAROLINA-PASUY,SUSCRIPCION,FPV_BTG_PACTUAL_RECAUDADORA,100000.00,2024-01-15T10:30", filas[1]);
+        assertEquals("T2,CAROLINA-PASUY,CANCELACION,\"DEUDAPRIVADA, \"\"PLUS\"\"\",50000.00,2024-01-20T09:00", filas[2]);
+    }
+
+    @Test
+    void exportarCsvCierraElCursorSiElClienteSeDesconecta() {
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(transaccionRepository.recorrerHistorial(eq("CAROLINA-PASUY"), isNull(), isNull()))
+                .thenReturn(Stream.of(suscripcion, cancelacion).onClose(() -> cerrado.set(true)));
+        OutputStream desconectado = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () ->
+                exportacionService.exportar("CAROLINA-PASUY", FormatoExportacion.CSV, null, null, desconectado));
+        assertTrue(cerrado.get());
+    }
+
+    @Test
+    void exportarConvierteLosDiasEnUnRangoSemiabierto() throws Exception {
+        when(transaccionRepository.recorrerHistorial(any(), any(), any())).thenReturn(Stream.empty());
+
+        exportacionService.exportar("CAROLINA-PASUY", FormatoExportacion.CSV,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), new ByteArrayOutputStream());
+
+        verify(transaccionRepository).recorrerHistorial("CAROLINA-PASUY",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0));
+    }
+
+    @Test
+    void validarRangoRechazaInicioPosteriorAlFin() {
+        assertThrows(IllegalArgumentException.class,
+                () -> exportacionService.validarRango(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+        verifyNoInteractions(transaccionRepository);
+    }
+}
@@ -0,0 +1,233 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.ConflictoConcurrenciaException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EventoClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FondoEventosServiceTest {
+
+    private static final String ID_CLIENTE = "CAROLINA-PASUY";
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private FondoRepository fondoRepository;
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    @Mock
+    private CatalogoFondosCache catalogoFondosCache;
+
+    @Mock
+    private EventoClienteRepository eventoRepository;
+
+    @Mock
+    private EstadisticasFondosService estadisticasFondos;
+
+    @Mock
+    private CacheClientes cacheClientes;
+
+    private FondoEventosService fondoService;
+    private Fondo fondo;
+    private SuscripcionRequest suscripcionRequest;
+
+    @BeforeEach
+    void setUp() {
+        fondoService = new FondoEventosService(clienteRepository, fondoRepository, transaccionRepository,
+                new BloqueoClientes(16, 1000), catalogoFondosCache,
+                new MetricasFondos(new SimpleMeterRegistry()), new GeneradorIdOrdenado(1),
+                estadisticasFondos, cacheClientes,
+                new ConcurrenciaOptimistaService(new SimpleMeterRegistry(), 3, 0, 0),
+                eventoRepository, 2);
+
+        fondo = new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000));
+        suscripcionRequest = new SuscripcionRequest("1", Monto.dePesos(100000), "EMAIL", "carolinapasuy@hotmail.com");
+    }
+
+    @Test
+    void primeraSuscripcionAgregaAperturaYEvento() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.buscarResumen(ID_CLIENTE)).thenReturn(Optional.empty());
+        when(eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(ID_CLIENTE, -1L))
+                .thenReturn(Collections.emptyList());
+
+        Cliente result = fondoService.suscribirseAFondo(ID_CLIENTE, suscripcionRequest);
+
+        assertEquals(Monto.dePesos(400000), result.getSaldo());
+        assertEquals(1, result.getFondosActivos().size());
+        assertEquals(1L, result.getSecuenciaEventos());
+
+        ArgumentCaptor<EventoCliente> eventos = ArgumentCaptor.forClass(EventoCliente.class);
+        verify(eventoRepository, times(2)).insert(eventos.capture());
+        EventoCliente apertura = eventos.getAllValues().get(0);
+        assertEquals(Constants.TIPO_EVENTO_APERTURA, apertura.getTipo());
+        assertEquals(0L, apertura.getSecuencia());
+        assertEquals(FondoService.SALDO_INICIAL, apertura.getMonto());
+        EventoCliente suscripcion = eventos.getAllValues().get(1);
+        assertEquals(Constants.TIPO_TRANSACCION_SUSCRIPCION, suscripcion.getTipo());
+        assertEquals(1L, suscripcion.getSecuencia());
+        assertNull(apertura.getProyeccionPendiente());
+        assertTrue(suscripcion.getProyeccionPendiente());
+
+        verifyNoInteractions(transaccionRepository, estadisticasFondos);
+        verify(clienteRepository, never()).suscribir(any(), any(), any(), any(), any());
+        verify(clienteRepository, never()).guardarInstantanea(any());
+    }
+
+    @Test
+    void estadoEsInstantaneaMasEventosPosteriores() {
+        when(clienteRepository.buscarResumen(ID_CLIENTE)).thenReturn(Optional.of(instantanea(Monto.dePesos(400000), 4L)));
+        when(eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(ID_CLIENTE, 4L))
+                .thenReturn(Arrays.asList(
+                        evento(5L, Constants.TIPO_TRANSACCION_SUSCRIPCION, "2", Monto.dePesos(50000)),
+                        evento(6L, Constants.TIPO_TRANSACCION_CANCELACION, "1", Monto.dePesos(100000))));
+
+        Cliente estado = fondoService.estadoActual(ID_CLIENTE).get();
+
+        assertEquals(Monto.dePesos(450000), estado.getSaldo());
+        assertEquals(1, estado.getFondosActivos().size());
+        assertEquals("2", estado.getFondosActivos().get(0).getIdFondo());
+        assertEquals(6L, estado.getSecuenciaEventos());
+    }
+
+    @Test
+    void cancelacionGuardaInstantaneaAlCumplirIntervalo() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.buscarResumen(ID_CLIENTE)).thenReturn(Optional.of(instantanea(Monto.dePesos(400000), 1L)));
+        when(eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(ID_CLIENTE, 1L))
+                .thenReturn(Collections.emptyList());
+
+        Cliente result = fondoService.cancelarSuscripcion(ID_CLIENTE, new CancelacionRequest("1"));
+
+        assertEquals(Monto.dePesos(500000), result.getSaldo());
+        assertTrue(result.getFondosActivos().isEmpty());
+        ArgumentCaptor<EventoCliente> evento = ArgumentCaptor.forClass(EventoCliente.class);
+        verify(eventoRepository).insert(evento.capture());
+        assertEquals(Constants.TIPO_TRANSACCION_CANCELACION, evento.getValue().getTipo());
+        assertEquals(2L, evento.getValue().getSecuencia());
+        assertEquals(Monto.dePesos(100000), evento.getValue().getMonto());
+        verify(clienteRepository).guardarInstantanea(result);
+    }
+
+    @Test
+    void cancelacionSinSuscripcionNoAgregaEvento() {
+        Cliente sinFondos = instantanea(Monto.dePesos(500000), 3L);
+        sinFondos.getFondosActivos().clear();
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.buscarResumen(ID_CLIENTE)).thenReturn(Optional.of(sinFondos));
+        when(eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(ID_CLIENTE, 3L))
+                .thenReturn(Collections.emptyList());
+
+        assertThrows(SuscripcionNotFoundException.class,
+                () -> fondoService.cancelarSuscripcion(ID_CLIENTE, new CancelacionRequest("1")));
+        verify(eventoRepository, never()).insert(any(EventoCliente.class));
+    }
+
+    @Test
+    void suscripcionSinSaldoNoAgregaEvento() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        Cliente sinSaldo = instantanea(Monto.dePesos(50000), 3L);
+        sinSaldo.getFondosActivos().clear();
+        when(clienteRepository.buscarResumen(ID_CLIENTE)).thenReturn(Optional.of(sinSaldo));
+        when(eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(ID_CLIENTE, 3L))
+                .thenReturn(Collections.emptyList());
+
+        assertThrows(InsufficientFundsException.class,
+                () -> fondoService.suscribirseAFondo(ID_CLIENTE, suscripcionRequest));
+        verify(eventoRepository, never()).insert(any(EventoCliente.class));
+    }
+
+    @Test
+    void secuenciaOcupadaReintentaHastaAgotarIntentos() {
+        Cliente sinFondos = instantanea(Monto.dePesos(500000), 3L);
+        sinFondos.getFondosActivos().clear();
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.buscarResumen(ID_CLIENTE)).thenReturn(Optional.of(sinFondos));
+        when(eventoRepository.findByIdClienteAndSecuenciaGreaterThanOrderBySecuenciaAsc(eq(ID_CLIENTE), anyLong()))
+                .thenReturn(Collections.emptyList());
+        when(eventoRepository.insert(any(EventoCliente.class))).thenThrow(new DuplicateKeyException("duplicado"));
+
+        assertThrows(ConflictoConcurrenciaException.class,
+                () -> fondoService.suscribirseAFondo(ID_CLIENTE, suscripcionRequest));
+        verify(eventoRepository, times(3)).insert(any(EventoCliente.class));
+        verify(transaccionRepository, never()).insert(any(Transaccion.class));
+    }
+
+    @Test
+    void reconstruirEstadoAplicaEventosHastaElMomento() {
+        LocalDateTime momento = LocalDateTime.now();
+        EventoCliente apertura = evento(0L, Constants.TIPO_EVENTO_APERTURA, null, Monto.dePesos(500000));
+        apertura.setFondosActivos(new ArrayList<>());
+        when(eventoRepository.findByIdClienteAndFechaLessThanEqualOrderBySecuenciaAsc(ID_CLIENTE, momento))
+                .thenReturn(Arrays.asList(apertura,
+                        evento(1L, Constants.TIPO_TRANSACCION_SUSCRIPCION, "1", Monto.dePesos(100000))));
+
+        Cliente estado = fondoService.reconstruirEstado(ID_CLIENTE, momento).get();
+
+        assertEquals(Monto.dePesos(400000), estado.getSaldo());
+        assertEquals(1, estado.getFondosActivos().size());
+        assertEquals(1L, estado.getSecuenciaEventos());
+    }
+
+    private static Cliente instantanea(Monto saldo, long secuencia) {
+        Cliente cliente = new Cliente();
+        cliente.setId(ID_CLIENTE);
+        cliente.setSaldo(saldo);
+        cliente.getFondosActivos().add(new FondoActivo("1", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), LocalDateTime.now()));
+        cliente.setSecuenciaEventos(secuencia);
+        return cliente;
+    }
+
+    private static EventoCliente evento(long secuencia, String tipo, String idFondo, Monto monto) {
+        EventoCliente evento = new EventoCliente();
+        evento.setIdEvento("E-" + secuencia);
+        evento.setIdCliente(ID_CLIENTE);
+        evento.setSecuencia(secuencia);
+        evento.setTipo(tipo);
+        evento.setIdFondo(idFondo);
+        evento.setNombreFondo("FONDO-" + idFondo);
+        evento.setMonto(monto);
+        evento.setFecha(LocalDateTime.now());
+        return evento;
+    }
+
+    private static CatalogoFondos catalogo(Fondo... fondos) {
+        return new CatalogoFondos(new ArrayList<>(Arrays.asList(fondos)), new byte[0]);
+    }
+}
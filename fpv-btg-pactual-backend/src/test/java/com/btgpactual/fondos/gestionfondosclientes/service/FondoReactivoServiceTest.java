@@ -0,0 +1,138 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteReactiveRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoReactiveRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionReactiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FondoReactivoServiceTest {
+
+    @Mock
+    private ClienteReactiveRepository clienteRepository;
+
+    @Mock
+    private FondoReactiveRepository fondoRepository;
+
+    @Mock
+    private TransaccionReactiveRepository transaccionRepository;
+
+    @Mock
+    private CatalogoFondosCache catalogoFondosCache;
+
+    @Mock
+    private FondoService fondoService;
+
+    @Spy
+    private MetricasFondos metricasFondos = new MetricasFondos(new SimpleMeterRegistry());
+    
+    @Spy
+    private GeneradorId generadorId = new GeneradorIdOrdenado(1);
+
+    @Mock
+    private EstadisticasFondosService estadisticasFondos;
+
+    @InjectMocks
+    private FondoReactivoService fondoReactivoService;
+
+    private Fondo fondo;
+    private Cliente cliente;
+    private SuscripcionRequest suscripcionRequest;
+
+    @BeforeEach
+    void setUp() {
+        fondo = new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000));
+        cliente = new Cliente();
+        cliente.setId("CAROLINA-PASUY");
+        cliente.setSaldo(Monto.dePesos(500000));
+        suscripcionRequest = new SuscripcionRequest("1", Monto.dePesos(100000), "EMAIL", "test@example.com");
+        lenient().when(catalogoFondosCache.enMemoria()).thenReturn(Optional.of(
+                new CatalogoFondos(new ArrayList<>(Arrays.asList(fondo)), new byte[0])));
+    }
+
+    @Test
+    void suscribirseAFondoSuccess() {
+        when(clienteRepository.suscribir(eq("CAROLINA-PASUY"), any(FondoActivo.class), eq("EMAIL"), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Mono.just(cliente));
+        when(transaccionRepository.insert(any(Transaccion.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+        StepVerifier.create(fondoReactivoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest))
+                .expectNext(cliente)
+                .verifyComplete();
+    }
+
+    @Test
+    void suscribirseAFondoSaldoInsuficiente() {
+        cliente.setSaldo(Monto.dePesos(50000));
+        when(clienteRepository.suscribir(anyString(), any(FondoActivo.class), anyString(), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Mono.empty());
+        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Mono.just(cliente));
+
+        StepVerifier.create(fondoReactivoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest))
+                .expectError(InsufficientFundsException.class)
+                .verify();
+        verify(transaccionRepository, never()).insert(any(Transaccion.class));
+    }
+
+    @Test
+    void cancelarSuscripcionNoSuscrito() {
+        when(clienteRepository.cancelar(eq("CAROLINA-PASUY"), eq("1"), any(NotificacionPendiente.class)))
+                .thenReturn(Mono.empty());
+        when(clienteRepository.existsById("CAROLINA-PASUY")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(fondoReactivoService.cancelarSuscripcion("CAROLINA-PASUY", new CancelacionRequest("1")))
+                .expectError(SuscripcionNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void obtenerResumenOrdenaLasUltimasTransaccionesPorFecha() {
+        cliente.setSaldo(Monto.dePesos(400000));
+        when(clienteRepository.buscarResumen("CAROLINA-PASUY")).thenReturn(Mono.just(cliente));
+        LocalDateTime ahora = LocalDateTime.now();
+        when(transaccionRepository.findByIdClienteOrderByFechaDesc(eq("CAROLINA-PASUY"), any(Pageable.class)))
+                .thenReturn(Flux.just(
+                        new Transaccion("2", "CAROLINA-PASUY", "CANCELACION", "Fondo1", Monto.dePesos(100000), ahora),
+                        new Transaccion("1", "CAROLINA-PASUY", "SUSCRIPCION", "Fondo1", Monto.dePesos(100000), ahora.minusMinutes(1))));
+
+        StepVerifier.create(fondoReactivoService.obtenerResumen("CAROLINA-PASUY", 2))
+                .assertNext(resumen -> {
+                    assertEquals(Monto.dePesos(400000), resumen.getSaldo());
+                    assertEquals("1", resumen.getUltimasTransacciones().get(0).getIdTransaccion());
+                    assertEquals("2", resumen.getUltimasTransacciones().get(1).getIdTransaccion());
+                })
+                .verifyComplete();
+    }
+}
@@ -1,24 +1,36 @@
 package com.btgpactual.fondos.gestionfondosclientes.service;
 
 import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResultadoSuscripcionLote;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionLoteItem;
 import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
 import com.btgpactual.fondos.gestionfondosclientes.exception.FondoNotFoundException;
 import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
 import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionNotFoundException;
 import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
 import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
 import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
 import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
 import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
 import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.SuscripcionesCliente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -26,7 +38,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +53,28 @@ class FondoServiceTest {
     private FondoRepository fondoRepository;
     
     @Mock
-    private NotificationService notificationService;
+    private TransaccionRepository transaccionRepository;
+    
+    @Spy
+    private BloqueoClientes bloqueoClientes = new BloqueoClientes(16, 1000);
+    
+    @Mock
+    private CatalogoFondosCache catalogoFondosCache;
+    
+    @Spy
+    private MetricasFondos metricasFondos = new MetricasFondos(new SimpleMeterRegistry());
+    
+    @Spy
+    private GeneradorId generadorId = new GeneradorIdOrdenado(1);
+    
+    @Mock
+    private EstadisticasFondosService estadisticasFondos;
+    
+    @Mock
+    private CacheClientes cacheClientes;
+    
+    @Spy
+    private ConcurrenciaOptimistaService concurrenciaOptimista = new ConcurrenciaOptimistaService(new SimpleMeterRegistry(), 3, 0, 0);
     
     @InjectMocks
     private FondoService fondoService;
@@ -50,76 +85,120 @@ class FondoServiceTest {
     
     @BeforeEach
     void setUp() {
-        fondo = new Fondo("1", "FPV" , "FPV_BTG_PACTUAL_RECAUDADORA", 75000.0);
+        fondo = new Fondo("1", "FPV" , "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000));
         cliente = new Cliente();
         cliente.setId("CAROLINA-PASUY");
-        cliente.setSaldo(500000.0);
+        cliente.setSaldo(Monto.dePesos(500000));
         
         suscripcionRequest = new SuscripcionRequest();
         suscripcionRequest.setIdFondo("1");
-        suscripcionRequest.setMonto(100000.0);
+        suscripcionRequest.setMonto(Monto.dePesos(100000));
         suscripcionRequest.setPreferenciaNotificacion("EMAIL");
         suscripcionRequest.setContacto("carolinapasuy@hotmail..com");
     }
     
     @Test
     void suscribirseAFondoSuccess() {
-        when(fondoRepository.findById("1")).thenReturn(Optional.of(fondo));
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
-        when(clienteRepository.save(any(Cliente.class))).thenReturn(cliente);
+        Cliente actualizado = new Cliente();
+        actualizado.setId("CAROLINA-PASUY");
+        actualizado.setSaldo(Monto.dePesos(400000));
+        actualizado.getFondosActivos().add(new FondoActivo("1", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), LocalDateTime.now()));
 
-        Cliente result = fondoService.suscribirseAFondo(suscripcionRequest);
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.suscribir(eq("CAROLINA-PASUY"), any(FondoActivo.class), eq("EMAIL"), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Optional.of(actualizado));
+
+        Cliente result = fondoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest);
 
         assertNotNull(result);
-        assertEquals(400000.0, result.getSaldo());
+        assertEquals(Monto.dePesos(400000), result.getSaldo());
         assertEquals(1, result.getFondosActivos().size());
-        verify(notificationService).enviarNotificacionSuscripcion(any(), any(), any());
+        verify(clienteRepository, never()).save(any(Cliente.class));
+        verify(transaccionRepository).insert(any(Transaccion.class));
+
+        ArgumentCaptor<NotificacionPendiente> notificacion = ArgumentCaptor.forClass(NotificacionPendiente.class);
+        verify(clienteRepository).suscribir(anyString(), any(FondoActivo.class), anyString(), anyString(), notificacion.capture());
+        assertEquals("SUSCRIPCION", notificacion.getValue().getTipo());
+        assertEquals("EMAIL", notificacion.getValue().getCanal());
+        assertEquals(Monto.dePesos(100000), notificacion.getValue().getMonto());
+        verify(estadisticasFondos).suscripcion("CAROLINA-PASUY", "1", Monto.dePesos(100000));
+        verify(cacheClientes).guardar(actualizado);
     }
+
+    @Test
+    void suscribirseAFondoClienteNuevo() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.suscribir(anyString(), any(FondoActivo.class), anyString(), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(cliente));
+        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.empty());
+
+        Cliente result = fondoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest);
+
+        assertNotNull(result);
+        verify(clienteRepository).crearSiNoExiste("CAROLINA-PASUY", Monto.dePesos(500000));
+        verify(clienteRepository, times(2)).suscribir(anyString(), any(FondoActivo.class), anyString(), anyString(), any(NotificacionPendiente.class));
+    }
+
     @Test
     void suscribirseAFondoMontoInferiorAlMinimo() {
-        suscripcionRequest.setMonto(10000.0);
-        when(fondoRepository.findById("1")).thenReturn(Optional.of(fondo));
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
+        suscripcionRequest.setMonto(Monto.dePesos(10000));
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
 
         assertThrows(IllegalArgumentException.class, () -> {
-            fondoService.suscribirseAFondo(suscripcionRequest);
+            fondoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest);
         });
+        verify(clienteRepository, never()).suscribir(anyString(), any(), anyString(), anyString(), any());
     }
     
     @Test
     void suscribirseAFondoNoEncontrado() {
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo());
         when(fondoRepository.findById("1")).thenReturn(Optional.empty());
 
         assertThrows(FondoNotFoundException.class, () -> {
-            fondoService.suscribirseAFondo(suscripcionRequest);
+            fondoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest);
         });
     }
     
     @Test
     void suscribirseAFondoFondosInsuficientes() {
-        suscripcionRequest.setMonto(800000.0);
-        when(fondoRepository.findById("1")).thenReturn(Optional.of(fondo));
+        suscripcionRequest.setMonto(Monto.dePesos(800000));
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.suscribir(anyString(), any(FondoActivo.class), anyString(), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Optional.empty());
         when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
 
         assertThrows(InsufficientFundsException.class, () -> {
-            fondoService.suscribirseAFondo(suscripcionRequest);
+            fondoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest);
+        });
+        verify(transaccionRepository, never()).insert(any(Transaccion.class));
+    }
+
+    @Test
+    void suscribirseAFondoYaSuscrito() {
+        cliente.getFondosActivos().add(new FondoActivo("1", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), LocalDateTime.now()));
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.suscribir(anyString(), any(FondoActivo.class), anyString(), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Optional.empty());
+        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+            fondoService.suscribirseAFondo("CAROLINA-PASUY", suscripcionRequest);
         });
+        assertEquals("Ya está suscrito a este fondo", e.getMessage());
     }
     
 
     
     @Test
     void obtenerHistorialTransaccionesSuccess() {
-        Cliente cliente = new Cliente();
-        cliente.setId("CAROLINA-PASUY");
-        cliente.setHistorialTransacciones(Arrays.asList(
-            new Transaccion("1", "SUSCRIPCION", "Fondo1", 100000.0, LocalDateTime.now()),
-            new Transaccion("2", "CANCELACION", "Fondo1", 100000.0, LocalDateTime.now())
+        when(transaccionRepository.findByIdClienteOrderByFechaAsc("CAROLINA-PASUY")).thenReturn(Arrays.asList(
+            new Transaccion("1", "CAROLINA-PASUY", "SUSCRIPCION", "Fondo1", Monto.dePesos(100000), LocalDateTime.now()),
+            new Transaccion("2", "CAROLINA-PASUY", "CANCELACION", "Fondo1", Monto.dePesos(100000), LocalDateTime.now())
         ));
-        
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
 
-        List<Transaccion> historial = fondoService.obtenerHistorialTransacciones();
+        List<Transaccion> historial = fondoService.obtenerHistorialTransacciones("CAROLINA-PASUY");
 
         assertEquals(2, historial.size());
         assertEquals("SUSCRIPCION", historial.get(0).getTipo());
@@ -132,9 +211,9 @@ class FondoServiceTest {
         fondo.setId("1");
         fondo.setCategoria("FPV");
         fondo.setNombre("FPV_BTG_PACTUAL_RECAUDADORA");
-        fondo.setMontoMinimo(75000.0);
+        fondo.setMontoMinimo(Monto.dePesos(75000));
 
-        when(fondoRepository.findAll()).thenReturn(Arrays.asList(fondo));
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
         List<Fondo> fondos = fondoService.obtenerFondos();
 
 
@@ -145,7 +224,7 @@ class FondoServiceTest {
 
     @Test
     void obtenerFondosEmpty() {
-        when(fondoRepository.findAll()).thenReturn(Collections.emptyList());
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo());
 
         List<Fondo> fondos = fondoService.obtenerFondos();
 
@@ -154,22 +233,31 @@ class FondoServiceTest {
 
     @Test
     void cancelarSuscripcionSuccess() {
-        FondoActivo fondoActivo = new FondoActivo("1", "FPV_BTG_PACTUAL_RECAUDADORA", 100000.0, LocalDateTime.now());
+        FondoActivo fondoActivo = new FondoActivo("1", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), LocalDateTime.now());
         cliente.getFondosActivos().add(fondoActivo);
+        cliente.setVersion(3L);
         
         CancelacionRequest cancelacionRequest = new CancelacionRequest();
         cancelacionRequest.setIdFondo("1");
         
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
-        when(fondoRepository.findById("1")).thenReturn(Optional.of(fondo));
-        when(clienteRepository.save(any(Cliente.class))).thenReturn(cliente);
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.cancelar(eq("CAROLINA-PASUY"), eq("1"), any(NotificacionPendiente.class))).thenReturn(Optional.of(cliente));
 
-        Cliente result = fondoService.cancelarSuscripcion(cancelacionRequest);
+        Cliente result = fondoService.cancelarSuscripcion("CAROLINA-PASUY", cancelacionRequest);
 
         assertNotNull(result);
-        assertEquals(600000.0, result.getSaldo());
+        assertEquals(Monto.dePesos(600000), result.getSaldo());
         assertTrue(result.getFondosActivos().isEmpty());
-        verify(notificationService).enviarNotificacionCancelacion(any(), any(), any());
+        verify(clienteRepository, never()).save(any(Cliente.class));
+        verify(transaccionRepository).insert(any(Transaccion.class));
+
+        ArgumentCaptor<NotificacionPendiente> notificacion = ArgumentCaptor.forClass(NotificacionPendiente.class);
+        verify(clienteRepository).cancelar(anyString(), anyString(), notificacion.capture());
+        assertEquals("CANCELACION", notificacion.getValue().getTipo());
+        assertEquals("FPV_BTG_PACTUAL_RECAUDADORA", notificacion.getValue().getNombreFondo());
+        verify(estadisticasFondos).cancelacion("CAROLINA-PASUY", "1", Monto.dePesos(100000));
+        assertEquals(4L, result.getVersion());
+        verify(cacheClientes).guardar(result);
     }
 
     @Test
@@ -177,41 +265,134 @@ class FondoServiceTest {
         CancelacionRequest cancelacionRequest = new CancelacionRequest();
         cancelacionRequest.setIdFondo("1");
         
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.cancelar(eq("CAROLINA-PASUY"), eq("1"), any(NotificacionPendiente.class))).thenReturn(Optional.empty());
+        when(clienteRepository.existsById("CAROLINA-PASUY")).thenReturn(true);
 
         assertThrows(SuscripcionNotFoundException.class, () -> {
-            fondoService.cancelarSuscripcion(cancelacionRequest);
+            fondoService.cancelarSuscripcion("CAROLINA-PASUY", cancelacionRequest);
         });
+        verifyNoInteractions(estadisticasFondos);
     }
 
     @Test
     void cancelarSuscripcionFondoNoEncontrado() {
-        FondoActivo fondoActivo = new FondoActivo("1", "FPV_BTG_PACTUAL_RECAUDADORA", 100000.0, LocalDateTime.now());
-        cliente.getFondosActivos().add(fondoActivo);
-        
         CancelacionRequest cancelacionRequest = new CancelacionRequest();
         cancelacionRequest.setIdFondo("1");
         
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo());
         when(fondoRepository.findById("1")).thenReturn(Optional.empty());
 
         assertThrows(FondoNotFoundException.class, () -> {
-            fondoService.cancelarSuscripcion(cancelacionRequest);
+            fondoService.cancelarSuscripcion("CAROLINA-PASUY", cancelacionRequest);
         });
+        verify(clienteRepository, never()).cancelar(anyString(), anyString(), any());
     }
 
     @Test
     void obtenerHistorialTransaccionesClienteSinTransacciones() {
-        Cliente clienteSinTransacciones = new Cliente();
-        clienteSinTransacciones.setId("CAROLINA-PASUY");
-        clienteSinTransacciones.setHistorialTransacciones(Collections.emptyList());
-        
-        when(clienteRepository.findById("CAROLINA-PASUY")).thenReturn(Optional.of(clienteSinTransacciones));
+        when(transaccionRepository.findByIdClienteOrderByFechaAsc("CAROLINA-PASUY")).thenReturn(Collections.emptyList());
 
-        List<Transaccion> historial = fondoService.obtenerHistorialTransacciones();
+        List<Transaccion> historial = fondoService.obtenerHistorialTransacciones("CAROLINA-PASUY");
 
         assertNotNull(historial);
         assertTrue(historial.isEmpty(), "El historial debería estar vacío");
     }
 
+    @Test
+    void obtenerResumenLeeSoloLasUltimasTransacciones() {
+        cliente.setSaldo(Monto.dePesos(400000));
+        when(cacheClientes.obtener("CAROLINA-PASUY")).thenReturn(Optional.of(cliente));
+        LocalDateTime ahora = LocalDateTime.now();
+        when(transaccionRepository.findByIdClienteOrderByFechaDesc(eq("CAROLINA-PASUY"), any(Pageable.class)))
+                .thenReturn(Arrays.asList(
+                        new Transaccion("2", "CAROLINA-PASUY", "CANCELACION", "Fondo1", Monto.dePesos(100000), ahora),
+                        new Transaccion("1", "CAROLINA-PASUY", "SUSCRIPCION", "Fondo1", Monto.dePesos(100000), ahora.minusMinutes(1))));
+
+        ResumenCliente resumen = fondoService.obtenerResumen("CAROLINA-PASUY", 2);
+
+        assertEquals(Monto.dePesos(400000), resumen.getSaldo());
+        assertEquals("1", resumen.getUltimasTransacciones().get(0).getIdTransaccion());
+        assertEquals("2", resumen.getUltimasTransacciones().get(1).getIdTransaccion());
+        ArgumentCaptor<Pageable> pagina = ArgumentCaptor.forClass(Pageable.class);
+        verify(transaccionRepository).findByIdClienteOrderByFechaDesc(eq("CAROLINA-PASUY"), pagina.capture());
+        assertEquals(2, pagina.getValue().getPageSize());
+        verify(clienteRepository, never()).findById(anyString());
+        verify(transaccionRepository, never()).findByIdClienteOrderByFechaAsc(anyString());
+    }
+
+    @Test
+    void obtenerResumenClienteNuevoTieneSaldoInicial() {
+        when(cacheClientes.obtener("NUEVO")).thenReturn(Optional.empty());
+
+        ResumenCliente resumen = fondoService.obtenerResumen("NUEVO", 0);
+
+        assertEquals(Monto.dePesos(500000), resumen.getSaldo());
+        assertTrue(resumen.getFondosActivos().isEmpty());
+        assertTrue(resumen.getUltimasTransacciones().isEmpty());
+        verifyNoInteractions(transaccionRepository);
+    }
+
+    @Test
+    void obtenerResumenRechazaLimiteFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> fondoService.obtenerResumen("CAROLINA-PASUY", 101));
+        assertThrows(IllegalArgumentException.class, () -> fondoService.obtenerResumen("CAROLINA-PASUY", -1));
+    }
+
+    @Test
+    void suscribirEnLoteAplicaEnUnaEscritura() {
+        cliente.setVersion(3L);
+        SuscripcionRequest montoBajo = new SuscripcionRequest("1", Monto.dePesos(1000), "EMAIL", "otro@example.com");
+        SuscripcionRequest fondoInexistente = new SuscripcionRequest("99", Monto.dePesos(100000), "SMS", "3001234567");
+        List<SuscripcionLoteItem> items = Arrays.asList(
+                new SuscripcionLoteItem("CAROLINA-PASUY", suscripcionRequest),
+                new SuscripcionLoteItem("CAROLINA-PASUY", suscripcionRequest),
+                new SuscripcionLoteItem("OTRO-CLIENTE", montoBajo),
+                new SuscripcionLoteItem("OTRO-CLIENTE", fondoInexistente));
+
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.findAllById(any())).thenReturn(Collections.singletonList(cliente));
+        when(clienteRepository.suscribirEnLote(anyList())).thenReturn(Collections.emptySet());
+
+        List<ResultadoSuscripcionLote> resultados = fondoService.suscribirEnLote(items);
+
+        assertTrue(resultados.get(0).isExitosa());
+        assertFalse(resultados.get(1).isExitosa());
+        assertEquals("Ya está suscrito a este fondo", resultados.get(1).getMensaje());
+        assertFalse(resultados.get(2).isExitosa());
+        assertEquals("El fondo 99 no existe", resultados.get(3).getMensaje());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SuscripcionesCliente>> suscripciones = ArgumentCaptor.forClass(List.class);
+        verify(clienteRepository).suscribirEnLote(suscripciones.capture());
+        assertEquals(1, suscripciones.getValue().size());
+        assertEquals(3L, suscripciones.getValue().get(0).getVersionEsperada());
+        assertEquals(Monto.dePesos(100000), suscripciones.getValue().get(0).getMontoTotal());
+        verify(transaccionRepository).insert(anyList());
+        verify(clienteRepository, never()).suscribir(anyString(), any(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void suscribirEnLoteClienteModificadoUsaFlujoIndividual() {
+        cliente.setVersion(3L);
+        List<SuscripcionLoteItem> items = Collections.singletonList(
+                new SuscripcionLoteItem("CAROLINA-PASUY", suscripcionRequest));
+
+        when(catalogoFondosCache.obtener()).thenReturn(catalogo(fondo));
+        when(clienteRepository.findAllById(any())).thenReturn(Collections.singletonList(cliente));
+        when(clienteRepository.suscribirEnLote(anyList())).thenReturn(Collections.singleton("CAROLINA-PASUY"));
+        when(clienteRepository.suscribir(eq("CAROLINA-PASUY"), any(FondoActivo.class), anyString(), anyString(), any(NotificacionPendiente.class)))
+                .thenReturn(Optional.of(cliente));
+
+        List<ResultadoSuscripcionLote> resultados = fondoService.suscribirEnLote(items);
+
+        assertTrue(resultados.get(0).isExitosa());
+        verify(transaccionRepository).insert(any(Transaccion.class));
+        verify(transaccionRepository, never()).insert(anyList());
+    }
+
+    private static CatalogoFondos catalogo(Fondo... fondos) {
+        return new CatalogoFondos(new ArrayList<>(Arrays.asList(fondos)), new byte[0]);
+    }
+
 }
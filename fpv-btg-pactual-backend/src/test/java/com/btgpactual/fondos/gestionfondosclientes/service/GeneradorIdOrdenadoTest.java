@@ -0,0 +1,128 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneradorIdOrdenadoTest {
+
+    private static final long AHORA = GeneradorIdOrdenado.EPOCA + 86_400_000L;
+
+    @Test
+    void losIdsCrecenEnOrdenDeTextoYConservanElMomento() {
+        AtomicLong reloj = new AtomicLong(AHORA);
+        GeneradorIdOrdenado generador = new GeneradorIdOrdenado(7, reloj::get);
+
+        String primero = generador.nuevoId();
+        String segundo = generador.nuevoId();
+        reloj.addAndGet(5);
+        String tercero = generador.nuevoId();
+
+        assertEquals(GeneradorIdOrdenado.LONGITUD, primero.length());
+        assertTrue(primero.compareTo(segundo) < 0);
+        assertTrue(segundo.compareTo(tercero) < 0);
+        assertEquals(AHORA, GeneradorIdOrdenado.momento(primero));
+        assertEquals(AHORA + 5, GeneradorIdOrdenado.momento(tercero));
+    }
+
+    @Test
+    void siElRelojRetrocedeLosIdsSiguenCreciendo() {
+        AtomicLong reloj = new AtomicLong(AHORA);
+        GeneradorIdOrdenado generador = new GeneradorIdOrdenado(7, reloj::get);
+
+        String antes = generador.nuevoId();
+        reloj.addAndGet(-1000);
+        String despues = generador.nuevoId();
+
+        assertTrue(antes.compareTo(despues) < 0);
+    }
+
+    @Test
+    void alAgotarLaSecuenciaPasaAlMilisegundoSiguiente() {
+        GeneradorIdOrdenado generador = new GeneradorIdOrdenado(7, () -> AHORA);
+
+        String ultimo = null;
+        for (int i = 0; i <= 1 << GeneradorIdOrdenado.BITS_SECUENCIA; i++) {
+            String id = generador.nuevoId();
+            if (ultimo != null) {
+                assertTrue(ultimo.compareTo(id) < 0);
+            }
+            ultimo = id;
+        }
+
+        assertEquals(AHORA + 1, GeneradorIdOrdenado.momento(ultimo));
+    }
+
+    @Test
+    void nodosDistintosNoColisionanEnElMismoMilisegundo() {
+        String nodoUno = new GeneradorIdOrdenado(1, () -> AHORA).nuevoId();
+        String nodoDos = new GeneradorIdOrdenado(2, () -> AHORA).nuevoId();
+
+        assertNotEquals(nodoUno, nodoDos);
+    }
+
+    @Test
+    void codificarYDecodificarSonInversos() {
+        long valor = 0x7FFF_FFFF_FFFF_FFFFL;
+        assertEquals(valor, GeneradorIdOrdenado.decodificar(GeneradorIdOrdenado.codificar(valor)));
+        assertThrows(IllegalArgumentException.class, () -> GeneradorIdOrdenado.decodificar("0000000000I00"));
+    }
+
+    @Test
+    void nodoFueraDeRangoSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorIdOrdenado(GeneradorIdOrdenado.MAX_NODO + 1));
+    }
+
+    @Test
+    void sinNodoFueraDeLosPerfilesTestYLocalNoArranca() {
+        MockEnvironment produccion = new MockEnvironment();
+        produccion.setActiveProfiles("eventos");
+
+        assertThrows(IllegalStateException.class, () -> new GeneradorIdOrdenado(-1, produccion));
+        assertEquals(5, GeneradorIdOrdenado.nodoConfigurado(5, produccion));
+    }
+
+    @Test
+    void sinNodoEnLocalSeDerivaDelProceso() {
+        MockEnvironment local = new MockEnvironment();
+        local.setActiveProfiles("local");
+
+        int nodo = GeneradorIdOrdenado.nodoConfigurado(-1, local);
+
+        assertTrue(nodo >= 0 && nodo <= GeneradorIdOrdenado.MAX_NODO);
+    }
+
+    @Test
+    void generacionConcurrenteSinDuplicados() throws Exception {
+        GeneradorIdOrdenado generador = new GeneradorIdOrdenado(3);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tareas.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generador.nuevoId());
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(80_000, ids.size());
+    }
+}
@@ -0,0 +1,204 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.model.RespuestaIdempotente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.RespuestaIdempotenteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotenciaServiceTest {
+
+    private static final String ID = "cancelacion:CAROLINA-PASUY:clave-1";
+
+    @Mock
+    private RespuestaIdempotenteRepository respuestaRepository;
+
+    private IdempotenciaService idempotenciaService;
+    private CancelacionRequest solicitud;
+    private AtomicInteger ejecuciones;
+    private Supplier<ResponseEntity<?>> operacion;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = new IdempotenciaService(respuestaRepository, Jackson2ObjectMapperBuilder.json().build(),
+                new MetricasFondos(new SimpleMeterRegistry()), 24, 30000, 200, 10);
+        solicitud = new CancelacionRequest("1");
+        ejecuciones = new AtomicInteger();
+        operacion = () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.ok(ApiResponse.success("Cancelación exitosa", "ok"));
+        };
+    }
+
+    @Test
+    void sinClaveEjecutaSinConsultarElRepositorio() {
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar(null, "cancelacion:CAROLINA-PASUY", solicitud, operacion);
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(1, ejecuciones.get());
+        verifyNoInteractions(respuestaRepository);
+    }
+
+    @Test
+    void primeraSolicitudEjecutaYGuardaLaRespuesta() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(true);
+
+        idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud, operacion);
+
+        ArgumentCaptor<RespuestaIdempotente> reserva = ArgumentCaptor.forClass(RespuestaIdempotente.class);
+        verify(respuestaRepository).reservar(reserva.capture(), any(LocalDateTime.class));
+        assertEquals(ID, reserva.getValue().getClave());
+        assertEquals(Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO, reserva.getValue().getEstado());
+        assertTrue(reserva.getValue().getExpiraEn().isAfter(LocalDateTime.now().plusHours(23)));
+
+        ArgumentCaptor<String> cuerpo = ArgumentCaptor.forClass(String.class);
+        verify(respuestaRepository).completar(eq(ID), eq(reserva.getValue().getPropietario()), eq(200), cuerpo.capture());
+        assertTrue(cuerpo.getValue().contains("Cancelación exitosa"));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void reintentoRecibeLaRespuestaGuardadaSinEjecutar() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(false);
+        when(respuestaRepository.findById(ID)).thenReturn(Optional.of(completada(idempotenciaService.huella(solicitud), 400,
+                "{\"success\":false,\"message\":\"No está suscrito a este fondo\"}")));
+
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud, operacion);
+
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+        assertEquals("true", respuesta.getHeaders().getFirst(Constants.HEADER_IDEMPOTENCIA_REPETIDA));
+        assertEquals("No está suscrito a este fondo", ((JsonNode) respuesta.getBody()).path("message").asText());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void duplicadoConcurrenteEsperaElResultadoDeLaPrimera() {
+        String huella = idempotenciaService.huella(solicitud);
+        RespuestaIdempotente enProceso = new RespuestaIdempotente();
+        enProceso.setHuella(huella);
+        enProceso.setEstado(Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO);
+        when(respuestaRepository.reservar(any(), any())).thenReturn(false);
+        when(respuestaRepository.findById(ID))
+                .thenReturn(Optional.of(enProceso))
+                .thenReturn(Optional.of(completada(huella, 200, "{\"success\":true}")));
+
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud, operacion);
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(0, ejecuciones.get());
+        verify(respuestaRepository, times(2)).findById(ID);
+    }
+
+    @Test
+    void duplicadoQueNoTerminaATiempoRespondeConflicto() {
+        RespuestaIdempotente enProceso = new RespuestaIdempotente();
+        enProceso.setHuella(idempotenciaService.huella(solicitud));
+        enProceso.setEstado(Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO);
+        when(respuestaRepository.reservar(any(), any())).thenReturn(false);
+        when(respuestaRepository.findById(ID)).thenReturn(Optional.of(enProceso));
+
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud, operacion);
+
+        assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void claveReutilizadaConOtraSolicitudSeRechaza() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(false);
+        when(respuestaRepository.findById(ID)).thenReturn(Optional.of(completada("otra-huella", 200, "{}")));
+
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud, operacion);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, respuesta.getStatusCode());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void errorDelServidorLiberaLaClave() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(true);
+
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud,
+                () -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error("Error")));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, respuesta.getStatusCode());
+        verify(respuestaRepository).liberar(eq(ID), anyString());
+        verify(respuestaRepository, never()).completar(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void conflictoOLimiteSuperadoLiberanLaClave() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(true);
+
+        idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud,
+                () -> ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Operación en curso")));
+        idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud,
+                () -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ApiResponse.error("Límite")));
+
+        verify(respuestaRepository, times(2)).liberar(eq(ID), anyString());
+        verify(respuestaRepository, never()).completar(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void excepcionDeLaOperacionLiberaLaClave() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> idempotenciaService.ejecutar("clave-1",
+                "cancelacion:CAROLINA-PASUY", solicitud, () -> {
+                    throw new IllegalStateException("Tiempo de escritura agotado");
+                }));
+
+        verify(respuestaRepository).liberar(eq(ID), anyString());
+        verify(respuestaRepository, never()).completar(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void rechazoDeNegocioSeGuarda() {
+        when(respuestaRepository.reservar(any(), any())).thenReturn(true);
+
+        idempotenciaService.ejecutar("clave-1", "cancelacion:CAROLINA-PASUY", solicitud,
+                () -> ResponseEntity.badRequest().body(ApiResponse.error("Saldo insuficiente")));
+
+        verify(respuestaRepository).completar(eq(ID), anyString(), eq(400), anyString());
+        verify(respuestaRepository, never()).liberar(any(), any());
+    }
+
+    @Test
+    void claveDemasiadoLargaSeRechaza() {
+        ResponseEntity<?> respuesta = idempotenciaService.ejecutar("x".repeat(256), "cancelacion:CAROLINA-PASUY",
+                solicitud, operacion);
+
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+        verifyNoInteractions(respuestaRepository);
+    }
+
+    private static RespuestaIdempotente completada(String huella, int estadoHttp, String cuerpo) {
+        RespuestaIdempotente respuesta = new RespuestaIdempotente();
+        respuesta.setClave(ID);
+        respuesta.setHuella(huella);
+        respuesta.setEstado(Constants.ESTADO_IDEMPOTENCIA_COMPLETADA);
+        respuesta.setEstadoHttp(estadoHttp);
+        respuesta.setCuerpo(cuerpo);
+        return respuesta;
+    }
+}
@@ -0,0 +1,123 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_CANCELACION;
+import static com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos.OPERACION_SUSCRIPCION;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorSolicitudesTest {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000_000L);
+    private SimpleMeterRegistry meterRegistry;
+    private LimitadorSolicitudes limitador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 60 por minuto: una ficha por segundo, ráfaga de 3
+        limitador = new LimitadorSolicitudes(true, 60, 3, 60, 3, 2, new MetricasFondos(meterRegistry), reloj::get);
+    }
+
+    @Test
+    void admiteLaRafagaYRechazaConLaEsperaHastaLaSiguienteFicha() {
+        assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY"));
+        assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY"));
+        assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY"));
+
+        long espera = limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY");
+
+        assertTrue(espera > 990 && espera <= 1001, "espera " + espera);
+        assertEquals(1.0, meterRegistry.counter(MetricasFondos.METRICA_RECHAZOS,
+                "operacion", OPERACION_SUSCRIPCION, "motivo", MetricasFondos.MOTIVO_LIMITE_SOLICITUDES).count());
+
+        avanzar(1000);
+        assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY"));
+        assertTrue(limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY") > 0);
+    }
+
+    @Test
+    void clientesYOperacionesTienenBaldesIndependientes() {
+        for (int i = 0; i < 3; i++) {
+            limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY");
+        }
+
+        assertTrue(limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY") > 0);
+        assertEquals(0L, limitador.reservar(OPERACION_CANCELACION, "CAROLINA-PASUY"));
+        assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "OTRO-CLIENTE"));
+    }
+
+    @Test
+    void loteSeRechazaSiAlgunClienteSuperaSuLimite() {
+        for (int i = 0; i < 3; i++) {
+            limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY");
+        }
+
+        assertTrue(limitador.reservar(OPERACION_SUSCRIPCION, Arrays.asList("OTRO-CLIENTE", "CAROLINA-PASUY")) > 0);
+    }
+
+    @Test
+    void loteRechazadoDevuelveLasFichasDeLosDemasClientes() {
+        for (int i = 0; i < 3; i++) {
+            limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY");
+        }
+
+        assertTrue(limitador.reservar(OPERACION_SUSCRIPCION, Arrays.asList("OTRO-CLIENTE", "CAROLINA-PASUY")) > 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "OTRO-CLIENTE"));
+        }
+    }
+
+    @Test
+    void loteCobraUnaFichaPorSuscripcion() {
+        assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION,
+                Arrays.asList("CAROLINA-PASUY", "CAROLINA-PASUY", "CAROLINA-PASUY")));
+
+        assertTrue(limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY") > 0);
+    }
+
+    @Test
+    void limpiarEliminaLosBaldesLlenos() {
+        limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY");
+        limitador.reservar(OPERACION_CANCELACION, "OTRO-CLIENTE");
+        assertEquals(0, limitador.limpiar());
+
+        avanzar(1000);
+
+        assertEquals(2, limitador.limpiar());
+        assertEquals(0, limitador.clientes());
+    }
+
+    @Test
+    void sinCapacidadAdmiteNuevosClientesSinBalde() {
+        limitador.reservar(OPERACION_SUSCRIPCION, "CLIENTE-1");
+        limitador.reservar(OPERACION_SUSCRIPCION, "CLIENTE-2");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "CLIENTE-3"));
+        }
+        assertEquals(2, limitador.clientes());
+    }
+
+    @Test
+    void deshabilitadoAdmiteTodo() {
+        limitador = new LimitadorSolicitudes(false, 60, 1, 60, 1, 10,
+                new MetricasFondos(meterRegistry), reloj::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, limitador.reservar(OPERACION_SUSCRIPCION, "CAROLINA-PASUY"));
+        }
+        assertEquals(0, limitador.clientes());
+    }
+
+    private void avanzar(long milisegundos) {
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(milisegundos));
+    }
+}
@@ -0,0 +1,95 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteConcurrenciaTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    void lasLecturasSoloOcupanSuFraccionDelLimite() {
+        LimiteConcurrencia limite = nuevoLimite(10);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limite.adquirir(true));
+        }
+        assertFalse(limite.adquirir(true));
+        assertTrue(limite.adquirir(false));
+        assertTrue(limite.adquirir(false));
+        assertFalse(limite.adquirir(false));
+        assertEquals(10, limite.getEnCurso());
+
+        limite.liberar(-1L);
+        assertEquals(9, limite.getEnCurso());
+        assertTrue(limite.adquirir(false));
+    }
+
+    @Test
+    void elLimiteCreceConLatenciaEstableYBajaCuandoSube() {
+        LimiteConcurrencia limite = nuevoLimite(20);
+
+        ventanas(limite, 20, 10);
+        int trasLatenciaEstable = limite.getLimite();
+        ventanas(limite, 15, 200);
+        int trasLatenciaAlta = limite.getLimite();
+
+        assertTrue(trasLatenciaEstable > 20, "límite " + trasLatenciaEstable);
+        assertTrue(trasLatenciaAlta < trasLatenciaEstable / 2, "límite " + trasLatenciaAlta);
+        assertTrue(trasLatenciaAlta >= 5);
+    }
+
+    @Test
+    void soloSeAjustaAlCerrarLaVentana() {
+        LimiteConcurrencia limite = nuevoLimite(20);
+        ventanas(limite, 2, 10);
+        int inicial = limite.getLimite();
+
+        for (int i = 0; i < 20; i++) {
+            limite.adquirir(false);
+        }
+        for (int i = 0; i < 20; i++) {
+            limite.liberar(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(inicial, limite.getLimite());
+    }
+
+    @Test
+    void conPocaCargaElLimiteNoCambia() {
+        LimiteConcurrencia limite = nuevoLimite(20);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limite.adquirir(true));
+            limite.liberar(TimeUnit.MILLISECONDS.toNanos(i < 50 ? 10 : 500));
+            reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        assertEquals(20, limite.getLimite());
+    }
+
+    private LimiteConcurrencia nuevoLimite(int inicial) {
+        return new LimiteConcurrencia(inicial, 5, 200, 1.5, 0.2, 0.8, 1000, reloj::get);
+    }
+
+    /**
+     * Cada ventana llena el límite con escrituras y las libera todas con la misma latencia
+     * La primera muestra de cada ventana cierra la anterior
+     */
+    private void ventanas(LimiteConcurrencia limite, int ventanas, long latenciaMs) {
+        for (int v = 0; v < ventanas; v++) {
+            reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            int admitidas = 0;
+            while (limite.adquirir(false)) {
+                admitidas++;
+            }
+            for (int i = 0; i < admitidas; i++) {
+                limite.liberar(TimeUnit.MILLISECONDS.toNanos(latenciaMs));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.exception.ClienteNotFoundException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.InsufficientFundsException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.MontoMinimoException;
+import com.btgpactual.fondos.gestionfondosclientes.exception.SuscripcionActivaException;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasFondosTest {
+
+    private SimpleMeterRegistry registry;
+    private MetricasFondos metricas;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metricas = new MetricasFondos(registry);
+    }
+
+    @Test
+    void medirCuentaLaSuscripcionYRegistraLaLatencia() {
+        String resultado = metricas.medir(MetricasFondos.OPERACION_SUSCRIPCION, () -> "ok");
+
+        assertEquals("ok", resultado);
+        assertEquals(1.0, registry.get(MetricasFondos.METRICA_SUSCRIPCIONES).counter().count());
+        assertEquals(1L, registry.get(MetricasFondos.METRICA_OPERACION)
+                .tag("operacion", "suscripcion").tag("resultado", "exito").timer().count());
+    }
+
+    @Test
+    void medirRegistraElRechazoConSuMotivo() {
+        assertThrows(InsufficientFundsException.class, () -> metricas.medir(MetricasFondos.OPERACION_SUSCRIPCION,
+                () -> {
+                    throw new InsufficientFundsException("sin saldo");
+                }));
+
+        assertEquals(1.0, registry.get(MetricasFondos.METRICA_RECHAZOS)
+                .tag("motivo", MetricasFondos.MOTIVO_SALDO_INSUFICIENTE).counter().count());
+        assertNull(registry.find(MetricasFondos.METRICA_SUSCRIPCIONES).counter());
+        assertEquals(1L, registry.get(MetricasFondos.METRICA_OPERACION).tag("resultado", "error").timer().count());
+    }
+
+    @Test
+    void motivoDistingueElMontoMinimoDeOtrosArgumentosInvalidos() {
+        assertEquals(MetricasFondos.MOTIVO_MONTO_MINIMO, MetricasFondos.motivo(new MontoMinimoException("mínimo")));
+        assertEquals(MetricasFondos.MOTIVO_SUSCRIPCION_ACTIVA,
+                MetricasFondos.motivo(new SuscripcionActivaException(Constants.MSG_SUSCRIPCION_ACTIVA)));
+        assertEquals(MetricasFondos.MOTIVO_SOLICITUD_INVALIDA,
+                MetricasFondos.motivo(new IllegalArgumentException("Monto inválido: 10.005")));
+        assertEquals(MetricasFondos.MOTIVO_CLIENTE_INEXISTENTE,
+                MetricasFondos.motivo(new ClienteNotFoundException("Cliente no encontrado")));
+        assertEquals(MetricasFondos.MOTIVO_ERROR_INTERNO, MetricasFondos.motivo(new IllegalStateException("mongo")));
+    }
+
+    @Test
+    void medirReactivoCuentaLaCancelacionAlTerminar() {
+        Mono<String> medida = metricas.medir(MetricasFondos.OPERACION_CANCELACION, Mono.just("ok"));
+        assertNull(registry.find(MetricasFondos.METRICA_CANCELACIONES).counter());
+
+        StepVerifier.create(medida).expectNext("ok").verifyComplete();
+
+        assertEquals(1.0, registry.get(MetricasFondos.METRICA_CANCELACIONES).counter().count());
+    }
+
+    @Test
+    void faseRegistraSuPropioTimer() {
+        metricas.fase(MetricasFondos.OPERACION_SUSCRIPCION, MetricasFondos.FASE_VALIDACION, () -> { });
+
+        assertEquals(1L, registry.get(MetricasFondos.METRICA_FASE)
+                .tag("fase", MetricasFondos.FASE_VALIDACION).timer().count());
+    }
+}
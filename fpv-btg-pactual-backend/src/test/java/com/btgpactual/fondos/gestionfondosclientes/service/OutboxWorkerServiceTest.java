@@ -0,0 +1,118 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.repository.NotificacionOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxWorkerServiceTest {
+
+    @Mock
+    private NotificacionOutboxRepository notificacionOutboxRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private OutboxWorkerService worker;
+    private NotificacionOutbox notificacion;
+
+    @BeforeEach
+    void setUp() {
+        worker = new OutboxWorkerService(notificacionOutboxRepository, notificationService,
+                new MetricasFondos(new SimpleMeterRegistry()), 1, 10, 3, 1000, 60000, 60000);
+        notificacion = new NotificacionOutbox();
+        notificacion.setIdNotificacion("n-1");
+        notificacion.setTipo("SUSCRIPCION");
+        notificacion.setCanal("EMAIL");
+        notificacion.setContacto("test@example.com");
+        notificacion.setPropietario("reclamo-1");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        worker.detener();
+    }
+
+    @Test
+    void procesarMarcaEnviada() {
+        notificacion.setIntentos(1);
+        when(notificationService.enviar(notificacion)).thenReturn(CompletableFuture.completedFuture(null));
+
+        worker.procesar(notificacion).join();
+
+        verify(notificationService).enviar(notificacion);
+        verify(notificacionOutboxRepository).marcarEnviada("n-1", "reclamo-1");
+    }
+
+    @Test
+    void procesarReprogramaTrasUnFallo() {
+        notificacion.setIntentos(1);
+        when(notificationService.enviar(notificacion)).thenReturn(fallido(new MailSendException("SMTP no disponible")));
+
+        worker.procesar(notificacion).join();
+
+        verify(notificacionOutboxRepository).reprogramar(eq("n-1"), eq("reclamo-1"), any(LocalDateTime.class), eq("SMTP no disponible"));
+        verify(notificacionOutboxRepository, never()).marcarFallida(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void procesarDescartaAlAgotarIntentos() {
+        notificacion.setIntentos(3);
+        when(notificationService.enviar(notificacion)).thenReturn(fallido(new MailSendException("SMTP no disponible")));
+
+        worker.procesar(notificacion).join();
+
+        verify(notificacionOutboxRepository).marcarFallida("n-1", "reclamo-1", "SMTP no disponible");
+        verify(notificacionOutboxRepository, never()).reprogramar(anyString(), anyString(), any(), anyString());
+    }
+
+    @Test
+    void procesarReprogramaSiElEnvioFallaAlEncolar() {
+        notificacion.setIntentos(1);
+        when(notificationService.enviar(notificacion)).thenThrow(new MailSendException("Cola llena"));
+
+        worker.procesar(notificacion).join();
+
+        verify(notificacionOutboxRepository).reprogramar(eq("n-1"), eq("reclamo-1"), any(LocalDateTime.class), eq("Cola llena"));
+    }
+
+    @Test
+    void drenarReclamaConUnPropietarioPorReclamo() {
+        notificacion.setIntentos(1);
+        when(notificacionOutboxRepository.reclamar(any(), any(), anyString()))
+                .thenReturn(Optional.of(notificacion))
+                .thenReturn(Optional.empty());
+        when(notificationService.enviar(notificacion)).thenReturn(CompletableFuture.completedFuture(null));
+
+        worker.drenar();
+
+        ArgumentCaptor<String> propietarios = ArgumentCaptor.forClass(String.class);
+        verify(notificacionOutboxRepository, times(2)).reclamar(any(), any(), propietarios.capture());
+        assertNotEquals(propietarios.getAllValues().get(0), propietarios.getAllValues().get(1));
+        verify(notificacionOutboxRepository, timeout(1000)).marcarEnviada("n-1", "reclamo-1");
+    }
+
+    private static CompletableFuture<Void> fallido(Exception e) {
+        CompletableFuture<Void> futuro = new CompletableFuture<>();
+        futuro.completeExceptionally(e);
+        return futuro;
+    }
+}
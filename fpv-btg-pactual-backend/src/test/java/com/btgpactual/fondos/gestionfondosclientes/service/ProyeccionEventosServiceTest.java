@@ -0,0 +1,82 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.EventoCliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionOutbox;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EventoClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.NotificacionOutboxRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProyeccionEventosServiceTest {
+
+    @Mock
+    private EventoClienteRepository eventoRepository;
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    @Mock
+    private NotificacionOutboxRepository outboxRepository;
+
+    @Mock
+    private EstadisticasFondosService estadisticasFondos;
+
+    private ProyeccionEventosService proyeccion;
+    private EventoCliente evento;
+
+    @BeforeEach
+    void setUp() {
+        proyeccion = new ProyeccionEventosService(eventoRepository, transaccionRepository, outboxRepository,
+                estadisticasFondos);
+        evento = new EventoCliente("E-1", "CAROLINA-PASUY", 1L, Constants.TIPO_TRANSACCION_SUSCRIPCION, "1",
+                "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(100000), null, "EMAIL", "test@example.com",
+                LocalDateTime.of(2024, 1, 15, 10, 30), Boolean.TRUE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void proyectarGuardaTransaccionYNotificacionConElIdDelEvento() {
+        FragmentoEstadisticaFondo incremento = FragmentoEstadisticaFondo.incremento("1", 3, Monto.dePesos(100000), 1);
+        when(estadisticasFondos.suscripcion("CAROLINA-PASUY", "1", Monto.dePesos(100000))).thenReturn(incremento);
+        when(eventoRepository.marcarProyectado("E-1")).thenReturn(true);
+
+        proyeccion.proyectar(evento);
+
+        ArgumentCaptor<Transaccion> transaccion = ArgumentCaptor.forClass(Transaccion.class);
+        verify(transaccionRepository).save(transaccion.capture());
+        assertEquals("E-1", transaccion.getValue().getIdTransaccion());
+        ArgumentCaptor<List<NotificacionOutbox>> notificaciones = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).insertarIgnorandoDuplicados(notificaciones.capture());
+        assertEquals("E-1", notificaciones.getValue().get(0).getIdNotificacion());
+        verify(estadisticasFondos).registrar(Collections.singletonList(incremento), evento.getFecha());
+    }
+
+    @Test
+    void proyectarRepetidoNoVuelveAContarLasEstadisticas() {
+        when(eventoRepository.marcarProyectado("E-1")).thenReturn(false);
+
+        proyeccion.proyectar(evento);
+
+        verify(transaccionRepository).save(any(Transaccion.class));
+        verify(estadisticasFondos, never()).registrar(anyCollection(), any(LocalDateTime.class));
+    }
+}
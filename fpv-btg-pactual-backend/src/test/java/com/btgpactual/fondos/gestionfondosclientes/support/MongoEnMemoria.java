@@ -0,0 +1,33 @@
+package com.btgpactual.fondos.gestionfondosclientes.support;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * Servidor MongoDB en memoria compartido por las pruebas que levantan el contexto o usan los repositorios
+ * Se inicia una sola vez por JVM y se detiene al terminar
+ */
+public final class MongoEnMemoria {
+
+    private static MongoServer servidor;
+
+    private MongoEnMemoria() {
+    }
+
+    /**
+     * Apunta spring.data.mongodb.uri al servidor en memoria; se usa desde un @DynamicPropertySource
+     */
+    public static void registrar(DynamicPropertyRegistry registro) {
+        registro.add("spring.data.mongodb.uri", () -> uri("btg_fondos_test"));
+    }
+
+    public static synchronized String uri(String baseDatos) {
+        if (servidor == null) {
+            servidor = new MongoServer(new MemoryBackend());
+            servidor.bind();
+            Runtime.getRuntime().addShutdownHook(new Thread(servidor::shutdownNow));
+        }
+        return servidor.getConnectionString() + "/" + baseDatos;
+    }
+}
@@ -0,0 +1,42 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.ActividadFondo;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ActividadFondoRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Actividad por intervalos en memoria; cada intervalo se actualiza de forma atómica como lo haría un $inc en el servidor
+ * Los intervalos no expiran
+ */
+public class ActividadFondoRepositoryEnMemoria extends RepositorioEnMemoria<ActividadFondo>
+        implements ActividadFondoRepository {
+
+    @Override
+    protected String id(ActividadFondo actividad) {
+        return actividad.getId();
+    }
+
+    @Override
+    public List<ActividadFondo> findByIdFondoAndGranularidadAndInicioGreaterThanEqualAndInicioLessThanOrderByInicioAsc(
+            String idFondo, String granularidad, LocalDateTime desde, LocalDateTime hasta) {
+        return documentos.values().stream()
+                .filter(actividad -> actividad.getIdFondo().equals(idFondo)
+                        && actividad.getGranularidad().equals(granularidad)
+                        && !actividad.getInicio().isBefore(desde)
+                        && actividad.getInicio().isBefore(hasta))
+                .sorted(Comparator.comparing(ActividadFondo::getInicio))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void acumular(Collection<ActividadFondo> incrementos) {
+        incrementos.forEach(incremento -> documentos.merge(incremento.getId(), incremento, (a, b) ->
+                new ActividadFondo(a.getId(), a.getIdFondo(), a.getTipo(), a.getGranularidad(), a.getInicio(),
+                        a.getOperaciones() + b.getOperaciones(), a.getMonto().sumar(b.getMonto()), a.getExpiraEn())));
+    }
+}
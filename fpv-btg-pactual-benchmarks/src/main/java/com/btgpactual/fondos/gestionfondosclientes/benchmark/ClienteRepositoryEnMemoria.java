@@ -0,0 +1,162 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.NotificacionPendiente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.SuscripcionesCliente;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Clientes en memoria con la misma semántica que las actualizaciones condicionadas de ClienteRepositoryCustomImpl
+ * Cada operación se aplica de forma atómica sobre una copia, como lo haría el servidor, y devuelve otra copia
+ * Las notificaciones pendientes no se guardan: en producción las retira el relay de la bandeja de salida
+ */
+public class ClienteRepositoryEnMemoria extends RepositorioEnMemoria<Cliente> implements ClienteRepository {
+
+    @Override
+    protected String id(Cliente cliente) {
+        return cliente.getId();
+    }
+
+    @Override
+    public Optional<Cliente> findById(String id) {
+        return super.findById(id).map(ClienteRepositoryEnMemoria::copiar);
+    }
+
+    @Override
+    public Optional<Cliente> buscarResumen(String idCliente) {
+        return findById(idCliente);
+    }
+
+    @Override
+    public Optional<Long> buscarVersion(String idCliente) {
+        return Optional.ofNullable(documentos.get(idCliente)).map(Cliente::getVersion);
+    }
+
+    @Override
+    public void crearSiNoExiste(String idCliente, Monto saldoInicial) {
+        documentos.computeIfAbsent(idCliente, id -> nuevo(id, saldoInicial));
+    }
+
+    @Override
+    public void crearSiNoExisten(Collection<String> idsCliente, Monto saldoInicial) {
+        idsCliente.forEach(id -> crearSiNoExiste(id, saldoInicial));
+    }
+
+    @Override
+    public long inicializarVersiones() {
+        return 0;
+    }
+
+    @Override
+    public synchronized Optional<Cliente> suscribir(String idCliente, FondoActivo fondoActivo,
+                                                    String preferenciaNotificacion, String contacto,
+                                                    NotificacionPendiente notificacion) {
+        Cliente actual = documentos.get(idCliente);
+        if (actual == null || actual.getSaldo().esMenorQue(fondoActivo.getMonto())
+                || estaSuscrito(actual, fondoActivo.getIdFondo())) {
+            return Optional.empty();
+        }
+        Cliente nuevo = copiar(actual);
+        nuevo.setSaldo(nuevo.getSaldo().restar(fondoActivo.getMonto()));
+        nuevo.getFondosActivos().add(fondoActivo);
+        nuevo.setPreferenciaNotificacion(preferenciaNotificacion);
+        nuevo.setContacto(contacto);
+        nuevo.setVersion(actual.getVersion() + 1);
+        documentos.put(idCliente, nuevo);
+        return Optional.of(copiar(nuevo));
+    }
+
+    @Override
+    public synchronized Set<String> suscribirEnLote(List<SuscripcionesCliente> suscripciones) {
+        Set<String> rechazados = new HashSet<>();
+        for (SuscripcionesCliente suscripcion : suscripciones) {
+            Cliente actual = documentos.get(suscripcion.getIdCliente());
+            if (actual == null || !Objects.equals(actual.getVersion(), suscripcion.getVersionEsperada())) {
+                rechazados.add(suscripcion.getIdCliente());
+                continue;
+            }
+            Cliente nuevo = copiar(actual);
+            nuevo.setSaldo(nuevo.getSaldo().restar(suscripcion.getMontoTotal()));
+            nuevo.getFondosActivos().addAll(suscripcion.getFondosActivos());
+            nuevo.setPreferenciaNotificacion(suscripcion.getPreferenciaNotificacion());
+            nuevo.setContacto(suscripcion.getContacto());
+            nuevo.setVersion(actual.getVersion() + 1);
+            documentos.put(nuevo.getId(), nuevo);
+        }
+        return rechazados;
+    }
+
+    @Override
+    public synchronized Optional<Cliente> cancelar(String idCliente, String idFondo, NotificacionPendiente notificacion) {
+        Cliente actual = documentos.get(idCliente);
+        if (actual == null || !estaSuscrito(actual, idFondo)) {
+            return Optional.empty();
+        }
+        Cliente nuevo = copiar(actual);
+        FondoActivo retirado = nuevo.getFondosActivos().stream()
+                .filter(fa -> fa.getIdFondo().equals(idFondo))
+                .findFirst()
+                .get();
+        nuevo.getFondosActivos().remove(retirado);
+        nuevo.setSaldo(nuevo.getSaldo().sumar(retirado.getMonto()));
+        nuevo.setVersion(actual.getVersion() + 1);
+        documentos.put(idCliente, nuevo);
+        return Optional.of(copiar(actual));
+    }
+
+    @Override
+    public List<Cliente> buscarConNotificacionesPendientes(int limite) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void retirarNotificaciones(String idCliente, Collection<String> idsNotificacion) {
+    }
+
+    @Override
+    public synchronized void guardarInstantanea(Cliente estado) {
+        Cliente actual = documentos.get(estado.getId());
+        if (actual != null && actual.getSecuenciaEventos() != null
+                && actual.getSecuenciaEventos() >= estado.getSecuenciaEventos()) {
+            return;
+        }
+        Cliente instantanea = copiar(estado);
+        instantanea.setVersion(actual != null ? actual.getVersion() : 0L);
+        documentos.put(estado.getId(), instantanea);
+    }
+
+    private static boolean estaSuscrito(Cliente cliente, String idFondo) {
+        return cliente.getFondosActivos().stream().anyMatch(fa -> fa.getIdFondo().equals(idFondo));
+    }
+
+    private static Cliente nuevo(String idCliente, Monto saldoInicial) {
+        Cliente cliente = new Cliente();
+        cliente.setId(idCliente);
+        cliente.setSaldo(saldoInicial);
+        cliente.setVersion(0L);
+        return cliente;
+    }
+
+    private static Cliente copiar(Cliente cliente) {
+        Cliente copia = new Cliente();
+        copia.setId(cliente.getId());
+        copia.setSaldo(cliente.getSaldo());
+        copia.setFondosActivos(new ArrayList<>(cliente.getFondosActivos()));
+        copia.setPreferenciaNotificacion(cliente.getPreferenciaNotificacion());
+        copia.setContacto(cliente.getContacto());
+        copia.setVersion(cliente.getVersion());
+        copia.setSecuenciaEventos(cliente.getSecuenciaEventos());
+        return copia;
+    }
+}
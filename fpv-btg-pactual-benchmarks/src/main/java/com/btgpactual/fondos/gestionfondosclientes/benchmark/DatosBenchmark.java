@@ -0,0 +1,79 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Datos de prueba deterministas para los benchmarks
+ */
+public final class DatosBenchmark {
+
+    public static final String ID_FONDO = "1";
+    public static final Monto MONTO_SUSCRIPCION = Monto.dePesos(100000);
+
+    private static final LocalDateTime FECHA_BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private DatosBenchmark() {
+    }
+
+    /**
+     * Catálogo inicial de fondos
+     */
+    public static List<Fondo> fondos() {
+        return Arrays.asList(
+                new Fondo("1", "FPV", "FPV_BTG_PACTUAL_RECAUDADORA", Monto.dePesos(75000)),
+                new Fondo("2", "FPV", "FPV_BTG_PACTUAL_ECOPETROL", Monto.dePesos(125000)),
+                new Fondo("3", "FIC", "DEUDAPRIVADA", Monto.dePesos(50000)),
+                new Fondo("4", "FIC", "FDO-ACCIONES", Monto.dePesos(250000)),
+                new Fondo("5", "FPV", "FPV_BTG_PACTUAL_DINAMICA", Monto.dePesos(100000)));
+    }
+
+    /**
+     * Cliente con fondos activos que no están en el catálogo, para que las búsquedas recorran toda la lista
+     * @param idCliente ID del cliente
+     * @param saldo Saldo disponible
+     * @param fondosActivos Número de fondos activos
+     */
+    public static Cliente cliente(String idCliente, Monto saldo, int fondosActivos) {
+        Cliente cliente = new Cliente();
+        cliente.setId(idCliente);
+        cliente.setSaldo(saldo);
+        cliente.setVersion(0L);
+        cliente.setPreferenciaNotificacion("EMAIL");
+        cliente.setContacto(idCliente.toLowerCase() + "@example.com");
+        List<FondoActivo> activos = new ArrayList<>(fondosActivos);
+        for (int i = 0; i < fondosActivos; i++) {
+            activos.add(new FondoActivo("ACTIVO-" + i, "FONDO_ACTIVO_" + i, Monto.dePesos(1000), FECHA_BASE.plusDays(i)));
+        }
+        cliente.setFondosActivos(activos);
+        return cliente;
+    }
+
+    /**
+     * Historial alternando suscripciones y cancelaciones, ordenado por fecha
+     * @param idCliente ID del cliente
+     * @param transacciones Número de transacciones
+     */
+    public static List<Transaccion> historial(String idCliente, int transacciones) {
+        List<Transaccion> historial = new ArrayList<>(transacciones);
+        for (int i = 0; i < transacciones; i++) {
+            historial.add(new Transaccion(
+                    "TX-" + idCliente + "-" + i,
+                    idCliente,
+                    i % 2 == 0 ? Constants.TIPO_TRANSACCION_SUSCRIPCION : Constants.TIPO_TRANSACCION_CANCELACION,
+                    "FPV_BTG_PACTUAL_RECAUDADORA",
+                    Monto.deCentavos(7_500_000L + i),
+                    FECHA_BASE.plusMinutes(i)));
+        }
+        return historial;
+    }
+}
@@ -0,0 +1,38 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada del jar de benchmarks
+ * Acepta las mismas opciones que org.openjdk.jmh.Main; si no se indica formato de resultados,
+ * los guarda en JSON en jmh-result.json para comparar entre versiones
+ */
+public final class EjecutarBenchmarks {
+
+    static final String RESULTADO_POR_DEFECTO = "jmh-result.json";
+
+    private EjecutarBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions opciones = new CommandLineOptions(args);
+        if (opciones.shouldHelp() || opciones.shouldList() || opciones.shouldListWithParams()
+                || opciones.shouldListProfilers() || opciones.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(opciones);
+        if (!opciones.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!opciones.getResult().hasValue()) {
+            builder.result(RESULTADO_POR_DEFECTO);
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.FragmentoEstadisticaFondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.repository.ClienteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.repository.EstadisticaFondoRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Contadores por fondo en memoria; cada fragmento se actualiza de forma atómica como lo haría un $inc en el servidor
+ */
+public class EstadisticaFondoRepositoryEnMemoria extends RepositorioEnMemoria<FragmentoEstadisticaFondo>
+        implements EstadisticaFondoRepository {
+
+    private final ClienteRepository clienteRepository;
+
+    public EstadisticaFondoRepositoryEnMemoria(ClienteRepository clienteRepository) {
+        this.clienteRepository = clienteRepository;
+    }
+
+    @Override
+    protected String id(FragmentoEstadisticaFondo fragmento) {
+        return fragmento.getId();
+    }
+
+    @Override
+    public List<FragmentoEstadisticaFondo> findByIdFondo(String idFondo) {
+        return documentos.values().stream()
+                .filter(fragmento -> fragmento.getIdFondo().equals(idFondo))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void acumular(Collection<FragmentoEstadisticaFondo> incrementos) {
+        incrementos.forEach(incremento -> documentos.merge(incremento.getId(), incremento,
+                EstadisticaFondoRepositoryEnMemoria::sumar));
+    }
+
+    @Override
+    public synchronized void compactar(FragmentoEstadisticaFondo fragmento) {
+        acumular(Arrays.asList(
+                FragmentoEstadisticaFondo.incremento(fragmento.getIdFondo(), 0,
+                        fragmento.getMontoAdministrado(), fragmento.getSuscriptores()),
+                FragmentoEstadisticaFondo.incremento(fragmento.getIdFondo(), fragmento.getFragmento(),
+                        fragmento.getMontoAdministrado().negar(), -fragmento.getSuscriptores())));
+        documentos.computeIfPresent(fragmento.getId(), (id, actual) ->
+                Monto.CERO.equals(actual.getMontoAdministrado()) && actual.getSuscriptores() == 0L ? null : actual);
+    }
+
+    @Override
+    public synchronized void reemplazar(String idFondo, Monto montoAdministrado, long suscriptores) {
+        documentos.values().removeIf(fragmento -> fragmento.getIdFondo().equals(idFondo));
+        FragmentoEstadisticaFondo consolidado = FragmentoEstadisticaFondo.incremento(idFondo, 0, montoAdministrado, suscriptores);
+        documentos.put(consolidado.getId(), consolidado);
+    }
+
+    @Override
+    public List<FragmentoEstadisticaFondo> calcularDesdeClientes() {
+        Map<String, FragmentoEstadisticaFondo> totales = new LinkedHashMap<>();
+        for (Cliente cliente : clienteRepository.findAll()) {
+            for (FondoActivo fondoActivo : cliente.getFondosActivos()) {
+                totales.merge(fondoActivo.getIdFondo(),
+                        FragmentoEstadisticaFondo.incremento(fondoActivo.getIdFondo(), 0, fondoActivo.getMonto(), 1),
+                        EstadisticaFondoRepositoryEnMemoria::sumar);
+            }
+        }
+        return new ArrayList<>(totales.values());
+    }
+
+    private static FragmentoEstadisticaFondo sumar(FragmentoEstadisticaFondo a, FragmentoEstadisticaFondo b) {
+        return FragmentoEstadisticaFondo.incremento(a.getIdFondo(), a.getFragmento(),
+                a.getMontoAdministrado().sumar(b.getMontoAdministrado()), a.getSuscriptores() + b.getSuscriptores());
+    }
+}
@@ -0,0 +1,15 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.repository.FondoRepository;
+
+/**
+ * Catálogo de fondos en memoria
+ */
+public class FondoRepositoryEnMemoria extends RepositorioEnMemoria<Fondo> implements FondoRepository {
+
+    @Override
+    protected String id(Fondo fondo) {
+        return fondo.getId();
+    }
+}
@@ -0,0 +1,117 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON frente a CBOR y Smile para la respuesta del historial: serialización, lectura y tamaño
+ * Los mapeadores se configuran como los de FormatosBinariosConfig (fechas en texto ISO, como el JSON de Spring Boot)
+ * El tamaño se publica como contadores auxiliares de serializarHistorial: bytes / respuestas es el tamaño de cada respuesta
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatosRespuestaBenchmark {
+
+    private static final TypeReference<ApiResponse<List<Transaccion>>> TIPO_HISTORIAL =
+            new TypeReference<ApiResponse<List<Transaccion>>>() { };
+
+    @State(Scope.Benchmark)
+    public static class RespuestaHistorial {
+
+        @Param({"json", "cbor", "smile"})
+        public String formato;
+
+        @Param({"10", "1000", "10000"})
+        public int historial;
+
+        ObjectMapper objectMapper;
+        ApiResponse<List<Transaccion>> respuesta;
+        byte[] serializada;
+
+        @Setup
+        public void preparar() throws IOException {
+            objectMapper = mapeador(formato);
+            respuesta = ApiResponse.success("Historial obtenido exitosamente",
+                    DatosBenchmark.historial("CLIENTE-1", historial));
+            serializada = objectMapper.writeValueAsBytes(respuesta);
+        }
+    }
+
+    /**
+     * Bytes escritos y respuestas serializadas en cada iteración, en la salida de JMH junto al tiempo
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamano {
+
+        public long bytes;
+        public long respuestas;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            bytes = 0;
+            respuestas = 0;
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarHistorial(RespuestaHistorial estado, Tamano tamano) throws IOException {
+        byte[] serializada = estado.objectMapper.writeValueAsBytes(estado.respuesta);
+        tamano.bytes += serializada.length;
+        tamano.respuestas++;
+        return serializada;
+    }
+
+    @Benchmark
+    public ApiResponse<List<Transaccion>> leerHistorial(RespuestaHistorial estado) throws IOException {
+        return estado.objectMapper.readValue(estado.serializada, TIPO_HISTORIAL);
+    }
+
+    static ObjectMapper mapeador(String formato) {
+        JsonFactory factory;
+        switch (formato) {
+            case "json":
+                factory = new JsonFactory();
+                break;
+            case "cbor":
+                factory = new CBORFactory();
+                break;
+            case "smile":
+                factory = new SmileFactory();
+                break;
+            default:
+                throw new IllegalArgumentException("Formato no soportado: " + formato);
+        }
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .factory(factory)
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Repositorio en memoria para los benchmarks, sin MongoDB
+ * Implementa las operaciones CRUD por ID; las consultas por ejemplo, orden o página no se usan en los servicios medidos
+ * @param <T> Tipo del documento
+ */
+public abstract class RepositorioEnMemoria<T> implements MongoRepository<T, String> {
+
+    protected final Map<String, T> documentos = new ConcurrentHashMap<>();
+
+    /**
+     * @return ID del documento
+     */
+    protected abstract String id(T documento);
+
+    @Override
+    public <S extends T> S save(S entity) {
+        documentos.put(id(entity), entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> guardados = new ArrayList<>();
+        entities.forEach(entity -> guardados.add(save(entity)));
+        return guardados;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        if (documentos.putIfAbsent(id(entity), entity) != null) {
+            throw new IllegalStateException("Documento duplicado: " + id(entity));
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> insertados = new ArrayList<>();
+        entities.forEach(entity -> insertados.add(insert(entity)));
+        return insertados;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(documentos.get(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documentos.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(documentos.values());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        List<T> encontrados = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(encontrados::add));
+        return encontrados;
+    }
+
+    @Override
+    public long count() {
+        return documentos.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        documentos.remove(id);
+    }
+
+    @Override
+    public void delete(T entity) {
+        documentos.remove(id(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(documentos::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        documentos.clear();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        throw noSoportada();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw noSoportada();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw noSoportada();
+    }
+
+    private static UnsupportedOperationException noSoportada() {
+        return new UnsupportedOperationException("No soportada en el repositorio en memoria");
+    }
+}
@@ -0,0 +1,64 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.RespuestaIdempotente;
+import com.btgpactual.fondos.gestionfondosclientes.repository.RespuestaIdempotenteRepository;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claves de idempotencia en memoria con la misma semántica de reserva que RespuestaIdempotenteRepositoryCustomImpl
+ * No expiran: la prueba de carga usa claves nuevas en cada solicitud y vive lo que dura la medición
+ */
+public class RespuestaIdempotenteRepositoryEnMemoria extends RepositorioEnMemoria<RespuestaIdempotente>
+        implements RespuestaIdempotenteRepository {
+
+    @Override
+    protected String id(RespuestaIdempotente respuesta) {
+        return respuesta.getClave();
+    }
+
+    @Override
+    public synchronized boolean reservar(RespuestaIdempotente reserva, LocalDateTime ahora) {
+        RespuestaIdempotente actual = documentos.putIfAbsent(reserva.getClave(), reserva);
+        if (actual == null) {
+            return true;
+        }
+        if (actual.getHuella().equals(reserva.getHuella())
+                && Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO.equals(actual.getEstado())
+                && !actual.getBloqueadaHasta().isAfter(ahora)) {
+            documentos.put(reserva.getClave(), reserva);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void completar(String clave, String propietario, int estadoHttp, String cuerpo) {
+        RespuestaIdempotente actual = documentos.get(clave);
+        if (reservadaPor(actual, propietario)) {
+            RespuestaIdempotente completada = new RespuestaIdempotente();
+            completada.setClave(clave);
+            completada.setHuella(actual.getHuella());
+            completada.setEstado(Constants.ESTADO_IDEMPOTENCIA_COMPLETADA);
+            completada.setPropietario(propietario);
+            completada.setEstadoHttp(estadoHttp);
+            completada.setCuerpo(cuerpo);
+            completada.setFechaCreacion(actual.getFechaCreacion());
+            completada.setExpiraEn(actual.getExpiraEn());
+            documentos.put(clave, completada);
+        }
+    }
+
+    @Override
+    public synchronized void liberar(String clave, String propietario) {
+        if (reservadaPor(documentos.get(clave), propietario)) {
+            documentos.remove(clave);
+        }
+    }
+
+    private static boolean reservadaPor(RespuestaIdempotente respuesta, String propietario) {
+        return respuesta != null && propietario.equals(respuesta.getPropietario())
+                && Constants.ESTADO_IDEMPOTENCIA_EN_PROCESO.equals(respuesta.getEstado());
+    }
+}
@@ -0,0 +1,77 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.dto.ApiResponse;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de las respuestas de la API con el ObjectMapper que configura Spring Boot
+ * El historial ya no va embebido en el cliente: se mide la respuesta del endpoint de historial por separado
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    @State(Scope.Benchmark)
+    public static class RespuestaCliente {
+
+        @Param({"1", "10", "100"})
+        public int fondosActivos;
+
+        ApiResponse<Cliente> respuesta;
+
+        @Setup
+        public void preparar() {
+            respuesta = ApiResponse.success("Suscripción exitosa",
+                    DatosBenchmark.cliente("CLIENTE-1", Monto.dePesos(500000), fondosActivos));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RespuestaHistorial {
+
+        @Param({"10", "1000", "10000"})
+        public int historial;
+
+        ApiResponse<List<Transaccion>> respuesta;
+
+        @Setup
+        public void preparar() {
+            respuesta = ApiResponse.success("Historial obtenido exitosamente",
+                    DatosBenchmark.historial("CLIENTE-1", historial));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarCliente(RespuestaCliente estado) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsBytes(estado.respuesta);
+    }
+
+    @Benchmark
+    public byte[] serializarHistorial(RespuestaHistorial estado) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsBytes(estado.respuesta);
+    }
+}
@@ -0,0 +1,76 @@
+package com.btgpactual.fondos.gestionfondosclientes.benchmark;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.repository.TransaccionRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Transacciones en memoria
+ * El historial se carga al preparar el benchmark; las inserciones solo se cuentan,
+ * para que millones de iteraciones no hagan crecer el heap y distorsionen la medición
+ */
+public class TransaccionRepositoryEnMemoria extends RepositorioEnMemoria<Transaccion> implements TransaccionRepository {
+
+    private final Map<String, List<Transaccion>> historiales = new ConcurrentHashMap<>();
+    private final LongAdder insertadas = new LongAdder();
+
+    /**
+     * Deja cargado el historial de un cliente, ya ordenado por fecha
+     */
+    public void cargarHistorial(String idCliente, List<Transaccion> historial) {
+        historiales.put(idCliente, Collections.unmodifiableList(new ArrayList<>(historial)));
+    }
+
+    public long getInsertadas() {
+        return insertadas.sum();
+    }
+
+    @Override
+    protected String id(Transaccion transaccion) {
+        return transaccion.getIdTransaccion();
+    }
+
+    @Override
+    public <S extends Transaccion> S insert(S entity) {
+        insertadas.increment();
+        return entity;
+    }
+
+    @Override
+    public <S extends Transaccion> List<S> insert(Iterable<S> entities) {
+        List<S> insertados = new ArrayList<>();
+        entities.forEach(entity -> insertados.add(insert(entity)));
+        return insertados;
+    }
+
+    @Override
+    public List<Transaccion> findByIdClienteOrderByFechaAsc(String idCliente) {
+        return new ArrayList<>(historiales.getOrDefault(idCliente, Collections.emptyList()));
+    }
+
+    @Override
+    public List<Transaccion> findByIdClienteOrderByFechaDesc(String idCliente, Pageable pageable) {
+        List<Transaccion> historial = historiales.getOrDefault(idCliente, Collections.emptyList());
+        List<Transaccion> recientes = new ArrayList<>(pageable.getPageSize());
+        for (int i = historial.size() - 1; i >= 0 && recientes.size() < pageable.getPageSize(); i--) {
+            recientes.add(historial.get(i));
+        }
+        return recientes;
+    }
+
+    @Override
+    public Stream<Transaccion> recorrerHistorial(String idCliente, LocalDateTime desde, LocalDateTime hasta) {
+        return historiales.getOrDefault(idCliente, Collections.emptyList()).stream()
+                .filter(t -> desde == null || !t.getFecha().isBefore(desde))
+                .filter(t -> hasta == null || t.getFecha().isBefore(hasta));
+    }
+}
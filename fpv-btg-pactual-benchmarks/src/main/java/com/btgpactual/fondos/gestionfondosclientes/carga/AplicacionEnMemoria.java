@@ -0,0 +1,159 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.ActividadFondoRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.ClienteRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.DatosBenchmark;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.EstadisticaFondoRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.FondoRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.RespuestaIdempotenteRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.TransaccionRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.controller.FondoController;
+import com.btgpactual.fondos.gestionfondosclientes.exception.GlobalExceptionHandler;
+import com.btgpactual.fondos.gestionfondosclientes.service.BloqueoClientes;
+import com.btgpactual.fondos.gestionfondosclientes.service.CacheClientes;
+import com.btgpactual.fondos.gestionfondosclientes.service.CatalogoFondosCache;
+import com.btgpactual.fondos.gestionfondosclientes.service.ConcurrenciaOptimistaService;
+import com.btgpactual.fondos.gestionfondosclientes.service.EstadisticasFondosService;
+import com.btgpactual.fondos.gestionfondosclientes.service.ExportacionHistorialService;
+import com.btgpactual.fondos.gestionfondosclientes.service.FondoService;
+import com.btgpactual.fondos.gestionfondosclientes.service.GeneradorIdOrdenado;
+import com.btgpactual.fondos.gestionfondosclientes.service.IdempotenciaService;
+import com.btgpactual.fondos.gestionfondosclientes.service.LimitadorSolicitudes;
+import com.btgpactual.fondos.gestionfondosclientes.service.MetricasFondos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * La API real (controlador, validación, manejo de errores y FondoService) sobre repositorios en memoria
+ * No levanta MongoDB, la bandeja de salida ni las migraciones: solo el camino de suscripción y cancelación
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        MongoAutoConfiguration.class,
+        MongoDataAutoConfiguration.class,
+        MongoRepositoriesAutoConfiguration.class})
+@Import({FondoController.class, GlobalExceptionHandler.class})
+public class AplicacionEnMemoria {
+
+    /**
+     * Arranca la aplicación en un puerto libre
+     * @return Contexto de la aplicación; el puerto queda en local.server.port
+     */
+    public static ConfigurableApplicationContext iniciar() {
+        return new SpringApplicationBuilder(AplicacionEnMemoria.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "server.tomcat.threads.max=400",
+                        // El controlador registra cada rechazo como error; en carga solo interesa el resumen
+                        "logging.level.com.btgpactual.fondos.gestionfondosclientes=OFF")
+                .run();
+    }
+
+    @Bean
+    public ClienteRepositoryEnMemoria clienteRepository() {
+        return new ClienteRepositoryEnMemoria();
+    }
+
+    @Bean
+    public FondoRepositoryEnMemoria fondoRepository() {
+        FondoRepositoryEnMemoria fondoRepository = new FondoRepositoryEnMemoria();
+        fondoRepository.saveAll(DatosBenchmark.fondos());
+        return fondoRepository;
+    }
+
+    @Bean
+    public TransaccionRepositoryEnMemoria transaccionRepository() {
+        return new TransaccionRepositoryEnMemoria();
+    }
+
+    @Bean
+    public BloqueoClientes bloqueoClientes(@Value("${fondos.bloqueo.franjas:256}") int franjas,
+                                           @Value("${fondos.bloqueo.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        return new BloqueoClientes(franjas, esperaMaximaMs);
+    }
+
+    @Bean
+    public CatalogoFondosCache catalogoFondosCache(FondoRepositoryEnMemoria fondoRepository, ObjectMapper objectMapper) {
+        return new CatalogoFondosCache(fondoRepository, objectMapper);
+    }
+
+    @Bean
+    public MetricasFondos metricasFondos(MeterRegistry meterRegistry) {
+        return new MetricasFondos(meterRegistry);
+    }
+
+    @Bean
+    public FondoService fondoService(ClienteRepositoryEnMemoria clienteRepository, FondoRepositoryEnMemoria fondoRepository,
+                                     TransaccionRepositoryEnMemoria transaccionRepository, BloqueoClientes bloqueoClientes,
+                                     CatalogoFondosCache catalogoFondosCache, MetricasFondos metricasFondos,
+                                     EstadisticasFondosService estadisticasFondosService,
+                                     CacheClientes cacheClientes,
+                                     ConcurrenciaOptimistaService concurrenciaOptimista) {
+        return new FondoService(clienteRepository, fondoRepository, transaccionRepository,
+                bloqueoClientes, catalogoFondosCache, metricasFondos, new GeneradorIdOrdenado(0),
+                estadisticasFondosService, cacheClientes, concurrenciaOptimista);
+    }
+
+    @Bean
+    public ConcurrenciaOptimistaService concurrenciaOptimistaService(
+            MeterRegistry meterRegistry,
+            @Value("${fondos.concurrencia-optimista.max-intentos:3}") int maxIntentos,
+            @Value("${fondos.concurrencia-optimista.espera-inicial-ms:10}") long esperaInicialMs,
+            @Value("${fondos.concurrencia-optimista.espera-maxima-ms:200}") long esperaMaximaMs) {
+        return new ConcurrenciaOptimistaService(meterRegistry, maxIntentos, esperaInicialMs, esperaMaximaMs);
+    }
+
+    @Bean
+    public CacheClientes cacheClientes(ClienteRepositoryEnMemoria clienteRepository, MetricasFondos metricasFondos,
+                                       @Value("${fondos.cache-clientes.habilitada:true}") boolean habilitada,
+                                       @Value("${fondos.cache-clientes.peso-maximo:200000}") long pesoMaximo,
+                                       @Value("${fondos.cache-clientes.frescura-ms:0}") long frescuraMs) {
+        return new CacheClientes(clienteRepository, metricasFondos, habilitada, pesoMaximo, frescuraMs);
+    }
+
+    @Bean
+    public EstadisticasFondosService estadisticasFondosService(ClienteRepositoryEnMemoria clienteRepository,
+                                                               CatalogoFondosCache catalogoFondosCache,
+                                                               @Value("${fondos.estadisticas.fragmentos:16}") int fragmentos) {
+        return new EstadisticasFondosService(new EstadisticaFondoRepositoryEnMemoria(clienteRepository),
+                new ActividadFondoRepositoryEnMemoria(), catalogoFondosCache, fragmentos, 7, 90);
+    }
+
+    @Bean
+    public ExportacionHistorialService exportacionHistorialService(TransaccionRepositoryEnMemoria transaccionRepository,
+                                                                   ObjectMapper objectMapper) {
+        return new ExportacionHistorialService(transaccionRepository, objectMapper);
+    }
+
+    @Bean
+    public RespuestaIdempotenteRepositoryEnMemoria respuestaIdempotenteRepository() {
+        return new RespuestaIdempotenteRepositoryEnMemoria();
+    }
+
+    @Bean
+    public IdempotenciaService idempotenciaService(RespuestaIdempotenteRepositoryEnMemoria respuestaRepository,
+                                                   ObjectMapper objectMapper, MetricasFondos metricasFondos) {
+        return new IdempotenciaService(respuestaRepository, objectMapper, metricasFondos, 24, 30000, 5000, 50);
+    }
+
+    /**
+     * Las pruebas de carga repiten operaciones sobre pocos clientes: el límite por cliente se desactiva
+     * salvo que se pida con -Dfondos.limite.habilitado=true
+     */
+    @Bean
+    public LimitadorSolicitudes limitadorSolicitudes(@Value("${fondos.limite.habilitado:false}") boolean habilitado,
+                                                     MetricasFondos metricasFondos) {
+        return new LimitadorSolicitudes(habilitado, 30, 5, 30, 5, 100000, metricasFondos);
+    }
+}
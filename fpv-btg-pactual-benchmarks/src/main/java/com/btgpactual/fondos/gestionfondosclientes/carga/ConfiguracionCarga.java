@@ -0,0 +1,115 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opciones de la prueba de carga, leídas de argumentos --clave=valor
+ */
+public final class ConfiguracionCarga {
+
+    private final String url;
+    private final String mongoUri;
+    private final String baseDatos;
+    private final int hilos;
+    private final int clientes;
+    private final double tasa;
+    private final double proporcionSuscripciones;
+    private final int calentamientoSegundos;
+    private final int duracionSegundos;
+    private final long saldoInicial;
+
+    private ConfiguracionCarga(Map<String, String> opciones) {
+        this.url = opciones.get("url");
+        this.mongoUri = opciones.get("mongo-uri");
+        this.baseDatos = opciones.getOrDefault("base-datos", "fpv_btg_pactual");
+        this.hilos = Integer.parseInt(opciones.getOrDefault("hilos", "32"));
+        this.clientes = Integer.parseInt(opciones.getOrDefault("clientes", "50"));
+        this.tasa = Double.parseDouble(opciones.getOrDefault("tasa", "0"));
+        this.proporcionSuscripciones = Double.parseDouble(opciones.getOrDefault("suscripciones", "0.5"));
+        this.calentamientoSegundos = Integer.parseInt(opciones.getOrDefault("calentamiento", "5"));
+        this.duracionSegundos = Integer.parseInt(opciones.getOrDefault("duracion", "30"));
+        this.saldoInicial = Long.parseLong(opciones.getOrDefault("saldo-inicial", "500000"));
+        if (hilos < 1 || clientes < 1 || tasa < 0 || duracionSegundos < 1
+                || proporcionSuscripciones < 0 || proporcionSuscripciones > 1) {
+            throw new IllegalArgumentException("Opciones de carga inválidas: " + opciones);
+        }
+    }
+
+    /**
+     * @param args Argumentos con la forma --clave=valor
+     */
+    public static ConfiguracionCarga desdeArgumentos(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (se espera --clave=valor)");
+            }
+            int separador = arg.indexOf('=');
+            opciones.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+        return new ConfiguracionCarga(opciones);
+    }
+
+    /**
+     * URL base de una instancia en ejecución; si es nula se levanta la aplicación con persistencia en memoria
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * URI de MongoDB para verificar invariantes contra una instancia externa
+     */
+    public String getMongoUri() {
+        return mongoUri;
+    }
+
+    public String getBaseDatos() {
+        return baseDatos;
+    }
+
+    public int getHilos() {
+        return hilos;
+    }
+
+    public int getClientes() {
+        return clientes;
+    }
+
+    /**
+     * Peticiones por segundo en total; 0 para lazo cerrado (cada hilo envía la siguiente al recibir respuesta)
+     */
+    public double getTasa() {
+        return tasa;
+    }
+
+    /**
+     * Fracción de las operaciones que son suscripciones; el resto son cancelaciones
+     */
+    public double getProporcionSuscripciones() {
+        return proporcionSuscripciones;
+    }
+
+    public int getCalentamientoSegundos() {
+        return calentamientoSegundos;
+    }
+
+    public int getDuracionSegundos() {
+        return duracionSegundos;
+    }
+
+    /**
+     * Saldo con el que la aplicación crea a los clientes nuevos, en pesos
+     */
+    public long getSaldoInicial() {
+        return saldoInicial;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("url=%s, hilos=%d, clientes=%d, tasa=%s, suscripciones=%.2f, calentamiento=%ds, duracion=%ds",
+                url == null ? "(en memoria)" : url, hilos, clientes, tasa == 0 ? "lazo cerrado" : tasa + "/s",
+                proporcionSuscripciones, calentamientoSegundos, duracionSegundos);
+    }
+}
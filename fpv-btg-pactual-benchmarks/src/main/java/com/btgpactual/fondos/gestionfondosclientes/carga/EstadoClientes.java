@@ -0,0 +1,22 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lectura del estado final de los clientes para verificar los invariantes tras la carga
+ */
+public interface EstadoClientes extends AutoCloseable {
+
+    /**
+     * @param idsCliente IDs de los clientes usados en la prueba
+     * @return Clientes que existen, con su saldo y fondos activos
+     */
+    List<Cliente> leer(Collection<String> idsCliente);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,24 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.ClienteRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estado de los clientes en la aplicación con persistencia en memoria
+ */
+public class EstadoClientesEnMemoria implements EstadoClientes {
+
+    private final ClienteRepositoryEnMemoria clienteRepository;
+
+    public EstadoClientesEnMemoria(ClienteRepositoryEnMemoria clienteRepository) {
+        this.clienteRepository = clienteRepository;
+    }
+
+    @Override
+    public List<Cliente> leer(Collection<String> idsCliente) {
+        return clienteRepository.findAllById(idsCliente);
+    }
+}
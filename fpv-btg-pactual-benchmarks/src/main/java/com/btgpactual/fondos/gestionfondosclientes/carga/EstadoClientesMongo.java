@@ -0,0 +1,60 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estado de los clientes leído directamente de la colección "clientes" de una instancia externa
+ */
+public class EstadoClientesMongo implements EstadoClientes {
+
+    private final MongoClient mongoClient;
+    private final MongoCollection<Document> clientes;
+
+    public EstadoClientesMongo(String uri, String baseDatos) {
+        this.mongoClient = MongoClients.create(uri);
+        this.clientes = mongoClient.getDatabase(baseDatos).getCollection("clientes");
+    }
+
+    @Override
+    public List<Cliente> leer(Collection<String> idsCliente) {
+        List<Cliente> leidos = new ArrayList<>();
+        for (Document documento : clientes.find(Filters.in("_id", idsCliente))) {
+            Cliente cliente = new Cliente();
+            cliente.setId(documento.getString("_id"));
+            cliente.setSaldo(monto(documento.get("saldo")));
+            List<FondoActivo> fondosActivos = new ArrayList<>();
+            for (Document fondo : documento.getList("fondosActivos", Document.class, new ArrayList<>())) {
+                String idFondo = fondo.containsKey("idFondo") ? fondo.getString("idFondo") : fondo.getString("_id");
+                fondosActivos.add(new FondoActivo(idFondo, fondo.getString("nombre"), monto(fondo.get("monto")), null));
+            }
+            cliente.setFondosActivos(fondosActivos);
+            leidos.add(cliente);
+        }
+        return leidos;
+    }
+
+    private static Monto monto(Object valor) {
+        if (valor instanceof Decimal128) {
+            return Monto.redondeado(((Decimal128) valor).bigDecimalValue());
+        }
+        return Monto.redondeado(new BigDecimal(String.valueOf(valor)));
+    }
+
+    @Override
+    public void close() {
+        mongoClient.close();
+    }
+}
@@ -0,0 +1,130 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Envía suscripciones y cancelaciones desde varios hilos sobre un conjunto reducido de clientes,
+ * para que las operaciones de un mismo cliente compitan entre sí
+ * Con tasa fija cada hilo tiene sus instantes programados y la latencia se mide desde el instante
+ * programado, no desde el envío: si el servidor se atrasa, la espera acumulada cuenta (sin omisión coordinada)
+ */
+public class GeneradorCarga {
+
+    private final ConfiguracionCarga configuracion;
+    private final String url;
+    private final List<String> idsCliente;
+    private final List<Fondo> fondos;
+    private final HttpClient httpClient;
+    private final ResultadosCarga suscripciones = new ResultadosCarga("suscripcion");
+    private final ResultadosCarga cancelaciones = new ResultadosCarga("cancelacion");
+
+    public GeneradorCarga(ConfiguracionCarga configuracion, String url, List<String> idsCliente, List<Fondo> fondos) {
+        this.configuracion = configuracion;
+        this.url = url;
+        this.idsCliente = idsCliente;
+        this.fondos = fondos;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Ejecuta el calentamiento y la medición; bloquea hasta que terminan todos los hilos
+     */
+    public void ejecutar() throws InterruptedException {
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + TimeUnit.SECONDS.toNanos(configuracion.getCalentamientoSegundos());
+        long fin = inicioMedicion + TimeUnit.SECONDS.toNanos(configuracion.getDuracionSegundos());
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < configuracion.getHilos(); i++) {
+            int indice = i;
+            Thread hilo = new Thread(() -> trabajar(indice, inicio, inicioMedicion, fin), "carga-" + i);
+            hilo.start();
+            hilos.add(hilo);
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+    }
+
+    private void trabajar(int indice, long inicio, long inicioMedicion, long fin) {
+        double tasa = configuracion.getTasa();
+        long intervalo = tasa > 0 ? (long) (TimeUnit.SECONDS.toNanos(configuracion.getHilos()) / tasa) : 0L;
+        long programada = inicio + (tasa > 0 ? (long) (TimeUnit.SECONDS.toNanos(indice) / tasa) : 0L);
+
+        while (true) {
+            if (tasa > 0) {
+                long espera = programada - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+            } else {
+                programada = System.nanoTime();
+            }
+            if (programada >= fin) {
+                return;
+            }
+
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            String idCliente = idsCliente.get(aleatorio.nextInt(idsCliente.size()));
+            Fondo fondo = fondos.get(aleatorio.nextInt(fondos.size()));
+            boolean suscripcion = aleatorio.nextDouble() < configuracion.getProporcionSuscripciones();
+            int estado = suscripcion ? suscribir(idCliente, fondo) : cancelar(idCliente, fondo);
+
+            if (programada >= inicioMedicion) {
+                (suscripcion ? suscripciones : cancelaciones).registrar(estado, System.nanoTime() - programada);
+            }
+            programada += intervalo;
+        }
+    }
+
+    private int suscribir(String idCliente, Fondo fondo) {
+        String cuerpo = String.format(Locale.ROOT,
+                "{\"idFondo\":\"%s\",\"monto\":%s,\"preferenciaNotificacion\":\"SMS\",\"contacto\":\"3000000000\"}",
+                fondo.getId(), fondo.getMontoMinimo().toBigDecimal().toPlainString());
+        return enviar("/api/btg/fondos/clientes/" + idCliente + "/suscribirse", cuerpo);
+    }
+
+    private int cancelar(String idCliente, Fondo fondo) {
+        return enviar("/api/btg/fondos/clientes/" + idCliente + "/cancelar",
+                String.format("{\"idFondo\":\"%s\"}", fondo.getId()));
+    }
+
+    private int enviar(String ruta, String cuerpo) {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url + ruta))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        try {
+            return httpClient.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResultadosCarga.SIN_RESPUESTA;
+        } catch (Exception e) {
+            return ResultadosCarga.SIN_RESPUESTA;
+        }
+    }
+
+    public ResultadosCarga getSuscripciones() {
+        return suscripciones;
+    }
+
+    public ResultadosCarga getCancelaciones() {
+        return cancelaciones;
+    }
+}
@@ -0,0 +1,105 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.ClienteRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prueba de carga de suscripciones y cancelaciones con verificación de invariantes
+ * Sin --url levanta la API con persistencia en memoria; con --url usa una instancia en ejecución
+ * y, si se indica --mongo-uri, verifica los invariantes leyendo su base de datos
+ * Termina con código 1 si algún cliente quedó inconsistente
+ */
+public final class PruebaCarga {
+
+    private static final String RUTA_FONDOS = "/api/btg/fondos";
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+        ConfigurableApplicationContext contexto = null;
+        EstadoClientes estado = null;
+        List<String> violaciones = new ArrayList<>();
+        String url = configuracion.getUrl();
+        try {
+            if (url == null) {
+                contexto = AplicacionEnMemoria.iniciar();
+                url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+                estado = new EstadoClientesEnMemoria(contexto.getBean(ClienteRepositoryEnMemoria.class));
+            } else if (configuracion.getMongoUri() != null) {
+                estado = new EstadoClientesMongo(configuracion.getMongoUri(), configuracion.getBaseDatos());
+            }
+
+            System.out.println("Prueba de carga: " + configuracion);
+            List<String> idsCliente = idsCliente(configuracion.getClientes());
+            GeneradorCarga generador = new GeneradorCarga(configuracion, url, idsCliente, obtenerFondos(url));
+            generador.ejecutar();
+
+            double segundos = configuracion.getDuracionSegundos();
+            generador.getSuscripciones().imprimir(System.out, segundos);
+            generador.getCancelaciones().imprimir(System.out, segundos);
+            System.out.printf("%-12s %10.1f ops/s%n", "total",
+                    (generador.getSuscripciones().getTotal() + generador.getCancelaciones().getTotal()) / segundos);
+
+            if (estado == null) {
+                System.out.println("Invariantes no verificados: indique --mongo-uri para leer el estado de la instancia");
+                return;
+            }
+            List<Cliente> clientes = estado.leer(idsCliente);
+            violaciones = VerificacionInvariantes.verificar(clientes,
+                    Monto.dePesos(configuracion.getSaldoInicial()));
+            System.out.printf("Invariantes: %d clientes verificados, %d violaciones%n", clientes.size(), violaciones.size());
+            violaciones.forEach(violacion -> System.out.println("  " + violacion));
+        } finally {
+            if (estado != null) {
+                estado.close();
+            }
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+        if (!violaciones.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * IDs únicos por ejecución, para que cada prueba empiece con clientes nuevos
+     */
+    private static List<String> idsCliente(int cantidad) {
+        String ejecucion = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+        List<String> ids = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids.add("CARGA-" + ejecucion + "-" + i);
+        }
+        return ids;
+    }
+
+    private static List<Fondo> obtenerFondos(String url) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(url + RUTA_FONDOS)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("No se pudo obtener el catálogo de fondos: HTTP " + respuesta.statusCode());
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        JsonNode datos = objectMapper.readTree(respuesta.body()).get("data");
+        return objectMapper.convertValue(datos, new TypeReference<List<Fondo>>() { });
+    }
+}
@@ -0,0 +1,63 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (HdrHistogram, en microsegundos) y respuestas por código HTTP de una operación
+ */
+public class ResultadosCarga {
+
+    /** Código con el que se registran las peticiones que no obtuvieron respuesta */
+    static final int SIN_RESPUESTA = 0;
+
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final String operacion;
+    private final Histogram latencias = new ConcurrentHistogram(LATENCIA_MAXIMA_US, 3);
+    private final ConcurrentMap<Integer, LongAdder> porEstado = new ConcurrentHashMap<>();
+
+    public ResultadosCarga(String operacion) {
+        this.operacion = operacion;
+    }
+
+    /**
+     * @param estado Código HTTP de la respuesta, o {@link #SIN_RESPUESTA}
+     * @param latenciaNanos Tiempo desde el instante programado hasta la respuesta
+     */
+    public void registrar(int estado, long latenciaNanos) {
+        latencias.recordValue(Math.min(LATENCIA_MAXIMA_US, TimeUnit.NANOSECONDS.toMicros(latenciaNanos)));
+        porEstado.computeIfAbsent(estado, e -> new LongAdder()).increment();
+    }
+
+    public long getTotal() {
+        return latencias.getTotalCount();
+    }
+
+    /**
+     * Escribe el resumen de la operación
+     * @param salida Destino del resumen
+     * @param segundos Duración de la medición
+     */
+    public void imprimir(PrintStream salida, double segundos) {
+        Map<Integer, Long> estados = new TreeMap<>();
+        porEstado.forEach((estado, cantidad) -> estados.put(estado, cantidad.sum()));
+        salida.printf("%-12s %10d ops %10.1f ops/s  p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms  %s%n",
+                operacion, getTotal(), getTotal() / segundos,
+                ms(latencias.getValueAtPercentile(50)), ms(latencias.getValueAtPercentile(90)),
+                ms(latencias.getValueAtPercentile(99)), ms(latencias.getValueAtPercentile(99.9)),
+                ms(latencias.getMaxValue()), estados);
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.btgpactual.fondos.gestionfondosclientes.carga;
+
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Invariantes del libro de cada cliente tras la carga
+ * - saldo + suma de los montos de sus fondos activos = saldo inicial (no se crea ni se pierde dinero)
+ * - el saldo nunca es negativo
+ * - no hay dos suscripciones activas al mismo fondo
+ */
+public final class VerificacionInvariantes {
+
+    private VerificacionInvariantes() {
+    }
+
+    /**
+     * @param clientes Estado final de los clientes
+     * @param saldoInicial Saldo con el que se creó cada cliente
+     * @return Descripción de cada violación; vacía si todo cuadra
+     */
+    public static List<String> verificar(List<Cliente> clientes, Monto saldoInicial) {
+        List<String> violaciones = new ArrayList<>();
+        for (Cliente cliente : clientes) {
+            long invertido = 0L;
+            Set<String> fondos = new HashSet<>();
+            for (FondoActivo fondoActivo : cliente.getFondosActivos()) {
+                invertido = Monto.sumarCentavos(invertido, fondoActivo.getMonto());
+                if (!fondos.add(fondoActivo.getIdFondo())) {
+                    violaciones.add(String.format("%s: suscripción duplicada al fondo %s",
+                            cliente.getId(), fondoActivo.getIdFondo()));
+                }
+            }
+            long total = Monto.sumarCentavos(invertido, cliente.getSaldo());
+            if (total != saldoInicial.getCentavos()) {
+                violaciones.add(String.format("%s: saldo %s + invertido %s = %s, se esperaba %s",
+                        cliente.getId(), cliente.getSaldo(), Monto.deCentavos(invertido), Monto.deCentavos(total),
+                        saldoInicial));
+            }
+            if (cliente.getSaldo().esMenorQue(Monto.CERO)) {
+                violaciones.add(String.format("%s: saldo negativo %s", cliente.getId(), cliente.getSaldo()));
+            }
+        }
+        return violaciones;
+    }
+}
@@ -0,0 +1,150 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.ActividadFondoRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.ClienteRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.DatosBenchmark;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.EstadisticaFondoRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.FondoRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.TransaccionRepositoryEnMemoria;
+import com.btgpactual.fondos.gestionfondosclientes.dto.CancelacionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.dto.ResumenCliente;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.FondoActivo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import com.btgpactual.fondos.gestionfondosclientes.model.Transaccion;
+import com.btgpactual.fondos.gestionfondosclientes.util.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lógica de FondoService sobre repositorios en memoria: candados por cliente, catálogo, validaciones,
+ * actualización condicionada y métricas, sin el costo de red de MongoDB
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FondoServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Servicio {
+
+        final ClienteRepositoryEnMemoria clienteRepository = new ClienteRepositoryEnMemoria();
+        final TransaccionRepositoryEnMemoria transaccionRepository = new TransaccionRepositoryEnMemoria();
+        FondoService fondoService;
+
+        @Setup
+        public void preparar() {
+            FondoRepositoryEnMemoria fondoRepository = new FondoRepositoryEnMemoria();
+            fondoRepository.saveAll(DatosBenchmark.fondos());
+            CatalogoFondosCache catalogoFondosCache =
+                    new CatalogoFondosCache(fondoRepository, Jackson2ObjectMapperBuilder.json().build());
+            MetricasFondos metricasFondos = new MetricasFondos(new SimpleMeterRegistry());
+            fondoService = new FondoService(
+                    clienteRepository,
+                    fondoRepository,
+                    transaccionRepository,
+                    new BloqueoClientes(256, 2000),
+                    catalogoFondosCache,
+                    metricasFondos,
+                    new GeneradorIdOrdenado(0),
+                    new EstadisticasFondosService(new EstadisticaFondoRepositoryEnMemoria(clienteRepository),
+                            new ActividadFondoRepositoryEnMemoria(), catalogoFondosCache, 16, 7, 90),
+                    new CacheClientes(clienteRepository, metricasFondos, true, 200000, 1000),
+                    new ConcurrenciaOptimistaService(new SimpleMeterRegistry(), 3, 10, 200));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Clientes {
+
+        @Param({"0", "10", "100"})
+        public int fondosActivos;
+
+        String idCliente;
+        String idClienteSuscrito;
+        SuscripcionRequest suscripcion;
+        CancelacionRequest cancelacion;
+
+        @Setup
+        public void preparar(Servicio servicio) {
+            idCliente = "CLIENTE-" + fondosActivos;
+            idClienteSuscrito = "SUSCRITO-" + fondosActivos;
+            servicio.clienteRepository.save(DatosBenchmark.cliente(idCliente, Monto.dePesos(500000), fondosActivos));
+
+            // Ya suscrito al fondo, que queda de último para que la validación recorra toda la lista
+            Cliente suscrito = DatosBenchmark.cliente(idClienteSuscrito, Monto.dePesos(500000), fondosActivos);
+            suscrito.getFondosActivos().add(new FondoActivo(DatosBenchmark.ID_FONDO,
+                    "FPV_BTG_PACTUAL_RECAUDADORA", DatosBenchmark.MONTO_SUSCRIPCION, LocalDateTime.now()));
+            servicio.clienteRepository.save(suscrito);
+
+            suscripcion = new SuscripcionRequest(DatosBenchmark.ID_FONDO, DatosBenchmark.MONTO_SUSCRIPCION,
+                    "EMAIL", "cliente@example.com");
+            cancelacion = new CancelacionRequest(DatosBenchmark.ID_FONDO);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Historial {
+
+        @Param({"10", "1000", "10000"})
+        public int historial;
+
+        String idCliente;
+
+        @Setup
+        public void preparar(Servicio servicio) {
+            idCliente = "HISTORIAL-" + historial;
+            servicio.transaccionRepository.cargarHistorial(idCliente, DatosBenchmark.historial(idCliente, historial));
+        }
+    }
+
+    /**
+     * Suscripción y cancelación del mismo fondo; el cliente vuelve al estado inicial en cada invocación
+     */
+    @Benchmark
+    public void suscribirYCancelar(Servicio servicio, Clientes clientes, Blackhole blackhole) {
+        blackhole.consume(servicio.fondoService.suscribirseAFondo(clientes.idCliente, clientes.suscripcion));
+        blackhole.consume(servicio.fondoService.cancelarSuscripcion(clientes.idCliente, clientes.cancelacion));
+    }
+
+    /**
+     * Suscripción rechazada: la actualización condicionada no aplica y se lee el cliente para explicar el motivo
+     */
+    @Benchmark
+    public Object rechazoPorSuscripcionActiva(Servicio servicio, Clientes clientes) {
+        try {
+            return servicio.fondoService.suscribirseAFondo(clientes.idClienteSuscrito, clientes.suscripcion);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public List<Transaccion> obtenerHistorial(Servicio servicio, Historial historial) {
+        return servicio.fondoService.obtenerHistorialTransacciones(historial.idCliente);
+    }
+
+    @Benchmark
+    public ResumenCliente obtenerResumen(Servicio servicio, Historial historial) {
+        return servicio.fondoService.obtenerResumen(historial.idCliente, Constants.ULTIMAS_TRANSACCIONES_POR_DEFECTO);
+    }
+}
@@ -0,0 +1,41 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de generar el ID de una transacción con varios hilos a la vez
+ * Ejecutar con -prof gc para comparar también los bytes asignados por operación
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class GeneradorIdBenchmark {
+
+    private final GeneradorIdOrdenado generador = new GeneradorIdOrdenado(0);
+
+    @Benchmark
+    public String uuidAleatorio() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String idOrdenado() {
+        return generador.nuevoId();
+    }
+}
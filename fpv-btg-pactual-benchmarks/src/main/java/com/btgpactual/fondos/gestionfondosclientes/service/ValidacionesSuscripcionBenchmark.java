@@ -0,0 +1,57 @@
+package com.btgpactual.fondos.gestionfondosclientes.service;
+
+import com.btgpactual.fondos.gestionfondosclientes.benchmark.DatosBenchmark;
+import com.btgpactual.fondos.gestionfondosclientes.dto.SuscripcionRequest;
+import com.btgpactual.fondos.gestionfondosclientes.model.Cliente;
+import com.btgpactual.fondos.gestionfondosclientes.model.Fondo;
+import com.btgpactual.fondos.gestionfondosclientes.model.Monto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reglas de validación de la suscripción; validarSuscripcion recorre los fondos activos del cliente
+ * Está en el paquete del servicio porque ValidacionesSuscripcion es de paquete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionesSuscripcionBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int fondosActivos;
+
+    private Cliente cliente;
+    private Fondo fondo;
+    private SuscripcionRequest request;
+
+    @Setup
+    public void preparar() {
+        cliente = DatosBenchmark.cliente("CLIENTE-1", Monto.dePesos(500000), fondosActivos);
+        fondo = DatosBenchmark.fondos().get(0);
+        request = new SuscripcionRequest(fondo.getId(), DatosBenchmark.MONTO_SUSCRIPCION, "EMAIL", "cliente@example.com");
+    }
+
+    @Benchmark
+    public void validarMontoMinimo() {
+        ValidacionesSuscripcion.validarMontoMinimo(fondo, request);
+    }
+
+    @Benchmark
+    public void validarSuscripcionNoSuscrito() {
+        ValidacionesSuscripcion.validarSuscripcion(cliente, fondo, request);
+    }
+}